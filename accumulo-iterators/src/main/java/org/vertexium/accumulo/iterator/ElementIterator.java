@@ -144,12 +144,16 @@ public abstract class ElementIterator<T extends ElementData> implements SortedKe
             Text currentRow = loadElement();
             if (currentRow != null) {
                 topKey = new Key(currentRow);
-                topValue = elementData.encode(fetchHints);
+                topValue = encodeElementData();
                 break;
             }
         }
     }
 
+    protected Value encodeElementData() throws IOException {
+        return elementData.encode(fetchHints);
+    }
+
     protected Text loadElement() throws IOException {
         this.elementData.clear();
 
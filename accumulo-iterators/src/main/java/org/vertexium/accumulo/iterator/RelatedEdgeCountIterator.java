@@ -0,0 +1,173 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.RowEncodingIterator;
+import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.VertexiumAccumuloIteratorException;
+import org.vertexium.accumulo.iterator.util.ByteArrayWrapper;
+import org.vertexium.accumulo.iterator.util.DataInputStreamUtils;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Collapses the out edge refs of a vertex row into one count per in vertex and label, so related edge summaries send
+ * counts instead of every edge id. Edges hidden or soft deleted after they were added are not counted. Up to
+ * edgeIdLimit edge ids are kept for each count.
+ */
+public class RelatedEdgeCountIterator extends RowEncodingIterator {
+    private static final String SETTING_EDGE_ID_LIMIT = "edgeIdLimit";
+    private int edgeIdLimit;
+
+    public static void setEdgeIdLimit(IteratorSetting settings, int edgeIdLimit) {
+        settings.addOption(SETTING_EDGE_ID_LIMIT, Integer.toString(edgeIdLimit));
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key, Value> source, Map<String, String> options, IteratorEnvironment env) throws IOException {
+        super.init(source, options, env);
+        String edgeIdLimitString = options.get(SETTING_EDGE_ID_LIMIT);
+        this.edgeIdLimit = edgeIdLimitString == null ? 0 : Integer.parseInt(edgeIdLimitString);
+    }
+
+    @Override
+    public SortedMap<Key, Value> rowDecoder(Key rowKey, Value rowValue) throws IOException {
+        throw new VertexiumAccumuloIteratorException("Not Implemented");
+    }
+
+    @Override
+    public Value rowEncoder(List<Key> keys, List<Value> values) throws IOException {
+        Map<ByteArrayWrapper, Long> edgeAddTimestamps = new HashMap<>();
+        Map<ByteArrayWrapper, Long> edgeHideOrDeleteTimestamps = new HashMap<>();
+        Map<ByteArrayWrapper, EdgeInfo> edgeInfos = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Text columnFamily = key.getColumnFamily();
+            ByteArrayWrapper edgeId = new ByteArrayWrapper(key.getColumnQualifier().copyBytes());
+            if (columnFamily.equals(VertexIterator.CF_OUT_EDGE)) {
+                edgeAddTimestamps.merge(edgeId, key.getTimestamp(), Math::max);
+                edgeInfos.put(edgeId, new EdgeInfo(values.get(i).get(), key.getTimestamp()));
+            } else if (columnFamily.equals(VertexIterator.CF_OUT_EDGE_HIDDEN) || columnFamily.equals(VertexIterator.CF_OUT_EDGE_SOFT_DELETE)) {
+                edgeHideOrDeleteTimestamps.merge(edgeId, key.getTimestamp(), Math::max);
+            }
+        }
+
+        Map<CountKey, Count> counts = new LinkedHashMap<>();
+        for (Map.Entry<ByteArrayWrapper, EdgeInfo> entry : edgeInfos.entrySet()) {
+            Long edgeHideOrDeleteTimestamp = edgeHideOrDeleteTimestamps.get(entry.getKey());
+            if (edgeHideOrDeleteTimestamp != null && edgeAddTimestamps.get(entry.getKey()) <= edgeHideOrDeleteTimestamp) {
+                continue;
+            }
+            EdgeInfo edgeInfo = entry.getValue();
+            CountKey countKey = new CountKey(edgeInfo.getVertexId().getBytes(StandardCharsets.UTF_8), edgeInfo.getLabelBytes());
+            Count count = counts.computeIfAbsent(countKey, k -> new Count(k.inVertexId, k.label));
+            count.count++;
+            if (count.edgeIds.size() < edgeIdLimit) {
+                count.edgeIds.add(entry.getKey().getData());
+            }
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(counts.size());
+        for (Count count : counts.values()) {
+            DataOutputStreamUtils.encodeByteArray(out, count.inVertexId);
+            DataOutputStreamUtils.encodeByteArray(out, count.label);
+            out.writeLong(count.count);
+            out.writeInt(count.edgeIds.size());
+            for (byte[] edgeId : count.edgeIds) {
+                DataOutputStreamUtils.encodeByteArray(out, edgeId);
+            }
+        }
+        return new Value(baos.toByteArray());
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(IteratorEnvironment env) {
+        RelatedEdgeCountIterator iterator = new RelatedEdgeCountIterator();
+        iterator.edgeIdLimit = edgeIdLimit;
+        return iterator;
+    }
+
+    public static List<Count> decodeValue(Value value) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value.get()));
+        try {
+            int countCount = in.readInt();
+            List<Count> counts = new ArrayList<>(countCount);
+            for (int i = 0; i < countCount; i++) {
+                Count count = new Count(DataInputStreamUtils.decodeByteArray(in), DataInputStreamUtils.decodeByteArray(in));
+                count.count = in.readLong();
+                int edgeIdCount = in.readInt();
+                for (int j = 0; j < edgeIdCount; j++) {
+                    count.edgeIds.add(DataInputStreamUtils.decodeByteArray(in));
+                }
+                counts.add(count);
+            }
+            return counts;
+        } catch (IOException ex) {
+            throw new VertexiumAccumuloIteratorException("Could not decode related edge counts", ex);
+        }
+    }
+
+    private static class CountKey {
+        private final byte[] inVertexId;
+        private final byte[] label;
+
+        public CountKey(byte[] inVertexId, byte[] label) {
+            this.inVertexId = inVertexId;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CountKey countKey = (CountKey) o;
+            return Arrays.equals(inVertexId, countKey.inVertexId) && Arrays.equals(label, countKey.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(inVertexId) + Arrays.hashCode(label);
+        }
+    }
+
+    public static class Count {
+        private final byte[] inVertexId;
+        private final byte[] label;
+        private long count;
+        private final List<byte[]> edgeIds = new ArrayList<>();
+
+        public Count(byte[] inVertexId, byte[] label) {
+            this.inVertexId = inVertexId;
+            this.label = label;
+        }
+
+        public byte[] getInVertexId() {
+            return inVertexId;
+        }
+
+        public byte[] getLabel() {
+            return label;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public List<byte[]> getEdgeIds() {
+            return edgeIds;
+        }
+    }
+}
@@ -9,9 +9,12 @@ import org.vertexium.accumulo.iterator.model.EdgeInfo;
 import org.vertexium.accumulo.iterator.model.IteratorFetchHints;
 import org.vertexium.accumulo.iterator.model.SoftDeleteEdgeInfo;
 import org.vertexium.accumulo.iterator.model.VertexElementData;
+import org.vertexium.accumulo.iterator.util.ByteArrayWrapper;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class VertexIterator extends ElementIterator<VertexElementData> {
@@ -43,6 +46,31 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
     public static final Text CF_IN_EDGE_SOFT_DELETE = new Text(CF_IN_EDGE_SOFT_DELETE_STRING);
     public static final byte[] CF_IN_EDGE_SOFT_DELETE_BYTES = CF_IN_EDGE_SOFT_DELETE.getBytes();
 
+    public static final String CF_OUT_EDGE_SUMMARY_STRING = "EOUTS";
+    public static final Text CF_OUT_EDGE_SUMMARY = new Text(CF_OUT_EDGE_SUMMARY_STRING);
+    public static final byte[] CF_OUT_EDGE_SUMMARY_BYTES = CF_OUT_EDGE_SUMMARY.getBytes();
+
+    public static final String CF_IN_EDGE_SUMMARY_STRING = "EINS";
+    public static final Text CF_IN_EDGE_SUMMARY = new Text(CF_IN_EDGE_SUMMARY_STRING);
+    public static final byte[] CF_IN_EDGE_SUMMARY_BYTES = CF_IN_EDGE_SUMMARY.getBytes();
+
+    /**
+     * One cell per hidden edge and hidden visibility, qualified by the edge id, with the visibility of the edge and the
+     * hidden visibility. The value is {@link #EDGE_SUMMARY_HIDDEN_MARKER} followed by the label, or
+     * {@link #EDGE_SUMMARY_DELETED_MARKER} with the visibility of the edge when the edge was deleted. A hidden edge is
+     * subtracted from the edge summary once however many of its hidden cells are visible.
+     */
+    public static final String CF_OUT_EDGE_SUMMARY_HIDDEN_STRING = "EOUTSH";
+    public static final Text CF_OUT_EDGE_SUMMARY_HIDDEN = new Text(CF_OUT_EDGE_SUMMARY_HIDDEN_STRING);
+    public static final byte[] CF_OUT_EDGE_SUMMARY_HIDDEN_BYTES = CF_OUT_EDGE_SUMMARY_HIDDEN.getBytes();
+
+    public static final String CF_IN_EDGE_SUMMARY_HIDDEN_STRING = "EINSH";
+    public static final Text CF_IN_EDGE_SUMMARY_HIDDEN = new Text(CF_IN_EDGE_SUMMARY_HIDDEN_STRING);
+    public static final byte[] CF_IN_EDGE_SUMMARY_HIDDEN_BYTES = CF_IN_EDGE_SUMMARY_HIDDEN.getBytes();
+
+    public static final byte EDGE_SUMMARY_HIDDEN_MARKER = 'H';
+    public static final byte EDGE_SUMMARY_DELETED_MARKER = 'D';
+
     public VertexIterator() {
         this(null);
     }
@@ -60,6 +88,7 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
         Text ret = super.loadElement();
         if (ret != null) {
             removeHiddenAndSoftDeletes();
+            subtractHiddenEdgesFromEdgeLabelCounts();
         }
         return ret;
     }
@@ -69,10 +98,29 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
         boolean ret = super.populateElementData(keys, values);
         if (ret) {
             removeHiddenAndSoftDeletes();
+            subtractHiddenEdgesFromEdgeLabelCounts();
         }
         return ret;
     }
 
+    private void subtractHiddenEdgesFromEdgeLabelCounts() {
+        VertexElementData elementData = getElementData();
+        subtractHiddenEdgesFromEdgeLabelCounts(elementData.outEdgeLabelCounts, elementData.outEdgeSummaryHiddenEdges, elementData.edgeSummaryDeletedEdges);
+        subtractHiddenEdgesFromEdgeLabelCounts(elementData.inEdgeLabelCounts, elementData.inEdgeSummaryHiddenEdges, elementData.edgeSummaryDeletedEdges);
+    }
+
+    private static void subtractHiddenEdgesFromEdgeLabelCounts(
+        Map<ByteArrayWrapper, Long> edgeLabelCounts,
+        Map<Text, ByteArrayWrapper> hiddenEdges,
+        Set<Text> deletedEdges
+    ) {
+        for (Map.Entry<Text, ByteArrayWrapper> hiddenEdge : hiddenEdges.entrySet()) {
+            if (!deletedEdges.contains(hiddenEdge.getKey())) {
+                edgeLabelCounts.merge(hiddenEdge.getValue(), -1L, Long::sum);
+            }
+        }
+    }
+
     private void removeHiddenAndSoftDeletes() {
         if (!getFetchHints().isIncludeHidden()) {
             for (Text edgeId : this.getElementData().hiddenEdges) {
@@ -130,9 +178,45 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
             return true;
         }
 
+        if (keyValue.columnFamilyEquals(CF_OUT_EDGE_SUMMARY_BYTES)) {
+            addEdgeLabelCount(getElementData().outEdgeLabelCounts, keyValue);
+            return true;
+        }
+
+        if (keyValue.columnFamilyEquals(CF_IN_EDGE_SUMMARY_BYTES)) {
+            addEdgeLabelCount(getElementData().inEdgeLabelCounts, keyValue);
+            return true;
+        }
+
+        if (keyValue.columnFamilyEquals(CF_OUT_EDGE_SUMMARY_HIDDEN_BYTES)) {
+            addEdgeSummaryHiddenEdge(getElementData().outEdgeSummaryHiddenEdges, keyValue);
+            return true;
+        }
+
+        if (keyValue.columnFamilyEquals(CF_IN_EDGE_SUMMARY_HIDDEN_BYTES)) {
+            addEdgeSummaryHiddenEdge(getElementData().inEdgeSummaryHiddenEdges, keyValue);
+            return true;
+        }
+
         return false;
     }
 
+    private void addEdgeLabelCount(Map<ByteArrayWrapper, Long> edgeLabelCounts, KeyValue keyValue) {
+        ByteArrayWrapper label = new ByteArrayWrapper(keyValue.takeColumnQualifier().copyBytes());
+        long count = Long.parseLong(keyValue.peekValue().toString());
+        edgeLabelCounts.merge(label, count, Long::sum);
+    }
+
+    private void addEdgeSummaryHiddenEdge(Map<Text, ByteArrayWrapper> hiddenEdges, KeyValue keyValue) {
+        Text edgeId = keyValue.takeColumnQualifier();
+        byte[] value = keyValue.peekValue().get();
+        if (value.length > 0 && value[0] == EDGE_SUMMARY_DELETED_MARKER) {
+            getElementData().edgeSummaryDeletedEdges.add(edgeId);
+        } else if (value.length > 0 && value[0] == EDGE_SUMMARY_HIDDEN_MARKER) {
+            hiddenEdges.put(edgeId, new ByteArrayWrapper(Arrays.copyOfRange(value, 1, value.length)));
+        }
+    }
+
     private void processOutEdge(KeyValue keyValue) {
         EdgeInfo edgeInfo = EdgeInfo.parse(keyValue.takeValue(), keyValue.getTimestamp());
         if (shouldIncludeOutEdge(edgeInfo)) {
@@ -0,0 +1,106 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.IteratorFetchHints;
+import org.vertexium.accumulo.iterator.model.VertexiumAccumuloIteratorException;
+import org.vertexium.accumulo.iterator.util.DataInputStreamUtils;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+import org.vertexium.accumulo.iterator.util.OptionsUtils;
+
+import java.io.*;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands vertices by one hop on the tablet server. Each vertex is returned as a single Key/Value pair, the key is
+ * the vertex id and the value is the set of ids of the vertices connected to it by a visible edge matching the label
+ * filters.
+ */
+public class VertexNeighborIdsIterator extends VertexIterator {
+    private static final String SETTING_INCLUDE_LABELS = "includeLabels";
+    private static final String SETTING_EXCLUDE_LABELS = "excludeLabels";
+    private Set<String> includeLabels;
+    private Set<String> excludeLabels;
+
+    public VertexNeighborIdsIterator() {
+        this(null, null, null);
+    }
+
+    public VertexNeighborIdsIterator(
+        SortedKeyValueIterator<Key, Value> source,
+        IteratorFetchHints fetchHints,
+        Set<String> includeLabels,
+        Set<String> excludeLabels
+    ) {
+        super(source, fetchHints);
+        this.includeLabels = includeLabels;
+        this.excludeLabels = excludeLabels;
+    }
+
+    private VertexNeighborIdsIterator(IteratorFetchHints fetchHints, Set<String> includeLabels, Set<String> excludeLabels) {
+        this(null, fetchHints, includeLabels, excludeLabels);
+    }
+
+    public static void setLabels(IteratorSetting iteratorSettings, Set<String> includeLabels, Set<String> excludeLabels) {
+        OptionsUtils.addOption(iteratorSettings, SETTING_INCLUDE_LABELS, OptionsUtils.setToString(includeLabels));
+        OptionsUtils.addOption(iteratorSettings, SETTING_EXCLUDE_LABELS, OptionsUtils.setToString(excludeLabels));
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key, Value> source, Map<String, String> options, IteratorEnvironment env) {
+        super.init(source, options, env);
+        includeLabels = OptionsUtils.parseSet(options.get(SETTING_INCLUDE_LABELS));
+        excludeLabels = OptionsUtils.parseSet(options.get(SETTING_EXCLUDE_LABELS));
+    }
+
+    @Override
+    protected Value encodeElementData() throws IOException {
+        Set<String> neighborIds = new LinkedHashSet<>();
+        addNeighborIds(neighborIds, getElementData().outEdges.getEdgeInfos());
+        addNeighborIds(neighborIds, getElementData().inEdges.getEdgeInfos());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        DataOutputStreamUtils.encodeSetOfStrings(out, neighborIds);
+        return new Value(baos.toByteArray());
+    }
+
+    private void addNeighborIds(Set<String> neighborIds, Iterable<EdgeInfo> edgeInfos) {
+        for (EdgeInfo edgeInfo : edgeInfos) {
+            String label = edgeInfo.getLabel();
+            if (excludeLabels != null && excludeLabels.contains(label)) {
+                continue;
+            }
+            if (includeLabels == null || includeLabels.contains(label)) {
+                neighborIds.add(edgeInfo.getVertexId());
+            }
+        }
+    }
+
+    public static Set<String> decodeValue(Value value) {
+        try {
+            return DataInputStreamUtils.decodeSetOfStrings(new DataInputStream(new ByteArrayInputStream(value.get())));
+        } catch (IOException ex) {
+            throw new VertexiumAccumuloIteratorException("Could not decode neighbor ids", ex);
+        }
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(IteratorEnvironment env) {
+        if (getSourceIterator() != null) {
+            return new VertexNeighborIdsIterator(getSourceIterator().deepCopy(env), getFetchHints(), includeLabels, excludeLabels);
+        }
+        return new VertexNeighborIdsIterator(getFetchHints(), includeLabels, excludeLabels);
+    }
+
+    @Override
+    protected String getDescription() {
+        return "This iterator returns the ids of the vertices connected to each vertex as a single Key/Value pair.";
+    }
+}
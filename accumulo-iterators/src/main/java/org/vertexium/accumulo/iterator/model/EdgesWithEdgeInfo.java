@@ -1,18 +1,46 @@
 package org.vertexium.accumulo.iterator.model;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.hadoop.io.Text;
 
-import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-
+import java.util.NoSuchElementException;
+
+/**
+ * Edges are appended to arrays in the order they are added, which keeps loading a vertex as cheap as adding to a list.
+ * A hash index from edge id to position is only built the first time an edge is looked up or removed and is kept up
+ * to date by later adds, so lookups and removals are constant time. Removed edges leave a hole which is compacted
+ * away when the index is rebuilt.
+ *
+ * The same edge id can be added more than once (one per version of the edge column), get returns the first one added
+ * and remove removes all of them.
+ */
 public class EdgesWithEdgeInfo extends Edges {
-    // We used to use a HashMap here but that was too slow. Replaced with a List since we really don't care about duplicates anyway.
-    private List<Map.Entry<Text, EdgeInfo>> pairs = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_POSITION = -1;
+    private Text[] edgeIds = new Text[INITIAL_CAPACITY];
+    private EdgeInfo[] edgeInfos = new EdgeInfo[INITIAL_CAPACITY];
+    private int size;
+    private int removedCount;
+    // open addressing table holding position + 1, 0 is an empty slot. Slots are never cleared so later adds of the same
+    // edge id are always probed after earlier ones.
+    private int[] index;
+    private int indexEntryCount;
 
     public void add(Text edgeId, EdgeInfo edgeInfo) {
-        pairs.add(new Pair(edgeId, edgeInfo));
+        if (size == edgeIds.length) {
+            edgeIds = Arrays.copyOf(edgeIds, size * 2);
+            edgeInfos = Arrays.copyOf(edgeInfos, size * 2);
+        }
+        edgeIds[size] = edgeId;
+        edgeInfos[size] = edgeInfo;
+        size++;
+        if (index != null) {
+            addToIndex(size - 1);
+        }
     }
 
     public void add(String edgeId, EdgeInfo edgeInfo) {
@@ -20,88 +48,187 @@ public class EdgesWithEdgeInfo extends Edges {
     }
 
     public void remove(Text edgeId) {
-        int i = indexOf(edgeId);
-        if (i >= 0) {
-            pairs.remove(i);
-        }
+        remove(edgeId.getBytes(), 0, edgeId.getLength());
     }
 
-    private int indexOf(Text edgeId) {
-        for (int i = 0; i < pairs.size(); i++) {
-            if (pairs.get(i).getKey().equals(edgeId)) {
-                return i;
-            }
-        }
-        return -1;
+    public void remove(ByteSequence edgeId) {
+        remove(edgeId.getBackingArray(), edgeId.offset(), edgeId.length());
     }
 
     public void remove(String edgeId) {
         remove(new Text(edgeId));
     }
 
+    private void remove(byte[] bytes, int offset, int length) {
+        if (size == removedCount) {
+            return;
+        }
+        int[] index = getIndex();
+        int mask = index.length - 1;
+        for (int slot = hash(bytes, offset, length) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (edgeIdEquals(position, bytes, offset, length)) {
+                edgeIds[position] = null;
+                edgeInfos[position] = null;
+                removedCount++;
+            }
+        }
+    }
+
     public void clear() {
-        pairs.clear();
+        Arrays.fill(edgeIds, 0, size, null);
+        Arrays.fill(edgeInfos, 0, size, null);
+        size = 0;
+        removedCount = 0;
+        index = null;
+        indexEntryCount = 0;
     }
 
     public EdgeInfo get(Text edgeId) {
-        int i = indexOf(edgeId);
-        if (i >= 0) {
-            return pairs.get(i).getValue();
+        return get(edgeId.getBytes(), 0, edgeId.getLength());
+    }
+
+    public EdgeInfo get(ByteSequence edgeId) {
+        return get(edgeId.getBackingArray(), edgeId.offset(), edgeId.length());
+    }
+
+    private EdgeInfo get(byte[] bytes, int offset, int length) {
+        int position = indexOf(bytes, offset, length);
+        return position == NO_POSITION ? null : edgeInfos[position];
+    }
+
+    private int indexOf(byte[] bytes, int offset, int length) {
+        if (size == removedCount) {
+            return NO_POSITION;
+        }
+        int[] index = getIndex();
+        int mask = index.length - 1;
+        for (int slot = hash(bytes, offset, length) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (edgeIdEquals(position, bytes, offset, length)) {
+                return position;
+            }
+        }
+        return NO_POSITION;
+    }
+
+    private boolean edgeIdEquals(int position, byte[] bytes, int offset, int length) {
+        Text edgeId = edgeIds[position];
+        if (edgeId == null || edgeId.getLength() != length) {
+            return false;
+        }
+        byte[] edgeIdBytes = edgeId.getBytes();
+        for (int i = 0; i < length; i++) {
+            if (edgeIdBytes[i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] getIndex() {
+        if (index == null) {
+            rebuildIndex();
+        }
+        return index;
+    }
+
+    private void rebuildIndex() {
+        if (removedCount > 0) {
+            compact();
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < size * 2) {
+            capacity *= 2;
+        }
+        index = new int[capacity];
+        indexEntryCount = 0;
+        for (int position = 0; position < size; position++) {
+            addToIndex(position);
         }
-        return null;
+    }
+
+    private void compact() {
+        int newSize = 0;
+        for (int position = 0; position < size; position++) {
+            if (edgeIds[position] != null) {
+                edgeIds[newSize] = edgeIds[position];
+                edgeInfos[newSize] = edgeInfos[position];
+                newSize++;
+            }
+        }
+        Arrays.fill(edgeIds, newSize, size, null);
+        Arrays.fill(edgeInfos, newSize, size, null);
+        size = newSize;
+        removedCount = 0;
+    }
+
+    private void addToIndex(int position) {
+        if ((indexEntryCount + 1) * 2 > index.length) {
+            rebuildIndex();
+            return;
+        }
+        Text edgeId = edgeIds[position];
+        int mask = index.length - 1;
+        int slot = hash(edgeId.getBytes(), 0, edgeId.getLength()) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+        indexEntryCount++;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (31 * hash) + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
     }
 
     public Iterable<EdgeInfo> getEdgeInfos() {
-        return new Iterable<EdgeInfo>() {
+        return () -> new PositionIterator<EdgeInfo>() {
             @Override
-            public Iterator<EdgeInfo> iterator() {
-                final Iterator<Map.Entry<Text, EdgeInfo>> it = pairs.iterator();
-                return new Iterator<EdgeInfo>() {
-                    @Override
-                    public boolean hasNext() {
-                        return it.hasNext();
-                    }
-
-                    @Override
-                    public EdgeInfo next() {
-                        return it.next().getValue();
-                    }
-
-                    @Override
-                    public void remove() {
-                        throw new RuntimeException("not supported");
-                    }
-                };
+            protected EdgeInfo get(int position) {
+                return edgeInfos[position];
             }
         };
     }
 
     public Iterable<Map.Entry<Text, EdgeInfo>> getEntries() {
-        return pairs;
+        return () -> new PositionIterator<Map.Entry<Text, EdgeInfo>>() {
+            @Override
+            protected Map.Entry<Text, EdgeInfo> get(int position) {
+                return new AbstractMap.SimpleImmutableEntry<>(edgeIds[position], edgeInfos[position]);
+            }
+        };
     }
 
-    private static class Pair implements Map.Entry<Text, EdgeInfo> {
-        private final Text edgeId;
-        private final EdgeInfo edgeInfo;
+    private abstract class PositionIterator<T> implements Iterator<T> {
+        private int position = nextPosition(0);
 
-        public Pair(Text edgeId, EdgeInfo edgeInfo) {
-            this.edgeId = edgeId;
-            this.edgeInfo = edgeInfo;
+        private int nextPosition(int position) {
+            while (position < size && edgeIds[position] == null) {
+                position++;
+            }
+            return position;
         }
 
         @Override
-        public Text getKey() {
-            return edgeId;
+        public boolean hasNext() {
+            return position < size;
         }
 
         @Override
-        public EdgeInfo getValue() {
-            return edgeInfo;
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = get(position);
+            position = nextPosition(position + 1);
+            return result;
         }
 
-        @Override
-        public EdgeInfo setValue(EdgeInfo value) {
-            throw new RuntimeException("not supported");
-        }
+        protected abstract T get(int position);
     }
 }
@@ -1,14 +1,12 @@
 package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.util.ByteArrayWrapper;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class VertexElementData extends ElementData {
     public final EdgesWithEdgeInfo outEdges = new EdgesWithEdgeInfo();
@@ -16,6 +14,11 @@ public class VertexElementData extends ElementData {
     public final Set<Text> hiddenEdges = new HashSet<>();
     public final List<SoftDeleteEdgeInfo> outSoftDeletes = new ArrayList<>();
     public final List<SoftDeleteEdgeInfo> inSoftDeletes = new ArrayList<>();
+    public final Map<ByteArrayWrapper, Long> outEdgeLabelCounts = new HashMap<>();
+    public final Map<ByteArrayWrapper, Long> inEdgeLabelCounts = new HashMap<>();
+    public final Map<Text, ByteArrayWrapper> outEdgeSummaryHiddenEdges = new HashMap<>();
+    public final Map<Text, ByteArrayWrapper> inEdgeSummaryHiddenEdges = new HashMap<>();
+    public final Set<Text> edgeSummaryDeletedEdges = new HashSet<>();
 
     @Override
     public void clear() {
@@ -25,6 +28,11 @@ public class VertexElementData extends ElementData {
         hiddenEdges.clear();
         outSoftDeletes.clear();
         inSoftDeletes.clear();
+        outEdgeLabelCounts.clear();
+        inEdgeLabelCounts.clear();
+        outEdgeSummaryHiddenEdges.clear();
+        inEdgeSummaryHiddenEdges.clear();
+        edgeSummaryDeletedEdges.clear();
     }
 
     @Override
@@ -33,10 +41,12 @@ public class VertexElementData extends ElementData {
         DataOutputStreamUtils.encodeEdges(
             out,
             outEdges,
+            outEdgeLabelCounts,
             fetchHints.isIncludeEdgeLabelsAndCounts() && !(fetchHints.isIncludeAllEdgeRefs() || fetchHints.isIncludeOutEdgeRefs()));
         DataOutputStreamUtils.encodeEdges(
             out,
             inEdges,
+            inEdgeLabelCounts,
             fetchHints.isIncludeEdgeLabelsAndCounts() && !(fetchHints.isIncludeAllEdgeRefs() || fetchHints.isIncludeInEdgeRefs()));
     }
 
@@ -124,23 +124,58 @@ public class DataOutputStreamUtils {
     }
 
     public static void encodeEdges(DataOutputStream out, EdgesWithEdgeInfo edges, boolean edgeLabelsOnly) throws IOException {
-        out.write(edgeLabelsOnly ? EDGE_LABEL_ONLY_MARKER : EDGE_LABEL_WITH_REFS_MARKER);
+        encodeEdges(out, edges, Collections.emptyMap(), edgeLabelsOnly);
+    }
+
+    /**
+     * @param edgeLabelCounts Edge counts by label read from the edge summary columns, added to the counts of the edges
+     *                        when only labels are encoded.
+     */
+    public static void encodeEdges(
+        DataOutputStream out,
+        EdgesWithEdgeInfo edges,
+        Map<ByteArrayWrapper, Long> edgeLabelCounts,
+        boolean edgeLabelsOnly
+    ) throws IOException {
+        if (edgeLabelsOnly) {
+            encodeEdgeLabelCounts(out, edges, edgeLabelCounts);
+            return;
+        }
+        out.write(EDGE_LABEL_WITH_REFS_MARKER);
 
         Map<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> edgesByLabels = getEdgesByLabel(edges);
         out.writeInt(edgesByLabels.size());
         for (Map.Entry<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> entry : edgesByLabels.entrySet()) {
             encodeByteArray(out, entry.getKey().getData());
             out.writeInt(entry.getValue().size());
-            if (!edgeLabelsOnly) {
-                for (Map.Entry<Text, EdgeInfo> edgeEntry : entry.getValue()) {
-                    encodeText(out, edgeEntry.getKey());
-                    out.writeLong(edgeEntry.getValue().getTimestamp());
-                    encodeString(out, edgeEntry.getValue().getVertexId());
-                }
+            for (Map.Entry<Text, EdgeInfo> edgeEntry : entry.getValue()) {
+                encodeText(out, edgeEntry.getKey());
+                out.writeLong(edgeEntry.getValue().getTimestamp());
+                encodeString(out, edgeEntry.getValue().getVertexId());
             }
         }
     }
 
+    private static void encodeEdgeLabelCounts(
+        DataOutputStream out,
+        EdgesWithEdgeInfo edges,
+        Map<ByteArrayWrapper, Long> edgeLabelCounts
+    ) throws IOException {
+        out.write(EDGE_LABEL_ONLY_MARKER);
+
+        Map<ByteArrayWrapper, Long> countsByLabel = new HashMap<>(edgeLabelCounts);
+        for (EdgeInfo edgeInfo : edges.getEdgeInfos()) {
+            countsByLabel.merge(new ByteArrayWrapper(edgeInfo.getLabelBytes()), 1L, Long::sum);
+        }
+        countsByLabel.values().removeIf(count -> count <= 0);
+
+        out.writeInt(countsByLabel.size());
+        for (Map.Entry<ByteArrayWrapper, Long> entry : countsByLabel.entrySet()) {
+            encodeByteArray(out, entry.getKey().getData());
+            out.writeInt(entry.getValue().intValue());
+        }
+    }
+
     private static Map<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> getEdgesByLabel(EdgesWithEdgeInfo edges) throws IOException {
         Map<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> edgesByLabels = new HashMap<>();
         for (Map.Entry<Text, EdgeInfo> edgeEntry : edges.getEntries()) {
@@ -0,0 +1,47 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class RelatedEdgeCountIteratorTest {
+    @Test
+    public void testRowEncoder() throws Exception {
+        List<Key> keys = new ArrayList<>();
+        List<Value> values = new ArrayList<>();
+        addEdge(keys, values, "e1", "knows", "v2", 10);
+        addEdge(keys, values, "e2", "knows", "v2", 10);
+        addEdge(keys, values, "e3", "knows", "v2", 10);
+        addEdge(keys, values, "e4", "likes", "v2", 10);
+        addEdge(keys, values, "e5", "knows", "v3", 10);
+        keys.add(new Key("v1", VertexIterator.CF_OUT_EDGE_HIDDEN_STRING, "e5", 20));
+        values.add(new Value(new byte[0]));
+
+        RelatedEdgeCountIterator iterator = new RelatedEdgeCountIterator();
+        IteratorSetting settings = new IteratorSetting(1, RelatedEdgeCountIterator.class);
+        RelatedEdgeCountIterator.setEdgeIdLimit(settings, 2);
+        iterator.init(null, settings.getOptions(), null);
+        List<RelatedEdgeCountIterator.Count> counts = RelatedEdgeCountIterator.decodeValue(iterator.rowEncoder(keys, values));
+
+        assertEquals(2, counts.size());
+        assertEquals("v2", new String(counts.get(0).getInVertexId()));
+        assertEquals("knows", new String(counts.get(0).getLabel()));
+        assertEquals(3, counts.get(0).getCount());
+        assertEquals(2, counts.get(0).getEdgeIds().size());
+        assertEquals("e1", new String(counts.get(0).getEdgeIds().get(0)));
+        assertEquals("likes", new String(counts.get(1).getLabel()));
+        assertEquals(1, counts.get(1).getCount());
+    }
+
+    private void addEdge(List<Key> keys, List<Value> values, String edgeId, String label, String inVertexId, long timestamp) {
+        keys.add(new Key("v1", VertexIterator.CF_OUT_EDGE_STRING, edgeId, timestamp));
+        values.add(new EdgeInfo(label, inVertexId).toValue());
+    }
+}
@@ -0,0 +1,78 @@
+package org.vertexium.accumulo.iterator;
+
+import com.google.common.collect.Sets;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.IteratorFetchHints;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class VertexNeighborIdsIteratorTest {
+    private final SortedMap<Key, Value> rows = new TreeMap<>();
+
+    @Test
+    public void testNeighborIds() throws IOException {
+        addVertex("v1");
+        addEdgeRef("v1", VertexIterator.CF_OUT_EDGE, "e1", "knows", "v2", 1);
+        addEdgeRef("v1", VertexIterator.CF_IN_EDGE, "e2", "knows", "v2", 1);
+        addEdgeRef("v1", VertexIterator.CF_OUT_EDGE, "e3", "likes", "v3", 1);
+        addEdgeRef("v1", VertexIterator.CF_OUT_EDGE, "e4", "knows", "v4", 1);
+        rows.put(new Key(new Text("v1"), VertexIterator.CF_OUT_EDGE_SOFT_DELETE, new Text("e4"), 2), ElementIterator.SOFT_DELETE_VALUE);
+        addEdgeRef("v1", VertexIterator.CF_IN_EDGE, "e5", "knows", "v5", 1);
+        rows.put(new Key(new Text("v1"), VertexIterator.CF_IN_EDGE_HIDDEN, new Text("e5"), 1), ElementIterator.HIDDEN_VALUE);
+        addVertex("v2");
+        addEdgeRef("v2", VertexIterator.CF_IN_EDGE, "e1", "knows", "v1", 1);
+        addEdgeRef("v2", VertexIterator.CF_OUT_EDGE, "e2", "knows", "v1", 1);
+
+        Map<String, Set<String>> results = scan(null, null);
+        assertEquals(Sets.newHashSet("v2", "v3"), results.get("v1"));
+        assertEquals(Sets.newHashSet("v1"), results.get("v2"));
+
+        results = scan(Sets.newHashSet("likes"), null);
+        assertEquals(Sets.newHashSet("v3"), results.get("v1"));
+        assertEquals(new HashSet<>(), results.get("v2"));
+
+        results = scan(null, Sets.newHashSet("likes"));
+        assertEquals(Sets.newHashSet("v2"), results.get("v1"));
+    }
+
+    private Map<String, Set<String>> scan(Set<String> includeLabels, Set<String> excludeLabels) throws IOException {
+        IteratorSetting iteratorSetting = new IteratorSetting(1000, VertexNeighborIdsIterator.class);
+        VertexIterator.setFetchHints(iteratorSetting, new IteratorFetchHints(
+            false, null, false, null, false, true, false, false, null, false, false
+        ));
+        VertexNeighborIdsIterator.setLabels(iteratorSetting, includeLabels, excludeLabels);
+
+        VertexNeighborIdsIterator it = new VertexNeighborIdsIterator();
+        it.init(new SortedMapIterator(rows), iteratorSetting.getOptions(), null);
+        it.seek(new Range(), new ArrayList<>(), false);
+        Map<String, Set<String>> results = new HashMap<>();
+        while (it.hasTop()) {
+            results.put(it.getTopKey().getRow().toString(), VertexNeighborIdsIterator.decodeValue(it.getTopValue()));
+            it.next();
+        }
+        assertFalse(it.hasTop());
+        return results;
+    }
+
+    private void addVertex(String vertexId) {
+        rows.put(new Key(new Text(vertexId), VertexIterator.CF_SIGNAL, new Text(), 1), new Value(new byte[0]));
+    }
+
+    private void addEdgeRef(String vertexId, Text columnFamily, String edgeId, String label, String otherVertexId, long timestamp) {
+        rows.put(
+            new Key(new Text(vertexId), columnFamily, new Text(edgeId), timestamp),
+            new Value(new EdgeInfo(label, otherVertexId, timestamp).getBytes())
+        );
+    }
+}
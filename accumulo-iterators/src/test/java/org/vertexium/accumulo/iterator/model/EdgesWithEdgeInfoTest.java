@@ -0,0 +1,70 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EdgesWithEdgeInfoTest {
+    @Test
+    public void testAddGetRemove() {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        for (int i = 0; i < 1000; i++) {
+            edges.add("e" + i, new EdgeInfo("label", "v" + i));
+        }
+
+        assertEquals("v10", edges.get(new Text("e10")).getVertexId());
+        assertEquals("v999", edges.get(new ArrayByteSequence("xe999".getBytes(), 1, 4)).getVertexId());
+        assertNull(edges.get(new Text("e1000")));
+
+        for (int i = 0; i < 1000; i += 2) {
+            edges.remove("e" + i);
+        }
+        edges.remove(new ArrayByteSequence("e1"));
+        assertNull(edges.get(new Text("e10")));
+        assertNull(edges.get(new Text("e1")));
+        assertEquals("v11", edges.get(new Text("e11")).getVertexId());
+
+        edges.add("e1000", new EdgeInfo("label", "v1000"));
+        assertEquals("v1000", edges.get(new Text("e1000")).getVertexId());
+
+        List<String> edgeIds = getEdgeIds(edges);
+        assertEquals(500, edgeIds.size());
+        assertEquals("e3", edgeIds.get(0));
+        assertEquals("e1000", edgeIds.get(edgeIds.size() - 1));
+
+        edges.clear();
+        assertEquals(0, getEdgeIds(edges).size());
+        assertNull(edges.get(new Text("e11")));
+    }
+
+    @Test
+    public void testDuplicateEdgeIds() {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        edges.add("e1", new EdgeInfo("label", "v1", 20));
+        edges.add("e2", new EdgeInfo("label", "v2", 10));
+        edges.add("e1", new EdgeInfo("label", "v1", 10));
+
+        assertEquals(20, edges.get(new Text("e1")).getTimestamp());
+
+        edges.remove("e1");
+        assertNull(edges.get(new Text("e1")));
+        List<String> edgeIds = getEdgeIds(edges);
+        assertEquals(1, edgeIds.size());
+        assertEquals("e2", edgeIds.get(0));
+    }
+
+    private List<String> getEdgeIds(EdgesWithEdgeInfo edges) {
+        List<String> results = new ArrayList<>();
+        for (Map.Entry<Text, EdgeInfo> entry : edges.getEntries()) {
+            results.add(entry.getKey().toString());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,44 @@
+package org.vertexium.accumulo.iterator.util;
+
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataOutputStreamUtilsTest {
+    @Test
+    public void testEncodeEdgeLabelCounts() throws IOException {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        edges.add("e1", createEdgeInfo("knows", "v2"));
+        edges.add("e2", createEdgeInfo("likes", "v3"));
+
+        Map<ByteArrayWrapper, Long> edgeLabelCounts = new HashMap<>();
+        edgeLabelCounts.put(new ByteArrayWrapper("knows".getBytes()), 10L);
+        edgeLabelCounts.put(new ByteArrayWrapper("deleted".getBytes()), 0L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStreamUtils.encodeEdges(new DataOutputStream(bytes), edges, edgeLabelCounts, true);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(DataOutputStreamUtils.EDGE_LABEL_ONLY_MARKER, in.readByte());
+        Map<String, Integer> results = new HashMap<>();
+        int labelCount = in.readInt();
+        for (int i = 0; i < labelCount; i++) {
+            byte[] label = new byte[in.readInt()];
+            in.readFully(label);
+            results.put(new String(label), in.readInt());
+        }
+        assertEquals(2, results.size());
+        assertEquals(11, (int) results.get("knows"));
+        assertEquals(1, (int) results.get("likes"));
+    }
+
+    private EdgeInfo createEdgeInfo(String label, String vertexId) {
+        return new EdgeInfo(new EdgeInfo(label, vertexId).getBytes(), 0);
+    }
+}
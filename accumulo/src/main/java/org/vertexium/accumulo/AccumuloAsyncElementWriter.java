@@ -0,0 +1,306 @@
+package org.vertexium.accumulo;
+
+import org.vertexium.*;
+import org.vertexium.mutation.ElementMutation;
+import org.vertexium.mutation.ExistingElementMutation;
+import org.vertexium.mutation.ExtendedDataMutation;
+import org.vertexium.search.IndexHint;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Saves element mutations through a pipeline of three stages connected by bounded queues:
+ * <ol>
+ * <li>save - builds the Accumulo mutations and hands them to the batch writer. Mutations are routed to a save thread
+ * by element id so mutations of the same element are saved in the order they were submitted.</li>
+ * <li>index - submits the saved elements to the search index in bulk.</li>
+ * <li>flush - flushes the graph, the same as {@link AccumuloGraph#flush()} without waiting for this writer, once for
+ * everything that has been indexed since the last flush.</li>
+ * </ol>
+ * Submitting blocks when the save queue is full and each stage blocks when the next stage's queue is full, so a slow
+ * stage slows down submission instead of buffering without limit.
+ * <p>
+ * The futures are completed on a separate completion thread, never on a stage thread, so code run by the futures may
+ * submit more mutations without blocking the stages those mutations need. The completion thread runs the callbacks
+ * one at a time, a callback which waits for a future of this writer blocks every later completion.
+ */
+public class AccumuloAsyncElementWriter {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloAsyncElementWriter.class);
+    private final AccumuloGraph graph;
+    private final int indexBatchSize;
+    private final List<BlockingQueue<Job>> saveQueues = new ArrayList<>();
+    private final BlockingQueue<Job> indexQueue;
+    private final BlockingQueue<Job> flushQueue;
+    private final List<Thread> threads = new ArrayList<>();
+    private final ExecutorService completionExecutor;
+    private volatile Thread completionThread;
+    private final Object inFlightLock = new Object();
+    private int inFlightCount;
+    private boolean closed;
+
+    public AccumuloAsyncElementWriter(AccumuloGraph graph, int saveThreads, int queueSize, int indexBatchSize) {
+        if (saveThreads < 1 || queueSize < 1 || indexBatchSize < 1) {
+            throw new VertexiumException("saveThreads, queueSize and indexBatchSize must be greater than 0");
+        }
+        this.graph = graph;
+        this.indexBatchSize = indexBatchSize;
+        this.indexQueue = new ArrayBlockingQueue<>(queueSize);
+        this.flushQueue = new ArrayBlockingQueue<>(queueSize);
+        this.completionExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "vertexium-async-writer-complete");
+            thread.setDaemon(true);
+            completionThread = thread;
+            return thread;
+        });
+        for (int i = 0; i < saveThreads; i++) {
+            BlockingQueue<Job> saveQueue = new ArrayBlockingQueue<>(Math.max(1, queueSize / saveThreads));
+            saveQueues.add(saveQueue);
+            startThread("save-" + i, () -> runSaveStage(saveQueue));
+        }
+        startThread("index", this::runIndexStage);
+        startThread("flush", this::runFlushStage);
+    }
+
+    private void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, "vertexium-async-writer-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+    }
+
+    /**
+     * @return A future which completes once the element has been written to Accumulo and submitted to the search index.
+     */
+    public <T extends Element> CompletableFuture<T> save(ElementMutation<T> mutation, Authorizations authorizations) {
+        Job job = new Job(mutation, authorizations);
+        synchronized (inFlightLock) {
+            // checked while holding the lock so close does not stop the stages before this job is counted
+            if (closed) {
+                throw new VertexiumException("Writer is closed");
+            }
+            inFlightCount++;
+        }
+        BlockingQueue<Job> saveQueue = saveQueues.get(Math.floorMod(getElementId(mutation).hashCode(), saveQueues.size()));
+        try {
+            saveQueue.put(job);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            jobsDone(Collections.singletonList(job));
+            throw new VertexiumException("Interrupted while submitting mutation", ex);
+        }
+        //noinspection unchecked
+        return (CompletableFuture<T>) job.future;
+    }
+
+    public CompletableFuture<List<Element>> saveAll(Iterable<ElementMutation> mutations, Authorizations authorizations) {
+        List<CompletableFuture<Element>> futures = new ArrayList<>();
+        for (ElementMutation mutation : mutations) {
+            //noinspection unchecked
+            futures.add(save(mutation, authorizations));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+            .thenApply(v -> {
+                List<Element> elements = new ArrayList<>(futures.size());
+                for (CompletableFuture<Element> future : futures) {
+                    elements.add(future.join());
+                }
+                return elements;
+            });
+    }
+
+    private static String getElementId(ElementMutation<?> mutation) {
+        if (mutation instanceof ExistingElementMutation) {
+            return ((ExistingElementMutation<?>) mutation).getElement().getId();
+        }
+        if (mutation instanceof ElementBuilder) {
+            String elementId = ((ElementBuilder<?>) mutation).getElementId();
+            if (elementId != null) {
+                return elementId;
+            }
+        }
+        return "";
+    }
+
+    private void runSaveStage(BlockingQueue<Job> saveQueue) {
+        try {
+            while (true) {
+                Job job = saveQueue.take();
+                try {
+                    job.save();
+                } catch (Throwable ex) {
+                    fail(Collections.singletonList(job), ex);
+                    continue;
+                }
+                indexQueue.put(job);
+            }
+        } catch (InterruptedException ex) {
+            // closed
+        }
+    }
+
+    private void runIndexStage() {
+        List<Job> batch = new ArrayList<>(indexBatchSize);
+        try {
+            while (true) {
+                batch.add(indexQueue.take());
+                indexQueue.drainTo(batch, indexBatchSize - 1);
+                try {
+                    index(batch);
+                } catch (Throwable ex) {
+                    fail(batch, ex);
+                    batch.clear();
+                    continue;
+                }
+                for (Job job : batch) {
+                    flushQueue.put(job);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            // closed
+        }
+    }
+
+    private void index(List<Job> batch) {
+        // Authorizations does not implement hashCode, jobs submitted with the same instance are indexed together
+        Map<Authorizations, List<Job>> jobsByAuthorizations = new IdentityHashMap<>();
+        for (Job job : batch) {
+            if (job.indexHint == IndexHint.INDEX && job.element != null) {
+                jobsByAuthorizations.computeIfAbsent(job.authorizations, a -> new ArrayList<>()).add(job);
+            }
+        }
+        for (Map.Entry<Authorizations, List<Job>> entry : jobsByAuthorizations.entrySet()) {
+            List<Element> elements = new ArrayList<>(entry.getValue().size());
+            for (Job job : entry.getValue()) {
+                elements.add(job.element);
+            }
+            graph.getSearchIndex().addElements(graph, elements, entry.getKey());
+            for (Job job : entry.getValue()) {
+                graph.getSearchIndex().addElementExtendedData(graph, job.element, job.extendedData, entry.getKey());
+            }
+        }
+    }
+
+    private void runFlushStage() {
+        List<Job> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(flushQueue.take());
+                flushQueue.drainTo(batch);
+                try {
+                    graph.flushWithoutDrain();
+                } catch (Throwable ex) {
+                    fail(batch, ex);
+                    batch.clear();
+                    continue;
+                }
+                List<Job> jobs = new ArrayList<>(batch);
+                completionExecutor.execute(() -> {
+                    for (Job job : jobs) {
+                        job.future.complete(job.element);
+                    }
+                });
+                jobsDone(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            // closed
+        }
+    }
+
+    private void fail(List<Job> jobs, Throwable ex) {
+        LOGGER.error("Could not save " + jobs.size() + " element mutation(s)", ex);
+        List<Job> failedJobs = new ArrayList<>(jobs);
+        completionExecutor.execute(() -> {
+            for (Job job : failedJobs) {
+                job.future.completeExceptionally(ex);
+            }
+        });
+        jobsDone(jobs);
+    }
+
+    // called after the completions are queued so close does not shut down the completion thread before they run
+    private void jobsDone(List<Job> jobs) {
+        synchronized (inFlightLock) {
+            inFlightCount -= jobs.size();
+            inFlightLock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until every mutation submitted so far has gone through all the stages. Does nothing when called from one
+     * of the stages, for example by a graph flush caused by autoFlush.
+     */
+    public void drain() {
+        if (threads.contains(Thread.currentThread())) {
+            return;
+        }
+        synchronized (inFlightLock) {
+            while (inFlightCount > 0) {
+                try {
+                    inFlightLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new VertexiumException("Interrupted while draining writer", ex);
+                }
+            }
+        }
+    }
+
+    public int getInFlightCount() {
+        synchronized (inFlightLock) {
+            return inFlightCount;
+        }
+    }
+
+    public void close() {
+        synchronized (inFlightLock) {
+            closed = true;
+        }
+        drain();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        completionExecutor.shutdown();
+        if (Thread.currentThread() == completionThread) {
+            return;
+        }
+        try {
+            if (!completionExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Timed out waiting for the futures to complete");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while closing writer", ex);
+        }
+    }
+
+    private static class Job {
+        private final ElementMutation<?> mutation;
+        private final Authorizations authorizations;
+        private final CompletableFuture<Element> future = new CompletableFuture<>();
+        private IndexHint indexHint;
+        private Iterable<ExtendedDataMutation> extendedData;
+        private Element element;
+
+        public Job(ElementMutation<?> mutation, Authorizations authorizations) {
+            this.mutation = mutation;
+            this.authorizations = authorizations;
+        }
+
+        public void save() {
+            if (mutation instanceof ExistingElementMutation && !mutation.hasChanges()) {
+                element = ((ExistingElementMutation<?>) mutation).getElement();
+                indexHint = IndexHint.DO_NOT_INDEX;
+                return;
+            }
+            indexHint = mutation.getIndexHint();
+            extendedData = mutation.getExtendedData();
+            mutation.setIndexHint(IndexHint.DO_NOT_INDEX);
+            element = mutation.save(authorizations);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.cache2k.Cache;
+import org.cache2k.CacheBuilder;
+import org.vertexium.Authorizations;
+import org.vertexium.ElementType;
+import org.vertexium.FetchHints;
+import org.vertexium.VertexiumException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the iterator key/value of single element reads so reading the same element again does not need a scan. The
+ * element is created from the cached key/value on every read, elements returned to callers are never shared.
+ *
+ * Entries are grouped by element id so a write to an element, made through the graph in this process, removes the
+ * entries of every fetch hints and authorizations combination. Until the writes are flushed the element is read from
+ * Accumulo without being cached. Writes made by other processes are only seen once the entry expires.
+ */
+public class AccumuloElementCache {
+    private final Map<ElementType, Cache<String, Map<CacheKey, Map.Entry<Key, Value>>>> caches = new EnumMap<>(ElementType.class);
+    private final Map<ElementType, Map<String, Long>> unflushedElementIds = new EnumMap<>(ElementType.class);
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public AccumuloElementCache(int maxSize, long expiryMillis) {
+        for (ElementType elementType : new ElementType[]{ElementType.VERTEX, ElementType.EDGE}) {
+            @SuppressWarnings("unchecked")
+            Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache = (Cache) CacheBuilder
+                .newCache(String.class, Map.class)
+                .name(AccumuloElementCache.class, elementType.name().toLowerCase() + "Cache-" + System.identityHashCode(this))
+                .maxSize(maxSize)
+                .expiryDuration(expiryMillis, TimeUnit.MILLISECONDS)
+                .build();
+            caches.put(elementType, cache);
+            unflushedElementIds.put(elementType, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param loader Reads the iterator key/value of the element from Accumulo, returns null if the element was not found.
+     * @return The cached or loaded key/value or null if the element was not found.
+     */
+    public Map.Entry<Key, Value> get(
+        ElementType elementType,
+        String elementId,
+        FetchHints fetchHints,
+        Authorizations authorizations,
+        Supplier<Map.Entry<Key, Value>> loader
+    ) {
+        if (unflushedElementIds.get(elementType).containsKey(elementId)) {
+            missCount.incrementAndGet();
+            return loader.get();
+        }
+
+        Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache = getCache(elementType);
+        CacheKey cacheKey = new CacheKey(fetchHints, authorizations);
+        Map<CacheKey, Map.Entry<Key, Value>> entries = cache.peek(elementId);
+        if (entries != null) {
+            Map.Entry<Key, Value> entry = entries.get(cacheKey);
+            if (entry != null) {
+                hitCount.incrementAndGet();
+                return entry;
+            }
+        }
+
+        missCount.incrementAndGet();
+        Map.Entry<Key, Value> entry = loader.get();
+        if (entry == null) {
+            return null;
+        }
+        if (entries == null) {
+            entries = new ConcurrentHashMap<>();
+            if (!cache.putIfAbsent(elementId, entries)) {
+                entries = cache.peek(elementId);
+                if (entries == null) {
+                    return entry;
+                }
+            }
+        }
+        entries.put(cacheKey, entry);
+        // a write may have happened while the element was being loaded
+        if (unflushedElementIds.get(elementType).containsKey(elementId)) {
+            cache.remove(elementId);
+        }
+        return entry;
+    }
+
+    public void elementWritten(ElementType elementType, String elementId) {
+        unflushedElementIds.get(elementType).put(elementId, writeSequence.incrementAndGet());
+        getCache(elementType).remove(elementId);
+    }
+
+    /**
+     * @return A copy of the elements written since the last flush, taken before the writers are flushed and passed
+     * to {@link #flushed(Map)} afterwards.
+     */
+    public Map<ElementType, Map<String, Long>> getUnflushedWrites() {
+        Map<ElementType, Map<String, Long>> results = new EnumMap<>(ElementType.class);
+        for (Map.Entry<ElementType, Map<String, Long>> entry : unflushedElementIds.entrySet()) {
+            results.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Only allows caching the elements again whose last write was taken by {@link #getUnflushedWrites()} before the
+     * writers were flushed, elements written by other threads while the writers flushed may not be flushed yet.
+     */
+    public void flushed(Map<ElementType, Map<String, Long>> flushedWrites) {
+        for (Map.Entry<ElementType, Map<String, Long>> entry : flushedWrites.entrySet()) {
+            Map<String, Long> elementIds = unflushedElementIds.get(entry.getKey());
+            Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache = getCache(entry.getKey());
+            for (Map.Entry<String, Long> write : entry.getValue().entrySet()) {
+                if (elementIds.remove(write.getKey(), write.getValue())) {
+                    cache.remove(write.getKey());
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache : caches.values()) {
+            cache.clear();
+        }
+    }
+
+    public void close() {
+        for (Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache : caches.values()) {
+            cache.close();
+        }
+    }
+
+    private Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> getCache(ElementType elementType) {
+        Cache<String, Map<CacheKey, Map.Entry<Key, Value>>> cache = caches.get(elementType);
+        if (cache == null) {
+            throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+        return cache;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public void resetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    private static class CacheKey {
+        private final FetchHints fetchHints;
+        private final Set<String> authorizations;
+
+        public CacheKey(FetchHints fetchHints, Authorizations authorizations) {
+            this.fetchHints = fetchHints;
+            this.authorizations = new HashSet<>(Arrays.asList(authorizations.getAuthorizations()));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) o;
+            return fetchHints.equals(cacheKey.fetchHints) && authorizations.equals(cacheKey.authorizations);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fetchHints, authorizations);
+        }
+    }
+}
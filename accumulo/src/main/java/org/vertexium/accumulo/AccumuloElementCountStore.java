@@ -0,0 +1,232 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorUtil;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.vertexium.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.vertexium.accumulo.ElementMutationBuilder.EMPTY_TEXT;
+
+/**
+ * Keeps the number of vertices and edges in a table of counters which a {@link SummingCombiner} adds up on the
+ * tablet servers, so counting reads a handful of cells instead of every element.
+ *
+ * A counter cell has the visibility of the elements it counts, which means a scan only sums the counters the
+ * authorizations can read. Vertex counters are in the row "V", edge counters are in the row "E" with the edge label
+ * as the column family.
+ *
+ * Saving an element through a builder only counts it if it did not exist before the save, so every builder save
+ * reads the element first, a single element scan which is not needed when counts are not maintained. The element is
+ * read with the authorizations of the Accumulo user, not the authorizations of the user saving it, so an element
+ * whose visibility the saving user can not read is not counted again. Elements saved more than once before a flush
+ * are only counted once.
+ *
+ * The elements saved but not flushed are only known to the graph which saved them. Two processes, or two graph
+ * instances, creating the same element before either flushes both count it, as do elements written without a
+ * builder, for example by bulk imports. {@link #recompute(Authorizations)} corrects the counts afterwards.
+ */
+public class AccumuloElementCountStore {
+    private static final int SUMMING_COMBINER_PRIORITY = 10;
+    private static final String SUMMING_COMBINER_NAME = "elementCountSummingCombiner";
+    private static final Text ROW_VERTEX = new Text("V");
+    private static final Text ROW_EDGE = new Text("E");
+    private final AccumuloGraph graph;
+    private final String tableName;
+    private final Set<String> unflushedNewElementKeys = ConcurrentHashMap.newKeySet();
+
+    public AccumuloElementCountStore(AccumuloGraph graph, String tableName) {
+        this.graph = graph;
+        this.tableName = tableName;
+    }
+
+    protected static void ensureTableExists(Connector connector, String tableName, String hdfsContextClasspath, boolean createTable) {
+        AccumuloGraph.ensureTableExists(connector, tableName, null, hdfsContextClasspath, createTable);
+        try {
+            if (!connector.tableOperations().listIterators(tableName).containsKey(SUMMING_COMBINER_NAME)) {
+                IteratorSetting summingCombinerSettings = new IteratorSetting(
+                    SUMMING_COMBINER_PRIORITY,
+                    SUMMING_COMBINER_NAME,
+                    SummingCombiner.class
+                );
+                SummingCombiner.setCombineAllColumns(summingCombinerSettings, true);
+                SummingCombiner.setEncodingType(summingCombinerSettings, LongCombiner.Type.STRING);
+                connector.tableOperations().attachIterator(tableName, summingCombinerSettings, EnumSet.allOf(IteratorUtil.IteratorScope.class));
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not attach SummingCombiner to " + tableName, ex);
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @param existingElement The element as it was read before the save with the authorizations of the Accumulo user,
+     *                        null if it did not exist.
+     */
+    public void elementSaved(ElementType elementType, String elementId, Visibility visibility, String label, Element existingElement) {
+        if (existingElement == null) {
+            if (unflushedNewElementKeys.add(elementType.name() + elementId)) {
+                increment(elementType, label, visibility, 1);
+            }
+            return;
+        }
+        String existingLabel = existingElement instanceof Edge ? ((Edge) existingElement).getLabel() : null;
+        if (!existingElement.getVisibility().equals(visibility) || !Objects.equals(existingLabel, label)) {
+            increment(elementType, existingLabel, existingElement.getVisibility(), -1);
+            increment(elementType, label, visibility, 1);
+        }
+    }
+
+    public void elementDeleted(Element element) {
+        increment(ElementType.getTypeFromElement(element), getLabel(element), element.getVisibility(), -1);
+    }
+
+    public void elementVisibilityAltered(Element element, Visibility newVisibility) {
+        if (element.getVisibility().equals(newVisibility)) {
+            return;
+        }
+        ElementType elementType = ElementType.getTypeFromElement(element);
+        increment(elementType, getLabel(element), element.getVisibility(), -1);
+        increment(elementType, getLabel(element), newVisibility, 1);
+    }
+
+    public void edgeLabelAltered(Edge edge, String newEdgeLabel) {
+        if (edge.getLabel().equals(newEdgeLabel)) {
+            return;
+        }
+        increment(ElementType.EDGE, edge.getLabel(), edge.getVisibility(), -1);
+        increment(ElementType.EDGE, newEdgeLabel, edge.getVisibility(), 1);
+    }
+
+    /**
+     * @return A copy of the keys of the new elements counted since the last flush, taken before the writers are
+     * flushed and passed to {@link #flushed(Set)} afterwards.
+     */
+    public Set<String> getUnflushedNewElementKeys() {
+        return new HashSet<>(unflushedNewElementKeys);
+    }
+
+    /**
+     * Only removes the keys which were counted before the writers were flushed, elements counted by other threads
+     * while the writers flushed may not be flushed yet and would be counted again by their next save.
+     */
+    public void flushed(Set<String> flushedNewElementKeys) {
+        unflushedNewElementKeys.removeAll(flushedNewElementKeys);
+    }
+
+    private static String getLabel(Element element) {
+        return element instanceof Edge ? ((Edge) element).getLabel() : null;
+    }
+
+    private void increment(ElementType elementType, String label, Visibility visibility, long delta) {
+        Mutation m = new Mutation(getRow(elementType));
+        m.put(getColumnFamily(label), EMPTY_TEXT, toColumnVisibility(visibility), new Value(Long.toString(delta).getBytes()));
+        graph._addMutations(graph.getElementCountsWriter(), m);
+    }
+
+    private Text getColumnFamily(String label) {
+        if (label == null) {
+            return EMPTY_TEXT;
+        }
+        return new Text(graph.getNameSubstitutionStrategy().deflate(label));
+    }
+
+    private static ColumnVisibility toColumnVisibility(Visibility visibility) {
+        return AccumuloGraph.visibilityToAccumuloVisibility(visibility);
+    }
+
+    private static Text getRow(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return ROW_VERTEX;
+            case EDGE:
+                return ROW_EDGE;
+            default:
+                throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+    }
+
+    public long getCount(ElementType elementType, Authorizations authorizations) {
+        long count = 0;
+        for (Long labelCount : getCountsByColumnFamily(elementType, authorizations).values()) {
+            count += labelCount;
+        }
+        return count;
+    }
+
+    public Map<String, Long> getEdgeCountsByLabel(Authorizations authorizations) {
+        Map<String, Long> results = new HashMap<>();
+        for (Map.Entry<String, Long> entry : getCountsByColumnFamily(ElementType.EDGE, authorizations).entrySet()) {
+            results.put(graph.getNameSubstitutionStrategy().inflate(entry.getKey()), entry.getValue());
+        }
+        return results;
+    }
+
+    private Map<String, Long> getCountsByColumnFamily(ElementType elementType, Authorizations authorizations) {
+        try {
+            Scanner scanner = graph.createScanner(tableName, org.apache.accumulo.core.data.Range.exact(getRow(elementType)), graph.toAccumuloAuthorizations(authorizations));
+            try {
+                Map<String, Long> results = new HashMap<>();
+                for (Map.Entry<Key, Value> entry : scanner) {
+                    long count = Long.parseLong(entry.getValue().toString());
+                    results.merge(entry.getKey().getColumnFamily().toString(), count, Long::sum);
+                }
+                return results;
+            } finally {
+                scanner.close();
+            }
+        } catch (TableNotFoundException ex) {
+            throw new VertexiumException("Could not get counts from table: " + tableName, ex);
+        }
+    }
+
+    /**
+     * Replaces the counters with counts of the elements read with the authorizations, including hidden elements.
+     * The authorizations need to be able to read every element, elements they can not read are not counted.
+     */
+    public void recompute(Authorizations authorizations) {
+        try {
+            graph.flush();
+            graph.getConnector().tableOperations().deleteRows(tableName, null, null);
+            FetchHints fetchHints = FetchHints.builder()
+                .setIncludeHidden(true)
+                .build();
+            recompute(graph.getVertices(fetchHints, authorizations));
+            recompute(graph.getEdges(fetchHints, authorizations));
+            graph.flush();
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not recompute element counts", ex);
+        }
+    }
+
+    private void recompute(Iterable<? extends Element> elements) {
+        Map<ElementType, Map<String, Map<Visibility, Long>>> counts = new HashMap<>();
+        for (Element element : elements) {
+            counts.computeIfAbsent(ElementType.getTypeFromElement(element), k -> new HashMap<>())
+                .computeIfAbsent(getLabel(element) == null ? "" : getLabel(element), k -> new HashMap<>())
+                .merge(element.getVisibility(), 1L, Long::sum);
+        }
+        for (Map.Entry<ElementType, Map<String, Map<Visibility, Long>>> elementTypeCounts : counts.entrySet()) {
+            for (Map.Entry<String, Map<Visibility, Long>> labelCounts : elementTypeCounts.getValue().entrySet()) {
+                String label = labelCounts.getKey().isEmpty() ? null : labelCounts.getKey();
+                for (Map.Entry<Visibility, Long> visibilityCount : labelCounts.getValue().entrySet()) {
+                    increment(elementTypeCounts.getKey(), label, visibilityCount.getKey(), visibilityCount.getValue());
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package org.vertexium.accumulo;
 
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
 import org.vertexium.*;
+import org.vertexium.accumulo.iterator.VertexNeighborIdsIterator;
 import org.vertexium.accumulo.util.RangeUtils;
 import org.vertexium.util.IterableUtils;
 import org.vertexium.util.VertexiumLogger;
@@ -14,8 +16,6 @@ import org.vertexium.util.VertexiumLoggerFactory;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static org.vertexium.util.StreamUtils.stream;
-
 public class AccumuloFindPathStrategy {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloFindPathStrategy.class);
     private final AccumuloGraph graph;
@@ -45,7 +45,7 @@ public class AccumuloFindPathStrategy {
         }
         Set<String> results = new HashSet<>();
         for (int i = 0; i < labels.length; i++) {
-            results.add(labels[i]);
+            results.add(nameSubstitutionStrategy.deflate(labels[i]));
         }
         return results;
     }
@@ -199,37 +199,39 @@ public class AccumuloFindPathStrategy {
                 null,
                 null,
                 ranges,
-                true,
+                false,
                 authorizations
             );
-
+            IteratorSetting neighborIdsIteratorSettings = new IteratorSetting(
+                1000,
+                VertexNeighborIdsIterator.class.getSimpleName(),
+                VertexNeighborIdsIterator.class
+            );
+            VertexNeighborIdsIterator.setFetchHints(neighborIdsIteratorSettings, graph.toIteratorFetchHints(FetchHints.EDGE_REFS));
+            VertexNeighborIdsIterator.setLabels(neighborIdsIteratorSettings, includeLabels, excludeLabels);
+            scanner.addScanIterator(neighborIdsIteratorSettings);
 
             final long timerStartTime = System.currentTimeMillis();
+            Map<String, Set<String>> results = new HashMap<>();
             try {
-                Map<String, Set<String>> results = new HashMap<>();
                 for (Map.Entry<Key, Value> row : scanner) {
-                    Vertex vertex = AccumuloVertex.createFromIteratorValue(graph, row.getKey(), row.getValue(), FetchHints.EDGE_REFS, authorizations);
-                    Iterable<String> otherVertexIds = stream(vertex.getEdgeInfos(Direction.BOTH, authorizations))
-                        .filter(edgeInfo -> {
-                            if (excludeLabels != null && excludeLabels.contains(edgeInfo.getLabel())) {
-                                return false;
-                            }
-                            return includeLabels == null || includeLabels.contains(edgeInfo.getLabel());
-
-                        })
-                        .map(EdgeInfo::getVertexId)
-                        .collect(Collectors.toSet());
-                    Map<String, Boolean> verticesExist = graph.doVerticesExist(otherVertexIds, authorizations);
-                    Set<String> rowVertexIds = stream(verticesExist.keySet())
-                        .filter(key -> verticesExist.getOrDefault(key, false))
-                        .collect(Collectors.toSet());
-                    results.put(row.getKey().getRow().toString(), rowVertexIds);
+                    results.put(row.getKey().getRow().toString(), VertexNeighborIdsIterator.decodeValue(row.getValue()));
                 }
-                return results;
             } finally {
                 scanner.close();
                 AccumuloGraph.GRAPH_LOGGER.logEndIterator(System.currentTimeMillis() - timerStartTime);
             }
+
+            // check the visibility of all the neighbors of the frontier at once
+            Set<String> neighborIds = new HashSet<>();
+            for (Set<String> rowNeighborIds : results.values()) {
+                neighborIds.addAll(rowNeighborIds);
+            }
+            Map<String, Boolean> verticesExist = graph.doVerticesExist(neighborIds, authorizations);
+            for (Set<String> rowNeighborIds : results.values()) {
+                rowNeighborIds.removeIf(neighborId -> !verticesExist.getOrDefault(neighborId, false));
+            }
+            return results;
         } finally {
             trace.stop();
         }
@@ -12,6 +12,7 @@ import org.apache.accumulo.core.data.*;
 import org.apache.accumulo.core.iterators.IteratorUtil;
 import org.apache.accumulo.core.iterators.LongCombiner;
 import org.apache.accumulo.core.iterators.user.RowDeletingIterator;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
 import org.apache.accumulo.core.iterators.user.TimestampFilter;
 import org.apache.accumulo.core.iterators.user.VersioningIterator;
 import org.apache.accumulo.core.iterators.user.WholeRowIterator;
@@ -19,6 +20,7 @@ import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.trace.DistributedTrace;
 import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
+import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
@@ -52,6 +54,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -80,6 +87,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private static final String ACCUMULO_DEFAULT_VERSIONING_ITERATOR_NAME = "vers";
     private static final ColumnVisibility EMPTY_COLUMN_VISIBILITY = new ColumnVisibility();
     private static final String CLASSPATH_CONTEXT_NAME = "vertexium";
+    private static final String EDGE_SUMMARY_SUMMING_COMBINER_NAME = "edgeSummarySummingCombiner";
+    private static final int EDGE_SUMMARY_SUMMING_COMBINER_PRIORITY = 10;
+    private static final FetchHints EXISTING_ELEMENT_FETCH_HINTS = FetchHints.builder().setIncludeHidden(true).build();
     private final Connector connector;
     private final VertexiumSerializer vertexiumSerializer;
     private final CuratorFramework curatorFramework;
@@ -101,6 +111,14 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private final String metadataTableName;
     private final int numberOfQueryThreads;
     private final AccumuloGraphMetadataStore graphMetadataStore;
+    private final AccumuloElementCountStore elementCountStore;
+    private final AccumuloElementCache elementCache;
+    private final boolean maintainEdgeSummaries;
+    private final Set<String> unflushedNewEdgeSummaryEdgeIds = ConcurrentHashMap.newKeySet();
+    private volatile Authorizations systemAuthorizations;
+    private final ThreadPoolExecutor multiGetExecutor;
+    private final ScanExecutor scanExecutor;
+    private AccumuloAsyncElementWriter asyncElementWriter;
     private boolean distributedTraceEnabled;
 
     protected AccumuloGraph(AccumuloGraphConfiguration config, Connector connector) {
@@ -155,6 +173,35 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         this.metadataTableName = getMetadataTableName(getConfiguration().getTableNamePrefix());
         this.numberOfQueryThreads = getConfiguration().getNumberOfQueryThreads();
         this.historyInSeparateTable = getConfiguration().isHistoryInSeparateTable();
+        this.maintainEdgeSummaries = getConfiguration().isMaintainEdgeSummaries();
+        if (getConfiguration().isMaintainElementCounts()) {
+            this.elementCountStore = new AccumuloElementCountStore(this, getElementCountsTableName(getConfiguration().getTableNamePrefix()));
+        } else {
+            this.elementCountStore = null;
+        }
+        if (getConfiguration().isElementCacheEnabled()) {
+            this.elementCache = new AccumuloElementCache(getConfiguration().getElementCacheMaxSize(), getConfiguration().getElementCacheExpiryMillis());
+        } else {
+            this.elementCache = null;
+        }
+
+        ScanExecutorFactory scanExecutorFactory = getConfiguration().createScanExecutorFactory(this);
+        Integer maxOpenScanThreads = getConfiguration().getScanExecutorMaxOpenScanThreads();
+        this.scanExecutor = new ScanExecutor(
+            scanExecutorFactory.createExecutorService(),
+            maxOpenScanThreads == null ? scanExecutorFactory.getMaxOpenScanThreads() : maxOpenScanThreads,
+            getConfiguration().getScanExecutorOpenScanTimeoutMillis()
+        );
+        int multiGetThreads = getConfiguration().getMultiGetThreads();
+        this.multiGetExecutor = new ThreadPoolExecutor(
+            multiGetThreads,
+            multiGetThreads,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamingThreadFactory("vertexium-multi-get")
+        );
+        this.multiGetExecutor.allowCoreThreadTimeOut(true);
 
         if (isHistoryInSeparateTable()) {
             this.historyVerticesTableName = getHistoryVerticesTableName(getConfiguration().getTableNamePrefix());
@@ -192,6 +239,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         ensureRowDeletingIteratorIsAttached(connector, getEdgesTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getDataTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getExtendedDataTableName(config.getTableNamePrefix()));
+        if (config.isMaintainEdgeSummaries()) {
+            ensureEdgeSummaryCombinerIsAttached(connector, getVerticesTableName(config.getTableNamePrefix()));
+        }
+        if (config.isMaintainElementCounts()) {
+            AccumuloElementCountStore.ensureTableExists(connector, getElementCountsTableName(config.getTableNamePrefix()), config.getHdfsContextClasspath(), config.isCreateTables());
+        }
         AccumuloGraph graph = new AccumuloGraph(config, connector);
         graph.setup();
         return graph;
@@ -304,6 +357,28 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    protected static void ensureEdgeSummaryCombinerIsAttached(Connector connector, String tableName) {
+        try {
+            synchronized (addIteratorLock) {
+                if (!connector.tableOperations().listIterators(tableName).containsKey(EDGE_SUMMARY_SUMMING_COMBINER_NAME)) {
+                    IteratorSetting summingCombinerSettings = new IteratorSetting(
+                        EDGE_SUMMARY_SUMMING_COMBINER_PRIORITY,
+                        EDGE_SUMMARY_SUMMING_COMBINER_NAME,
+                        SummingCombiner.class
+                    );
+                    SummingCombiner.setColumns(summingCombinerSettings, Arrays.asList(
+                        new IteratorSetting.Column(AccumuloVertex.CF_OUT_EDGE_SUMMARY),
+                        new IteratorSetting.Column(AccumuloVertex.CF_IN_EDGE_SUMMARY)
+                    ));
+                    SummingCombiner.setEncodingType(summingCombinerSettings, LongCombiner.Type.STRING);
+                    connector.tableOperations().attachIterator(tableName, summingCombinerSettings, EnumSet.allOf(IteratorUtil.IteratorScope.class));
+                }
+            }
+        } catch (Exception e) {
+            throw new VertexiumException("Could not attach edge summary SummingCombiner", e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static AccumuloGraph create(Map config) {
         return create(new AccumuloGraphConfiguration(config));
@@ -326,6 +401,11 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 Span trace = Trace.start("prepareVertex");
                 trace.data("vertexId", finalVertexId);
                 try {
+                    if (elementCountStore != null) {
+                        Vertex existingVertex = getVertex(finalVertexId, EXISTING_ELEMENT_FETCH_HINTS, getSystemAuthorizations(getVisibility()));
+                        elementCountStore.elementSaved(ElementType.VERTEX, finalVertexId, getVisibility(), null, existingVertex);
+                    }
+
                     // This has to occur before createVertex since it will mutate the properties
                     getElementMutationBuilder().saveVertexBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -524,6 +604,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     protected void addMutations(VertexiumObjectType objectType, Mutation... mutations) {
+        if (elementCache != null && objectType != VertexiumObjectType.EXTENDED_DATA) {
+            ElementType elementType = objectType == VertexiumObjectType.VERTEX ? ElementType.VERTEX : ElementType.EDGE;
+            for (Mutation mutation : mutations) {
+                elementCache.elementWritten(elementType, new String(mutation.getRow(), StandardCharsets.UTF_8));
+            }
+        }
         _addMutations(getWriterFromElementType(objectType), mutations);
         if (isHistoryInSeparateTable() && objectType != VertexiumObjectType.EXTENDED_DATA) {
             _addMutations(getHistoryWriterFromElementType(objectType), mutations);
@@ -599,6 +685,124 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    private void edgeBuilderSaving(EdgeBuilderBase edgeBuilder, Edge existingEdge) {
+        String edgeLabel = edgeBuilder.getNewEdgeLabel() != null ? edgeBuilder.getNewEdgeLabel() : edgeBuilder.getLabel();
+        if (elementCountStore != null) {
+            elementCountStore.elementSaved(ElementType.EDGE, edgeBuilder.getEdgeId(), edgeBuilder.getVisibility(), edgeLabel, existingEdge);
+        }
+        if (!maintainEdgeSummaries) {
+            return;
+        }
+        if (existingEdge == null) {
+            if (unflushedNewEdgeSummaryEdgeIds.add(edgeBuilder.getEdgeId())) {
+                ColumnVisibility columnVisibility = visibilityToAccumuloVisibility(edgeBuilder.getVisibility());
+                elementMutationBuilder.saveEdgeSummaryDelta(edgeBuilder.getOutVertexId(), edgeBuilder.getInVertexId(), edgeLabel, columnVisibility, 1);
+                // hidden markers left by a deleted edge with the same id count again, like its hidden edge refs
+                elementMutationBuilder.deleteEdgeSummaryHiddenColumn(edgeBuilder.getOutVertexId(), edgeBuilder.getInVertexId(), edgeBuilder.getEdgeId(), columnVisibility);
+            }
+        } else if (!existingEdge.getLabel().equals(edgeLabel) || !existingEdge.getVisibility().equals(edgeBuilder.getVisibility())) {
+            saveEdgeSummaryDelta(existingEdge, existingEdge.getLabel(), visibilityToAccumuloVisibility(existingEdge.getVisibility()), -1);
+            elementMutationBuilder.saveEdgeSummaryDelta(
+                edgeBuilder.getOutVertexId(),
+                edgeBuilder.getInVertexId(),
+                edgeLabel,
+                visibilityToAccumuloVisibility(edgeBuilder.getVisibility()),
+                1
+            );
+            moveEdgeSummaryHiddenMarkers(existingEdge, existingEdge.getHiddenVisibilities(), edgeLabel, edgeBuilder.getVisibility());
+        }
+    }
+
+    private void removeEdgeFromEdgeSummaries(Edge edge) {
+        ColumnVisibility columnVisibility = visibilityToAccumuloVisibility(edge.getVisibility());
+        saveEdgeSummaryDelta(edge, edge.getLabel(), columnVisibility, -1);
+        // the hidden markers of the edge may have visibilities these authorizations can not read, every reader which
+        // can read them can read the deleted marker
+        elementMutationBuilder.saveEdgeSummaryDeleted(edge.getVertexId(Direction.OUT), edge.getVertexId(Direction.IN), edge.getId(), columnVisibility);
+    }
+
+    private void saveEdgeSummaryHidden(Edge edge, String edgeLabel, Visibility edgeVisibility, Visibility hiddenVisibility) {
+        elementMutationBuilder.saveEdgeSummaryHidden(
+            edge.getVertexId(Direction.OUT),
+            edge.getVertexId(Direction.IN),
+            edge.getId(),
+            edgeLabel,
+            getHiddenEdgeSummaryVisibility(edgeVisibility, hiddenVisibility)
+        );
+    }
+
+    /**
+     * Rewrites the hidden markers of an edge for a new label or visibility.
+     */
+    private void moveEdgeSummaryHiddenMarkers(Edge edge, Iterable<Visibility> hiddenVisibilities, String newEdgeLabel, Visibility newVisibility) {
+        for (Visibility hiddenVisibility : hiddenVisibilities) {
+            if (!edge.getVisibility().equals(newVisibility)) {
+                elementMutationBuilder.deleteEdgeSummaryHiddenColumn(
+                    edge.getVertexId(Direction.OUT),
+                    edge.getVertexId(Direction.IN),
+                    edge.getId(),
+                    getHiddenEdgeSummaryVisibility(edge.getVisibility(), hiddenVisibility)
+                );
+            }
+            saveEdgeSummaryHidden(edge, newEdgeLabel, newVisibility, hiddenVisibility);
+        }
+    }
+
+    /**
+     * The hidden visibilities stored for an edge, which the edge itself only holds when it was fetched including
+     * hidden data with authorizations which can read them.
+     */
+    private Iterable<Visibility> getStoredHiddenVisibilities(Edge edge) {
+        Edge storedEdge = getEdge(edge.getId(), EXISTING_ELEMENT_FETCH_HINTS, getSystemAuthorizations(edge.getVisibility()));
+        return storedEdge == null ? edge.getHiddenVisibilities() : storedEdge.getHiddenVisibilities();
+    }
+
+    /**
+     * The authorizations of the Accumulo user the graph connects as, which can read every element and hidden marker
+     * whatever the authorizations of the user saving it. They are read again when they can not read a visibility,
+     * since authorizations are added to the Accumulo user as new visibilities are used.
+     */
+    Authorizations getSystemAuthorizations(Visibility visibility) {
+        Authorizations authorizations = systemAuthorizations;
+        if (authorizations == null || !authorizations.canRead(visibility)) {
+            try {
+                List<String> userAuthorizations = new ArrayList<>();
+                for (byte[] authorization : connector.securityOperations().getUserAuthorizations(connector.whoami())) {
+                    userAuthorizations.add(new String(authorization, StandardCharsets.UTF_8));
+                }
+                authorizations = new AccumuloAuthorizations(userAuthorizations.toArray(new String[0]));
+                systemAuthorizations = authorizations;
+            } catch (AccumuloException | AccumuloSecurityException ex) {
+                throw new VertexiumException("Could not get the authorizations of " + connector.whoami(), ex);
+            }
+        }
+        return authorizations;
+    }
+
+    private void saveEdgeSummaryDelta(Edge edge, String edgeLabel, ColumnVisibility columnVisibility, long delta) {
+        elementMutationBuilder.saveEdgeSummaryDelta(edge.getVertexId(Direction.OUT), edge.getVertexId(Direction.IN), edgeLabel, columnVisibility, delta);
+    }
+
+    /**
+     * A hidden edge is marked in the edge summaries with a visibility which can only be read by authorizations which
+     * can read both the edge and the hidden marker, the same authorizations that do not see the edge.
+     */
+    private static ColumnVisibility getHiddenEdgeSummaryVisibility(Visibility edgeVisibility, Visibility hiddenVisibility) {
+        String edgeVisibilityString = edgeVisibility.getVisibilityString();
+        String hiddenVisibilityString = hiddenVisibility.getVisibilityString();
+        if (edgeVisibilityString.isEmpty()) {
+            return visibilityToAccumuloVisibility(hiddenVisibilityString);
+        }
+        if (hiddenVisibilityString.isEmpty()) {
+            return visibilityToAccumuloVisibility(edgeVisibilityString);
+        }
+        return visibilityToAccumuloVisibility("(" + edgeVisibilityString + ")&(" + hiddenVisibilityString + ")");
+    }
+
+    BatchWriter getElementCountsWriter() {
+        return getWriterForTable(elementCountStore.getTableName());
+    }
+
     protected BatchWriter getMetadataWriter() {
         return getWriterForTable(getMetadataTableName());
     }
@@ -625,6 +829,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             deleteAllExtendedDataForElement(vertex, authorizations);
 
             addMutations(VertexiumObjectType.VERTEX, elementMutationBuilder.getDeleteRowMutation(vertex.getId()));
+            if (elementCountStore != null) {
+                elementCountStore.elementDeleted(vertex);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteVertexEvent(this, vertex));
@@ -661,6 +868,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             }
 
             addMutations(VertexiumObjectType.VERTEX, elementMutationBuilder.getSoftDeleteRowMutation(vertex.getId(), timestamp, eventData));
+            if (elementCountStore != null) {
+                elementCountStore.elementDeleted(vertex);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new SoftDeleteVertexEvent(this, vertex, eventData));
@@ -740,6 +950,11 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 Span trace = Trace.start("prepareEdge");
                 trace.data("edgeId", finalEdgeId);
                 try {
+                    if (elementCountStore != null || maintainEdgeSummaries) {
+                        Edge existingEdge = getEdge(finalEdgeId, EXISTING_ELEMENT_FETCH_HINTS, getSystemAuthorizations(getVisibility()));
+                        edgeBuilderSaving(this, existingEdge);
+                    }
+
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -801,6 +1016,11 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                         }
                     };
 
+                    if (elementCountStore != null || maintainEdgeSummaries) {
+                        Edge existingEdge = getEdge(finalEdgeId, EXISTING_ELEMENT_FETCH_HINTS, getSystemAuthorizations(getVisibility()));
+                        edgeBuilderSaving(this, existingEdge);
+                    }
+
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
@@ -1276,6 +1496,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
             // Deletes everything else related to edge.
             addMutations(VertexiumObjectType.EDGE, elementMutationBuilder.getDeleteRowMutation(edge.getId()));
+            if (elementCountStore != null) {
+                elementCountStore.elementDeleted(edge);
+            }
+            if (maintainEdgeSummaries) {
+                removeEdgeFromEdgeSummaries(edge);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteEdgeEvent(this, edge));
@@ -1329,6 +1555,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
             // Soft deletes everything else related to edge.
             addMutations(VertexiumObjectType.EDGE, elementMutationBuilder.getSoftDeleteRowMutation(edge.getId(), timestamp, eventData));
+            if (elementCountStore != null) {
+                elementCountStore.elementDeleted(edge);
+            }
+            if (maintainEdgeSummaries) {
+                removeEdgeFromEdgeSummaries(edge);
+            }
 
             if (hasEventListeners()) {
                 queueEvent(new SoftDeleteEdgeEvent(this, edge, eventData));
@@ -1363,6 +1595,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             // Delete everything else related to edge.
             addMutations(VertexiumObjectType.EDGE, elementMutationBuilder.getMarkHiddenRowMutation(edge.getId(), columnVisibility, eventData));
 
+            if (maintainEdgeSummaries) {
+                saveEdgeSummaryHidden(edge, edge.getLabel(), edge.getVisibility(), visibility);
+            }
+
             if (out instanceof AccumuloVertex) {
                 ((AccumuloVertex) out).removeOutEdge(edge);
             }
@@ -1406,6 +1642,15 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             // Delete everything else related to edge.
             addMutations(VertexiumObjectType.EDGE, elementMutationBuilder.getMarkVisibleRowMutation(edge.getId(), columnVisibility, eventData));
 
+            if (maintainEdgeSummaries) {
+                elementMutationBuilder.deleteEdgeSummaryHiddenColumn(
+                    edge.getVertexId(Direction.OUT),
+                    edge.getVertexId(Direction.IN),
+                    edge.getId(),
+                    getHiddenEdgeSummaryVisibility(edge.getVisibility(), visibility)
+                );
+            }
+
             if (out instanceof AccumuloVertex) {
                 ((AccumuloVertex) out).addOutEdge(edge);
             }
@@ -1509,6 +1754,19 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     @Override
     public void flush() {
+        // drained before locking the event queue, the async writer's save and flush stages lock it. Not drained by
+        // event listeners flushing while the events are fired, the lock is held until they return.
+        AccumuloAsyncElementWriter asyncElementWriter = getAsyncElementWriterIfStarted();
+        if (asyncElementWriter != null && !Thread.holdsLock(this.graphEventQueue)) {
+            asyncElementWriter.drain();
+        }
+        flushWithoutDrain();
+    }
+
+    /**
+     * Does everything {@link #flush()} does except waiting for the async writer, its flush stage calls this.
+     */
+    void flushWithoutDrain() {
         if (hasEventListeners()) {
             synchronized (this.graphEventQueue) {
                 flushWritersAndSuper();
@@ -1520,7 +1778,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     private void flushWritersAndSuper() {
+        // taken before flushing, elements saved while the writer flushes may not be flushed with it
+        Set<String> flushedNewElementKeys = elementCountStore == null ? null : elementCountStore.getUnflushedNewElementKeys();
+        Map<ElementType, Map<String, Long>> flushedCacheWrites = elementCache == null ? null : elementCache.getUnflushedWrites();
+        Set<String> flushedNewEdgeSummaryEdgeIds = new HashSet<>(unflushedNewEdgeSummaryEdgeIds);
         flushWriter(this.batchWriter);
+        if (elementCountStore != null) {
+            elementCountStore.flushed(flushedNewElementKeys);
+        }
+        if (elementCache != null) {
+            elementCache.flushed(flushedCacheWrites);
+        }
+        unflushedNewEdgeSummaryEdgeIds.removeAll(flushedNewEdgeSummaryEdgeIds);
         super.flush();
     }
 
@@ -1548,12 +1817,22 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     @Override
     public void shutdown() {
         try {
+            // closed first so no saves run once the resources they use are closed
+            AccumuloAsyncElementWriter asyncElementWriter = getAsyncElementWriterIfStarted();
+            if (asyncElementWriter != null) {
+                asyncElementWriter.close();
+            }
             flush();
             super.shutdown();
             streamingPropertyValueStorageStrategy.close();
             this.graphMetadataStore.close();
             this.curatorFramework.close();
             this.batchWriter.close();
+            this.multiGetExecutor.shutdownNow();
+            this.scanExecutor.shutdownNow();
+            if (elementCache != null) {
+                elementCache.close();
+            }
         } catch (Exception ex) {
             throw new VertexiumException(ex);
         }
@@ -1578,6 +1857,14 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Span trace = Trace.start("getVertex");
             trace.data("vertexId", vertexId);
             traceDataFetchHints(trace, fetchHints);
+            if (elementCache != null && endTime == null) {
+                try {
+                    Map.Entry<Key, Value> row = elementCache.get(ElementType.VERTEX, vertexId, fetchHints, authorizations, () -> scanElementRow(ElementType.VERTEX, vertexId, fetchHints, authorizations));
+                    return row == null ? null : createVertexFromVertexIteratorValue(row.getKey(), row.getValue(), fetchHints, authorizations);
+                } finally {
+                    trace.stop();
+                }
+            }
             return singleOrDefault(getVerticesInRange(trace, new org.apache.accumulo.core.data.Range(vertexId), fetchHints, endTime, authorizations), null);
         } catch (IllegalStateException ex) {
             throw new VertexiumException("Failed to find vertex with id: " + vertexId, ex);
@@ -1747,7 +2034,13 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 }
             }
 
-            applyFetchHints(scanner, fetchHints, elementType);
+            boolean useEdgeSummaries = maintainEdgeSummaries
+                && useVertexiumElementIterators
+                && startTime == null
+                && endTime == null
+                && maxVersions != null
+                && maxVersions == SINGLE_VERSION;
+            applyFetchHints(scanner, fetchHints, elementType, useEdgeSummaries);
             GRAPH_LOGGER.logStartIterator(tableName, scanner);
             return scanner;
         } catch (TableNotFoundException e) {
@@ -1849,7 +2142,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             connector,
             tableName,
             accumuloAuthorizations,
-            numberOfQueryThreads
+            numberOfQueryThreads,
+            scanExecutor
         );
         scanner.setRanges(ranges);
         return scanner;
@@ -1864,7 +2158,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return createScanner(tableName, range, accumuloAuthorizations);
     }
 
-    private Scanner createScanner(
+    Scanner createScanner(
         String tableName,
         org.apache.accumulo.core.data.Range range,
         org.apache.accumulo.core.security.Authorizations accumuloAuthorizations
@@ -1876,16 +2170,24 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return scanner;
     }
 
-    private void applyFetchHints(ScannerBase scanner, FetchHints fetchHints, ElementType elementType) {
+    private void applyFetchHints(ScannerBase scanner, FetchHints fetchHints, ElementType elementType, boolean useEdgeSummaries) {
         scanner.clearColumns();
 
-        Iterable<Text> columnFamiliesToFetch = getColumnFamiliesToFetch(elementType, fetchHints);
+        Iterable<Text> columnFamiliesToFetch = getColumnFamiliesToFetch(elementType, fetchHints, useEdgeSummaries);
         for (Text columnFamilyToFetch : columnFamiliesToFetch) {
             scanner.fetchColumnFamily(columnFamilyToFetch);
         }
     }
 
     public static Iterable<Text> getColumnFamiliesToFetch(ElementType elementType, FetchHints fetchHints) {
+        return getColumnFamiliesToFetch(elementType, fetchHints, false);
+    }
+
+    /**
+     * @param useEdgeSummaries true to read the edge counts of a direction from the edge summary columns, instead of
+     *                         reading every edge ref, when only edge labels and counts are requested for it.
+     */
+    public static Iterable<Text> getColumnFamiliesToFetch(ElementType elementType, FetchHints fetchHints, boolean useEdgeSummaries) {
         List<Text> columnFamiliesToFetch = new ArrayList<>();
 
         columnFamiliesToFetch.add(AccumuloElement.CF_HIDDEN);
@@ -1902,7 +2204,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             throw new VertexiumException("Unhandled element type: " + elementType);
         }
 
-        if (fetchHints.isIncludeAllEdgeRefs()
+        if (elementType == ElementType.VERTEX && useEdgeSummaries && isEdgeLabelsAndCountsOnly(fetchHints, fetchHints.isIncludeInEdgeRefs())) {
+            columnFamiliesToFetch.add(AccumuloVertex.CF_IN_EDGE_SUMMARY);
+            columnFamiliesToFetch.add(AccumuloVertex.CF_IN_EDGE_SUMMARY_HIDDEN);
+        } else if (fetchHints.isIncludeAllEdgeRefs()
             || fetchHints.isIncludeInEdgeRefs()
             || fetchHints.isIncludeEdgeLabelsAndCounts()
             || fetchHints.hasEdgeLabelsOfEdgeRefsToInclude()) {
@@ -1910,7 +2215,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             columnFamiliesToFetch.add(AccumuloVertex.CF_IN_EDGE_HIDDEN);
             columnFamiliesToFetch.add(AccumuloVertex.CF_IN_EDGE_SOFT_DELETE);
         }
-        if (fetchHints.isIncludeAllEdgeRefs()
+        if (elementType == ElementType.VERTEX && useEdgeSummaries && isEdgeLabelsAndCountsOnly(fetchHints, fetchHints.isIncludeOutEdgeRefs())) {
+            columnFamiliesToFetch.add(AccumuloVertex.CF_OUT_EDGE_SUMMARY);
+            columnFamiliesToFetch.add(AccumuloVertex.CF_OUT_EDGE_SUMMARY_HIDDEN);
+        } else if (fetchHints.isIncludeAllEdgeRefs()
             || fetchHints.isIncludeOutEdgeRefs()
             || fetchHints.isIncludeEdgeLabelsAndCounts()
             || fetchHints.hasEdgeLabelsOfEdgeRefsToInclude()) {
@@ -1935,6 +2243,14 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return columnFamiliesToFetch;
     }
 
+    private static boolean isEdgeLabelsAndCountsOnly(FetchHints fetchHints, boolean includeDirectionEdgeRefs) {
+        return fetchHints.isIncludeEdgeLabelsAndCounts()
+            && !fetchHints.isIncludeAllEdgeRefs()
+            && !includeDirectionEdgeRefs
+            && !fetchHints.hasEdgeLabelsOfEdgeRefsToInclude()
+            && !fetchHints.isIncludeHidden();
+    }
+
     public String getTableNameFromElementType(ElementType elementType) {
         switch (elementType) {
             case VERTEX:
@@ -1969,6 +2285,14 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         Span trace = Trace.start("getEdge");
         trace.data("edgeId", edgeId);
         try {
+            if (elementCache != null && endTime == null && edgeId != null) {
+                try {
+                    Map.Entry<Key, Value> row = elementCache.get(ElementType.EDGE, edgeId, fetchHints, authorizations, () -> scanElementRow(ElementType.EDGE, edgeId, fetchHints, authorizations));
+                    return row == null ? null : createEdgeFromEdgeIteratorValue(row.getKey(), row.getValue(), fetchHints, authorizations);
+                } finally {
+                    trace.stop();
+                }
+            }
             return singleOrDefault(getEdgesInRange(trace, edgeId, edgeId, fetchHints, endTime, authorizations), null);
         } catch (IllegalStateException ex) {
             throw new VertexiumException("Failed to find edge with id: " + edgeId, ex);
@@ -2041,6 +2365,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return tableNamePrefix.concat("_d");
     }
 
+    public static String getElementCountsTableName(String tableNamePrefix) {
+        return tableNamePrefix.concat("_c");
+    }
+
     public static String getMetadataTableName(String tableNamePrefix) {
         return tableNamePrefix.concat("_m");
     }
@@ -2134,6 +2462,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         Span trace = Trace.start("alterElementVisibility");
         trace.data("elementRowKey", elementRowKey);
         try {
+            // read before the mutations below can be flushed
+            List<Visibility> edgeSummaryHiddenVisibilities = null;
+            if (maintainEdgeSummaries && element instanceof Edge && !element.getVisibility().equals(newVisibility)) {
+                edgeSummaryHiddenVisibilities = toList(getStoredHiddenVisibilities((Edge) element));
+            }
+
             if (element instanceof Edge) {
                 Edge edge = (Edge) element;
 
@@ -2154,6 +2488,15 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             if (elementMutationBuilder.alterElementVisibility(m, element, newVisibility, data)) {
                 addMutations(element, m);
             }
+            if (elementCountStore != null) {
+                elementCountStore.elementVisibilityAltered(element, newVisibility);
+            }
+            if (maintainEdgeSummaries && element instanceof Edge && !element.getVisibility().equals(newVisibility)) {
+                Edge edge = (Edge) element;
+                saveEdgeSummaryDelta(edge, edge.getLabel(), visibilityToAccumuloVisibility(edge.getVisibility()), -1);
+                saveEdgeSummaryDelta(edge, edge.getLabel(), visibilityToAccumuloVisibility(newVisibility), 1);
+                moveEdgeSummaryHiddenMarkers(edge, edgeSummaryHiddenVisibilities, edge.getLabel(), newVisibility);
+            }
             element.setVisibility(newVisibility);
         } finally {
             trace.stop();
@@ -2161,6 +2504,15 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     public void alterEdgeLabel(AccumuloEdge edge, String newEdgeLabel) {
+        if (elementCountStore != null) {
+            elementCountStore.edgeLabelAltered(edge, newEdgeLabel);
+        }
+        if (maintainEdgeSummaries && !edge.getLabel().equals(newEdgeLabel)) {
+            ColumnVisibility columnVisibility = visibilityToAccumuloVisibility(edge.getVisibility());
+            saveEdgeSummaryDelta(edge, edge.getLabel(), columnVisibility, -1);
+            saveEdgeSummaryDelta(edge, newEdgeLabel, columnVisibility, 1);
+            moveEdgeSummaryHiddenMarkers(edge, getStoredHiddenVisibilities(edge), newEdgeLabel, edge.getVisibility());
+        }
         elementMutationBuilder.alterEdgeLabel(edge, newEdgeLabel);
     }
 
@@ -2252,6 +2604,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 this.connector.tableOperations().deleteRows(getHistoryEdgesTableName(), null, null);
                 this.connector.tableOperations().deleteRows(getHistoryVerticesTableName(), null, null);
             }
+            if (elementCountStore != null) {
+                this.connector.tableOperations().deleteRows(elementCountStore.getTableName(), null, null);
+            }
+            if (elementCache != null) {
+                elementCache.clear();
+            }
             getSearchIndex().truncate(this);
         } catch (Exception ex) {
             throw new VertexiumException("Could not delete rows", ex);
@@ -2269,6 +2627,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 dropTableIfExists(getHistoryEdgesTableName());
                 dropTableIfExists(getHistoryVerticesTableName());
             }
+            if (elementCountStore != null) {
+                dropTableIfExists(elementCountStore.getTableName());
+            }
+            if (elementCache != null) {
+                elementCache.clear();
+            }
             getSearchIndex().drop(this);
         } catch (Exception ex) {
             throw new VertexiumException("Could not drop tables", ex);
@@ -2433,6 +2797,90 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    /**
+     * Like {@link #findRelatedEdgeSummary(Iterable, Long, Authorizations)} but the tablet servers collapse the related
+     * edges into one count per out vertex, in vertex and label so only the counts are sent.
+     *
+     * @param edgeIdLimit The maximum number of edge ids returned with each count, 0 to only return counts.
+     */
+    public Iterable<RelatedEdgeCount> findRelatedEdgeCounts(Iterable<String> vertexIds, int edgeIdLimit, Long endTime, Authorizations authorizations) {
+        Set<String> vertexIdsSet = IterableUtils.toSet(vertexIds);
+        Span trace = Trace.start("findRelatedEdgeCounts");
+        try {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("findRelatedEdgeCounts:\n  %s", IterableUtils.join(vertexIdsSet, "\n  "));
+            }
+
+            if (vertexIdsSet.size() == 0) {
+                return new ArrayList<>();
+            }
+
+            List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
+            for (String vertexId : vertexIdsSet) {
+                ranges.add(RangeUtils.createRangeFromString(vertexId));
+            }
+
+            Long startTime = null;
+            int maxVersions = 1;
+            FetchHints fetchHints = FetchHints.builder()
+                .setIncludeOutEdgeRefs(true)
+                .build();
+            ScannerBase scanner = createElementScanner(
+                fetchHints,
+                ElementType.VERTEX,
+                maxVersions,
+                startTime,
+                endTime,
+                ranges,
+                false,
+                authorizations
+            );
+
+            IteratorSetting edgeRefFilterSettings = new IteratorSetting(
+                1000,
+                EdgeRefFilter.class.getSimpleName(),
+                EdgeRefFilter.class
+            );
+            EdgeRefFilter.setVertexIds(edgeRefFilterSettings, vertexIdsSet);
+            scanner.addScanIterator(edgeRefFilterSettings);
+
+            IteratorSetting relatedEdgeCountIteratorSettings = new IteratorSetting(
+                1001,
+                RelatedEdgeCountIterator.class.getSimpleName(),
+                RelatedEdgeCountIterator.class
+            );
+            RelatedEdgeCountIterator.setEdgeIdLimit(relatedEdgeCountIteratorSettings, edgeIdLimit);
+            scanner.addScanIterator(relatedEdgeCountIteratorSettings);
+
+            final long timerStartTime = System.currentTimeMillis();
+            try {
+                List<RelatedEdgeCount> results = new ArrayList<>();
+                for (Map.Entry<Key, Value> row : scanner) {
+                    String outVertexId = row.getKey().getRow().toString();
+                    for (RelatedEdgeCountIterator.Count count : RelatedEdgeCountIterator.decodeValue(row.getValue())) {
+                        List<String> edgeIds = new ArrayList<>(count.getEdgeIds().size());
+                        for (byte[] edgeId : count.getEdgeIds()) {
+                            edgeIds.add(new String(edgeId, StandardCharsets.UTF_8));
+                        }
+                        results.add(new RelatedEdgeCount(
+                            outVertexId,
+                            new String(count.getInVertexId(), StandardCharsets.UTF_8),
+                            getNameSubstitutionStrategy().inflate(new String(count.getLabel(), StandardCharsets.UTF_8)),
+                            count.getCount(),
+                            edgeIds
+                        ));
+                    }
+                }
+                return results;
+            } finally {
+                scanner.close();
+                GRAPH_LOGGER.logEndIterator(System.currentTimeMillis() - timerStartTime);
+            }
+        } finally {
+            trace.stop();
+        }
+    }
+
     @Override
     public Iterable<Path> findPaths(FindPathOptions options, Authorizations authorizations) {
         ProgressCallback progressCallback = options.getProgressCallback();
@@ -2711,6 +3159,69 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         };
     }
 
+    private Map.Entry<Key, Value> scanElementRow(ElementType elementType, String elementId, FetchHints fetchHints, Authorizations authorizations) {
+        org.apache.accumulo.core.data.Range range = new org.apache.accumulo.core.data.Range(elementId);
+        ScannerBase scanner;
+        if (elementType == ElementType.VERTEX) {
+            scanner = createVertexScanner(fetchHints, SINGLE_VERSION, null, null, range, authorizations);
+        } else {
+            scanner = createEdgeScanner(fetchHints, SINGLE_VERSION, null, null, range, authorizations);
+        }
+        try {
+            Iterator<Map.Entry<Key, Value>> it = scanner.iterator();
+            return it.hasNext() ? it.next() : null;
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #saveElementMutations(Iterable, Authorizations)}. The mutations are saved to
+     * Accumulo, indexed and flushed by a pipeline of background threads, see {@link AccumuloAsyncElementWriter}. This
+     * call blocks while the pipeline is full.
+     *
+     * @return A future which completes with the saved elements, in the order of the mutations, once they are flushed
+     * to Accumulo and submitted to the search index.
+     */
+    public CompletableFuture<List<Element>> saveElementMutationsAsync(Iterable<ElementMutation> mutations, Authorizations authorizations) {
+        return getAsyncElementWriter().saveAll(mutations, authorizations);
+    }
+
+    public <T extends Element> CompletableFuture<T> saveElementMutationAsync(ElementMutation<T> mutation, Authorizations authorizations) {
+        return getAsyncElementWriter().save(mutation, authorizations);
+    }
+
+    private synchronized AccumuloAsyncElementWriter getAsyncElementWriter() {
+        if (asyncElementWriter == null) {
+            asyncElementWriter = new AccumuloAsyncElementWriter(
+                this,
+                getConfiguration().getAsyncWriterSaveThreads(),
+                getConfiguration().getAsyncWriterQueueSize(),
+                getConfiguration().getAsyncWriterIndexBatchSize()
+            );
+        }
+        return asyncElementWriter;
+    }
+
+    private synchronized AccumuloAsyncElementWriter getAsyncElementWriterIfStarted() {
+        return asyncElementWriter;
+    }
+
+    /**
+     * @return The executor batch scans read tablet servers on, with its queue depth, active scans and per table scan
+     * durations.
+     */
+    public ScanExecutor getScanExecutor() {
+        return scanExecutor;
+    }
+
+    /**
+     * @return The cache of single element reads or null if elementCache.enabled is not set.
+     */
+    public AccumuloElementCache getElementCache() {
+        return elementCache;
+    }
+
     private Vertex createVertexFromVertexIteratorValue(Key key, Value value, FetchHints fetchHints, Authorizations authorizations) {
         return AccumuloVertex.createFromIteratorValue(this, key, value, fetchHints, authorizations);
     }
@@ -2766,6 +3277,35 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         };
     }
 
+    @Override
+    public List<Vertex> getVerticesInOrder(Iterable<String> ids, FetchHints fetchHints, Authorizations authorizations) {
+        try (CloseableIterable<Vertex> vertices = getVerticesInOrder(ids, fetchHints, null, authorizations)) {
+            return toList(vertices);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not close vertices", ex);
+        }
+    }
+
+    /**
+     * Streaming version of {@link #getVerticesInOrder(Iterable, FetchHints, Authorizations)}. The ids are fetched in
+     * chunks of multiGet.chunkSize with at most multiGet.chunksInFlight chunks read ahead, so only the vertices of
+     * those chunks are held in memory. Duplicate ids are removed by remembering every distinct id read, which costs
+     * memory proportional to the number of distinct ids. The chunks of every request share the multiGet.threads threads
+     * of this graph.
+     */
+    public CloseableIterable<Vertex> getVerticesInOrder(Iterable<String> ids, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        return new AccumuloOrderedVerticesIterable(
+            this,
+            ids,
+            fetchHints,
+            endTime,
+            authorizations,
+            getConfiguration().getMultiGetChunkSize(),
+            getConfiguration().getMultiGetChunksInFlight(),
+            multiGetExecutor
+        );
+    }
+
     @Override
     public CloseableIterable<Edge> getEdges(Iterable<String> ids, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
         final List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
@@ -2911,16 +3451,82 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     @Override
     public long getVertexCount(Authorizations authorizations) {
+        if (elementCountStore != null) {
+            return elementCountStore.getCount(ElementType.VERTEX, authorizations);
+        }
         String tableName = getTableNameFromElementType(ElementType.VERTEX);
         return getRowCountFromTable(tableName, AccumuloVertex.CF_SIGNAL, authorizations);
     }
 
     @Override
     public long getEdgeCount(Authorizations authorizations) {
+        if (elementCountStore != null) {
+            return elementCountStore.getCount(ElementType.EDGE, authorizations);
+        }
         String tableName = getTableNameFromElementType(ElementType.EDGE);
         return getRowCountFromTable(tableName, AccumuloEdge.CF_SIGNAL, authorizations);
     }
 
+    /**
+     * Gets the number of edges with each label from the maintained element counts.
+     */
+    public Map<String, Long> getEdgeCountsByLabel(Authorizations authorizations) {
+        return getElementCountStore().getEdgeCountsByLabel(authorizations);
+    }
+
+    /**
+     * Rebuilds the maintained element counts from the elements the authorizations can read.
+     */
+    public void recomputeElementCounts(Authorizations authorizations) {
+        getElementCountStore().recompute(authorizations);
+    }
+
+    /**
+     * Rebuilds the edge summaries of every vertex from the edges the authorizations can read, which is needed when
+     * maintainEdgeSummaries is turned on for a graph which already has edges.
+     */
+    public void recomputeEdgeSummaries(Authorizations authorizations) {
+        if (!maintainEdgeSummaries) {
+            throw new VertexiumException("Edge summaries are not maintained, set " + AccumuloGraphConfiguration.MAINTAIN_EDGE_SUMMARIES + " to enable them");
+        }
+        try {
+            flush();
+            Scanner scanner = createScanner(getVerticesTableName(), null, authorizations);
+            try {
+                scanner.fetchColumnFamily(AccumuloVertex.CF_OUT_EDGE_SUMMARY);
+                scanner.fetchColumnFamily(AccumuloVertex.CF_IN_EDGE_SUMMARY);
+                scanner.fetchColumnFamily(AccumuloVertex.CF_OUT_EDGE_SUMMARY_HIDDEN);
+                scanner.fetchColumnFamily(AccumuloVertex.CF_IN_EDGE_SUMMARY_HIDDEN);
+                for (Map.Entry<Key, Value> entry : scanner) {
+                    Key key = entry.getKey();
+                    Mutation m = new Mutation(key.getRow());
+                    m.putDelete(key.getColumnFamily(), key.getColumnQualifier(), key.getColumnVisibilityParsed(), key.getTimestamp());
+                    addMutations(VertexiumObjectType.VERTEX, m);
+                }
+            } finally {
+                scanner.close();
+            }
+            flush();
+
+            for (Edge edge : getEdges(EXISTING_ELEMENT_FETCH_HINTS, authorizations)) {
+                saveEdgeSummaryDelta(edge, edge.getLabel(), visibilityToAccumuloVisibility(edge.getVisibility()), 1);
+                for (Visibility hiddenVisibility : edge.getHiddenVisibilities()) {
+                    saveEdgeSummaryHidden(edge, edge.getLabel(), edge.getVisibility(), hiddenVisibility);
+                }
+            }
+            flush();
+        } catch (TableNotFoundException ex) {
+            throw new VertexiumException("Could not recompute edge summaries", ex);
+        }
+    }
+
+    private AccumuloElementCountStore getElementCountStore() {
+        if (elementCountStore == null) {
+            throw new VertexiumException("Element counts are not maintained, set " + AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS + " to enable them");
+        }
+        return elementCountStore;
+    }
+
     private long getRowCountFromTable(String tableName, Text signalColumn, Authorizations authorizations) {
         try {
             LOGGER.debug("BEGIN getRowCountFromTable(%s)", tableName);
@@ -11,8 +11,11 @@ import org.apache.hadoop.fs.FileSystem;
 import org.vertexium.Graph;
 import org.vertexium.GraphConfiguration;
 import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.util.BoundedScanExecutorFactory;
 import org.vertexium.accumulo.util.OverflowIntoHdfsStreamingPropertyValueStorageStrategy;
+import org.vertexium.accumulo.util.ScanExecutorFactory;
 import org.vertexium.accumulo.util.StreamingPropertyValueStorageStrategy;
+import org.vertexium.accumulo.util.UnboundedScanExecutorFactory;
 import org.vertexium.id.IdentityNameSubstitutionStrategy;
 import org.vertexium.id.NameSubstitutionStrategy;
 import org.vertexium.util.ConfigurationUtils;
@@ -57,6 +60,48 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final String HDFS_CONTEXT_CLASSPATH = "hdfsContextClasspath";
     public static final String STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX = "streamingPropertyValueStorageStrategy";
     public static final String CLIENT_CONFIGURATION_PROPERTY_CONFIG_PREFIX = "clientConfiguration.";
+    /**
+     * Keeps vertex and edge counts in a table of counters. Every save through a vertex or edge builder then first
+     * reads the element to know whether it is new, one extra scan per save.
+     */
+    public static final String MAINTAIN_ELEMENT_COUNTS = "maintainElementCounts";
+    public static final String MAINTAIN_EDGE_SUMMARIES = "maintainEdgeSummaries";
+    public static final String ELEMENT_CACHE_CONFIG_PREFIX = "elementCache";
+    public static final String ELEMENT_CACHE_ENABLED = ELEMENT_CACHE_CONFIG_PREFIX + ".enabled";
+    public static final String ELEMENT_CACHE_MAX_SIZE = ELEMENT_CACHE_CONFIG_PREFIX + ".maxSize";
+    public static final String ELEMENT_CACHE_EXPIRY_MILLIS = ELEMENT_CACHE_CONFIG_PREFIX + ".expiryMillis";
+    public static final String SCAN_EXECUTOR_CONFIG_PREFIX = "scanExecutor";
+    /**
+     * Threads of the {@link BoundedScanExecutorFactory} scan executor. A batch scan which is not read to the end keeps
+     * up to one thread per tablet server it reads blocked until it is read further or closed, so nested lazy iteration
+     * (getEdges for each vertex of getVertices, the chunks getVerticesInOrder reads ahead) holds several threads at
+     * once. Size this for the number of partly read batch scans open at once, not for throughput.
+     */
+    public static final String SCAN_EXECUTOR_THREADS = SCAN_EXECUTOR_CONFIG_PREFIX + ".threads";
+    /**
+     * Tablet server reads waiting for a thread of the {@link BoundedScanExecutorFactory} scan executor before scans
+     * fail with a RejectedExecutionException.
+     */
+    public static final String SCAN_EXECUTOR_QUEUE_SIZE = SCAN_EXECUTOR_CONFIG_PREFIX + ".queueSize";
+    /**
+     * The total query threads of the batch scans open at once. Scans past the limit wait for open scans to be read to
+     * the end or closed. Defaults to no limit for the default scan executor and to half the threads of
+     * {@link BoundedScanExecutorFactory}.
+     */
+    public static final String SCAN_EXECUTOR_MAX_OPEN_SCAN_THREADS = SCAN_EXECUTOR_CONFIG_PREFIX + ".maxOpenScanThreads";
+    /**
+     * How long a batch scan waits for room under {@link #SCAN_EXECUTOR_MAX_OPEN_SCAN_THREADS} before it fails with a
+     * VertexiumException.
+     */
+    public static final String SCAN_EXECUTOR_OPEN_SCAN_TIMEOUT_MILLIS = SCAN_EXECUTOR_CONFIG_PREFIX + ".openScanTimeoutMillis";
+    public static final String MULTI_GET_CONFIG_PREFIX = "multiGet";
+    public static final String MULTI_GET_CHUNK_SIZE = MULTI_GET_CONFIG_PREFIX + ".chunkSize";
+    public static final String MULTI_GET_CHUNKS_IN_FLIGHT = MULTI_GET_CONFIG_PREFIX + ".chunksInFlight";
+    public static final String MULTI_GET_THREADS = MULTI_GET_CONFIG_PREFIX + ".threads";
+    public static final String ASYNC_WRITER_CONFIG_PREFIX = "asyncWriter";
+    public static final String ASYNC_WRITER_SAVE_THREADS = ASYNC_WRITER_CONFIG_PREFIX + ".saveThreads";
+    public static final String ASYNC_WRITER_QUEUE_SIZE = ASYNC_WRITER_CONFIG_PREFIX + ".queueSize";
+    public static final String ASYNC_WRITER_INDEX_BATCH_SIZE = ASYNC_WRITER_CONFIG_PREFIX + ".indexBatchSize";
 
     public static final String DEFAULT_ACCUMULO_PASSWORD = "password";
     public static final String DEFAULT_ACCUMULO_USERNAME = "root";
@@ -75,6 +120,21 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final Integer DEFAULT_BATCHWRITER_MAX_WRITE_THREADS = 3;
     public static final Integer DEFAULT_ACCUMULO_MAX_VERSIONS = null;
     public static final boolean DEFAULT_HISTORY_IN_SEPARATE_TABLE = false;
+    public static final boolean DEFAULT_MAINTAIN_ELEMENT_COUNTS = false;
+    public static final boolean DEFAULT_MAINTAIN_EDGE_SUMMARIES = false;
+    public static final boolean DEFAULT_ELEMENT_CACHE_ENABLED = false;
+    public static final int DEFAULT_ELEMENT_CACHE_MAX_SIZE = 10000;
+    public static final long DEFAULT_ELEMENT_CACHE_EXPIRY_MILLIS = 60 * 1000L;
+    public static final String DEFAULT_SCAN_EXECUTOR = UnboundedScanExecutorFactory.class.getName();
+    public static final int DEFAULT_SCAN_EXECUTOR_THREADS = 256;
+    public static final int DEFAULT_SCAN_EXECUTOR_QUEUE_SIZE = 10000;
+    public static final long DEFAULT_SCAN_EXECUTOR_OPEN_SCAN_TIMEOUT_MILLIS = 60 * 1000L;
+    public static final int DEFAULT_MULTI_GET_CHUNK_SIZE = 500;
+    public static final int DEFAULT_MULTI_GET_CHUNKS_IN_FLIGHT = 4;
+    public static final int DEFAULT_MULTI_GET_THREADS = 16;
+    public static final int DEFAULT_ASYNC_WRITER_SAVE_THREADS = 4;
+    public static final int DEFAULT_ASYNC_WRITER_QUEUE_SIZE = 1000;
+    public static final int DEFAULT_ASYNC_WRITER_INDEX_BATCH_SIZE = 100;
     public static final int DEFAULT_NUMBER_OF_QUERY_THREADS = 10;
     public static final String DEFAULT_HDFS_CONTEXT_CLASSPATH = null;
     public static final String DEFAULT_STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY = OverflowIntoHdfsStreamingPropertyValueStorageStrategy.class.getName();
@@ -240,6 +300,10 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
         return ConfigurationUtils.createProvider(graph, this, STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX, DEFAULT_STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY);
     }
 
+    public ScanExecutorFactory createScanExecutorFactory(Graph graph) {
+        return ConfigurationUtils.createProvider(graph, this, SCAN_EXECUTOR_CONFIG_PREFIX, DEFAULT_SCAN_EXECUTOR);
+    }
+
     public BatchWriterConfig createBatchWriterConfig() {
         long maxMemory = getConfigLong(BATCHWRITER_MAX_MEMORY, DEFAULT_BATCHWRITER_MAX_MEMORY);
         long maxLatency = getConfigLong(BATCHWRITER_MAX_LATENCY, DEFAULT_BATCHWRITER_MAX_LATENCY);
@@ -277,4 +341,67 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public boolean isHistoryInSeparateTable() {
         return getBoolean(HISTORY_IN_SEPARATE_TABLE, DEFAULT_HISTORY_IN_SEPARATE_TABLE);
     }
+
+    public boolean isMaintainElementCounts() {
+        return getBoolean(MAINTAIN_ELEMENT_COUNTS, DEFAULT_MAINTAIN_ELEMENT_COUNTS);
+    }
+
+    public boolean isMaintainEdgeSummaries() {
+        return getBoolean(MAINTAIN_EDGE_SUMMARIES, DEFAULT_MAINTAIN_EDGE_SUMMARIES);
+    }
+
+    public boolean isElementCacheEnabled() {
+        return getBoolean(ELEMENT_CACHE_ENABLED, DEFAULT_ELEMENT_CACHE_ENABLED);
+    }
+
+    public int getElementCacheMaxSize() {
+        return getInt(ELEMENT_CACHE_MAX_SIZE, DEFAULT_ELEMENT_CACHE_MAX_SIZE);
+    }
+
+    public long getElementCacheExpiryMillis() {
+        return getConfigLong(ELEMENT_CACHE_EXPIRY_MILLIS, DEFAULT_ELEMENT_CACHE_EXPIRY_MILLIS);
+    }
+
+    public int getScanExecutorThreads() {
+        return getInt(SCAN_EXECUTOR_THREADS, DEFAULT_SCAN_EXECUTOR_THREADS);
+    }
+
+    public int getScanExecutorQueueSize() {
+        return getInt(SCAN_EXECUTOR_QUEUE_SIZE, DEFAULT_SCAN_EXECUTOR_QUEUE_SIZE);
+    }
+
+    /**
+     * @return The configured limit or null to use the scan executor factory's default.
+     */
+    public Integer getScanExecutorMaxOpenScanThreads() {
+        return getInteger(SCAN_EXECUTOR_MAX_OPEN_SCAN_THREADS, null);
+    }
+
+    public long getScanExecutorOpenScanTimeoutMillis() {
+        return getConfigLong(SCAN_EXECUTOR_OPEN_SCAN_TIMEOUT_MILLIS, DEFAULT_SCAN_EXECUTOR_OPEN_SCAN_TIMEOUT_MILLIS);
+    }
+
+    public int getMultiGetChunkSize() {
+        return getInt(MULTI_GET_CHUNK_SIZE, DEFAULT_MULTI_GET_CHUNK_SIZE);
+    }
+
+    public int getMultiGetChunksInFlight() {
+        return getInt(MULTI_GET_CHUNKS_IN_FLIGHT, DEFAULT_MULTI_GET_CHUNKS_IN_FLIGHT);
+    }
+
+    public int getMultiGetThreads() {
+        return getInt(MULTI_GET_THREADS, DEFAULT_MULTI_GET_THREADS);
+    }
+
+    public int getAsyncWriterSaveThreads() {
+        return getInt(ASYNC_WRITER_SAVE_THREADS, DEFAULT_ASYNC_WRITER_SAVE_THREADS);
+    }
+
+    public int getAsyncWriterQueueSize() {
+        return getInt(ASYNC_WRITER_QUEUE_SIZE, DEFAULT_ASYNC_WRITER_QUEUE_SIZE);
+    }
+
+    public int getAsyncWriterIndexBatchSize() {
+        return getInt(ASYNC_WRITER_INDEX_BATCH_SIZE, DEFAULT_ASYNC_WRITER_INDEX_BATCH_SIZE);
+    }
 }
@@ -0,0 +1,193 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.ScannerBase;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.vertexium.Authorizations;
+import org.vertexium.FetchHints;
+import org.vertexium.Vertex;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.util.RangeUtils;
+import org.vertexium.util.CloseableIterable;
+import org.vertexium.util.CloseableIterator;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Gets vertices by id in the order of the ids. The ids are read lazily and split into chunks, each chunk is read by
+ * its own batch scan on the graph's multi get executor. At most chunksInFlight chunks are read ahead of the chunk
+ * being iterated so the vertices held in memory do not depend on the number of ids. Vertices which are not found are
+ * skipped and an id given more than once only returns the vertex once, to do that every distinct id already read is
+ * kept until the iterator is closed, so memory use still grows with the number of distinct ids.
+ */
+public class AccumuloOrderedVerticesIterable implements CloseableIterable<Vertex> {
+    private final AccumuloGraph graph;
+    private final Iterable<String> ids;
+    private final FetchHints fetchHints;
+    private final Long endTime;
+    private final Authorizations authorizations;
+    private final int chunkSize;
+    private final int chunksInFlight;
+    private final ExecutorService executor;
+    private final List<OrderedVerticesIterator> iterators = new ArrayList<>();
+
+    public AccumuloOrderedVerticesIterable(
+        AccumuloGraph graph,
+        Iterable<String> ids,
+        FetchHints fetchHints,
+        Long endTime,
+        Authorizations authorizations,
+        int chunkSize,
+        int chunksInFlight,
+        ExecutorService executor
+    ) {
+        if (chunkSize < 1 || chunksInFlight < 1) {
+            throw new VertexiumException("chunkSize and chunksInFlight must be greater than 0");
+        }
+        this.graph = graph;
+        this.ids = ids;
+        this.fetchHints = fetchHints;
+        this.endTime = endTime;
+        this.authorizations = authorizations;
+        this.chunkSize = chunkSize;
+        this.chunksInFlight = chunksInFlight;
+        this.executor = executor;
+    }
+
+    @Override
+    public Iterator<Vertex> iterator() {
+        OrderedVerticesIterator it = new OrderedVerticesIterator();
+        synchronized (iterators) {
+            iterators.add(it);
+        }
+        return it;
+    }
+
+    @Override
+    public void close() {
+        synchronized (iterators) {
+            for (OrderedVerticesIterator it : iterators) {
+                it.close();
+            }
+            iterators.clear();
+        }
+    }
+
+    private Map<String, Vertex> readChunk(List<String> chunkIds) {
+        List<Range> ranges = new ArrayList<>(chunkIds.size());
+        for (String id : chunkIds) {
+            ranges.add(RangeUtils.createRangeFromString(id));
+        }
+        Map<String, Vertex> vertices = new HashMap<>(chunkIds.size() * 2);
+        ScannerBase scanner = graph.createVertexScanner(fetchHints, 1, null, endTime, ranges, authorizations);
+        try {
+            for (Map.Entry<Key, Value> row : scanner) {
+                Vertex vertex = AccumuloVertex.createFromIteratorValue(graph, row.getKey(), row.getValue(), fetchHints, authorizations);
+                if (vertex != null) {
+                    vertices.put(vertex.getId(), vertex);
+                }
+            }
+        } finally {
+            scanner.close();
+        }
+        return vertices;
+    }
+
+    private class OrderedVerticesIterator implements CloseableIterator<Vertex> {
+        private final Iterator<String> idIterator = ids.iterator();
+        // every distinct id read so far, O(distinct ids) for the life of the iterator
+        private final Set<String> seenIds = new HashSet<>();
+        private final Deque<Chunk> chunks = new ArrayDeque<>();
+        private Iterator<Vertex> current = Collections.emptyIterator();
+        private boolean closed;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (closed) {
+                    return false;
+                }
+                submitChunks();
+                Chunk chunk = chunks.poll();
+                if (chunk == null) {
+                    return false;
+                }
+                // keep the executor busy while this chunk is iterated
+                submitChunks();
+                current = chunk.getVertices().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void submitChunks() {
+            while (chunks.size() < chunksInFlight && idIterator.hasNext()) {
+                List<String> chunkIds = new ArrayList<>(chunkSize);
+                while (chunkIds.size() < chunkSize && idIterator.hasNext()) {
+                    String id = idIterator.next();
+                    if (seenIds.add(id)) {
+                        chunkIds.add(id);
+                    }
+                }
+                if (chunkIds.size() > 0) {
+                    chunks.add(new Chunk(chunkIds, executor.submit(() -> readChunk(chunkIds))));
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            current = Collections.emptyIterator();
+            seenIds.clear();
+            Chunk chunk;
+            while ((chunk = chunks.poll()) != null) {
+                chunk.future.cancel(true);
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final List<String> ids;
+        private final Future<Map<String, Vertex>> future;
+
+        public Chunk(List<String> ids, Future<Map<String, Vertex>> future) {
+            this.ids = ids;
+            this.future = future;
+        }
+
+        public List<Vertex> getVertices() {
+            Map<String, Vertex> verticesById;
+            try {
+                verticesById = future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new VertexiumException("Interrupted while reading vertices", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof VertexiumException) {
+                    throw (VertexiumException) ex.getCause();
+                }
+                throw new VertexiumException("Could not read vertices", ex.getCause());
+            }
+            List<Vertex> vertices = new ArrayList<>(verticesById.size());
+            for (String id : ids) {
+                Vertex vertex = verticesById.get(id);
+                if (vertex != null) {
+                    vertices.add(vertex);
+                }
+            }
+            return vertices;
+        }
+    }
+}
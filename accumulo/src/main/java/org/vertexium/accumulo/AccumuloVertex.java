@@ -33,6 +33,10 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     public static final Text CF_IN_EDGE = VertexIterator.CF_IN_EDGE;
     public static final Text CF_OUT_EDGE_SOFT_DELETE = VertexIterator.CF_OUT_EDGE_SOFT_DELETE;
     public static final Text CF_IN_EDGE_SOFT_DELETE = VertexIterator.CF_IN_EDGE_SOFT_DELETE;
+    public static final Text CF_OUT_EDGE_SUMMARY = VertexIterator.CF_OUT_EDGE_SUMMARY;
+    public static final Text CF_IN_EDGE_SUMMARY = VertexIterator.CF_IN_EDGE_SUMMARY;
+    public static final Text CF_OUT_EDGE_SUMMARY_HIDDEN = VertexIterator.CF_OUT_EDGE_SUMMARY_HIDDEN;
+    public static final Text CF_IN_EDGE_SUMMARY_HIDDEN = VertexIterator.CF_IN_EDGE_SUMMARY_HIDDEN;
     public static final Text CF_OUT_EDGE_HIDDEN = VertexIterator.CF_OUT_EDGE_HIDDEN;
     public static final Text CF_IN_EDGE_HIDDEN = VertexIterator.CF_IN_EDGE_HIDDEN;
     private final Edges inEdges;
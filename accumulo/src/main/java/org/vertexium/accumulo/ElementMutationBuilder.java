@@ -9,6 +9,7 @@ import org.apache.hadoop.io.Text;
 import org.cache2k.Cache;
 import org.cache2k.CacheBuilder;
 import org.vertexium.*;
+import org.vertexium.accumulo.iterator.VertexIterator;
 import org.vertexium.accumulo.iterator.model.EdgeInfo;
 import org.vertexium.accumulo.keys.KeyHelper;
 import org.vertexium.accumulo.util.StreamingPropertyValueStorageStrategy;
@@ -19,6 +20,7 @@ import org.vertexium.property.StreamingPropertyValueRef;
 import org.vertexium.util.ArrayUtils;
 import org.vertexium.util.Preconditions;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -351,6 +353,66 @@ public abstract class ElementMutationBuilder {
         );
     }
 
+    /**
+     * Adds delta to the count of edges with the label in the edge summary of the out and in vertex of an edge.
+     */
+    public void saveEdgeSummaryDelta(String outVertexId, String inVertexId, String edgeLabel, ColumnVisibility columnVisibility, long delta) {
+        Text edgeLabelText = new Text(getNameSubstitutionStrategy().deflate(edgeLabel));
+        Value value = new Value(Long.toString(delta).getBytes());
+
+        Mutation outMutation = new Mutation(outVertexId);
+        outMutation.put(AccumuloVertex.CF_OUT_EDGE_SUMMARY, edgeLabelText, columnVisibility, value);
+        saveVertexMutation(outMutation);
+
+        Mutation inMutation = new Mutation(inVertexId);
+        inMutation.put(AccumuloVertex.CF_IN_EDGE_SUMMARY, edgeLabelText, columnVisibility, value);
+        saveVertexMutation(inMutation);
+    }
+
+    /**
+     * Marks an edge hidden in the edge summaries of its out and in vertex. Marking it again overwrites the marker, so
+     * the edge is subtracted from the summaries once.
+     */
+    public void saveEdgeSummaryHidden(String outVertexId, String inVertexId, String edgeId, String edgeLabel, ColumnVisibility columnVisibility) {
+        byte[] edgeLabelBytes = getNameSubstitutionStrategy().deflate(edgeLabel).getBytes(StandardCharsets.UTF_8);
+        byte[] value = new byte[edgeLabelBytes.length + 1];
+        value[0] = VertexIterator.EDGE_SUMMARY_HIDDEN_MARKER;
+        System.arraycopy(edgeLabelBytes, 0, value, 1, edgeLabelBytes.length);
+        saveEdgeSummaryHiddenColumn(outVertexId, inVertexId, edgeId, columnVisibility, new Value(value));
+    }
+
+    /**
+     * Marks an edge deleted in the edge summaries of its out and in vertex, so its hidden markers are ignored.
+     */
+    public void saveEdgeSummaryDeleted(String outVertexId, String inVertexId, String edgeId, ColumnVisibility edgeColumnVisibility) {
+        saveEdgeSummaryHiddenColumn(outVertexId, inVertexId, edgeId, edgeColumnVisibility, new Value(new byte[]{VertexIterator.EDGE_SUMMARY_DELETED_MARKER}));
+    }
+
+    /**
+     * Removes a hidden or deleted marker written by {@link #saveEdgeSummaryHidden} or {@link #saveEdgeSummaryDeleted}.
+     */
+    public void deleteEdgeSummaryHiddenColumn(String outVertexId, String inVertexId, String edgeId, ColumnVisibility columnVisibility) {
+        saveEdgeSummaryHiddenColumn(outVertexId, inVertexId, edgeId, columnVisibility, null);
+    }
+
+    private void saveEdgeSummaryHiddenColumn(String outVertexId, String inVertexId, String edgeId, ColumnVisibility columnVisibility, Value value) {
+        Text edgeIdText = new Text(edgeId);
+        // an unhide followed by a hide within the same millisecond must not be lost to the delete
+        long timestamp = currentTimeMillis();
+
+        Mutation outMutation = new Mutation(outVertexId);
+        Mutation inMutation = new Mutation(inVertexId);
+        if (value == null) {
+            outMutation.putDelete(AccumuloVertex.CF_OUT_EDGE_SUMMARY_HIDDEN, edgeIdText, columnVisibility, timestamp);
+            inMutation.putDelete(AccumuloVertex.CF_IN_EDGE_SUMMARY_HIDDEN, edgeIdText, columnVisibility, timestamp);
+        } else {
+            outMutation.put(AccumuloVertex.CF_OUT_EDGE_SUMMARY_HIDDEN, edgeIdText, columnVisibility, timestamp, value);
+            inMutation.put(AccumuloVertex.CF_IN_EDGE_SUMMARY_HIDDEN, edgeIdText, columnVisibility, timestamp, value);
+        }
+        saveVertexMutation(outMutation);
+        saveVertexMutation(inMutation);
+    }
+
     private ColumnVisibility visibilityToAccumuloVisibility(Visibility visibility) {
         return new ColumnVisibility(visibility.getVisibilityString());
     }
@@ -0,0 +1,55 @@
+package org.vertexium.accumulo;
+
+import java.util.List;
+
+public class RelatedEdgeCount {
+    private final String outVertexId;
+    private final String inVertexId;
+    private final String label;
+    private final long count;
+    private final List<String> edgeIds;
+
+    public RelatedEdgeCount(String outVertexId, String inVertexId, String label, long count, List<String> edgeIds) {
+        this.outVertexId = outVertexId;
+        this.inVertexId = inVertexId;
+        this.label = label;
+        this.count = count;
+        this.edgeIds = edgeIds;
+    }
+
+    public String getOutVertexId() {
+        return outVertexId;
+    }
+
+    public String getInVertexId() {
+        return inVertexId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The number of edges from the out vertex to the in vertex with the label.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The ids of at most edgeIdLimit of the counted edges.
+     */
+    public List<String> getEdgeIds() {
+        return edgeIds;
+    }
+
+    @Override
+    public String toString() {
+        return "RelatedEdgeCount{" +
+            "outVertexId='" + outVertexId + '\'' +
+            ", inVertexId='" + inVertexId + '\'' +
+            ", label='" + label + '\'' +
+            ", count=" + count +
+            '}';
+    }
+}
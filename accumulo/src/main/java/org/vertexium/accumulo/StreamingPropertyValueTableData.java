@@ -1,11 +1,12 @@
 package org.vertexium.accumulo;
 
-import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.TimestampFilter;
@@ -13,13 +14,12 @@ import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
 import org.apache.hadoop.io.Text;
 import org.vertexium.VertexiumException;
-import org.vertexium.accumulo.util.RangeUtils;
+import org.vertexium.accumulo.util.DataInDataTableStreamingPropertyValueStorageStrategy;
+import org.vertexium.accumulo.util.StreamingPropertyValueStorageStrategy;
 import org.vertexium.property.StreamingPropertyValue;
-import org.vertexium.util.ByteRingBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -54,53 +54,112 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
 
     @Override
     public InputStream getInputStream() {
-        return new DataTableInputStream();
+        return new DataTableInputStream(0, null);
     }
 
+    /**
+     * Opens a stream positioned at the offset. Only the parts holding the offset and the data after it are read.
+     */
+    public InputStream getInputStream(long offset) {
+        return new DataTableInputStream(offset, null);
+    }
+
+    /**
+     * Opens a stream which starts with an already fetched first part and reads the remaining parts lazily.
+     */
+    public InputStream getInputStream(byte[] firstPart) {
+        return new DataTableInputStream(0, firstPart);
+    }
+
+    public String getDataRowKey() {
+        return dataRowKey;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public static Text getDataColumnQualifier(long offset) {
+        return new Text(String.format("%08x", offset));
+    }
+
+    private int getPartSize() {
+        StreamingPropertyValueStorageStrategy storageStrategy = graph.getStreamingPropertyValueStorageStrategy();
+        if (storageStrategy instanceof DataInDataTableStreamingPropertyValueStorageStrategy) {
+            return ((DataInDataTableStreamingPropertyValueStorageStrategy) storageStrategy).getPartSize();
+        }
+        return DataInDataTableStreamingPropertyValueStorageStrategy.DEFAULT_PART_SIZE;
+    }
+
+    /**
+     * Reads the data parts of the row in order. The column qualifier of each part is the offset of its first byte,
+     * so seeking starts the scan at the part holding the position instead of at the start of the row. Only the
+     * current part and one scanner batch of parts are held in memory.
+     */
     private class DataTableInputStream extends InputStream {
-        private final ByteRingBuffer buffer = new ByteRingBuffer(1024 * 1024);
+        private static final int PARTS_PER_BATCH = 100;
         private long timerStartTime;
         private Span trace;
         private ScannerBase scanner;
         private Iterator<Map.Entry<Key, Value>> scannerIterator;
-        private long previousLoadedDataLength;
-        private long loadedDataLength;
+        private boolean scanFromStart;
         private boolean closed;
+        private byte[] part;
+        private long partOffset;
+        private int partLength;
+        private long position;
+        private long markPosition;
 
-        private long markRowIndex = 0;
-        private long markByteOffsetInRow = 0;
-        private long markLoadedDataLength = 0;
-        private long currentDataRowIndex = -1;
-        private long currentByteOffsetInRow;
+        private DataTableInputStream(long position, byte[] firstPart) {
+            this.position = position;
+            if (firstPart != null) {
+                setPart(0, firstPart);
+            }
+        }
 
         @Override
         public int read(byte[] dest, int off, int len) throws IOException {
             if (len == 0) {
                 return 0;
             }
-            len = Math.min(len, buffer.getSize());
-            while (buffer.getUsed() == 0 && loadMoreData()) {
-
-            }
-            if (buffer.getUsed() == 0) {
+            if (!ensurePartLoaded()) {
                 return -1;
             }
-
-            int bytesRead = buffer.read(dest, off, len);
-            currentByteOffsetInRow += bytesRead;
+            int partPosition = (int) (position - partOffset);
+            int bytesRead = Math.min(len, partLength - partPosition);
+            System.arraycopy(part, partPosition, dest, off, bytesRead);
+            position += bytesRead;
             return bytesRead;
         }
 
         @Override
         public int read() throws IOException {
-            if (buffer.getUsed() < 1) {
-                loadMoreData();
-                if (buffer.getUsed() == 0) {
-                    return -1;
-                }
+            if (!ensurePartLoaded()) {
+                return -1;
+            }
+            int b = part[(int) (position - partOffset)] & 0xff;
+            position++;
+            return b;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            if (length != null) {
+                n = Math.min(n, length - position);
+            }
+            seek(position + n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            if (part == null || position < partOffset) {
+                return 0;
             }
-            currentByteOffsetInRow++;
-            return buffer.read();
+            return (int) Math.max(0, partOffset + partLength - position);
         }
 
         @Override
@@ -108,29 +167,65 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
             if (closed) {
                 return;
             }
+            closeScanner();
+            part = null;
+            super.close();
+            closed = true;
+        }
+
+        private void closeScanner() {
             scannerIterator = null;
             if (scanner != null) {
                 scanner.close();
                 scanner = null;
+                graph.getGraphLogger().logEndIterator(System.currentTimeMillis() - timerStartTime);
             }
             if (trace != null) {
                 trace.stop();
                 trace = null;
             }
+        }
 
-            graph.getGraphLogger().logEndIterator(System.currentTimeMillis() - timerStartTime);
-            super.close();
-            closed = true;
+        private void seek(long newPosition) {
+            boolean inCurrentPart = part != null && newPosition >= partOffset && newPosition < partOffset + partLength;
+            boolean shortlyAheadInScan = scannerIterator != null
+                && part != null
+                && newPosition >= partOffset
+                && newPosition - partOffset < (long) getPartSize() * PARTS_PER_BATCH;
+            if (!inCurrentPart && !shortlyAheadInScan) {
+                closeScanner();
+                part = null;
+            }
+            position = newPosition;
         }
 
-        private boolean loadMoreData() throws IOException {
+        private void setPart(long offset, byte[] data) {
+            part = data;
+            partOffset = offset;
+            partLength = length == null ? data.length : (int) Math.max(0, Math.min(data.length, length - offset));
+        }
+
+        private boolean ensurePartLoaded() throws IOException {
             if (closed) {
+                throw new IOException("stream already closed");
+            }
+            if (length != null && position >= length) {
                 return false;
             }
+            while (part == null || position >= partOffset + partLength) {
+                if (!loadNextPart()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean loadNextPart() throws IOException {
             Iterator<Map.Entry<Key, Value>> it = getScannerIterator();
             while (true) {
                 if (!it.hasNext()) {
-                    close();
+                    closeScanner();
+                    part = null;
                     return false;
                 }
                 Map.Entry<Key, Value> column = it.next();
@@ -144,17 +239,21 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
                 }
 
                 if (column.getKey().getColumnFamily().equals(DATA_COLUMN_FAMILY)) {
-                    currentDataRowIndex++;
-                    currentByteOffsetInRow = 0;
-
-                    byte[] data = column.getValue().get();
                     if (length == null) {
                         throw new VertexiumException("unexpected missing length (row: " + column.getKey().getRow() + ")");
                     }
-                    long len = Math.min(data.length, length - loadedDataLength);
-                    buffer.write(data, 0, (int) len);
-                    previousLoadedDataLength = loadedDataLength;
-                    loadedDataLength += len;
+                    long offset = Long.parseLong(column.getKey().getColumnQualifier().toString(), 16);
+                    if (offset > position) {
+                        // the part holding the position was written with a larger part size, start over from the beginning
+                        if (scanFromStart) {
+                            throw new VertexiumException("missing data at offset " + position + " (row: " + column.getKey().getRow() + ")");
+                        }
+                        closeScanner();
+                        scanFromStart = true;
+                        it = getScannerIterator();
+                        continue;
+                    }
+                    setPart(offset, column.getValue().get());
                     return true;
                 }
 
@@ -163,9 +262,6 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
         }
 
         private Iterator<Map.Entry<Key, Value>> getScannerIterator() throws IOException {
-            if (closed) {
-                throw new IOException("stream already closed");
-            }
             if (scannerIterator != null) {
                 return scannerIterator;
             }
@@ -180,14 +276,25 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
             if (scanner != null) {
                 return scanner;
             }
-            ArrayList<Range> ranges = Lists.newArrayList(RangeUtils.createRangeFromString(dataRowKey));
+            Text row = new Text(dataRowKey);
+            Key endKey = new Key(row).followingKey(PartialKey.ROW);
+            Range range;
+            if (length == null || scanFromStart || position == 0) {
+                range = new Range(new Key(row), true, endKey, false);
+            } else {
+                // parts are at most the part size long so the part holding the position starts after this offset
+                long firstPartOffset = Math.max(0, position - getPartSize() + 1);
+                range = new Range(new Key(row, DATA_COLUMN_FAMILY, getDataColumnQualifier(firstPartOffset)), true, endKey, false);
+            }
 
             timerStartTime = System.currentTimeMillis();
+            Scanner scanner;
             try {
-                scanner = graph.createBatchScanner(graph.getDataTableName(), ranges, new org.apache.accumulo.core.security.Authorizations());
+                scanner = graph.createScanner(graph.getDataTableName(), range, new org.apache.accumulo.core.security.Authorizations());
             } catch (TableNotFoundException ex) {
                 throw new VertexiumException("Could not create scanner", ex);
             }
+            scanner.setBatchSize(PARTS_PER_BATCH);
 
             IteratorSetting iteratorSetting = new IteratorSetting(
                 80,
@@ -197,6 +304,7 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
             TimestampFilter.setStart(iteratorSetting, timestamp, true);
             TimestampFilter.setEnd(iteratorSetting, timestamp, true);
             scanner.addScanIterator(iteratorSetting);
+            this.scanner = scanner;
 
             graph.getGraphLogger().logStartIterator(graph.getDataTableName(), scanner);
             trace = Trace.start("streamingPropertyValueTableData");
@@ -206,47 +314,15 @@ public class StreamingPropertyValueTableData extends StreamingPropertyValue {
 
         @Override
         public synchronized void mark(int readlimit) {
-            markRowIndex = Math.max(0, currentDataRowIndex);
-            markByteOffsetInRow = currentByteOffsetInRow;
-            markLoadedDataLength = previousLoadedDataLength;
+            markPosition = position;
         }
 
         @Override
         public synchronized void reset() throws IOException {
-            buffer.clear();
-            if (scannerIterator != null) {
-                scannerIterator = null;
-            }
-
-            closed = false;
-
-            currentDataRowIndex = -1;
-            currentByteOffsetInRow = 0;
-            loadedDataLength = markLoadedDataLength;
-
-            Iterator<Map.Entry<Key, Value>> it = getScannerIterator();
-            while (true) {
-                if (!it.hasNext()) {
-                    close();
-                    return;
-                }
-                Map.Entry<Key, Value> column = it.next();
-                if (column.getKey().getColumnFamily().equals(DATA_COLUMN_FAMILY)) {
-                    currentDataRowIndex++;
-                    currentByteOffsetInRow = 0;
-                    if (currentDataRowIndex == markRowIndex) {
-                        byte[] data = column.getValue().get();
-                        long len = Math.min(data.length, length - loadedDataLength);
-                        buffer.write(data, 0, (int) len);
-                        loadedDataLength += len;
-                        while (currentByteOffsetInRow != markByteOffsetInRow) {
-                            buffer.read();
-                            currentByteOffsetInRow++;
-                        }
-                        return;
-                    }
-                }
+            if (closed) {
+                throw new IOException("stream already closed");
             }
+            seek(markPosition);
         }
 
         @Override
@@ -0,0 +1,51 @@
+package org.vertexium.accumulo.util;
+
+import org.apache.accumulo.core.util.NamingThreadFactory;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.accumulo.AccumuloGraphConfiguration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed number of threads (scanExecutor.threads) with a bounded queue (scanExecutor.queueSize). Scans fail with a
+ * RejectedExecutionException when the queue is full. Not the default, set scanExecutor to this class to use it.
+ *
+ * The tablet server reads of a batch scan block while the scan's results are not being read, holding their thread.
+ * If every thread is held by partly read scans the queued reads never run. Unless scanExecutor.maxOpenScanThreads is
+ * set, the query threads of open batch scans are limited to half the thread count, leaving headroom for scans reading
+ * more tablet servers than they have query threads. Scans past the limit wait and fail after
+ * scanExecutor.openScanTimeoutMillis, so nested iteration deeper than the pool allows fails instead of hanging. Idle
+ * threads time out, so unused headroom costs nothing.
+ */
+public class BoundedScanExecutorFactory implements ScanExecutorFactory {
+    private final int threads;
+    private final int queueSize;
+
+    public BoundedScanExecutorFactory(GraphConfiguration config) {
+        AccumuloGraphConfiguration accumuloConfig = (AccumuloGraphConfiguration) config;
+        this.threads = accumuloConfig.getScanExecutorThreads();
+        this.queueSize = accumuloConfig.getScanExecutorQueueSize();
+    }
+
+    @Override
+    public ExecutorService createExecutorService() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueSize),
+            new NamingThreadFactory("Accumulo batch scanner read ahead thread")
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public int getMaxOpenScanThreads() {
+        return Math.max(1, threads / 2);
+    }
+}
@@ -1,22 +1,28 @@
 package org.vertexium.accumulo.util;
 
 import com.google.common.primitives.Longs;
+import org.apache.accumulo.core.client.ScannerBase;
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.trace.Span;
+import org.apache.accumulo.core.trace.Trace;
 import org.apache.hadoop.io.Text;
 import org.vertexium.Graph;
 import org.vertexium.GraphConfiguration;
 import org.vertexium.Property;
 import org.vertexium.VertexiumException;
-import org.vertexium.accumulo.AccumuloGraphConfiguration;
-import org.vertexium.accumulo.ElementMutationBuilder;
-import org.vertexium.accumulo.StreamingPropertyValueTableDataRef;
+import org.vertexium.accumulo.*;
 import org.vertexium.accumulo.keys.DataTableRowKey;
 import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.property.StreamingPropertyValueRef;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.vertexium.accumulo.StreamingPropertyValueTableData.*;
@@ -24,11 +30,16 @@ import static org.vertexium.accumulo.StreamingPropertyValueTableData.*;
 public class DataInDataTableStreamingPropertyValueStorageStrategy implements StreamingPropertyValueStorageStrategy {
     public static final int DEFAULT_PART_SIZE = 10 * 1024;
     private final int dataInDataTablePartSize;
+    private final AccumuloGraph graph;
 
     public DataInDataTableStreamingPropertyValueStorageStrategy(Graph graph, GraphConfiguration configuration) {
         if (!(configuration instanceof AccumuloGraphConfiguration)) {
             throw new VertexiumException("Expected " + AccumuloGraphConfiguration.class.getName() + " found " + configuration.getClass().getName());
         }
+        if (!(graph instanceof AccumuloGraph)) {
+            throw new VertexiumException("Expected " + AccumuloGraph.class.getName() + " found " + graph.getClass().getName());
+        }
+        this.graph = (AccumuloGraph) graph;
         AccumuloGraphConfiguration config = (AccumuloGraphConfiguration) configuration;
         this.dataInDataTablePartSize = config.getInt(AccumuloGraphConfiguration.STREAMING_PROPERTY_VALUE_STORAGE_STRATEGY_PREFIX + ".partSize", DEFAULT_PART_SIZE);
     }
@@ -51,7 +62,7 @@ public class DataInDataTableStreamingPropertyValueStorageStrategy implements Str
                     break;
                 }
                 Mutation dataMutation = new Mutation(dataTableRowKey);
-                Text columnQualifier = new Text(String.format("%08x", offset));
+                Text columnQualifier = getDataColumnQualifier(offset);
                 dataMutation.put(DATA_COLUMN_FAMILY, columnQualifier, property.getTimestamp(), new Value(buffer, 0, read));
                 elementMutationBuilder.saveDataMutation(dataMutation);
                 offset += read;
@@ -74,9 +85,76 @@ public class DataInDataTableStreamingPropertyValueStorageStrategy implements Str
 
     @Override
     public List<InputStream> getInputStreams(List<StreamingPropertyValue> streamingPropertyValues) {
-        // TODO optimize performance similar to org.vertexium.accumulo.util.OverflowIntoHdfsStreamingPropertyValueStorageStrategy.getInputStreams()
+        List<StreamingPropertyValueTableData> tableDataSpvs = streamingPropertyValues.stream()
+            .filter((spv) -> spv instanceof StreamingPropertyValueTableData)
+            .map((spv) -> (StreamingPropertyValueTableData) spv)
+            .collect(Collectors.toList());
+        Map<String, byte[]> firstParts = streamingPropertyValueTableDataFirstParts(tableDataSpvs);
+
         return streamingPropertyValues.stream()
-            .map(StreamingPropertyValue::getInputStream)
+            .map(spv -> {
+                if (spv instanceof StreamingPropertyValueTableData) {
+                    StreamingPropertyValueTableData tableDataSpv = (StreamingPropertyValueTableData) spv;
+                    byte[] firstPart = firstParts.get(getFirstPartKey(tableDataSpv.getDataRowKey(), tableDataSpv.getTimestamp()));
+                    if (firstPart != null) {
+                        return tableDataSpv.getInputStream(firstPart);
+                    }
+                }
+                return spv.getInputStream();
+            })
             .collect(Collectors.toList());
     }
+
+    /**
+     * Fetches the first part of every value with one batch scan, the remaining parts are read lazily by each stream.
+     */
+    private Map<String, byte[]> streamingPropertyValueTableDataFirstParts(List<StreamingPropertyValueTableData> spvs) {
+        try {
+            if (spvs.size() == 0) {
+                return Collections.emptyMap();
+            }
+
+            List<Range> ranges = spvs.stream()
+                .map(StreamingPropertyValueTableData::getDataRowKey)
+                .distinct()
+                .map(dataRowKey -> {
+                    Text row = new Text(dataRowKey);
+                    return new Range(
+                        new Key(row, DATA_COLUMN_FAMILY, getDataColumnQualifier(0)),
+                        true,
+                        new Key(row, DATA_COLUMN_FAMILY, getDataColumnQualifier(1)),
+                        false
+                    );
+                })
+                .collect(Collectors.toList());
+
+            final long timerStartTime = System.currentTimeMillis();
+            ScannerBase scanner = graph.createBatchScanner(graph.getDataTableName(), ranges, new org.apache.accumulo.core.security.Authorizations());
+
+            graph.getGraphLogger().logStartIterator(graph.getDataTableName(), scanner);
+            Span trace = Trace.start("streamingPropertyValueTableDataFirstParts");
+            trace.data("dataRowKeyCount", Integer.toString(ranges.size()));
+            try {
+                Map<String, byte[]> results = new HashMap<>();
+                for (Map.Entry<Key, Value> col : scanner) {
+                    results.put(getFirstPartKey(col.getKey().getRow().toString(), col.getKey().getTimestamp()), col.getValue().get());
+                }
+                return results;
+            } finally {
+                scanner.close();
+                trace.stop();
+                graph.getGraphLogger().logEndIterator(System.currentTimeMillis() - timerStartTime);
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException(ex);
+        }
+    }
+
+    private static String getFirstPartKey(String dataRowKey, long timestamp) {
+        return dataRowKey + ":" + timestamp;
+    }
+
+    public int getPartSize() {
+        return dataInDataTablePartSize;
+    }
 }
@@ -0,0 +1,201 @@
+package org.vertexium.accumulo.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.vertexium.VertexiumException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The executor batch scans of a graph read tablet servers on. Wraps the executor created by the configured
+ * {@link ScanExecutorFactory} and keeps the numbers needed to size it: tasks waiting for a thread, tasks running,
+ * open batch scans and the duration of batch scans per table.
+ *
+ * The reads of a batch scan which is not read to the end block holding their thread until the scan is read further or
+ * closed. On an executor with a fixed number of threads, partly read scans can hold every thread so the reads of other
+ * scans never run. maxOpenScanThreads limits the query threads of the batch scans open at once: a scan waits for
+ * earlier scans to end before it starts and fails with a {@link VertexiumException} after openScanTimeoutMillis
+ * instead of hanging on reads which never run.
+ */
+public class ScanExecutor extends AbstractExecutorService {
+    private final ExecutorService executorService;
+    private final AtomicInteger queuedTaskCount = new AtomicInteger();
+    private final AtomicInteger runningTaskCount = new AtomicInteger();
+    private final AtomicInteger activeScanCount = new AtomicInteger();
+    private final Map<String, ScanLatency> scanLatencies = new ConcurrentHashMap<>();
+    private final int maxOpenScanThreads;
+    private final long openScanTimeoutMillis;
+    private final Semaphore openScanThreads;
+
+    public ScanExecutor(ExecutorService executorService) {
+        this(executorService, 0, 0);
+    }
+
+    /**
+     * @param maxOpenScanThreads    The total query threads of the batch scans open at once, 0 for no limit.
+     * @param openScanTimeoutMillis How long a batch scan waits for open scans to end before it fails.
+     */
+    public ScanExecutor(ExecutorService executorService, int maxOpenScanThreads, long openScanTimeoutMillis) {
+        this.executorService = executorService;
+        this.maxOpenScanThreads = maxOpenScanThreads;
+        this.openScanTimeoutMillis = openScanTimeoutMillis;
+        this.openScanThreads = maxOpenScanThreads > 0 ? new Semaphore(maxOpenScanThreads, true) : null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queuedTaskCount.incrementAndGet();
+        try {
+            executorService.execute(() -> {
+                queuedTaskCount.decrementAndGet();
+                runningTaskCount.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    runningTaskCount.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException ex) {
+            queuedTaskCount.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until the scan's query threads fit in maxOpenScanThreads.
+     *
+     * @return The permits to pass to {@link #scanEnded(String, long, int)}.
+     */
+    int scanStarted(String tableName, int queryThreads) {
+        int permits = 0;
+        if (openScanThreads != null) {
+            permits = Math.max(1, Math.min(queryThreads, maxOpenScanThreads));
+            boolean acquired;
+            try {
+                acquired = openScanThreads.tryAcquire(permits, openScanTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new VertexiumException("Interrupted waiting to scan table " + tableName, ex);
+            }
+            if (!acquired) {
+                throw new VertexiumException(String.format(
+                    "Timed out after %dms waiting to scan table %s, %d batch scans are open and not read to the end (scanExecutor.maxOpenScanThreads=%d). Close scans which are no longer read.",
+                    openScanTimeoutMillis,
+                    tableName,
+                    getActiveScanCount(),
+                    maxOpenScanThreads
+                ));
+            }
+        }
+        activeScanCount.incrementAndGet();
+        return permits;
+    }
+
+    void scanEnded(String tableName, long durationNanos, int permits) {
+        scanFailed(permits);
+        scanLatencies.computeIfAbsent(tableName, t -> new ScanLatency()).add(durationNanos);
+    }
+
+    void scanFailed(int permits) {
+        activeScanCount.decrementAndGet();
+        if (permits > 0) {
+            openScanThreads.release(permits);
+        }
+    }
+
+    /**
+     * @return The number of tablet server reads waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return queuedTaskCount.get();
+    }
+
+    /**
+     * @return The number of tablet server reads running.
+     */
+    public int getRunningTaskCount() {
+        return runningTaskCount.get();
+    }
+
+    /**
+     * @return The number of batch scans which have started iterating and have not been exhausted or closed.
+     */
+    public int getActiveScanCount() {
+        return activeScanCount.get();
+    }
+
+    /**
+     * @return The total query threads of the batch scans open at once, 0 for no limit.
+     */
+    public int getMaxOpenScanThreads() {
+        return maxOpenScanThreads;
+    }
+
+    /**
+     * @return Batch scan durations keyed by table name.
+     */
+    public Map<String, ScanLatency> getScanLatencies() {
+        return Collections.unmodifiableMap(scanLatencies);
+    }
+
+    public void resetStatistics() {
+        scanLatencies.clear();
+    }
+
+    @Override
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executorService.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executorService.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executorService.awaitTermination(timeout, unit);
+    }
+
+    public static class ScanLatency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void add(long durationNanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMeanMillis() {
+            long count = getCount();
+            return count == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get()) / 1000.0 / count;
+        }
+
+        public double getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0;
+        }
+
+        public double getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMicros(totalNanos.get()) / 1000.0;
+        }
+    }
+}
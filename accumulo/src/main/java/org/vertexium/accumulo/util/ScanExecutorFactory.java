@@ -0,0 +1,20 @@
+package org.vertexium.accumulo.util;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the executor batch scans read tablet servers on. Implementations are configured with the scanExecutor
+ * setting and created with {@link org.vertexium.util.ConfigurationUtils#createProvider(String, org.vertexium.Graph, org.vertexium.GraphConfiguration)}.
+ */
+public interface ScanExecutorFactory {
+    ExecutorService createExecutorService();
+
+    /**
+     * The total query threads of the batch scans open at once when scanExecutor.maxOpenScanThreads is not set, 0 for
+     * no limit. Executors with a fixed number of threads return a limit which keeps partly read scans from holding
+     * every thread.
+     */
+    default int getMaxOpenScanThreads() {
+        return 0;
+    }
+}
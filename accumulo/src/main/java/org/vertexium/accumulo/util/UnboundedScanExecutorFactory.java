@@ -0,0 +1,27 @@
+package org.vertexium.accumulo.util;
+
+import org.apache.accumulo.core.util.NamingThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default scan executor. Starts a thread for every tablet server read which finds no idle thread, so reads held by
+ * partly read batch scans never keep other scans from running. Idle threads time out after 30 seconds. Limit the
+ * threads of nested or abandoned scans with scanExecutor.maxOpenScanThreads.
+ */
+public class UnboundedScanExecutorFactory implements ScanExecutorFactory {
+    @Override
+    public ExecutorService createExecutorService() {
+        return new ThreadPoolExecutor(
+            0,
+            Integer.MAX_VALUE,
+            30L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new NamingThreadFactory("Accumulo batch scanner read ahead thread")
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package org.vertexium.accumulo.util;
+
+import org.vertexium.VertexiumException;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every scan task on its own virtual thread. Requires a Java 21 or newer runtime, looked up by reflection since
+ * Vertexium is compiled for Java 8.
+ */
+public class VirtualThreadScanExecutorFactory implements ScanExecutorFactory {
+    @Override
+    public ExecutorService createExecutorService() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new VertexiumException("Virtual threads require Java 21 or newer, running on " + System.getProperty("java.version"), ex);
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not create virtual thread executor", ex);
+        }
+    }
+}
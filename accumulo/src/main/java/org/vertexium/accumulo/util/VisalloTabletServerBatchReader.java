@@ -11,16 +11,12 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
-import org.apache.accumulo.core.util.NamingThreadFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -30,22 +26,17 @@ public class VisalloTabletServerBatchReader extends ScannerOptions implements Ba
     private final int numThreads;
     private final ClientContext context;
     private final Authorizations authorizations;
+    private final String tableName;
+    private final ScanExecutor scanExecutor;
+    private final List<ScanIterator> openIterators = new ArrayList<>();
     private ArrayList<Range> ranges;
 
-    private static final ExecutorService queryThreadPool = new ThreadPoolExecutor(
-        0,
-        Integer.MAX_VALUE,
-        30L,
-        TimeUnit.SECONDS,
-        new SynchronousQueue<>(),
-        new NamingThreadFactory("Accumulo batch scanner read ahead thread")
-    );
-
     public VisalloTabletServerBatchReader(
         Connector connector,
         String tableName,
         Authorizations authorizations,
-        int numQueryThreads
+        int numQueryThreads,
+        ScanExecutor scanExecutor
     ) throws TableNotFoundException {
         ClientContext context = ConnectorUtils.getContext(connector);
         String tableId = Tables.getTableId(connector.getInstance(), tableName);
@@ -56,6 +47,8 @@ public class VisalloTabletServerBatchReader extends ScannerOptions implements Ba
         this.context = context;
         this.authorizations = authorizations;
         this.tableId = tableId;
+        this.tableName = tableName;
+        this.scanExecutor = scanExecutor;
         this.numThreads = numQueryThreads;
         this.ranges = null;
     }
@@ -79,15 +72,71 @@ public class VisalloTabletServerBatchReader extends ScannerOptions implements Ba
             throw new IllegalStateException("ranges not set");
         }
 
-        return new TabletServerBatchReaderIterator(
-            context,
-            tableId,
-            authorizations,
-            ranges,
-            numThreads,
-            queryThreadPool,
-            this,
-            timeOut
-        );
+        // wait for room before the iterator submits its reads to the executor
+        int permits = scanExecutor.scanStarted(tableName, numThreads);
+        ScanIterator it;
+        try {
+            it = new ScanIterator(new TabletServerBatchReaderIterator(
+                context,
+                tableId,
+                authorizations,
+                ranges,
+                numThreads,
+                scanExecutor,
+                this,
+                timeOut
+            ), permits);
+        } catch (RuntimeException ex) {
+            scanExecutor.scanFailed(permits);
+            throw ex;
+        }
+        synchronized (openIterators) {
+            openIterators.add(it);
+        }
+        return it;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        synchronized (openIterators) {
+            for (ScanIterator it : openIterators) {
+                it.scanEnded();
+            }
+            openIterators.clear();
+        }
+    }
+
+    private class ScanIterator implements Iterator<Map.Entry<Key, Value>> {
+        private final Iterator<Map.Entry<Key, Value>> iterator;
+        private final int permits;
+        private final long startTime = System.nanoTime();
+        private boolean ended;
+
+        public ScanIterator(Iterator<Map.Entry<Key, Value>> iterator, int permits) {
+            this.iterator = iterator;
+            this.permits = permits;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = iterator.hasNext();
+            if (!hasNext) {
+                scanEnded();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Map.Entry<Key, Value> next() {
+            return iterator.next();
+        }
+
+        private synchronized void scanEnded() {
+            if (!ended) {
+                ended = true;
+                scanExecutor.scanEnded(tableName, System.nanoTime() - startTime, permits);
+            }
+        }
     }
 }
@@ -0,0 +1,131 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Authorizations;
+import org.vertexium.ElementType;
+import org.vertexium.FetchHints;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AccumuloElementCacheTest {
+    private static final Authorizations AUTHORIZATIONS_A = new AccumuloAuthorizations("a");
+    private static final Authorizations AUTHORIZATIONS_A_AND_B = new AccumuloAuthorizations("a", "b");
+    private static final Authorizations AUTHORIZATIONS_B_AND_A = new AccumuloAuthorizations("b", "a");
+    private AccumuloElementCache cache;
+    private AtomicInteger loadCount;
+
+    @Before
+    public void before() {
+        cache = new AccumuloElementCache(100, 60 * 1000);
+        loadCount = new AtomicInteger();
+    }
+
+    @After
+    public void after() {
+        cache.close();
+    }
+
+    @Test
+    public void testHit() {
+        Map.Entry<Key, Value> entry = get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals("v1", entry.getKey().getRow().toString());
+        assertSame(entry, get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testNotFoundIsNotCached() {
+        assertNull(cache.get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A, notFoundLoader()));
+        assertNull(cache.get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A, notFoundLoader()));
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testKeyedByFetchHintsAndAuthorizations() {
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.EDGE_REFS, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A_AND_B);
+        assertEquals(3, loadCount.get());
+
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.EDGE_REFS, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_B_AND_A);
+        assertEquals(3, loadCount.get());
+
+        get(ElementType.EDGE, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void testWriteInvalidatesUntilFlushed() {
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.EDGE_REFS, AUTHORIZATIONS_A);
+        get(ElementType.EDGE, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals(3, loadCount.get());
+
+        cache.elementWritten(ElementType.VERTEX, "v1");
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.EDGE_REFS, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.EDGE, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals("unflushed writes are not cached", 6, loadCount.get());
+
+        cache.flushed(cache.getUnflushedWrites());
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals(7, loadCount.get());
+    }
+
+    @Test
+    public void testWriteWhileFlushingStaysUncached() {
+        cache.elementWritten(ElementType.VERTEX, "v1");
+        Map<ElementType, Map<String, Long>> flushedWrites = cache.getUnflushedWrites();
+
+        // written by other threads after the writes to flush were taken
+        cache.elementWritten(ElementType.VERTEX, "v1");
+        cache.elementWritten(ElementType.VERTEX, "v2");
+        cache.flushed(flushedWrites);
+
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v2", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v2", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals(4, loadCount.get());
+
+        cache.flushed(cache.getUnflushedWrites());
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v2", FetchHints.ALL, AUTHORIZATIONS_A);
+        get(ElementType.VERTEX, "v2", FetchHints.ALL, AUTHORIZATIONS_A);
+        assertEquals(6, loadCount.get());
+    }
+
+    private Map.Entry<Key, Value> get(ElementType elementType, String elementId, FetchHints fetchHints, Authorizations authorizations) {
+        return cache.get(elementType, elementId, fetchHints, authorizations, () -> {
+            loadCount.incrementAndGet();
+            return new AbstractMap.SimpleEntry<>(new Key(elementId), new Value(elementType.name().getBytes()));
+        });
+    }
+
+    private Supplier<Map.Entry<Key, Value>> notFoundLoader() {
+        return () -> {
+            loadCount.incrementAndGet();
+            return null;
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package org.vertexium.accumulo;
 
+import com.google.common.collect.ImmutableMap;
 import org.apache.accumulo.core.client.*;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
@@ -16,20 +17,33 @@ import org.vertexium.accumulo.iterator.model.VertexiumInvalidKeyException;
 import org.vertexium.accumulo.keys.DataTableRowKey;
 import org.vertexium.accumulo.keys.KeyHelper;
 import org.vertexium.accumulo.tools.DeleteHistoricalLegacyStreamingPropertyValueData;
+import org.vertexium.accumulo.util.DataInDataTableStreamingPropertyValueStorageStrategy;
+import org.vertexium.accumulo.util.ScanExecutor;
+import org.vertexium.event.AddVertexEvent;
+import org.vertexium.event.GraphEvent;
+import org.vertexium.event.GraphEventListener;
+import org.vertexium.mutation.ElementMutation;
+import org.vertexium.mutation.ExistingElementMutationImpl;
 import org.vertexium.property.MutablePropertyImpl;
 import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.test.GraphTestBase;
+import org.vertexium.util.CloseableIterable;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.*;
 import static org.vertexium.accumulo.ElementMutationBuilder.EMPTY_TEXT;
 import static org.vertexium.accumulo.iterator.model.KeyBase.VALUE_SEPARATOR;
+import static org.vertexium.util.IterableUtils.count;
 import static org.vertexium.util.IterableUtils.toList;
 
 public abstract class AccumuloGraphTestBase extends GraphTestBase {
@@ -461,6 +475,780 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
         assertEquals(propertyValue2, IOUtils.toString(spv.getInputStream()));
     }
 
+    @Test
+    public void testStreamingPropertyValueTableDataInputStreamAtOffset() throws Exception {
+        int partSize = DataInDataTableStreamingPropertyValueStorageStrategy.DEFAULT_PART_SIZE;
+        byte[] data = createStreamingPropertyValueData(LARGE_PROPERTY_VALUE_SIZE);
+        StreamingPropertyValueTableData spv = saveStreamingPropertyValueTableData("v1", data);
+        assertEquals(data.length, (long) spv.getLength());
+
+        long[] offsets = new long[]{0, 1, partSize - 1, partSize, partSize + 1, 100L * partSize, data.length - 1, data.length};
+        for (long offset : offsets) {
+            try (InputStream in = spv.getInputStream(offset)) {
+                assertArrayEquals("offset " + offset, Arrays.copyOfRange(data, (int) offset, data.length), IOUtils.toByteArray(in));
+                assertEquals(-1, in.read());
+            }
+        }
+
+        try (InputStream in = spv.getInputStream()) {
+            assertEquals(partSize - 1, in.skip(partSize - 1));
+            in.mark(0);
+            assertEquals(data[partSize - 1] & 0xff, in.read());
+            assertEquals(data[partSize] & 0xff, in.read());
+            in.reset();
+            assertEquals(data[partSize - 1] & 0xff, in.read());
+            assertEquals(data.length - partSize, in.skip(data.length));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testStreamingPropertyValueTableDataInputStreamWithFirstPart() throws Exception {
+        int partSize = DataInDataTableStreamingPropertyValueStorageStrategy.DEFAULT_PART_SIZE;
+        byte[] data = createStreamingPropertyValueData(LARGE_PROPERTY_VALUE_SIZE);
+        StreamingPropertyValueTableData spv = saveStreamingPropertyValueTableData("v1", data);
+        byte[] firstPart = Arrays.copyOf(data, partSize);
+
+        try (InputStream in = spv.getInputStream(firstPart)) {
+            assertArrayEquals(data, IOUtils.toByteArray(in));
+            assertEquals(-1, in.read());
+        }
+
+        try (InputStream in = spv.getInputStream(firstPart)) {
+            byte[] buffer = new byte[partSize];
+            assertEquals(partSize, IOUtils.read(in, buffer));
+            assertArrayEquals(firstPart, buffer);
+            // the next read crosses into the parts which are scanned lazily
+            assertEquals(data[partSize] & 0xff, in.read());
+            assertEquals(data.length - partSize - 2, in.skip(data.length - partSize - 2));
+            assertEquals(data[data.length - 1] & 0xff, in.read());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testStreamingPropertyValueTableDataInputStreams() throws Exception {
+        byte[] data1 = createStreamingPropertyValueData(LARGE_PROPERTY_VALUE_SIZE);
+        byte[] data2 = createStreamingPropertyValueData(LARGE_PROPERTY_VALUE_SIZE + 100);
+        StreamingPropertyValueTableData spv1 = saveStreamingPropertyValueTableData("v1", data1);
+        StreamingPropertyValueTableData spv2 = saveStreamingPropertyValueTableData("v2", data2);
+        StreamingPropertyValue spv3 = StreamingPropertyValue.create("small");
+
+        List<InputStream> inputStreams = getGraph().getStreamingPropertyValueInputStreams(Arrays.asList(spv2, spv3, spv1, spv2));
+        assertEquals(4, inputStreams.size());
+        assertArrayEquals(data2, IOUtils.toByteArray(inputStreams.get(0)));
+        assertEquals("small", IOUtils.toString(inputStreams.get(1)));
+        assertArrayEquals(data1, IOUtils.toByteArray(inputStreams.get(2)));
+        assertArrayEquals(data2, IOUtils.toByteArray(inputStreams.get(3)));
+        for (InputStream inputStream : inputStreams) {
+            inputStream.close();
+        }
+    }
+
+    private byte[] createStreamingPropertyValueData(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        return data;
+    }
+
+    private StreamingPropertyValueTableData saveStreamingPropertyValueTableData(String vertexId, byte[] data) {
+        graph.prepareVertex(vertexId, VISIBILITY_EMPTY)
+            .addPropertyValue("k1", "prop1", StreamingPropertyValue.create(new ByteArrayInputStream(data), byte[].class), VISIBILITY_EMPTY)
+            .save(AUTHORIZATIONS_EMPTY);
+        graph.flush();
+
+        Object value = graph.getVertex(vertexId, AUTHORIZATIONS_EMPTY).getPropertyValue("k1", "prop1");
+        assertTrue("expected data table value but found " + value, value instanceof StreamingPropertyValueTableData);
+        return (StreamingPropertyValueTableData) value;
+    }
+
+    @Test
+    public void testMaintainElementCounts() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS, true);
+        try {
+            graph.prepareVertex("v1", VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.prepareVertex("v1", VISIBILITY_A).save(AUTHORIZATIONS_A); // saved again before the flush
+            graph.prepareVertex("v2", VISIBILITY_B).save(AUTHORIZATIONS_B);
+            graph.prepareEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A).save(AUTHORIZATIONS_A_AND_B);
+            graph.prepareEdge("e2", "v1", "v2", LABEL_LABEL2, VISIBILITY_A).save(AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            graph.prepareVertex("v1", VISIBILITY_A).save(AUTHORIZATIONS_A); // saved again after the flush
+            graph.flush();
+            graph.prepareVertex("v2", VISIBILITY_B).save(AUTHORIZATIONS_A); // saved again by a user which can not read it
+            graph.flush();
+
+            assertEquals(2, graph.getVertexCount(AUTHORIZATIONS_A_AND_B));
+            assertEquals(1, graph.getVertexCount(AUTHORIZATIONS_A));
+            assertEquals(1, graph.getVertexCount(AUTHORIZATIONS_B));
+            assertEquals(2, graph.getEdgeCount(AUTHORIZATIONS_A));
+            assertEquals(0, graph.getEdgeCount(AUTHORIZATIONS_B));
+            assertEquals(1L, (long) graph.getEdgeCountsByLabel(AUTHORIZATIONS_A).get(LABEL_LABEL1));
+            assertEquals(1L, (long) graph.getEdgeCountsByLabel(AUTHORIZATIONS_A).get(LABEL_LABEL2));
+
+            graph.getVertex("v2", AUTHORIZATIONS_B).prepareMutation()
+                .alterElementVisibility(VISIBILITY_A)
+                .save(AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            assertEquals(2, graph.getVertexCount(AUTHORIZATIONS_A));
+            assertEquals(0, graph.getVertexCount(AUTHORIZATIONS_B));
+
+            graph.getEdge("e2", AUTHORIZATIONS_A).prepareMutation()
+                .alterEdgeLabel(LABEL_LABEL1)
+                .save(AUTHORIZATIONS_A);
+            graph.flush();
+            assertEquals(2, graph.getEdgeCount(AUTHORIZATIONS_A));
+            assertEquals(2L, (long) graph.getEdgeCountsByLabel(AUTHORIZATIONS_A).get(LABEL_LABEL1));
+            assertEquals(0L, (long) graph.getEdgeCountsByLabel(AUTHORIZATIONS_A).getOrDefault(LABEL_LABEL2, 0L));
+
+            graph.deleteEdge("e1", AUTHORIZATIONS_A);
+            graph.flush();
+            assertEquals(1, graph.getEdgeCount(AUTHORIZATIONS_A));
+
+            // a deleted element is counted again when it is saved again
+            graph.prepareEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.flush();
+            assertEquals(2, graph.getEdgeCount(AUTHORIZATIONS_A));
+
+            graph.deleteVertex("v2", AUTHORIZATIONS_A);
+            graph.flush();
+            assertEquals(1, graph.getVertexCount(AUTHORIZATIONS_A));
+            assertEquals(0, graph.getEdgeCount(AUTHORIZATIONS_A));
+
+            // recompute replaces counters which no longer match the elements
+            graph.prepareVertex("v3", VISIBILITY_B).save(AUTHORIZATIONS_B);
+            graph.prepareEdge("e3", "v1", "v3", LABEL_LABEL3, VISIBILITY_B).save(AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            graph.getConnector().tableOperations().deleteRows(
+                AccumuloGraph.getElementCountsTableName(graph.getConfiguration().getTableNamePrefix()),
+                null,
+                null
+            );
+            assertEquals(0, graph.getVertexCount(AUTHORIZATIONS_A_AND_B));
+            graph.recomputeElementCounts(AUTHORIZATIONS_A_AND_B);
+            assertEquals(1, graph.getVertexCount(AUTHORIZATIONS_A));
+            assertEquals(1, graph.getVertexCount(AUTHORIZATIONS_B));
+            assertEquals(1, graph.getEdgeCount(AUTHORIZATIONS_A_AND_B));
+            assertEquals(1L, (long) graph.getEdgeCountsByLabel(AUTHORIZATIONS_B).get(LABEL_LABEL3));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaintainEdgeSummaries() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.MAINTAIN_EDGE_SUMMARIES, true);
+        try {
+            graph.prepareVertex("v1", VISIBILITY_EMPTY).save(AUTHORIZATIONS_EMPTY);
+            graph.prepareVertex("v2", VISIBILITY_EMPTY).save(AUTHORIZATIONS_EMPTY);
+            graph.prepareEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.prepareEdge("e2", "v1", "v2", LABEL_LABEL1, VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.prepareEdge("e3", "v1", "v2", LABEL_LABEL2, VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.prepareEdge("e3", "v1", "v2", LABEL_LABEL2, VISIBILITY_A).save(AUTHORIZATIONS_A); // saved again before the flush
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of(LABEL_LABEL1, 2, LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_B, ImmutableMap.of());
+
+            graph.markEdgeHidden(graph.getEdge("e1", AUTHORIZATIONS_A), VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of(LABEL_LABEL1, 2, LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 1));
+
+            // hiding again with an edge fetched without its hidden visibilities
+            Edge e1 = graph.getEdge("e1", AUTHORIZATIONS_A);
+            assertEquals(0, count(e1.getHiddenVisibilities()));
+            graph.markEdgeHidden(e1, VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 1));
+
+            // hidden with two visibilities an edge is subtracted once from the authorizations which can read both
+            graph.markEdgeHidden(e1, VISIBILITY_C, AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B_AND_C, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of(LABEL_LABEL1, 2, LABEL_LABEL2, 1));
+
+            e1 = graph.getEdge("e1", FetchHints.ALL_INCLUDING_HIDDEN, AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.markEdgeVisible(e1, VISIBILITY_B, AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B, ImmutableMap.of(LABEL_LABEL1, 2, LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B_AND_C, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 1));
+            graph.markEdgeVisible(e1, VISIBILITY_C, AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B_AND_C, ImmutableMap.of(LABEL_LABEL1, 2, LABEL_LABEL2, 1));
+
+            // the hidden marker follows the label of a hidden edge
+            graph.markEdgeHidden(graph.getEdge("e2", AUTHORIZATIONS_A), VISIBILITY_B, AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            graph.getEdge("e2", FetchHints.ALL_INCLUDING_HIDDEN, AUTHORIZATIONS_A_AND_B).prepareMutation()
+                .alterEdgeLabel(LABEL_LABEL2)
+                .save(AUTHORIZATIONS_A);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 2));
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B, ImmutableMap.of(LABEL_LABEL1, 1, LABEL_LABEL2, 1));
+
+            // and its visibility
+            graph.getEdge("e2", FetchHints.ALL_INCLUDING_HIDDEN, AUTHORIZATIONS_A_AND_B_AND_C).prepareMutation()
+                .alterElementVisibility(VISIBILITY_C)
+                .save(AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.getEdge("e3", AUTHORIZATIONS_A).prepareMutation()
+                .alterElementVisibility(VISIBILITY_B)
+                .save(AUTHORIZATIONS_A_AND_B);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of(LABEL_LABEL1, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_B, ImmutableMap.of(LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_C, ImmutableMap.of(LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_B_AND_C, ImmutableMap.of(LABEL_LABEL2, 1));
+
+            graph.softDeleteEdge("e1", AUTHORIZATIONS_A);
+            graph.deleteEdge("e3", AUTHORIZATIONS_B);
+            graph.prepareEdge("e4", "v1", "v2", LABEL_LABEL2, VISIBILITY_C).save(AUTHORIZATIONS_C);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_A, ImmutableMap.of());
+            assertEdgeSummary(graph, AUTHORIZATIONS_B_AND_C, ImmutableMap.of(LABEL_LABEL2, 1));
+
+            // deleted by authorizations which can not read the hidden marker
+            Edge e2 = graph.getEdge("e2", AUTHORIZATIONS_C);
+            assertEquals(0, count(e2.getHiddenVisibilities()));
+            graph.deleteEdge(e2, AUTHORIZATIONS_C);
+            graph.flush();
+            assertEdgeSummary(graph, AUTHORIZATIONS_C, ImmutableMap.of(LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_B_AND_C, ImmutableMap.of(LABEL_LABEL2, 1));
+
+            // recompute replaces summaries which no longer match the edges
+            graph.markEdgeHidden(graph.getEdge("e4", AUTHORIZATIONS_C), VISIBILITY_A, AUTHORIZATIONS_A_AND_B_AND_C);
+            graph.prepareEdge("e5", "v1", "v2", LABEL_LABEL3, VISIBILITY_A).save(AUTHORIZATIONS_A);
+            graph.flush();
+            Mutation m = new Mutation("v1");
+            m.put(AccumuloVertex.CF_OUT_EDGE_SUMMARY, new Text(LABEL_LABEL3), new Value("5".getBytes()));
+            graph.getVerticesWriter().addMutation(m);
+            graph.flush();
+            graph.recomputeEdgeSummaries(AUTHORIZATIONS_ALL);
+            assertEdgeSummary(graph, AUTHORIZATIONS_C, ImmutableMap.of(LABEL_LABEL2, 1));
+            assertEdgeSummary(graph, AUTHORIZATIONS_A_AND_B_AND_C, ImmutableMap.of(LABEL_LABEL3, 1));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    /**
+     * Checks the edge counts of v1 to v2 read from the edge summaries against the counts of the edge refs.
+     */
+    private void assertEdgeSummary(AccumuloGraph graph, Authorizations authorizations, Map<String, Integer> expected) {
+        Vertex v1 = graph.getVertex("v1", FetchHints.EDGE_LABELS, authorizations);
+        assertEquals(expected, v1.getEdgesSummary(authorizations).getOutEdgeCountsByLabels());
+        Vertex v2 = graph.getVertex("v2", FetchHints.EDGE_LABELS, authorizations);
+        assertEquals(expected, v2.getEdgesSummary(authorizations).getInEdgeCountsByLabels());
+
+        Vertex v1WithEdgeRefs = graph.getVertex("v1", FetchHints.ALL, authorizations);
+        assertEquals(expected, v1WithEdgeRefs.getEdgesSummary(authorizations).getOutEdgeCountsByLabels());
+    }
+
+    @Test
+    public void testElementCache() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.ELEMENT_CACHE_ENABLED, true);
+        try {
+            AccumuloElementCache elementCache = graph.getElementCache();
+            graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "name", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+            graph.flush();
+
+            assertEquals("value1", graph.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("name"));
+            long hitCount = elementCache.getHitCount();
+            assertEquals("value1", graph.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("name"));
+            assertEquals(hitCount + 1, elementCache.getHitCount());
+            long beforeChangeTime = System.currentTimeMillis();
+            Thread.sleep(10);
+
+            // changed by a builder, the unflushed change is read from Accumulo instead of the cache
+            graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "name", "value2", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+            assertNotCached(graph, "v1", AUTHORIZATIONS_A);
+            graph.flush();
+            assertEquals("value2", graph.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("name"));
+            hitCount = elementCache.getHitCount();
+            assertEquals("value2", graph.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("name"));
+            assertEquals("cached again once flushed", hitCount + 1, elementCache.getHitCount());
+
+            // history reads skip the cache
+            hitCount = elementCache.getHitCount();
+            long missCount = elementCache.getMissCount();
+            Vertex v1 = graph.getVertex("v1", FetchHints.ALL, beforeChangeTime, AUTHORIZATIONS_A);
+            assertEquals("value1", v1.getPropertyValue("name"));
+            assertEquals(hitCount, elementCache.getHitCount());
+            assertEquals(missCount, elementCache.getMissCount());
+
+            // marked hidden
+            graph.markVertexHidden(graph.getVertex("v1", AUTHORIZATIONS_A), VISIBILITY_A, AUTHORIZATIONS_A);
+            assertNotCached(graph, "v1", AUTHORIZATIONS_A);
+            graph.flush();
+            assertNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+            assertNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+            assertTrue(graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, AUTHORIZATIONS_A).isHidden(AUTHORIZATIONS_A));
+
+            graph.markVertexVisible(graph.getVertex("v1", FetchHints.ALL_INCLUDING_HIDDEN, AUTHORIZATIONS_A), VISIBILITY_A, AUTHORIZATIONS_A);
+            graph.flush();
+            assertNotNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+            assertNotNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+
+            // visibility altered
+            graph.getVertex("v1", AUTHORIZATIONS_A)
+                .prepareMutation()
+                .alterElementVisibility(VISIBILITY_B)
+                .save(AUTHORIZATIONS_A_AND_B);
+            assertNotCached(graph, "v1", AUTHORIZATIONS_A);
+            graph.flush();
+            assertNull(graph.getVertex("v1", AUTHORIZATIONS_A));
+            assertEquals(VISIBILITY_B, graph.getVertex("v1", AUTHORIZATIONS_A_AND_B).getVisibility());
+            assertEquals(VISIBILITY_B, graph.getVertex("v1", AUTHORIZATIONS_B).getVisibility());
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    private void assertNotCached(AccumuloGraph graph, String vertexId, Authorizations authorizations) {
+        AccumuloElementCache elementCache = graph.getElementCache();
+        long hitCount = elementCache.getHitCount();
+        graph.getVertex(vertexId, authorizations);
+        graph.getVertex(vertexId, authorizations);
+        assertEquals("unflushed writes are not read from the cache", hitCount, elementCache.getHitCount());
+    }
+
+    @Test
+    public void testFindRelatedEdgeCountsMatchesFindRelatedEdgeSummary() {
+        AccumuloGraph graph = getGraph();
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e1", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e2", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e3", v1, v2, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e4", v1, v3, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e5", v3, v1, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e6", v2, v3, LABEL_LABEL1, VISIBILITY_B, AUTHORIZATIONS_B);
+        graph.addEdge("e7", v3, v4, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        List<String> vertexIds = Arrays.asList("v1", "v2", "v3");
+        assertRelatedEdgeCountsMatchSummary(graph, vertexIds, AUTHORIZATIONS_A, 4);
+        assertRelatedEdgeCountsMatchSummary(graph, vertexIds, AUTHORIZATIONS_A_AND_B, 5);
+
+        graph.markEdgeHidden(graph.getEdge("e1", AUTHORIZATIONS_A), VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+        assertRelatedEdgeCountsMatchSummary(graph, vertexIds, AUTHORIZATIONS_A, 4);
+
+        graph.softDeleteEdge("e3", AUTHORIZATIONS_A);
+        graph.flush();
+        assertRelatedEdgeCountsMatchSummary(graph, vertexIds, AUTHORIZATIONS_A, 3);
+
+        graph.prepareEdge("e3", v1, v2, LABEL_LABEL2, VISIBILITY_A).save(AUTHORIZATIONS_A);
+        graph.flush();
+        assertRelatedEdgeCountsMatchSummary(graph, vertexIds, AUTHORIZATIONS_A, 4);
+    }
+
+    /**
+     * Groups the related edges of findRelatedEdgeSummary by out vertex, in vertex and label and checks them against
+     * the counts and edge ids of findRelatedEdgeCounts.
+     */
+    protected void assertRelatedEdgeCountsMatchSummary(
+        AccumuloGraph graph,
+        List<String> vertexIds,
+        Authorizations authorizations,
+        int expectedCountKeys
+    ) {
+        Map<List<String>, Set<String>> expected = new HashMap<>();
+        for (RelatedEdge relatedEdge : graph.findRelatedEdgeSummary(vertexIds, authorizations)) {
+            List<String> key = Arrays.asList(relatedEdge.getOutVertexId(), relatedEdge.getInVertexId(), relatedEdge.getLabel());
+            expected.computeIfAbsent(key, k -> new HashSet<>()).add(relatedEdge.getEdgeId());
+        }
+        assertEquals(expected.toString(), expectedCountKeys, expected.size());
+
+        Map<List<String>, Set<String>> actual = new HashMap<>();
+        for (RelatedEdgeCount relatedEdgeCount : graph.findRelatedEdgeCounts(vertexIds, Integer.MAX_VALUE, null, authorizations)) {
+            List<String> key = Arrays.asList(relatedEdgeCount.getOutVertexId(), relatedEdgeCount.getInVertexId(), relatedEdgeCount.getLabel());
+            Set<String> edgeIds = new HashSet<>(relatedEdgeCount.getEdgeIds());
+            assertEquals(relatedEdgeCount.toString(), edgeIds.size(), relatedEdgeCount.getCount());
+            assertNull("one count per out vertex, in vertex and label", actual.put(key, edgeIds));
+        }
+        assertEquals(expected, actual);
+
+        // the edge ids are limited, the counts are not
+        for (RelatedEdgeCount relatedEdgeCount : graph.findRelatedEdgeCounts(vertexIds, 1, null, authorizations)) {
+            Set<String> expectedEdgeIds = expected.get(Arrays.asList(relatedEdgeCount.getOutVertexId(), relatedEdgeCount.getInVertexId(), relatedEdgeCount.getLabel()));
+            assertNotNull(relatedEdgeCount.toString(), expectedEdgeIds);
+            assertEquals(expectedEdgeIds.size(), relatedEdgeCount.getCount());
+            assertEquals(1, relatedEdgeCount.getEdgeIds().size());
+            assertTrue(expectedEdgeIds.containsAll(relatedEdgeCount.getEdgeIds()));
+        }
+    }
+
+    @Test
+    public void testSaveElementMutationsAsyncKeepsOrderOfEachElement() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.ASYNC_WRITER_SAVE_THREADS, 4);
+        try {
+            Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+            Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+            graph.flush();
+
+            List<Integer> v1SaveOrder = Collections.synchronizedList(new ArrayList<>());
+            List<Integer> v2SaveOrder = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Vertex>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                int index = i;
+                futures.add(graph.saveElementMutationAsync(new TestVertexMutation(v1, () -> v1SaveOrder.add(index)), AUTHORIZATIONS_A));
+                futures.add(graph.saveElementMutationAsync(new TestVertexMutation(v2, () -> v2SaveOrder.add(index)), AUTHORIZATIONS_A));
+            }
+            for (CompletableFuture<Vertex> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, v1SaveOrder);
+            assertEquals(expected, v2SaveOrder);
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaveElementMutationsAsyncBlocksWhenFull() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put(AccumuloGraphConfiguration.ASYNC_WRITER_SAVE_THREADS, 1);
+        config.put(AccumuloGraphConfiguration.ASYNC_WRITER_QUEUE_SIZE, 1);
+        AccumuloGraph graph = createGraphWithConfig(config);
+        try {
+            Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+            graph.flush();
+
+            CountDownLatch saving = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Vertex> blockedFuture = graph.saveElementMutationAsync(new TestVertexMutation(v1, () -> {
+                saving.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new VertexiumException("interrupted", ex);
+                }
+            }), AUTHORIZATIONS_A);
+            assertTrue(saving.await(1, TimeUnit.MINUTES));
+            CompletableFuture<Vertex> queuedFuture = graph.saveElementMutationAsync(graph.prepareVertex("v2", VISIBILITY_A), AUTHORIZATIONS_A);
+
+            CompletableFuture<CompletableFuture<Vertex>> submitted = CompletableFuture.supplyAsync(
+                () -> graph.saveElementMutationAsync(graph.prepareVertex("v3", VISIBILITY_A), AUTHORIZATIONS_A)
+            );
+            Thread.sleep(500);
+            assertFalse("submitting should block while the save queue is full", submitted.isDone());
+
+            release.countDown();
+            blockedFuture.get(1, TimeUnit.MINUTES);
+            queuedFuture.get(1, TimeUnit.MINUTES);
+            submitted.get(1, TimeUnit.MINUTES).get(1, TimeUnit.MINUTES);
+            assertNotNull(graph.getVertex("v3", AUTHORIZATIONS_A));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaveElementMutationsAsyncFailure() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.ASYNC_WRITER_SAVE_THREADS, 1);
+        try {
+            Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+            graph.flush();
+
+            List<ElementMutation> mutations = new ArrayList<>();
+            mutations.add(graph.prepareVertex("v2", VISIBILITY_A));
+            mutations.add(new TestVertexMutation(v1, () -> {
+                throw new VertexiumException("test failure");
+            }));
+            mutations.add(graph.prepareVertex("v3", VISIBILITY_A));
+            CompletableFuture<List<Element>> future = graph.saveElementMutationsAsync(mutations, AUTHORIZATIONS_A);
+            try {
+                future.get(1, TimeUnit.MINUTES);
+                fail("expected the failure of the second mutation");
+            } catch (ExecutionException ex) {
+                assertEquals("test failure", ex.getCause().getMessage());
+            }
+
+            // the mutations around the failed one are saved and the writer keeps working
+            graph.saveElementMutationAsync(graph.prepareVertex("v4", VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            assertNotNull(graph.getVertex("v2", AUTHORIZATIONS_A));
+            assertNotNull(graph.getVertex("v3", AUTHORIZATIONS_A));
+            assertNotNull(graph.getVertex("v4", AUTHORIZATIONS_A));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaveElementMutationAsyncFromCompletion() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put(AccumuloGraphConfiguration.ASYNC_WRITER_SAVE_THREADS, 1);
+        config.put(AccumuloGraphConfiguration.ASYNC_WRITER_QUEUE_SIZE, 1);
+        AccumuloGraph graph = createGraphWithConfig(config);
+        try {
+            List<String> callbackThreadNames = Collections.synchronizedList(new ArrayList<>());
+            // more saves than the queues hold, submitted from the thread completing the first future
+            CompletableFuture<List<Element>> chained = graph.saveElementMutationAsync(graph.prepareVertex("v0", VISIBILITY_A), AUTHORIZATIONS_A)
+                .thenCompose(v0 -> {
+                    callbackThreadNames.add(Thread.currentThread().getName());
+                    List<ElementMutation> mutations = new ArrayList<>();
+                    for (int i = 1; i <= 10; i++) {
+                        mutations.add(graph.prepareVertex("v" + i, VISIBILITY_A));
+                    }
+                    return graph.saveElementMutationsAsync(mutations, AUTHORIZATIONS_A);
+                });
+
+            assertEquals(10, chained.get(1, TimeUnit.MINUTES).size());
+            assertEquals(Collections.singletonList("vertexium-async-writer-complete"), callbackThreadNames);
+            assertEquals(11, count(graph.getVertices(AUTHORIZATIONS_A)));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaveElementMutationsAsyncFlushesLikeFlush() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS, true);
+        try {
+            List<GraphEvent> events = Collections.synchronizedList(new ArrayList<>());
+            graph.addGraphEventListener(new GraphEventListener() {
+                @Override
+                public void onGraphEvent(GraphEvent graphEvent) {
+                    events.add(graphEvent);
+                }
+            });
+
+            graph.saveElementMutationAsync(graph.prepareVertex("v1", VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            assertTrue("events are fired by the async flush", events.stream().anyMatch(e -> e instanceof AddVertexEvent));
+
+            graph.saveElementMutationAsync(graph.prepareVertex("v2", VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            graph.saveElementMutationAsync(graph.prepareEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            graph.deleteEdge("e1", AUTHORIZATIONS_A);
+            // flushes the delete without calling graph.flush()
+            graph.saveElementMutationAsync(graph.prepareVertex("v3", VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            graph.saveElementMutationAsync(graph.prepareEdge("e1", "v1", "v2", LABEL_LABEL1, VISIBILITY_A), AUTHORIZATIONS_A).get(1, TimeUnit.MINUTES);
+            graph.flush();
+
+            assertEquals(3, graph.getVertexCount(AUTHORIZATIONS_A));
+            assertEquals(1, graph.getEdgeCount(AUTHORIZATIONS_A));
+        } finally {
+            graph.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownWithAsyncSaves() throws Exception {
+        AccumuloGraph graph = createGraphWithConfig(AccumuloGraphConfiguration.ASYNC_WRITER_SAVE_THREADS, 2);
+        List<CompletableFuture<Vertex>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(graph.saveElementMutationAsync(graph.prepareVertex("v" + i, VISIBILITY_A), AUTHORIZATIONS_A));
+        }
+        graph.shutdown();
+        for (CompletableFuture<Vertex> future : futures) {
+            assertTrue(future.isDone());
+            future.get();
+        }
+        try {
+            graph.saveElementMutationAsync(graph.prepareVertex("v100", VISIBILITY_A), AUTHORIZATIONS_A);
+            fail("expected the writer to be closed");
+        } catch (VertexiumException ex) {
+            // expected
+        }
+
+        assertEquals(100, count(this.graph.getVertices(AUTHORIZATIONS_A)));
+    }
+
+    @Test
+    public void testGetVerticesInOrderAcrossChunks() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex("v" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+        }
+        graph.flush();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertVertexIdsInOrder(
+                getVerticesInOrder(executor, Arrays.asList("v7", "v3", "v9", "v0", "v5", "v1", "v8"), 2, 2),
+                "v7", "v3", "v9", "v0", "v5", "v1", "v8"
+            );
+            assertVertexIdsInOrder(
+                getVerticesInOrder(executor, Arrays.asList("v1", "v2", "v1", "v3", "v2", "v4", "v4", "v1"), 2, 1),
+                "v1", "v2", "v3", "v4"
+            );
+            assertVertexIdsInOrder(
+                getVerticesInOrder(executor, Arrays.asList("v1", "missing1", "missing2", "missing3", "v2", "missing4", "v3"), 2, 2),
+                "v1", "v2", "v3"
+            );
+            assertVertexIdsInOrder(getVerticesInOrder(executor, Arrays.asList("missing1", "missing2"), 1, 1));
+            assertVertexIdsInOrder(getVerticesInOrder(executor, Collections.emptyList(), 2, 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetVerticesInOrderCloseCancelsReadAhead() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex("v" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+            ids.add("v" + i);
+        }
+        graph.flush();
+
+        AtomicInteger idsRead = new AtomicInteger();
+        Iterable<String> lazyIds = () -> ids.stream().peek(id -> idsRead.incrementAndGet()).iterator();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger started = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+                RunnableFuture<T> future = super.newTaskFor(callable);
+                futures.add(future);
+                return future;
+            }
+
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                // only the first chunk is read, the chunks read ahead wait until they are cancelled
+                if (started.incrementAndGet() > 1) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        try {
+            AccumuloOrderedVerticesIterable vertices = new AccumuloOrderedVerticesIterable(
+                getGraph(),
+                lazyIds,
+                FetchHints.ALL,
+                null,
+                AUTHORIZATIONS_A,
+                1,
+                3,
+                executor
+            );
+            Iterator<Vertex> it = vertices.iterator();
+            assertEquals("v0", it.next().getId());
+            assertEquals("only the chunks in flight read ids", 4, idsRead.get());
+            assertEquals(4, futures.size());
+
+            vertices.close();
+            assertFalse(it.hasNext());
+            assertFalse(futures.get(0).isCancelled());
+            for (Future<?> future : futures.subList(1, futures.size())) {
+                assertTrue("read ahead chunk should be cancelled", future.isCancelled());
+            }
+            assertEquals(4, idsRead.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScanExecutorStatistics() throws Exception {
+        graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        ScanExecutor scanExecutor = getGraph().getScanExecutor();
+        scanExecutor.resetStatistics();
+        assertEquals(2, count(graph.getVertices(Arrays.asList("v1", "v2"), AUTHORIZATIONS_A)));
+        String verticesTableName = getGraph().getVerticesTableName();
+        long scanCount = scanExecutor.getScanLatencies().get(verticesTableName).getCount();
+        assertTrue(scanCount > 0);
+        assertEquals(0, scanExecutor.getActiveScanCount());
+
+        // a scan closed before it is read to the end is counted once
+        ScannerBase scanner = getGraph().createBatchScanner(
+            verticesTableName,
+            Collections.singletonList(new Range()),
+            AUTHORIZATIONS_A
+        );
+        Iterator<Map.Entry<Key, Value>> it = scanner.iterator();
+        assertTrue(it.hasNext());
+        it.next();
+        assertEquals(1, scanExecutor.getActiveScanCount());
+        scanner.close();
+        scanner.close();
+        assertEquals(0, scanExecutor.getActiveScanCount());
+        assertEquals(scanCount + 1, scanExecutor.getScanLatencies().get(verticesTableName).getCount());
+        assertEquals(0, scanExecutor.getQueueDepth());
+    }
+
+    private CloseableIterable<Vertex> getVerticesInOrder(
+        ExecutorService executor,
+        List<String> ids,
+        int chunkSize,
+        int chunksInFlight
+    ) {
+        return new AccumuloOrderedVerticesIterable(
+            getGraph(),
+            ids,
+            FetchHints.ALL,
+            null,
+            AUTHORIZATIONS_A,
+            chunkSize,
+            chunksInFlight,
+            executor
+        );
+    }
+
+    private void assertVertexIdsInOrder(CloseableIterable<Vertex> vertices, String... expectedIds) throws IOException {
+        try {
+            List<String> ids = new ArrayList<>();
+            for (Vertex vertex : vertices) {
+                ids.add(vertex.getId());
+            }
+            assertEquals(Arrays.asList(expectedIds), ids);
+        } finally {
+            vertices.close();
+        }
+    }
+
+    private static class TestVertexMutation extends ExistingElementMutationImpl<Vertex> {
+        private final Runnable onSave;
+
+        public TestVertexMutation(Vertex vertex, Runnable onSave) {
+            super(vertex);
+            this.onSave = onSave;
+            setProperty("prop1", "value1", VISIBILITY_A);
+        }
+
+        @Override
+        public Vertex save(Authorizations authorizations) {
+            onSave.run();
+            return getElement();
+        }
+    }
+
+    private AccumuloGraph createGraphWithConfig(String key, Object value) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(key, value);
+        return createGraphWithConfig(config);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AccumuloGraph createGraphWithConfig(Map<String, Object> extraConfig) {
+        Map config = getAccumuloResource().createConfig();
+        config.putAll(extraConfig);
+        AccumuloGraph graph = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        // tables only used with the option are not dropped between tests
+        graph.truncate();
+        return graph;
+    }
+
     // need to add it manually because the key format changed
     private void addLegacySPVData(
         String vertexId,
@@ -1,12 +1,23 @@
 package org.vertexium.accumulo;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import org.junit.ClassRule;
+import org.junit.Test;
+import org.vertexium.FindPathOptions;
+import org.vertexium.Path;
+import org.vertexium.Vertex;
 import org.vertexium.id.SimpleNameSubstitutionStrategy;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.vertexium.id.SimpleSubstitutionUtils.*;
+import static org.vertexium.util.IterableUtils.toSet;
 
 public class AccumuloSimpleSubstitutionGraphTest extends AccumuloGraphTestBase {
 
@@ -39,4 +50,64 @@ public class AccumuloSimpleSubstitutionGraphTest extends AccumuloGraphTestBase {
         }
         return str;
     }
+
+    @Test
+    public void testFindPathsWithSubstitutedLabels() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v2, v4, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v3, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v3, v4, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        // the labels are stored deflated, the filters run on the tablet servers
+        for (int maxHops = 2; maxHops <= 3; maxHops++) {
+            assertEquals(
+                Sets.newHashSet(new Path("v1", "v2", "v4")),
+                toSet(graph.findPaths(new FindPathOptions("v1", "v4", maxHops).setLabels(LABEL_LABEL1), AUTHORIZATIONS_A))
+            );
+            assertEquals(
+                Sets.newHashSet(new Path("v1", "v2", "v4"), new Path("v1", "v3", "v4")),
+                toSet(graph.findPaths(new FindPathOptions("v1", "v4", maxHops).setLabels(LABEL_LABEL1, LABEL_LABEL2), AUTHORIZATIONS_A))
+            );
+            assertEquals(
+                Sets.newHashSet(new Path("v1", "v2", "v4")),
+                toSet(graph.findPaths(new FindPathOptions("v1", "v4", maxHops).setExcludedLabels(LABEL_LABEL2), AUTHORIZATIONS_A))
+            );
+            assertEquals(
+                Sets.newHashSet(),
+                toSet(graph.findPaths(new FindPathOptions("v1", "v4", maxHops).setExcludedLabels(LABEL_LABEL1), AUTHORIZATIONS_A))
+            );
+        }
+        assertEquals(
+            Sets.newHashSet(new Path("v1", "v2")),
+            toSet(graph.findPaths(new FindPathOptions("v1", "v2", 1).setLabels(LABEL_LABEL1), AUTHORIZATIONS_A))
+        );
+        assertEquals(
+            Sets.newHashSet(),
+            toSet(graph.findPaths(new FindPathOptions("v1", "v3", 1).setExcludedLabels(LABEL_LABEL2), AUTHORIZATIONS_A))
+        );
+    }
+
+    @Test
+    public void testFindRelatedEdgeCountsWithSubstitutedLabels() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e1", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e2", v1, v2, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e3", v2, v1, LABEL_LABEL2, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        // the labels are stored deflated and counted on the tablet servers
+        List<String> vertexIds = Arrays.asList("v1", "v2");
+        Map<String, Long> countsByLabel = new HashMap<>();
+        for (RelatedEdgeCount relatedEdgeCount : getGraph().findRelatedEdgeCounts(vertexIds, 0, null, AUTHORIZATIONS_A)) {
+            countsByLabel.put(relatedEdgeCount.getLabel(), relatedEdgeCount.getCount());
+        }
+        assertEquals(ImmutableMap.of(LABEL_LABEL1, 2L, LABEL_LABEL2, 1L), countsByLabel);
+        assertRelatedEdgeCountsMatchSummary(getGraph(), vertexIds, AUTHORIZATIONS_A, 2);
+    }
 }
@@ -0,0 +1,167 @@
+package org.vertexium.accumulo.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.VertexiumException;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ScanExecutorTest {
+    private ScanExecutor scanExecutor;
+
+    @Before
+    public void before() {
+        scanExecutor = new ScanExecutor(Executors.newFixedThreadPool(1));
+    }
+
+    @After
+    public void after() {
+        scanExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testQueuedAndRunningTasks() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = scanExecutor.submit(() -> {
+            running.countDown();
+            release.await();
+            return null;
+        });
+        Future<?> second = scanExecutor.submit(() -> {
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        assertEquals(1, scanExecutor.getRunningTaskCount());
+        assertEquals(1, scanExecutor.getQueueDepth());
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        scanExecutor.shutdown();
+        assertTrue(scanExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, scanExecutor.getRunningTaskCount());
+        assertEquals(0, scanExecutor.getQueueDepth());
+    }
+
+    @Test
+    public void testRejectedTaskIsNotQueued() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        ScanExecutor boundedScanExecutor = new ScanExecutor(executor);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            boundedScanExecutor.execute(() -> {
+                running.countDown();
+                awaitUninterruptibly(release);
+            });
+            awaitUninterruptibly(running);
+            boundedScanExecutor.execute(() -> {
+            });
+            try {
+                boundedScanExecutor.execute(() -> {
+                });
+                fail("expected the task to be rejected");
+            } catch (RejectedExecutionException ex) {
+                // expected
+            }
+            assertEquals(1, boundedScanExecutor.getQueueDepth());
+            assertEquals(1, boundedScanExecutor.getRunningTaskCount());
+        } finally {
+            release.countDown();
+            boundedScanExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScanLatencies() {
+        assertEquals(0, scanExecutor.scanStarted("table1", 10));
+        assertEquals(0, scanExecutor.scanStarted("table1", 10));
+        assertEquals(0, scanExecutor.scanStarted("table2", 10));
+        assertEquals(3, scanExecutor.getActiveScanCount());
+
+        scanExecutor.scanEnded("table1", TimeUnit.MILLISECONDS.toNanos(10), 0);
+        scanExecutor.scanEnded("table1", TimeUnit.MILLISECONDS.toNanos(30), 0);
+        scanExecutor.scanEnded("table2", TimeUnit.MILLISECONDS.toNanos(5), 0);
+        assertEquals(0, scanExecutor.getActiveScanCount());
+
+        assertEquals(2, scanExecutor.getScanLatencies().size());
+        ScanExecutor.ScanLatency table1 = scanExecutor.getScanLatencies().get("table1");
+        assertEquals(2, table1.getCount());
+        assertEquals(20.0, table1.getMeanMillis(), 0.001);
+        assertEquals(30.0, table1.getMaxMillis(), 0.001);
+        assertEquals(40.0, table1.getTotalMillis(), 0.001);
+        ScanExecutor.ScanLatency table2 = scanExecutor.getScanLatencies().get("table2");
+        assertEquals(1, table2.getCount());
+        assertEquals(5.0, table2.getMeanMillis(), 0.001);
+        assertEquals(5.0, table2.getMaxMillis(), 0.001);
+
+        scanExecutor.resetStatistics();
+        assertTrue(scanExecutor.getScanLatencies().isEmpty());
+    }
+
+    @Test
+    public void testOpenScanLimitTimesOut() {
+        ScanExecutor limitedScanExecutor = new ScanExecutor(Executors.newCachedThreadPool(), 4, 50);
+        try {
+            int permits = limitedScanExecutor.scanStarted("table1", 3);
+            assertEquals(3, permits);
+            long startTime = System.currentTimeMillis();
+            try {
+                limitedScanExecutor.scanStarted("table1", 2);
+                fail("expected the scan to time out");
+            } catch (VertexiumException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("Timed out"));
+            }
+            assertTrue(System.currentTimeMillis() - startTime >= 50);
+            assertEquals(1, limitedScanExecutor.getActiveScanCount());
+
+            limitedScanExecutor.scanEnded("table1", 0, permits);
+            assertEquals(2, limitedScanExecutor.scanStarted("table1", 2));
+            assertEquals(1, limitedScanExecutor.getActiveScanCount());
+        } finally {
+            limitedScanExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOpenScanLimitWaitsForScanToEnd() throws Exception {
+        ScanExecutor limitedScanExecutor = new ScanExecutor(Executors.newCachedThreadPool(), 2, 10000);
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            int permits = limitedScanExecutor.scanStarted("table1", 8);
+            assertEquals(2, permits);
+            Future<Integer> waiting = otherThread.submit(() -> limitedScanExecutor.scanStarted("table1", 1));
+            Thread.sleep(50);
+            assertFalse(waiting.isDone());
+
+            limitedScanExecutor.scanEnded("table1", 0, permits);
+            assertEquals(1, (int) waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            otherThread.shutdownNow();
+            limitedScanExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScanLatencyWithoutScans() {
+        ScanExecutor.ScanLatency latency = new ScanExecutor.ScanLatency();
+        assertEquals(0, latency.getCount());
+        assertEquals(0.0, latency.getMeanMillis(), 0.0);
+        assertEquals(0.0, latency.getMaxMillis(), 0.0);
+        assertEquals(0.0, latency.getTotalMillis(), 0.0);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
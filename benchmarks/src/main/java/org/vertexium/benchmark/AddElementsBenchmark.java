@@ -0,0 +1,66 @@
+package org.vertexium.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.Authorizations;
+import org.vertexium.Edge;
+import org.vertexium.Graph;
+import org.vertexium.Vertex;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AddElementsBenchmark {
+    private static final int EXISTING_VERTEX_COUNT = 1000;
+
+    @Param({"INMEMORY", "ACCUMULO"})
+    public GraphBackend backend;
+
+    private BenchmarkGraph benchmarkGraph;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        benchmarkGraph = BenchmarkGraph.create(backend);
+        new GraphGenerator(EXISTING_VERTEX_COUNT, 0, DegreeDistribution.UNIFORM, 42)
+            .load(benchmarkGraph.getGraph(), benchmarkGraph.getAuthorizations());
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        benchmarkGraph.getGraph().flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkGraph.close();
+    }
+
+    @Benchmark
+    public Vertex addVertex() {
+        Graph graph = benchmarkGraph.getGraph();
+        long id = nextId.incrementAndGet();
+        return graph.prepareVertex("new-v" + id, BenchmarkGraph.VISIBILITY)
+            .addPropertyValue("", GraphGenerator.PROPERTY_NAME, "new vertex " + id, BenchmarkGraph.VISIBILITY)
+            .addPropertyValue("", GraphGenerator.PROPERTY_AGE, (int) (id % 100), BenchmarkGraph.VISIBILITY)
+            .save(benchmarkGraph.getAuthorizations());
+    }
+
+    @Benchmark
+    public Edge addEdge() {
+        Graph graph = benchmarkGraph.getGraph();
+        Authorizations authorizations = benchmarkGraph.getAuthorizations();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String outVertexId = GraphGenerator.vertexId(random.nextInt(EXISTING_VERTEX_COUNT));
+        String inVertexId = GraphGenerator.vertexId(random.nextInt(EXISTING_VERTEX_COUNT));
+        String label = GraphGenerator.LABELS[random.nextInt(GraphGenerator.LABELS.length)];
+        return graph.prepareEdge("new-e" + nextId.incrementAndGet(), outVertexId, inVertexId, label, BenchmarkGraph.VISIBILITY)
+            .save(authorizations);
+    }
+}
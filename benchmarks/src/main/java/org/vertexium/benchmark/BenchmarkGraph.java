@@ -0,0 +1,115 @@
+package org.vertexium.benchmark;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+import org.apache.accumulo.minicluster.MiniAccumuloConfig;
+import org.apache.commons.io.FileUtils;
+import org.vertexium.Authorizations;
+import org.vertexium.Graph;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.VertexiumException;
+import org.vertexium.Visibility;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.AccumuloGraphConfiguration;
+import org.vertexium.id.UUIDIdGenerator;
+import org.vertexium.inmemory.InMemoryGraph;
+import org.vertexium.search.DefaultSearchIndex;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A graph for a benchmark run along with whatever infrastructure the backend needs, a mini Accumulo cluster
+ * in the case of {@link GraphBackend#ACCUMULO}.
+ */
+public class BenchmarkGraph implements Closeable {
+    public static final String AUTHORIZATION = "a";
+    public static final Visibility VISIBILITY = new Visibility(AUTHORIZATION);
+    private static final String ACCUMULO_USERNAME = "root";
+    private static final String ACCUMULO_PASSWORD = "benchmark";
+
+    private final Graph graph;
+    private final Authorizations authorizations;
+    private final MiniAccumuloCluster accumulo;
+    private final File accumuloDir;
+
+    private BenchmarkGraph(Graph graph, MiniAccumuloCluster accumulo, File accumuloDir) {
+        this.graph = graph;
+        this.authorizations = graph.createAuthorizations(AUTHORIZATION);
+        this.accumulo = accumulo;
+        this.accumuloDir = accumuloDir;
+    }
+
+    public static BenchmarkGraph create(GraphBackend backend) {
+        switch (backend) {
+            case INMEMORY:
+                return createInMemory();
+            case ACCUMULO:
+                return createAccumulo();
+            default:
+                throw new VertexiumException("Unhandled backend: " + backend);
+        }
+    }
+
+    private static BenchmarkGraph createInMemory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(GraphConfiguration.IDGENERATOR_PROP_PREFIX, UUIDIdGenerator.class.getName());
+        config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, DefaultSearchIndex.class.getName());
+        return new BenchmarkGraph(InMemoryGraph.create(config), null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BenchmarkGraph createAccumulo() {
+        try {
+            File accumuloDir = Files.createTempDirectory("vertexium-benchmark-accumulo").toFile();
+            MiniAccumuloConfig miniAccumuloConfig = new MiniAccumuloConfig(accumuloDir, ACCUMULO_PASSWORD);
+            miniAccumuloConfig.setZooKeeperStartupTime(60000);
+            MiniAccumuloCluster accumulo = new MiniAccumuloCluster(miniAccumuloConfig);
+            accumulo.start();
+
+            Map config = new HashMap();
+            config.put(AccumuloGraphConfiguration.ZOOKEEPER_SERVERS, accumulo.getZooKeepers());
+            config.put(AccumuloGraphConfiguration.ACCUMULO_INSTANCE_NAME, accumulo.getInstanceName());
+            config.put(AccumuloGraphConfiguration.ACCUMULO_USERNAME, ACCUMULO_USERNAME);
+            config.put(AccumuloGraphConfiguration.ACCUMULO_PASSWORD, ACCUMULO_PASSWORD);
+            config.put(AccumuloGraphConfiguration.AUTO_FLUSH, false);
+            config.put(AccumuloGraphConfiguration.DATA_DIR, new File(accumuloDir, "data").getAbsolutePath());
+            config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, DefaultSearchIndex.class.getName());
+            AccumuloGraphConfiguration graphConfiguration = new AccumuloGraphConfiguration(config);
+
+            Connector connector = graphConfiguration.createConnector();
+            connector.securityOperations().changeUserAuthorizations(
+                ACCUMULO_USERNAME,
+                new org.apache.accumulo.core.security.Authorizations(AUTHORIZATION)
+            );
+
+            return new BenchmarkGraph(AccumuloGraph.create(graphConfiguration), accumulo, accumuloDir);
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not start mini accumulo cluster", ex);
+        }
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public Authorizations getAuthorizations() {
+        return authorizations;
+    }
+
+    @Override
+    public void close() {
+        graph.shutdown();
+        if (accumulo != null) {
+            try {
+                accumulo.stop();
+                FileUtils.deleteDirectory(accumuloDir);
+            } catch (Exception ex) {
+                throw new VertexiumException("Could not stop mini accumulo cluster", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.vertexium.benchmark;
+
+import java.util.Random;
+
+public enum DegreeDistribution {
+    /**
+     * Every vertex is equally likely to be the end of an edge.
+     */
+    UNIFORM {
+        @Override
+        public int nextVertexIndex(Random random, int vertexCount) {
+            return random.nextInt(vertexCount);
+        }
+    },
+
+    /**
+     * Low vertex indexes are far more likely to be the end of an edge, producing a few hub vertices with very
+     * high degree and a long tail of vertices with few edges.
+     */
+    POWER_LAW {
+        @Override
+        public int nextVertexIndex(Random random, int vertexCount) {
+            return (int) (vertexCount * Math.pow(random.nextDouble(), 3));
+        }
+    };
+
+    public abstract int nextVertexIndex(Random random, int vertexCount);
+}
@@ -0,0 +1,82 @@
+package org.vertexium.benchmark;
+
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the edges of a supernode the way VertexIterator does and then removes the hidden edges, which is what the
+ * tablet servers do for every vertex read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EdgesWithEdgeInfoBenchmark {
+    @Param({"1000", "100000"})
+    public int edgeCount;
+
+    @Param({"0.01", "0.1"})
+    public double hiddenFraction;
+
+    private Text[] edgeIds;
+    private EdgeInfo[] edgeInfos;
+    private Text[] hiddenEdgeIds;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(edgeCount);
+        edgeIds = new Text[edgeCount];
+        edgeInfos = new EdgeInfo[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            edgeIds[i] = new Text("e" + i);
+            edgeInfos[i] = new EdgeInfo("label" + (i % 5), "v" + random.nextInt(edgeCount), i);
+        }
+        hiddenEdgeIds = new Text[(int) (edgeCount * hiddenFraction)];
+        for (int i = 0; i < hiddenEdgeIds.length; i++) {
+            hiddenEdgeIds[i] = edgeIds[random.nextInt(edgeCount)];
+        }
+    }
+
+    @Benchmark
+    public void addAndIterate(Blackhole blackhole) {
+        EdgesWithEdgeInfo edges = load();
+        for (EdgeInfo edgeInfo : edges.getEdgeInfos()) {
+            blackhole.consume(edgeInfo);
+        }
+    }
+
+    @Benchmark
+    public void removeHidden(Blackhole blackhole) {
+        EdgesWithEdgeInfo edges = load();
+        for (Text hiddenEdgeId : hiddenEdgeIds) {
+            edges.remove(hiddenEdgeId);
+        }
+        for (EdgeInfo edgeInfo : edges.getEdgeInfos()) {
+            blackhole.consume(edgeInfo);
+        }
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        EdgesWithEdgeInfo edges = load();
+        for (Text hiddenEdgeId : hiddenEdgeIds) {
+            blackhole.consume(edges.get(hiddenEdgeId));
+        }
+    }
+
+    private EdgesWithEdgeInfo load() {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        for (int i = 0; i < edgeCount; i++) {
+            edges.add(edgeIds[i], edgeInfos[i]);
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,35 @@
+package org.vertexium.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.FindPathOptions;
+import org.vertexium.Path;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FindPathsBenchmark {
+    @Param({"2", "3"})
+    public int maxHops;
+
+    @Benchmark
+    public void findPaths(LoadedGraphState state, Blackhole blackhole) {
+        FindPathOptions options = new FindPathOptions(state.randomVertexId(), state.randomVertexId(), maxHops);
+        for (Path path : state.getGraph().findPaths(options, state.getAuthorizations())) {
+            blackhole.consume(path);
+        }
+    }
+
+    @Benchmark
+    public void findAnyPath(LoadedGraphState state, Blackhole blackhole) {
+        FindPathOptions options = new FindPathOptions(state.randomVertexId(), state.randomVertexId(), maxHops, true);
+        for (Path path : state.getGraph().findPaths(options, state.getAuthorizations())) {
+            blackhole.consume(path);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.vertexium.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GetElementsBenchmark {
+    private static final int GET_VERTICES_COUNT = 100;
+
+    @Param({"NONE", "PROPERTIES_AND_METADATA", "EDGE_REFS", "ALL"})
+    public String fetchHintsName;
+
+    private FetchHints fetchHints;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fetchHints = toFetchHints(fetchHintsName);
+    }
+
+    @Benchmark
+    public Vertex getVertex(LoadedGraphState state) {
+        return state.getGraph().getVertex(state.randomVertexId(), fetchHints, state.getAuthorizations());
+    }
+
+    @Benchmark
+    public void getVertices(LoadedGraphState state, Blackhole blackhole) {
+        List<String> vertexIds = new ArrayList<>(GET_VERTICES_COUNT);
+        for (int i = 0; i < GET_VERTICES_COUNT; i++) {
+            vertexIds.add(state.randomVertexId());
+        }
+        for (Vertex vertex : state.getGraph().getVertices(vertexIds, fetchHints, state.getAuthorizations())) {
+            blackhole.consume(vertex);
+        }
+    }
+
+    @Benchmark
+    public void getEdges(LoadedGraphState state, Blackhole blackhole) {
+        Vertex vertex = state.getGraph().getVertex(state.randomVertexId(), FetchHints.EDGE_REFS, state.getAuthorizations());
+        for (Edge edge : vertex.getEdges(Direction.BOTH, fetchHints, state.getAuthorizations())) {
+            blackhole.consume(edge);
+        }
+    }
+
+    @Benchmark
+    public void getEdgesWithLabel(LoadedGraphState state, Blackhole blackhole) {
+        Vertex vertex = state.getGraph().getVertex(state.randomVertexId(), FetchHints.EDGE_REFS, state.getAuthorizations());
+        for (Edge edge : vertex.getEdges(Direction.OUT, GraphGenerator.LABELS[0], fetchHints, state.getAuthorizations())) {
+            blackhole.consume(edge);
+        }
+    }
+
+    private static FetchHints toFetchHints(String fetchHintsName) {
+        switch (fetchHintsName) {
+            case "NONE":
+                return FetchHints.NONE;
+            case "PROPERTIES_AND_METADATA":
+                return FetchHints.PROPERTIES_AND_METADATA;
+            case "EDGE_REFS":
+                return FetchHints.EDGE_REFS;
+            case "ALL":
+                return FetchHints.ALL;
+            default:
+                throw new VertexiumException("Unhandled fetch hints: " + fetchHintsName);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package org.vertexium.benchmark;
+
+public enum GraphBackend {
+    INMEMORY,
+    ACCUMULO
+}
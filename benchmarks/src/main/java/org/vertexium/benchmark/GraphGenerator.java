@@ -0,0 +1,93 @@
+package org.vertexium.benchmark;
+
+import org.vertexium.Authorizations;
+import org.vertexium.Graph;
+import org.vertexium.mutation.ElementMutation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Loads a repeatable synthetic graph. Vertices have a "name", an integer "age" and one of
+ * {@link #CATEGORY_COUNT} "category" values, edges carry one of {@link #LABELS}.
+ */
+public class GraphGenerator {
+    public static final String PROPERTY_NAME = "name";
+    public static final String PROPERTY_AGE = "age";
+    public static final String PROPERTY_CATEGORY = "category";
+    public static final String[] LABELS = new String[]{"knows", "worksWith", "livesNear"};
+    public static final int CATEGORY_COUNT = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    private final int vertexCount;
+    private final int averageDegree;
+    private final DegreeDistribution degreeDistribution;
+    private final long seed;
+
+    public GraphGenerator(int vertexCount, int averageDegree, DegreeDistribution degreeDistribution, long seed) {
+        this.vertexCount = vertexCount;
+        this.averageDegree = averageDegree;
+        this.degreeDistribution = degreeDistribution;
+        this.seed = seed;
+    }
+
+    public static String vertexId(int index) {
+        return "v" + index;
+    }
+
+    public static String edgeId(int index) {
+        return "e" + index;
+    }
+
+    public static String category(int index) {
+        return "c" + (index % CATEGORY_COUNT);
+    }
+
+    public int getEdgeCount() {
+        // each edge contributes to the degree of two vertices
+        return vertexCount * averageDegree / 2;
+    }
+
+    public void load(Graph graph, Authorizations authorizations) {
+        Random random = new Random(seed);
+        graph.defineProperty(PROPERTY_NAME).dataType(String.class).define();
+        graph.defineProperty(PROPERTY_AGE).dataType(Integer.class).sortable(true).define();
+        graph.defineProperty(PROPERTY_CATEGORY).dataType(String.class).define();
+
+        List<ElementMutation> mutations = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            mutations.add(
+                graph.prepareVertex(vertexId(i), BenchmarkGraph.VISIBILITY)
+                    .addPropertyValue("", PROPERTY_NAME, "vertex " + i, BenchmarkGraph.VISIBILITY)
+                    .addPropertyValue("", PROPERTY_AGE, random.nextInt(100), BenchmarkGraph.VISIBILITY)
+                    .addPropertyValue("", PROPERTY_CATEGORY, category(i), BenchmarkGraph.VISIBILITY)
+            );
+            saveBatchIfFull(graph, mutations, authorizations);
+        }
+        saveBatch(graph, mutations, authorizations);
+        graph.flush();
+
+        int edgeCount = getEdgeCount();
+        for (int i = 0; i < edgeCount; i++) {
+            String outVertexId = vertexId(degreeDistribution.nextVertexIndex(random, vertexCount));
+            String inVertexId = vertexId(degreeDistribution.nextVertexIndex(random, vertexCount));
+            String label = LABELS[random.nextInt(LABELS.length)];
+            mutations.add(graph.prepareEdge(edgeId(i), outVertexId, inVertexId, label, BenchmarkGraph.VISIBILITY));
+            saveBatchIfFull(graph, mutations, authorizations);
+        }
+        saveBatch(graph, mutations, authorizations);
+        graph.flush();
+    }
+
+    private void saveBatchIfFull(Graph graph, List<ElementMutation> mutations, Authorizations authorizations) {
+        if (mutations.size() >= BATCH_SIZE) {
+            saveBatch(graph, mutations, authorizations);
+        }
+    }
+
+    private void saveBatch(Graph graph, List<ElementMutation> mutations, Authorizations authorizations) {
+        graph.saveElementMutations(mutations, authorizations);
+        mutations.clear();
+    }
+}
@@ -0,0 +1,51 @@
+package org.vertexium.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.vertexium.Authorizations;
+import org.vertexium.Graph;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A graph populated by {@link GraphGenerator} once per trial and shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class LoadedGraphState {
+    @Param({"INMEMORY", "ACCUMULO"})
+    public GraphBackend backend;
+
+    @Param({"1000", "10000"})
+    public int vertexCount;
+
+    @Param({"10"})
+    public int averageDegree;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degreeDistribution;
+
+    private BenchmarkGraph benchmarkGraph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        benchmarkGraph = BenchmarkGraph.create(backend);
+        new GraphGenerator(vertexCount, averageDegree, degreeDistribution, 42)
+            .load(benchmarkGraph.getGraph(), benchmarkGraph.getAuthorizations());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkGraph.close();
+    }
+
+    public Graph getGraph() {
+        return benchmarkGraph.getGraph();
+    }
+
+    public Authorizations getAuthorizations() {
+        return benchmarkGraph.getAuthorizations();
+    }
+
+    public String randomVertexId() {
+        return GraphGenerator.vertexId(ThreadLocalRandom.current().nextInt(vertexCount));
+    }
+}
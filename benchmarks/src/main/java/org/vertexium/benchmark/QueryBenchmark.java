@@ -0,0 +1,57 @@
+package org.vertexium.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vertexium.Vertex;
+import org.vertexium.query.Compare;
+import org.vertexium.query.QueryResultsIterable;
+import org.vertexium.query.SortDirection;
+import org.vertexium.query.TermsAggregation;
+import org.vertexium.query.TermsResult;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmark {
+    private static final String AGGREGATION_NAME = "category-counts";
+
+    @Benchmark
+    public void hasEqual(LoadedGraphState state, Blackhole blackhole) {
+        String category = GraphGenerator.category(ThreadLocalRandom.current().nextInt(GraphGenerator.CATEGORY_COUNT));
+        QueryResultsIterable<Vertex> vertices = state.getGraph().query(state.getAuthorizations())
+            .has(GraphGenerator.PROPERTY_CATEGORY, Compare.EQUAL, category)
+            .limit(100)
+            .vertices();
+        for (Vertex vertex : vertices) {
+            blackhole.consume(vertex);
+        }
+    }
+
+    @Benchmark
+    public void hasRangeSortedPage(LoadedGraphState state, Blackhole blackhole) {
+        QueryResultsIterable<Vertex> vertices = state.getGraph().query(state.getAuthorizations())
+            .has(GraphGenerator.PROPERTY_AGE, Compare.GREATER_THAN, ThreadLocalRandom.current().nextInt(100))
+            .sort(GraphGenerator.PROPERTY_AGE, SortDirection.ASCENDING)
+            .limit(10)
+            .vertices();
+        for (Vertex vertex : vertices) {
+            blackhole.consume(vertex);
+        }
+    }
+
+    @Benchmark
+    public TermsResult hasWithTermsAggregation(LoadedGraphState state) {
+        QueryResultsIterable<Vertex> vertices = state.getGraph().query(state.getAuthorizations())
+            .has(GraphGenerator.PROPERTY_AGE, Compare.GREATER_THAN, ThreadLocalRandom.current().nextInt(100))
+            .addAggregation(new TermsAggregation(AGGREGATION_NAME, GraphGenerator.PROPERTY_CATEGORY))
+            .limit(0)
+            .vertices();
+        return vertices.getAggregationResult(AGGREGATION_NAME, TermsResult.class);
+    }
+}
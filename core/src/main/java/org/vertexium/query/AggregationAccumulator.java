@@ -0,0 +1,840 @@
+package org.vertexium.query;
+
+import org.vertexium.*;
+import org.vertexium.type.GeoHash;
+import org.vertexium.type.GeoRect;
+import org.vertexium.type.GeoPoint;
+import org.vertexium.util.HyperLogLog;
+import org.vertexium.util.TDigest;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalUnit;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Computes the result of an aggregation one item at a time so that all aggregations of a query can be computed
+ * in a single pass over the results. Bucketing aggregations keep a count and the nested aggregation accumulators
+ * per bucket instead of the items themselves.
+ */
+public abstract class AggregationAccumulator<T extends VertexiumObject> {
+    private static final double[] DEFAULT_PERCENTS = new double[]{1, 5, 25, 50, 75, 95, 99};
+
+    public abstract void add(T item);
+
+    public abstract AggregationResult getResult();
+
+    public static boolean isAggregationSupported(Aggregation agg) {
+        return agg instanceof TermsAggregation
+            || agg instanceof CalendarFieldAggregation
+            || agg instanceof CardinalityAggregation
+            || agg instanceof HistogramAggregation
+            || agg instanceof RangeAggregation
+            || agg instanceof StatisticsAggregation
+            || agg instanceof PercentilesAggregation
+            || agg instanceof GeohashAggregation;
+    }
+
+    public static <T extends VertexiumObject> AggregationAccumulator<T> create(Aggregation agg) {
+        if (agg instanceof TermsAggregation) {
+            return new TermsAccumulator<>((TermsAggregation) agg);
+        }
+        if (agg instanceof CalendarFieldAggregation) {
+            return new CalendarFieldAccumulator<>((CalendarFieldAggregation) agg);
+        }
+        if (agg instanceof CardinalityAggregation) {
+            return new CardinalityAccumulator<>((CardinalityAggregation) agg);
+        }
+        if (agg instanceof HistogramAggregation) {
+            return new HistogramAccumulator<>((HistogramAggregation) agg);
+        }
+        if (agg instanceof RangeAggregation) {
+            return new RangeAccumulator<>((RangeAggregation) agg);
+        }
+        if (agg instanceof StatisticsAggregation) {
+            return new StatisticsAccumulator<>((StatisticsAggregation) agg);
+        }
+        if (agg instanceof PercentilesAggregation) {
+            return new PercentilesAccumulator<>((PercentilesAggregation) agg);
+        }
+        if (agg instanceof GeohashAggregation) {
+            return new GeohashAccumulator<>((GeohashAggregation) agg);
+        }
+        throw new VertexiumException("Unhandled aggregation: " + agg.getClass().getName());
+    }
+
+    /**
+     * Accumulates a set of aggregations side by side, used for the top level aggregations of a query and for
+     * the nested aggregations of each bucket.
+     */
+    public static class Group<T extends VertexiumObject> {
+        private final Map<String, AggregationAccumulator<T>> accumulators = new LinkedHashMap<>();
+
+        public Group(Iterable<Aggregation> aggregations) {
+            for (Aggregation aggregation : aggregations) {
+                accumulators.put(aggregation.getAggregationName(), create(aggregation));
+            }
+        }
+
+        public void add(T item) {
+            for (AggregationAccumulator<T> accumulator : accumulators.values()) {
+                accumulator.add(item);
+            }
+        }
+
+        public AggregationResult getResult(String aggregationName) {
+            AggregationAccumulator<T> accumulator = accumulators.get(aggregationName);
+            return accumulator == null ? null : accumulator.getResult();
+        }
+
+        public Map<String, AggregationResult> getResults() {
+            Map<String, AggregationResult> results = new HashMap<>();
+            for (Map.Entry<String, AggregationAccumulator<T>> entry : accumulators.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().getResult());
+            }
+            return results;
+        }
+    }
+
+    private static class Bucket<T extends VertexiumObject> {
+        private long count;
+        private final Group<T> nested;
+
+        private Bucket(Iterable<Aggregation> nestedAggregations) {
+            this.nested = new Group<>(nestedAggregations);
+        }
+
+        public void add(T item) {
+            count++;
+            nested.add(item);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Map<String, AggregationResult> getNestedResults() {
+            return nested.getResults();
+        }
+    }
+
+    private static class TermsAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final TermsAggregation agg;
+        private final Map<Object, TermsBucketAccumulator<T>> buckets = new HashMap<>();
+
+        public TermsAccumulator(TermsAggregation agg) {
+            this.agg = agg;
+        }
+
+        @Override
+        public void add(T item) {
+            for (Object value : item.getPropertyValues(agg.getPropertyName())) {
+                // strings are bucketed case insensitively
+                Object bucketKey = value instanceof String ? ((String) value).toLowerCase() : value;
+                buckets.computeIfAbsent(bucketKey, k -> new TermsBucketAccumulator<>(agg.getNestedAggregations()))
+                    .add(value, item);
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            List<TermsBucket> results = new ArrayList<>();
+            for (TermsBucketAccumulator<T> bucket : buckets.values()) {
+                results.add(new TermsBucket(bucket.getKey(), bucket.getCount(), bucket.getNestedResults()));
+            }
+            results.sort((b1, b2) -> Long.compare(b2.getCount(), b1.getCount()));
+            return new TermsResult(results);
+        }
+    }
+
+    private static class TermsBucketAccumulator<T extends VertexiumObject> extends Bucket<T> {
+        private Object firstValue;
+        private Map<String, Long> countsByString;
+
+        private TermsBucketAccumulator(Iterable<Aggregation> nestedAggregations) {
+            super(nestedAggregations);
+        }
+
+        public void add(Object value, T item) {
+            add(item);
+            if (firstValue == null) {
+                firstValue = value;
+            }
+            if (value instanceof String) {
+                if (countsByString == null) {
+                    countsByString = new LinkedHashMap<>();
+                }
+                countsByString.merge((String) value, 1L, Long::sum);
+            }
+        }
+
+        // the bucket is named after the spelling with the most entries
+        public Object getKey() {
+            if (countsByString == null) {
+                return firstValue;
+            }
+            String bestKey = null;
+            long bestCount = 0;
+            for (Map.Entry<String, Long> entry : countsByString.entrySet()) {
+                if (entry.getValue() > bestCount) {
+                    bestKey = entry.getKey();
+                    bestCount = entry.getValue();
+                }
+            }
+            return bestKey;
+        }
+    }
+
+    private static class CalendarFieldAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final CalendarFieldAggregation agg;
+        private final Calendar calendar;
+        private final Map<Integer, Bucket<T>> buckets = new TreeMap<>();
+
+        public CalendarFieldAccumulator(CalendarFieldAggregation agg) {
+            this.agg = agg;
+            this.calendar = GregorianCalendar.getInstance(agg.getTimeZone());
+        }
+
+        @Override
+        public void add(T item) {
+            for (Object value : item.getPropertyValues(agg.getPropertyName())) {
+                if (!(value instanceof Date)) {
+                    continue;
+                }
+                calendar.setTime((Date) value);
+                //noinspection MagicConstant
+                int key = calendar.get(agg.getCalendarField());
+                buckets.computeIfAbsent(key, k -> new Bucket<>(agg.getNestedAggregations())).add(item);
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            List<HistogramBucket> results = new ArrayList<>();
+            for (Map.Entry<Integer, Bucket<T>> entry : buckets.entrySet()) {
+                results.add(new HistogramBucket(entry.getKey(), entry.getValue().getCount(), entry.getValue().getNestedResults()));
+            }
+            return new HistogramResult(results);
+        }
+    }
+
+    private static class CardinalityAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final CardinalityAggregation agg;
+        private final boolean supported;
+        private final HyperLogLog hyperLogLog = new HyperLogLog();
+
+        public CardinalityAccumulator(CardinalityAggregation agg) {
+            this.agg = agg;
+            String fieldName = agg.getPropertyName();
+            this.supported = Element.ID_PROPERTY_NAME.equals(fieldName)
+                || Edge.LABEL_PROPERTY_NAME.equals(fieldName)
+                || Edge.OUT_VERTEX_ID_PROPERTY_NAME.equals(fieldName)
+                || Edge.IN_VERTEX_ID_PROPERTY_NAME.equals(fieldName)
+                || ExtendedDataRow.TABLE_NAME.equals(fieldName)
+                || ExtendedDataRow.ROW_ID.equals(fieldName)
+                || ExtendedDataRow.ELEMENT_ID.equals(fieldName)
+                || ExtendedDataRow.ELEMENT_TYPE.equals(fieldName);
+        }
+
+        @Override
+        public void add(T item) {
+            if (!supported) {
+                return;
+            }
+            for (Object value : item.getPropertyValues(agg.getPropertyName())) {
+                hyperLogLog.add(value);
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            if (!supported) {
+                throw new VertexiumException("Cannot use cardinality aggregation on properties with visibility: " + agg.getPropertyName());
+            }
+            return new CardinalityResult(hyperLogLog.cardinality());
+        }
+    }
+
+    private static class HistogramAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final HistogramAggregation agg;
+        private final NavigableMap<Long, Bucket<T>> buckets = new TreeMap<>();
+        private HistogramInterval interval;
+
+        public HistogramAccumulator(HistogramAggregation agg) {
+            this.agg = agg;
+        }
+
+        @Override
+        public void add(T item) {
+            Set<Long> itemBuckets = null;
+            for (Object value : item.getPropertyValues(agg.getFieldName())) {
+                if (interval == null) {
+                    interval = HistogramInterval.create(agg.getInterval(), value);
+                    if (interval == null) {
+                        continue;
+                    }
+                }
+                Long bucket = interval.getBucket(value);
+                if (bucket == null) {
+                    continue;
+                }
+                if (itemBuckets == null) {
+                    itemBuckets = new HashSet<>();
+                }
+                if (itemBuckets.add(bucket)) {
+                    buckets.computeIfAbsent(bucket, k -> new Bucket<>(agg.getNestedAggregations())).add(item);
+                }
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            long minDocumentCount = agg.getMinDocumentCount() == null ? 1 : agg.getMinDocumentCount();
+            HistogramAggregation.ExtendedBounds<?> extendedBounds = agg.getExtendedBounds();
+            if (interval == null && minDocumentCount == 0 && extendedBounds != null) {
+                interval = HistogramInterval.create(agg.getInterval(), extendedBounds.getMin());
+            }
+            if (interval == null) {
+                return new HistogramResult(new ArrayList<>());
+            }
+
+            if (minDocumentCount == 0) {
+                Long first = buckets.isEmpty() ? null : buckets.firstKey();
+                Long last = buckets.isEmpty() ? null : buckets.lastKey();
+                if (extendedBounds != null) {
+                    first = min(first, interval.getBucket(extendedBounds.getMin()));
+                    last = max(last, interval.getBucket(extendedBounds.getMax()));
+                }
+                if (first != null && last != null) {
+                    for (long bucket = first; bucket <= last; bucket = interval.getNextBucket(bucket)) {
+                        buckets.computeIfAbsent(bucket, k -> new Bucket<>(agg.getNestedAggregations()));
+                    }
+                }
+            }
+
+            List<HistogramBucket> results = new ArrayList<>();
+            for (Map.Entry<Long, Bucket<T>> entry : buckets.entrySet()) {
+                Bucket<T> bucket = entry.getValue();
+                if (bucket.getCount() >= minDocumentCount) {
+                    results.add(new HistogramBucket(interval.getKey(entry.getKey()), bucket.getCount(), bucket.getNestedResults()));
+                }
+            }
+            return new HistogramResult(results);
+        }
+
+        private static Long min(Long a, Long b) {
+            return a == null ? b : (b == null ? a : Math.min(a, b));
+        }
+
+        private static Long max(Long a, Long b) {
+            return a == null ? b : (b == null ? a : Math.max(a, b));
+        }
+    }
+
+    /**
+     * Maps histogram values to ordered bucket numbers. Numbers are bucketed by a numeric interval, dates either by
+     * a calendar unit (e.g. "month" or "1M") or by a fixed interval in milliseconds (e.g. "3600000" or "1.5h").
+     */
+    private abstract static class HistogramInterval {
+        private static final Pattern FIXED_INTERVAL_PATTERN = Pattern.compile("^([0-9.]+)(ms|s|m|h|d|w)?$");
+
+        public static HistogramInterval create(String interval, Object value) {
+            if (value instanceof Number) {
+                try {
+                    return new NumericHistogramInterval(Double.parseDouble(interval));
+                } catch (NumberFormatException ex) {
+                    throw new VertexiumException("Invalid interval for numeric histogram: " + interval, ex);
+                }
+            }
+            if (value instanceof Date || value instanceof DateOnly) {
+                TemporalUnit calendarUnit = getCalendarUnit(interval);
+                if (calendarUnit != null) {
+                    return new CalendarHistogramInterval(calendarUnit);
+                }
+                Matcher m = FIXED_INTERVAL_PATTERN.matcher(interval);
+                if (!m.matches()) {
+                    throw new VertexiumException("Invalid interval for date histogram: " + interval);
+                }
+                long unitMillis = m.group(2) == null ? 1 : getFixedUnitMillis(m.group(2));
+                return new FixedHistogramInterval((long) (Double.parseDouble(m.group(1)) * unitMillis));
+            }
+            return null;
+        }
+
+        private static TemporalUnit getCalendarUnit(String interval) {
+            switch (interval) {
+                case "year":
+                case "1y":
+                    return ChronoUnit.YEARS;
+                case "quarter":
+                case "1q":
+                    return IsoFields.QUARTER_YEARS;
+                case "month":
+                case "1M":
+                    return ChronoUnit.MONTHS;
+                case "week":
+                case "1w":
+                    return ChronoUnit.WEEKS;
+                case "day":
+                case "1d":
+                    return ChronoUnit.DAYS;
+                case "hour":
+                case "1h":
+                    return ChronoUnit.HOURS;
+                case "minute":
+                case "1m":
+                    return ChronoUnit.MINUTES;
+                case "second":
+                case "1s":
+                    return ChronoUnit.SECONDS;
+                default:
+                    return null;
+            }
+        }
+
+        private static long getFixedUnitMillis(String unit) {
+            switch (unit) {
+                case "ms":
+                    return 1L;
+                case "s":
+                    return 1000L;
+                case "m":
+                    return 60L * 1000L;
+                case "h":
+                    return 60L * 60L * 1000L;
+                case "d":
+                    return 24L * 60L * 60L * 1000L;
+                case "w":
+                    return 7L * 24L * 60L * 60L * 1000L;
+                default:
+                    throw new VertexiumException("Invalid interval unit: " + unit);
+            }
+        }
+
+        /**
+         * @return The bucket of the value or null if the value can not be bucketed by this interval.
+         */
+        public abstract Long getBucket(Object value);
+
+        public abstract long getNextBucket(long bucket);
+
+        public abstract Object getKey(long bucket);
+    }
+
+    private static class NumericHistogramInterval extends HistogramInterval {
+        private final double interval;
+
+        private NumericHistogramInterval(double interval) {
+            if (interval <= 0) {
+                throw new VertexiumException("Histogram interval must be greater than 0: " + interval);
+            }
+            this.interval = interval;
+        }
+
+        @Override
+        public Long getBucket(Object value) {
+            if (!(value instanceof Number)) {
+                return null;
+            }
+            return (long) Math.floor(((Number) value).doubleValue() / interval);
+        }
+
+        @Override
+        public long getNextBucket(long bucket) {
+            return bucket + 1;
+        }
+
+        @Override
+        public Object getKey(long bucket) {
+            double key = bucket * interval;
+            if (key == Math.rint(key)) {
+                return Long.toString((long) key);
+            }
+            return Double.toString(key);
+        }
+    }
+
+    private static class FixedHistogramInterval extends HistogramInterval {
+        private final long intervalMillis;
+
+        private FixedHistogramInterval(long intervalMillis) {
+            if (intervalMillis <= 0) {
+                throw new VertexiumException("Histogram interval must be greater than 0: " + intervalMillis);
+            }
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        public Long getBucket(Object value) {
+            Long millis = toMillis(value);
+            return millis == null ? null : Math.floorDiv(millis, intervalMillis);
+        }
+
+        @Override
+        public long getNextBucket(long bucket) {
+            return bucket + 1;
+        }
+
+        @Override
+        public Object getKey(long bucket) {
+            return new Date(bucket * intervalMillis);
+        }
+    }
+
+    /**
+     * Buckets are the start of the calendar unit in UTC, in milliseconds.
+     */
+    private static class CalendarHistogramInterval extends HistogramInterval {
+        private final TemporalUnit unit;
+
+        private CalendarHistogramInterval(TemporalUnit unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        public Long getBucket(Object value) {
+            Long millis = toMillis(value);
+            if (millis == null) {
+                return null;
+            }
+            ZonedDateTime dateTime = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+            if (unit == ChronoUnit.YEARS) {
+                dateTime = dateTime.withDayOfYear(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (unit == IsoFields.QUARTER_YEARS) {
+                dateTime = dateTime.with(IsoFields.DAY_OF_QUARTER, 1).truncatedTo(ChronoUnit.DAYS);
+            } else if (unit == ChronoUnit.MONTHS) {
+                dateTime = dateTime.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (unit == ChronoUnit.WEEKS) {
+                dateTime = dateTime.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            } else {
+                dateTime = dateTime.truncatedTo(unit);
+            }
+            return dateTime.toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getNextBucket(long bucket) {
+            return Instant.ofEpochMilli(bucket).atZone(ZoneOffset.UTC).plus(1, unit).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public Object getKey(long bucket) {
+            return new Date(bucket);
+        }
+    }
+
+    private static class RangeAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final RangeAggregation agg;
+        private final List<Bucket<T>> buckets = new ArrayList<>();
+        private boolean hasValues;
+        private double[][] numericBounds;
+        private double[][] dateBounds;
+
+        public RangeAccumulator(RangeAggregation agg) {
+            this.agg = agg;
+            for (int i = 0; i < agg.getRanges().size(); i++) {
+                buckets.add(new Bucket<>(agg.getNestedAggregations()));
+            }
+        }
+
+        @Override
+        public void add(T item) {
+            boolean[] matched = null;
+            for (Object value : item.getPropertyValues(agg.getFieldName())) {
+                boolean isDate = value instanceof Date || value instanceof DateOnly;
+                Double v = isDate ? toDouble(value) : (value instanceof Number ? ((Number) value).doubleValue() : null);
+                if (v == null) {
+                    continue;
+                }
+                hasValues = true;
+                if (matched == null) {
+                    matched = new boolean[buckets.size()];
+                }
+                double[][] bounds = getBounds(isDate);
+                for (int i = 0; i < buckets.size(); i++) {
+                    // from is inclusive, to is exclusive
+                    if (!matched[i] && v >= bounds[i][0] && v < bounds[i][1]) {
+                        matched[i] = true;
+                        buckets.get(i).add(item);
+                    }
+                }
+            }
+        }
+
+        private double[][] getBounds(boolean isDate) {
+            if (isDate) {
+                if (dateBounds == null) {
+                    dateBounds = parseBounds(true);
+                }
+                return dateBounds;
+            }
+            if (numericBounds == null) {
+                numericBounds = parseBounds(false);
+            }
+            return numericBounds;
+        }
+
+        private double[][] parseBounds(boolean isDate) {
+            double[][] bounds = new double[agg.getRanges().size()][];
+            for (int i = 0; i < bounds.length; i++) {
+                RangeAggregation.Range range = agg.getRanges().get(i);
+                bounds[i] = new double[]{
+                    range.getFrom() == null ? Double.NEGATIVE_INFINITY : parseBoundary(range.getFrom(), isDate),
+                    range.getTo() == null ? Double.POSITIVE_INFINITY : parseBoundary(range.getTo(), isDate)
+                };
+            }
+            return bounds;
+        }
+
+        private double parseBoundary(Object boundary, boolean isDate) {
+            if (isDate && boundary instanceof String) {
+                return parseDate((String) boundary, agg.getFormat());
+            }
+            Double d = toDouble(boundary);
+            if (d != null) {
+                return d;
+            }
+            if (boundary instanceof String) {
+                try {
+                    return Double.parseDouble((String) boundary);
+                } catch (NumberFormatException ex) {
+                    throw new VertexiumException("Invalid numeric range boundary: " + boundary, ex);
+                }
+            }
+            throw new VertexiumException("Unhandled range boundary type: " + boundary.getClass().getName());
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            List<RangeBucket> results = new ArrayList<>();
+            if (!hasValues) {
+                return new RangeResult(results);
+            }
+            for (int i = 0; i < buckets.size(); i++) {
+                RangeAggregation.Range range = agg.getRanges().get(i);
+                Bucket<T> bucket = buckets.get(i);
+                results.add(new RangeBucket(getKey(range), bucket.getCount(), bucket.getNestedResults()));
+            }
+            return new RangeResult(results);
+        }
+
+        private String getKey(RangeAggregation.Range range) {
+            if (range.getKey() != null) {
+                return range.getKey();
+            }
+            return formatBoundary(range.getFrom()) + "-" + formatBoundary(range.getTo());
+        }
+
+        private String formatBoundary(Object boundary) {
+            if (boundary == null) {
+                return "*";
+            }
+            if (boundary instanceof Date) {
+                if (agg.getFormat() != null) {
+                    SimpleDateFormat dateFormat = new SimpleDateFormat(agg.getFormat());
+                    dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+                    return dateFormat.format((Date) boundary);
+                }
+                return ((Date) boundary).toInstant().toString();
+            }
+            if (boundary instanceof Number) {
+                return Double.toString(((Number) boundary).doubleValue());
+            }
+            return boundary.toString();
+        }
+    }
+
+    private static class StatisticsAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final StatisticsAggregation agg;
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private double mean;
+        private double sumOfSquaredDeviations;
+
+        public StatisticsAccumulator(StatisticsAggregation agg) {
+            this.agg = agg;
+        }
+
+        @Override
+        public void add(T item) {
+            for (Object value : item.getPropertyValues(agg.getFieldName())) {
+                Double v = toDouble(value);
+                if (v == null) {
+                    continue;
+                }
+                // Welford's algorithm
+                count++;
+                sum += v;
+                min = count == 1 ? v : Math.min(min, v);
+                max = count == 1 ? v : Math.max(max, v);
+                double delta = v - mean;
+                mean += delta / count;
+                sumOfSquaredDeviations += delta * (v - mean);
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            double standardDeviation = count == 0 ? 0 : Math.sqrt(sumOfSquaredDeviations / count);
+            return new StatisticsResult(count, sum, min, max, standardDeviation);
+        }
+    }
+
+    private static class PercentilesAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final PercentilesAggregation agg;
+        private final TDigest digest = new TDigest();
+
+        public PercentilesAccumulator(PercentilesAggregation agg) {
+            this.agg = agg;
+        }
+
+        @Override
+        public void add(T item) {
+            for (Property property : item.getProperties(agg.getFieldName())) {
+                if (agg.getVisibility() != null && !agg.getVisibility().equals(property.getVisibility())) {
+                    continue;
+                }
+                Double v = toDouble(property.getValue());
+                if (v != null) {
+                    digest.add(v);
+                }
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            List<Percentile> results = new ArrayList<>();
+            if (digest.size() == 0) {
+                return new PercentilesResult(results);
+            }
+            double[] percents = agg.getPercents() == null || agg.getPercents().length == 0 ? DEFAULT_PERCENTS : agg.getPercents();
+            for (double percent : percents) {
+                results.add(new Percentile(percent, digest.quantile(percent / 100.0)));
+            }
+            return new PercentilesResult(results);
+        }
+    }
+
+    private static class GeohashAccumulator<T extends VertexiumObject> extends AggregationAccumulator<T> {
+        private final GeohashAggregation agg;
+        private final Map<String, GeohashBucketAccumulator<T>> buckets = new HashMap<>();
+
+        public GeohashAccumulator(GeohashAggregation agg) {
+            this.agg = agg;
+        }
+
+        @Override
+        public void add(T item) {
+            Set<String> itemBuckets = null;
+            for (Object value : item.getPropertyValues(agg.getFieldName())) {
+                if (!(value instanceof GeoPoint)) {
+                    continue;
+                }
+                GeoPoint geoPoint = (GeoPoint) value;
+                String hash = new GeoHash(geoPoint.getLatitude(), geoPoint.getLongitude(), agg.getPrecision()).getHash();
+                GeohashBucketAccumulator<T> bucket = buckets.computeIfAbsent(hash, k -> new GeohashBucketAccumulator<>(agg.getNestedAggregations()));
+                bucket.latitudeSum += geoPoint.getLatitude();
+                bucket.longitudeSum += geoPoint.getLongitude();
+                bucket.pointCount++;
+                if (itemBuckets == null) {
+                    itemBuckets = new HashSet<>();
+                }
+                if (itemBuckets.add(hash)) {
+                    bucket.add(item);
+                }
+            }
+        }
+
+        @Override
+        public AggregationResult getResult() {
+            List<GeohashBucket> results = new ArrayList<>();
+            for (Map.Entry<String, GeohashBucketAccumulator<T>> entry : buckets.entrySet()) {
+                GeohashBucketAccumulator<T> bucket = entry.getValue();
+                GeoPoint centroid = new GeoPoint(bucket.latitudeSum / bucket.pointCount, bucket.longitudeSum / bucket.pointCount);
+                results.add(new GeohashBucket(entry.getKey(), bucket.getCount(), centroid, bucket.getNestedResults()) {
+                    @Override
+                    public GeoRect getGeoCell() {
+                        return new GeoHash(getKey()).toGeoRect();
+                    }
+                });
+            }
+            return new GeohashResult(results);
+        }
+    }
+
+    private static class GeohashBucketAccumulator<T extends VertexiumObject> extends Bucket<T> {
+        private double latitudeSum;
+        private double longitudeSum;
+        private long pointCount;
+
+        private GeohashBucketAccumulator(Iterable<Aggregation> nestedAggregations) {
+            super(nestedAggregations);
+        }
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        Long millis = toMillis(value);
+        return millis == null ? null : millis.doubleValue();
+    }
+
+    private static Long toMillis(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof DateOnly) {
+            return ((DateOnly) value).getDate().getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return null;
+    }
+
+    /**
+     * Parses a date with the given format, or if no format is given as an ISO-8601 date, date time or epoch
+     * milliseconds. Dates without a time zone are in UTC.
+     */
+    private static Long parseDate(String str, String format) {
+        if (format != null) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(format);
+            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            try {
+                return dateFormat.parse(str).getTime();
+            } catch (ParseException ex) {
+                throw new VertexiumException("Could not parse date \"" + str + "\" with format: " + format, ex);
+            }
+        }
+        try {
+            return OffsetDateTime.parse(str).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            // try the next format
+        }
+        try {
+            return LocalDateTime.parse(str).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            // try the next format
+        }
+        try {
+            return LocalDate.parse(str).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            // try the next format
+        }
+        try {
+            return Long.parseLong(str);
+        } catch (NumberFormatException ex) {
+            throw new VertexiumException("Could not parse date: " + str, ex);
+        }
+    }
+}
@@ -12,7 +12,7 @@ public class DefaultGraphQuery extends GraphQueryBase {
     public QueryResultsIterable<Vertex> vertices(FetchHints fetchHints) {
         return new DefaultGraphQueryIterableWithAggregations<>(
             getParameters(),
-            this.<Vertex>getIterableFromElementType(ElementType.VERTEX, fetchHints),
+            this.<Vertex>getElementsForQuery(ElementType.VERTEX, fetchHints),
             true,
             true,
             true,
@@ -24,7 +24,7 @@ public class DefaultGraphQuery extends GraphQueryBase {
     public QueryResultsIterable<Edge> edges(FetchHints fetchHints) {
         return new DefaultGraphQueryIterableWithAggregations<>(
             getParameters(),
-            this.<Edge>getIterableFromElementType(ElementType.EDGE, fetchHints),
+            this.<Edge>getElementsForQuery(ElementType.EDGE, fetchHints),
             true,
             true,
             true,
@@ -32,6 +32,14 @@ public class DefaultGraphQuery extends GraphQueryBase {
         );
     }
 
+    /**
+     * Returns the elements the query's has containers are evaluated against. Subclasses may return a subset
+     * of all the elements as long as every element matching the query is included.
+     */
+    protected <T extends Element> Iterable<T> getElementsForQuery(ElementType elementType, FetchHints fetchHints) {
+        return getIterableFromElementType(elementType, fetchHints);
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Element> Iterable<T> getIterableFromElementType(ElementType elementType, FetchHints fetchHints) throws VertexiumException {
         switch (elementType) {
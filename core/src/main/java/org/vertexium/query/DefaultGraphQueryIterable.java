@@ -2,13 +2,10 @@ package org.vertexium.query;
 
 import org.vertexium.*;
 import org.vertexium.property.StreamingPropertyValue;
-import org.vertexium.scoring.ScoringStrategy;
 import org.vertexium.util.CloseableIterator;
 import org.vertexium.util.CloseableUtils;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
 
 import static org.vertexium.util.IterableUtils.count;
 import static org.vertexium.util.IterableUtils.toList;
@@ -22,6 +19,8 @@ public class DefaultGraphQueryIterable<T> implements
     private final Iterable<T> iterable;
     private final boolean evaluateQueryString;
     private final boolean evaluateHasContainers;
+    private final Comparator<T> sortComparator;
+    private volatile List<T> sortedList;
 
     public DefaultGraphQueryIterable(
         QueryParameters parameters,
@@ -32,27 +31,28 @@ public class DefaultGraphQueryIterable<T> implements
     ) {
         checkNotNull(iterable, "iterable cannot be null");
         this.parameters = parameters;
+        this.iterable = iterable;
         this.evaluateQueryString = evaluateQueryString;
         this.evaluateHasContainers = evaluateHasContainers;
         if (evaluateSortContainers && this.parameters.getSortContainers().size() > 0) {
-            this.iterable = sortUsingSortContainers(iterable, parameters.getSortContainers());
+            this.sortComparator = new SortContainersComparator<>(parameters.getSortContainers());
         } else if (evaluateHasContainers && this.parameters.getScoringStrategy() != null) {
-            this.iterable = sortUsingScoringStrategy(iterable, parameters.getScoringStrategy());
+            this.sortComparator = new ScoringStrategyComparator<>(parameters.getScoringStrategy());
         } else {
-            this.iterable = iterable;
+            this.sortComparator = null;
         }
     }
 
-    private Iterable<T> sortUsingScoringStrategy(Iterable<T> iterable, ScoringStrategy scoringStrategy) {
-        List<T> list = toList(iterable);
-        list.sort(new ScoringStrategyComparator<>(scoringStrategy));
-        return list;
-    }
-
-    private List<T> sortUsingSortContainers(Iterable<T> iterable, List<QueryBase.SortContainer> sortContainers) {
-        List<T> list = toList(iterable);
-        list.sort(new SortContainersComparator<>(sortContainers));
-        return list;
+    private synchronized Iterable<T> getSortedIterable() {
+        if (sortComparator == null) {
+            return iterable;
+        }
+        if (sortedList == null) {
+            List<T> list = toList(iterable);
+            list.sort(sortComparator);
+            sortedList = list;
+        }
+        return sortedList;
     }
 
     @Override
@@ -61,8 +61,20 @@ public class DefaultGraphQueryIterable<T> implements
     }
 
     protected Iterator<T> iterator(final boolean iterateAll) {
-        final Iterator<T> it = iterable.iterator();
+        if (!iterateAll && sortComparator != null && sortedList == null && parameters.getLimit() != null) {
+            return topItemsIterator();
+        }
+        return createIterator(getSortedIterable().iterator(), iterateAll);
+    }
 
+    /**
+     * Iterates all matching items ignoring sort order, skip and limit.
+     */
+    protected Iterator<T> unorderedIterator() {
+        return createIterator(iterable.iterator(), true);
+    }
+
+    private Iterator<T> createIterator(final Iterator<T> it, final boolean iterateAll) {
         return new CloseableIterator<T>() {
             public T next;
             public T current;
@@ -110,58 +122,7 @@ public class DefaultGraphQueryIterable<T> implements
 
                 while (it.hasNext()) {
                     T elem = it.next();
-                    VertexiumObject vertexiumElem = elem instanceof VertexiumObject ? (VertexiumObject) elem : null;
-
-                    boolean match = true;
-                    if (evaluateHasContainers && vertexiumElem != null) {
-                        for (QueryBase.HasContainer has : parameters.getHasContainers()) {
-                            if (!has.isMatch(vertexiumElem)) {
-                                match = false;
-                                break;
-                            }
-                        }
-                        if (vertexiumElem instanceof Edge && parameters.getEdgeLabels().size() > 0) {
-                            Edge edge = (Edge) vertexiumElem;
-                            if (!parameters.getEdgeLabels().contains(edge.getLabel())) {
-                                match = false;
-                            }
-                        }
-                        if (parameters.getIds() != null) {
-                            if (vertexiumElem instanceof Element) {
-                                if (!parameters.getIds().contains(((Element) vertexiumElem).getId())) {
-                                    match = false;
-                                }
-                            } else if (vertexiumElem instanceof ExtendedDataRow) {
-                                if (!parameters.getIds().contains(((ExtendedDataRow) vertexiumElem).getId().getElementId())) {
-                                    match = false;
-                                }
-                            } else {
-                                throw new VertexiumException("Unhandled element type: " + vertexiumElem.getClass().getName());
-                            }
-                        }
-
-                        if (parameters.getMinScore() != null) {
-                            if (parameters.getScoringStrategy() == null) {
-                                match = false;
-                            } else {
-                                Double elementScore = parameters.getScoringStrategy().getScore(vertexiumElem);
-                                if (elementScore == null) {
-                                    match = false;
-                                } else {
-                                    match = elementScore >= parameters.getMinScore();
-                                }
-                            }
-                        }
-                    }
-                    if (!match) {
-                        continue;
-                    }
-                    if (evaluateQueryString
-                        && vertexiumElem != null
-                        && parameters instanceof QueryStringQueryParameters
-                        && ((QueryStringQueryParameters) parameters).getQueryString() != null
-                        && !evaluateQueryString(vertexiumElem, ((QueryStringQueryParameters) parameters).getQueryString())
-                    ) {
+                    if (!isMatch(elem)) {
                         continue;
                     }
 
@@ -177,6 +138,111 @@ public class DefaultGraphQueryIterable<T> implements
         };
     }
 
+    private boolean isMatch(T elem) {
+        VertexiumObject vertexiumElem = elem instanceof VertexiumObject ? (VertexiumObject) elem : null;
+
+        boolean match = true;
+        if (evaluateHasContainers && vertexiumElem != null) {
+            for (QueryBase.HasContainer has : parameters.getHasContainers()) {
+                if (!has.isMatch(vertexiumElem)) {
+                    match = false;
+                    break;
+                }
+            }
+            if (vertexiumElem instanceof Edge && parameters.getEdgeLabels().size() > 0) {
+                Edge edge = (Edge) vertexiumElem;
+                if (!parameters.getEdgeLabels().contains(edge.getLabel())) {
+                    match = false;
+                }
+            }
+            if (parameters.getIds() != null) {
+                if (vertexiumElem instanceof Element) {
+                    if (!parameters.getIds().contains(((Element) vertexiumElem).getId())) {
+                        match = false;
+                    }
+                } else if (vertexiumElem instanceof ExtendedDataRow) {
+                    if (!parameters.getIds().contains(((ExtendedDataRow) vertexiumElem).getId().getElementId())) {
+                        match = false;
+                    }
+                } else {
+                    throw new VertexiumException("Unhandled element type: " + vertexiumElem.getClass().getName());
+                }
+            }
+
+            if (parameters.getMinScore() != null) {
+                if (parameters.getScoringStrategy() == null) {
+                    match = false;
+                } else {
+                    Double elementScore = parameters.getScoringStrategy().getScore(vertexiumElem);
+                    if (elementScore == null) {
+                        match = false;
+                    } else {
+                        match = elementScore >= parameters.getMinScore();
+                    }
+                }
+            }
+        }
+        if (!match) {
+            return false;
+        }
+        if (evaluateQueryString
+            && vertexiumElem != null
+            && parameters instanceof QueryStringQueryParameters
+            && ((QueryStringQueryParameters) parameters).getQueryString() != null
+            && !evaluateQueryString(vertexiumElem, ((QueryStringQueryParameters) parameters).getQueryString())
+        ) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keeps only the first skip + limit matching items, in sort order, in a bounded heap instead of sorting every item.
+     */
+    private Iterator<T> topItemsIterator() {
+        long maxItems = parameters.getSkip() + parameters.getLimit();
+        Comparator<SortEntry<T>> entryComparator = Comparator.<SortEntry<T>, T>comparing(entry -> entry.item, sortComparator)
+            .thenComparingLong(entry -> entry.sequence); // keeps the sort stable, like List.sort
+        PriorityQueue<SortEntry<T>> topEntries = new PriorityQueue<>(entryComparator.reversed());
+        Iterator<T> it = iterable.iterator();
+        try {
+            long sequence = 0;
+            while (it.hasNext() && maxItems > 0) {
+                T elem = it.next();
+                if (!isMatch(elem)) {
+                    continue;
+                }
+                SortEntry<T> entry = new SortEntry<>(elem, sequence++);
+                if (topEntries.size() < maxItems) {
+                    topEntries.add(entry);
+                } else if (entryComparator.compare(entry, topEntries.peek()) < 0) {
+                    topEntries.poll();
+                    topEntries.add(entry);
+                }
+            }
+        } finally {
+            CloseableUtils.closeQuietly(it);
+        }
+
+        List<SortEntry<T>> sortedEntries = new ArrayList<>(topEntries);
+        sortedEntries.sort(entryComparator);
+        List<T> results = new ArrayList<>();
+        for (int i = (int) Math.min(parameters.getSkip(), sortedEntries.size()); i < sortedEntries.size(); i++) {
+            results.add(sortedEntries.get(i).item);
+        }
+        return results.iterator();
+    }
+
+    private static class SortEntry<T> {
+        private final T item;
+        private final long sequence;
+
+        private SortEntry(T item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+
     protected boolean evaluateQueryString(VertexiumObject vertexiumObject, String queryString) {
         if (vertexiumObject instanceof Element) {
             return evaluateQueryString((Element) vertexiumObject, queryString);
@@ -221,8 +287,8 @@ public class DefaultGraphQueryIterable<T> implements
 
     @Override
     public long getTotalHits() {
-        // a limit could be set on a query which could prevent all items being returned
-        return count(this.iterator(true));
+        // a limit could be set on a query which could prevent all items being returned, the order does not matter for counting
+        return count(unorderedIterator());
     }
 
     @Override
@@ -0,0 +1,85 @@
+package org.vertexium.search;
+
+import org.vertexium.*;
+import org.vertexium.query.DefaultGraphQuery;
+import org.vertexium.query.QueryBase;
+import org.vertexium.query.QueryParameters;
+import org.vertexium.util.LookAheadIterable;
+
+import java.util.*;
+
+/**
+ * A {@link DefaultGraphQuery} which uses the {@link PropertyValueIndex} of a {@link PropertyIndexSearchIndex}
+ * to only load the elements which may match the query's id and property value filters. The filters are still
+ * evaluated against the loaded elements.
+ */
+public class PropertyIndexGraphQuery extends DefaultGraphQuery {
+    private final PropertyIndexSearchIndex searchIndex;
+
+    public PropertyIndexGraphQuery(Graph graph, String queryString, PropertyIndexSearchIndex searchIndex, Authorizations authorizations) {
+        super(graph, queryString, authorizations);
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    protected <T extends Element> Iterable<T> getElementsForQuery(ElementType elementType, FetchHints fetchHints) {
+        Set<String> candidateIds = findCandidateIds(searchIndex.getPropertyValueIndex(elementType));
+        if (candidateIds == null) {
+            return super.getElementsForQuery(elementType, fetchHints);
+        }
+        // sorted to return elements in the same order as a scan would
+        List<String> sortedCandidateIds = new ArrayList<>(candidateIds);
+        Collections.sort(sortedCandidateIds);
+        return new LookAheadIterable<String, T>() {
+            @Override
+            protected boolean isIncluded(String id, T element) {
+                return element != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T convert(String id) {
+                switch (elementType) {
+                    case VERTEX:
+                        return (T) getGraph().getVertex(id, fetchHints, getParameters().getAuthorizations());
+                    case EDGE:
+                        return (T) getGraph().getEdge(id, fetchHints, getParameters().getAuthorizations());
+                    default:
+                        throw new VertexiumException("Unexpected element type: " + elementType);
+                }
+            }
+
+            @Override
+            protected Iterator<String> createIterator() {
+                return sortedCandidateIds.iterator();
+            }
+        };
+    }
+
+    /**
+     * @return The ids of the elements which may match the query or null if the query has no filter the index can answer.
+     */
+    private Set<String> findCandidateIds(PropertyValueIndex propertyValueIndex) {
+        QueryParameters parameters = getParameters();
+        Set<String> candidateIds = parameters.getIds() == null ? null : new HashSet<>(parameters.getIds());
+        for (QueryBase.HasContainer hasContainer : parameters.getHasContainers()) {
+            if (candidateIds != null && candidateIds.isEmpty()) {
+                break;
+            }
+            if (!(hasContainer instanceof QueryBase.HasValueContainer)) {
+                continue;
+            }
+            QueryBase.HasValueContainer hasValueContainer = (QueryBase.HasValueContainer) hasContainer;
+            Set<String> ids = propertyValueIndex.find(hasValueContainer.keys, hasValueContainer.predicate, hasValueContainer.value);
+            if (ids == null) {
+                continue;
+            }
+            if (candidateIds == null) {
+                candidateIds = ids;
+            } else {
+                candidateIds.retainAll(ids);
+            }
+        }
+        return candidateIds;
+    }
+}
@@ -0,0 +1,90 @@
+package org.vertexium.search;
+
+import org.vertexium.*;
+import org.vertexium.mutation.ExistingElementMutation;
+import org.vertexium.mutation.PropertyDeleteMutation;
+import org.vertexium.query.GraphQuery;
+
+/**
+ * A {@link DefaultSearchIndex} which keeps an in-process {@link PropertyValueIndex} of the vertex and edge
+ * property values so that graph queries filtering on ids or with {@link org.vertexium.query.Compare#EQUAL},
+ * range or {@link org.vertexium.query.Contains#IN} predicates do not need to scan every element. The index is
+ * only populated from the elements written through this instance, it is not suited for graphs whose data
+ * outlives the process.
+ */
+public class PropertyIndexSearchIndex extends DefaultSearchIndex {
+    private final PropertyValueIndex vertexPropertyValueIndex = new PropertyValueIndex();
+    private final PropertyValueIndex edgePropertyValueIndex = new PropertyValueIndex();
+
+    public PropertyIndexSearchIndex(GraphConfiguration configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public void addElement(Graph graph, Element element, Authorizations authorizations) {
+        super.addElement(graph, element, authorizations);
+        getPropertyValueIndex(element).addProperties(element.getId(), element.getProperties());
+    }
+
+    @Override
+    public <TElement extends Element> void updateElement(Graph graph, ExistingElementMutation<TElement> mutation, Authorizations authorizations) {
+        super.updateElement(graph, mutation, authorizations);
+        TElement element = mutation.getElement();
+        PropertyValueIndex propertyValueIndex = getPropertyValueIndex(element);
+        for (PropertyDeleteMutation propertyDeleteMutation : mutation.getPropertyDeletes()) {
+            propertyValueIndex.removeProperty(element.getId(), PropertyDescriptor.fromPropertyDeleteMutation(propertyDeleteMutation));
+        }
+        propertyValueIndex.addProperties(element.getId(), mutation.getProperties());
+    }
+
+    @Override
+    public void deleteElement(Graph graph, Element element, Authorizations authorizations) {
+        super.deleteElement(graph, element, authorizations);
+        getPropertyValueIndex(element).removeElement(element.getId());
+    }
+
+    @Override
+    public void deleteProperty(Graph graph, Element element, PropertyDescriptor property, Authorizations authorizations) {
+        super.deleteProperty(graph, element, property, authorizations);
+        getPropertyValueIndex(element).removeProperty(element.getId(), property);
+    }
+
+    @Override
+    public GraphQuery queryGraph(Graph graph, String queryString, Authorizations authorizations) {
+        return new PropertyIndexGraphQuery(graph, queryString, this, authorizations);
+    }
+
+    @Override
+    public void truncate(Graph graph) {
+        super.truncate(graph);
+        vertexPropertyValueIndex.clear();
+        edgePropertyValueIndex.clear();
+    }
+
+    @Override
+    public void drop(Graph graph) {
+        super.drop(graph);
+        vertexPropertyValueIndex.clear();
+        edgePropertyValueIndex.clear();
+    }
+
+    private PropertyValueIndex getPropertyValueIndex(Element element) {
+        if (element instanceof Vertex) {
+            return vertexPropertyValueIndex;
+        } else if (element instanceof Edge) {
+            return edgePropertyValueIndex;
+        }
+        throw new VertexiumException("Unexpected element type: " + element.getClass().getName());
+    }
+
+    PropertyValueIndex getPropertyValueIndex(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vertexPropertyValueIndex;
+            case EDGE:
+                return edgePropertyValueIndex;
+            default:
+                throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+    }
+}
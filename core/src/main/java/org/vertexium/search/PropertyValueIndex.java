@@ -0,0 +1,312 @@
+package org.vertexium.search;
+
+import org.vertexium.*;
+import org.vertexium.query.Compare;
+import org.vertexium.query.Contains;
+import org.vertexium.query.Predicate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secondary index from property name and value to the ids of the elements having that value.
+ *
+ * The index only narrows down the elements a query has to look at, callers must still evaluate the query
+ * against the returned elements. Because of that the index may return more ids than actually match (stale
+ * values, values not visible to the caller, values of a different type) but it never leaves out an element
+ * which has a matching value.
+ */
+public class PropertyValueIndex {
+    // DateOnly comparisons truncate the other side to the start of the day in the local time zone
+    private static final long DATE_ONLY_SLACK = TimeUnit.DAYS.toMillis(2);
+
+    private final Map<String, Map<PropertyDescriptor, IndexValue>> valuesByElementId = new ConcurrentHashMap<>();
+    private final Map<String, PropertyNameIndex> propertyNameIndexes = new ConcurrentHashMap<>();
+
+    public void addProperties(String elementId, Iterable<Property> properties) {
+        valuesByElementId.compute(elementId, (k, elementValues) -> {
+            if (elementValues == null) {
+                elementValues = new HashMap<>();
+            }
+            for (Property property : properties) {
+                if (property.getValue() == null) {
+                    continue;
+                }
+                PropertyDescriptor propertyDescriptor = PropertyDescriptor.fromProperty(property);
+                IndexValue newValue = IndexValue.create(property.getValue());
+                IndexValue oldValue = elementValues.put(propertyDescriptor, newValue);
+                if (newValue.equals(oldValue)) {
+                    continue;
+                }
+                PropertyNameIndex propertyNameIndex = getPropertyNameIndex(property.getName());
+                if (oldValue != null) {
+                    removeIfLast(elementId, elementValues, property.getName(), oldValue, propertyNameIndex);
+                }
+                propertyNameIndex.add(elementId, newValue);
+            }
+            return elementValues.isEmpty() ? null : elementValues;
+        });
+    }
+
+    public void removeProperty(String elementId, PropertyDescriptor propertyDescriptor) {
+        valuesByElementId.computeIfPresent(elementId, (k, elementValues) -> {
+            IndexValue oldValue = elementValues.remove(propertyDescriptor);
+            if (oldValue != null) {
+                PropertyNameIndex propertyNameIndex = getPropertyNameIndex(propertyDescriptor.getName());
+                removeIfLast(elementId, elementValues, propertyDescriptor.getName(), oldValue, propertyNameIndex);
+            }
+            return elementValues.isEmpty() ? null : elementValues;
+        });
+    }
+
+    public void removeElement(String elementId) {
+        valuesByElementId.computeIfPresent(elementId, (k, elementValues) -> {
+            for (Map.Entry<PropertyDescriptor, IndexValue> entry : elementValues.entrySet()) {
+                getPropertyNameIndex(entry.getKey().getName()).remove(elementId, entry.getValue(), true);
+            }
+            return null;
+        });
+    }
+
+    public void clear() {
+        valuesByElementId.clear();
+        propertyNameIndexes.clear();
+    }
+
+    private void removeIfLast(
+        String elementId,
+        Map<PropertyDescriptor, IndexValue> elementValues,
+        String propertyName,
+        IndexValue oldValue,
+        PropertyNameIndex propertyNameIndex
+    ) {
+        boolean hasSameValue = false;
+        boolean hasSameType = false;
+        for (Map.Entry<PropertyDescriptor, IndexValue> entry : elementValues.entrySet()) {
+            if (!entry.getKey().getName().equals(propertyName)) {
+                continue;
+            }
+            if (entry.getValue().equals(oldValue)) {
+                hasSameValue = true;
+                break;
+            }
+            if (entry.getValue().type == oldValue.type) {
+                hasSameType = true;
+            }
+        }
+        if (!hasSameValue) {
+            propertyNameIndex.remove(elementId, oldValue, !hasSameType);
+        }
+    }
+
+    private PropertyNameIndex getPropertyNameIndex(String propertyName) {
+        return propertyNameIndexes.computeIfAbsent(propertyName, k -> new PropertyNameIndex());
+    }
+
+    /**
+     * Finds the ids of the elements which may have a value matching the predicate in any of the given properties.
+     *
+     * @return The candidate element ids or null if the predicate or value can not be answered by the index.
+     */
+    public Set<String> find(Iterable<String> propertyNames, Predicate predicate, Object value) {
+        Set<String> results = new HashSet<>();
+        for (String propertyName : propertyNames) {
+            if (!find(propertyName, predicate, value, results)) {
+                return null;
+            }
+        }
+        return results;
+    }
+
+    private boolean find(String propertyName, Predicate predicate, Object value, Set<String> results) {
+        if (predicate == Contains.IN) {
+            Iterable<?> values;
+            if (value instanceof Iterable) {
+                values = (Iterable<?>) value;
+            } else if (value instanceof Object[]) {
+                values = Arrays.asList((Object[]) value);
+            } else {
+                return false;
+            }
+            for (Object v : values) {
+                if (!find(propertyName, Compare.EQUAL, v, results)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (!isIndexedCompare(predicate) || value == null || isBuiltInPropertyName(propertyName)) {
+            return false;
+        }
+        IndexValue indexValue = IndexValue.create(value);
+        if (indexValue.type == ValueType.OTHER) {
+            return false;
+        }
+
+        PropertyNameIndex propertyNameIndex = propertyNameIndexes.get(propertyName);
+        if (propertyNameIndex == null) {
+            return true;
+        }
+        Comparable from = indexValue.value;
+        Comparable to = indexValue.value;
+        if (indexValue.type == ValueType.DATE) {
+            from = (Long) from - DATE_ONLY_SLACK;
+            to = (Long) to + DATE_ONLY_SLACK;
+        }
+        switch ((Compare) predicate) {
+            case EQUAL:
+                propertyNameIndex.addElementIds(indexValue.type, from, to, results);
+                break;
+            case GREATER_THAN:
+            case GREATER_THAN_EQUAL:
+                propertyNameIndex.addElementIds(indexValue.type, from, null, results);
+                break;
+            case LESS_THAN:
+            case LESS_THAN_EQUAL:
+                propertyNameIndex.addElementIds(indexValue.type, null, to, results);
+                break;
+            default:
+                throw new VertexiumException("Unexpected compare: " + predicate);
+        }
+        return true;
+    }
+
+    private static boolean isIndexedCompare(Predicate predicate) {
+        return predicate == Compare.EQUAL
+            || predicate == Compare.GREATER_THAN
+            || predicate == Compare.GREATER_THAN_EQUAL
+            || predicate == Compare.LESS_THAN
+            || predicate == Compare.LESS_THAN_EQUAL;
+    }
+
+    // values of the built-in properties are not stored as properties so they never reach the index
+    private static boolean isBuiltInPropertyName(String propertyName) {
+        return Element.ID_PROPERTY_NAME.equals(propertyName)
+            || Edge.LABEL_PROPERTY_NAME.equals(propertyName)
+            || Edge.OUT_VERTEX_ID_PROPERTY_NAME.equals(propertyName)
+            || Edge.IN_VERTEX_ID_PROPERTY_NAME.equals(propertyName)
+            || Edge.IN_OR_OUT_VERTEX_ID_PROPERTY_NAME.equals(propertyName);
+    }
+
+    private enum ValueType {
+        NUMBER,
+        STRING,
+        DATE,
+        OTHER
+    }
+
+    private static class IndexValue {
+        private static final IndexValue OTHER = new IndexValue(ValueType.OTHER, null);
+        private final ValueType type;
+        private final Comparable value;
+
+        private IndexValue(ValueType type, Comparable value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        // normalized the same way Compare normalizes values so that ordering in the index matches query ordering
+        public static IndexValue create(Object value) {
+            if (value instanceof Number) {
+                return new IndexValue(ValueType.NUMBER, ((Number) value).doubleValue());
+            }
+            if (value instanceof String) {
+                return new IndexValue(ValueType.STRING, ((String) value).toLowerCase());
+            }
+            if (value instanceof Date) {
+                return new IndexValue(ValueType.DATE, ((Date) value).getTime());
+            }
+            if (value instanceof DateOnly) {
+                return new IndexValue(ValueType.DATE, ((DateOnly) value).getDate().getTime());
+            }
+            return OTHER;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IndexValue that = (IndexValue) o;
+            return type == that.type && Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, value);
+        }
+    }
+
+    /**
+     * Values are kept per type. Values of different types can still be compared to each other by the query
+     * predicates (e.g. a numeric string with a number), so a lookup returns every element having a value of
+     * another type for the property in addition to the matching values of the query's type.
+     */
+    private static class PropertyNameIndex {
+        private final Map<ValueType, NavigableMap<Comparable, Set<String>>> elementIdsByValue = new EnumMap<>(ValueType.class);
+        private final Map<ValueType, Set<String>> elementIdsByType = new EnumMap<>(ValueType.class);
+
+        public PropertyNameIndex() {
+            for (ValueType valueType : ValueType.values()) {
+                if (valueType != ValueType.OTHER) {
+                    elementIdsByValue.put(valueType, new ConcurrentSkipListMap<>());
+                }
+                elementIdsByType.put(valueType, ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        public synchronized void add(String elementId, IndexValue indexValue) {
+            elementIdsByType.get(indexValue.type).add(elementId);
+            if (indexValue.type != ValueType.OTHER) {
+                elementIdsByValue.get(indexValue.type)
+                    .computeIfAbsent(indexValue.value, k -> ConcurrentHashMap.newKeySet())
+                    .add(elementId);
+            }
+        }
+
+        public synchronized void remove(String elementId, IndexValue indexValue, boolean removeFromType) {
+            if (removeFromType) {
+                elementIdsByType.get(indexValue.type).remove(elementId);
+            }
+            if (indexValue.type != ValueType.OTHER) {
+                NavigableMap<Comparable, Set<String>> elementIdsByValueForType = elementIdsByValue.get(indexValue.type);
+                Set<String> elementIds = elementIdsByValueForType.get(indexValue.value);
+                if (elementIds != null) {
+                    elementIds.remove(elementId);
+                    if (elementIds.isEmpty()) {
+                        elementIdsByValueForType.remove(indexValue.value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param from The inclusive lower bound or null for no lower bound.
+         * @param to   The inclusive upper bound or null for no upper bound.
+         */
+        public void addElementIds(ValueType type, Comparable from, Comparable to, Set<String> results) {
+            NavigableMap<Comparable, Set<String>> values = elementIdsByValue.get(type);
+            if (from != null && to != null) {
+                values = values.subMap(from, true, to, true);
+            } else if (from != null) {
+                values = values.tailMap(from, true);
+            } else if (to != null) {
+                values = values.headMap(to, true);
+            }
+            for (Set<String> elementIds : values.values()) {
+                results.addAll(elementIds);
+            }
+            for (Map.Entry<ValueType, Set<String>> entry : elementIdsByType.entrySet()) {
+                if (entry.getKey() != type) {
+                    results.addAll(entry.getValue());
+                }
+            }
+        }
+    }
+}
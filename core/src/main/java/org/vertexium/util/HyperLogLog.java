@@ -0,0 +1,104 @@
+package org.vertexium.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts distinct values in bounded memory.
+ *
+ * Values are counted exactly until more than the precision threshold distinct values have been seen, after
+ * that the sketch switches to a HyperLogLog estimate with 2^14 registers (about 1% standard error).
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION_THRESHOLD = 3000;
+    private static final int PRECISION = 14;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private final int precisionThreshold;
+    private Set<Long> hashes = new HashSet<>();
+    private byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION_THRESHOLD);
+    }
+
+    public HyperLogLog(int precisionThreshold) {
+        this.precisionThreshold = precisionThreshold;
+    }
+
+    public void add(Object value) {
+        if (value == null) {
+            return;
+        }
+        addHash(HASH_FUNCTION.hashString(value.toString(), StandardCharsets.UTF_8).asLong());
+    }
+
+    private void addHash(long hash) {
+        if (registers == null) {
+            hashes.add(hash);
+            if (hashes.size() > precisionThreshold) {
+                registers = new byte[REGISTER_COUNT];
+                for (Long h : hashes) {
+                    addToRegisters(h);
+                }
+                hashes = null;
+            }
+        } else {
+            addToRegisters(hash);
+        }
+    }
+
+    private void addToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        byte rank = (byte) Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, 64 - PRECISION + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.registers == null) {
+            for (Long hash : other.hashes) {
+                addHash(hash);
+            }
+            return;
+        }
+        if (registers == null) {
+            registers = new byte[REGISTER_COUNT];
+            for (Long hash : hashes) {
+                addToRegisters(hash);
+            }
+            hashes = null;
+        }
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long cardinality() {
+        if (registers == null) {
+            return hashes.size();
+        }
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroRegisters++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+        double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeroRegisters > 0) {
+            // linear counting is more accurate for small cardinalities
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+}
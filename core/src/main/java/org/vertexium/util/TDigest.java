@@ -0,0 +1,147 @@
+package org.vertexium.util;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning) used to estimate quantiles of a stream of values in bounded memory.
+ *
+ * Values are buffered and merged into weighted centroids when the buffer fills. Centroids near the tails are
+ * kept small so extreme quantiles stay accurate. With fewer values than the compression every value stays its
+ * own centroid and quantiles are exact.
+ */
+public class TDigest {
+    public static final double DEFAULT_COMPRESSION = 100.0;
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private final double[] buffer;
+    private int bufferCount;
+    private double totalWeight;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        this.means = new double[0];
+        this.weights = new double[0];
+        this.buffer = new double[(int) (5 * compression)];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferCount == buffer.length) {
+            compress();
+        }
+        buffer[bufferCount++] = value;
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        compress();
+        if (other.centroidCount == 0) {
+            return;
+        }
+        double[] otherWeights = Arrays.copyOf(other.weights, other.centroidCount);
+        collapse(other.means, otherWeights, other.centroidCount, other.totalWeight);
+    }
+
+    public long size() {
+        return (long) (totalWeight + bufferCount);
+    }
+
+    /**
+     * @param q The quantile between 0 and 1.
+     * @return The estimated value at the quantile or NaN if no values have been added.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1: " + q);
+        }
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+
+        // centroid i is centered at the (zero based) rank of its middle value, singletons sit on their own rank
+        double index = q * (totalWeight - 1);
+        double previousCenter = (weights[0] - 1) / 2;
+        if (index <= previousCenter) {
+            return means[0];
+        }
+        double cumulativeWeight = weights[0];
+        for (int i = 1; i < centroidCount; i++) {
+            double center = cumulativeWeight + (weights[i] - 1) / 2;
+            if (index <= center) {
+                double fraction = (index - previousCenter) / (center - previousCenter);
+                return means[i - 1] + fraction * (means[i] - means[i - 1]);
+            }
+            previousCenter = center;
+            cumulativeWeight += weights[i];
+        }
+        return means[centroidCount - 1];
+    }
+
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferCount);
+        double[] bufferWeights = new double[bufferCount];
+        Arrays.fill(bufferWeights, 1);
+        int count = bufferCount;
+        bufferCount = 0;
+        collapse(buffer, bufferWeights, count, count);
+    }
+
+    /**
+     * Merges the given centroids, sorted by mean, with the existing ones and combines neighbours as long as
+     * the combined centroid stays within the size bound for its quantile.
+     */
+    private void collapse(double[] otherMeans, double[] otherWeights, int otherCount, double otherTotalWeight) {
+        int count = centroidCount + otherCount;
+        double[] newMeans = new double[count];
+        double[] newWeights = new double[count];
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < count; i++) {
+            if (b >= otherCount || (a < centroidCount && means[a] <= otherMeans[b])) {
+                newMeans[i] = means[a];
+                newWeights[i] = weights[a];
+                a++;
+            } else {
+                newMeans[i] = otherMeans[b];
+                newWeights[i] = otherWeights[b];
+                b++;
+            }
+        }
+        totalWeight += otherTotalWeight;
+
+        int last = 0;
+        double weightSoFar = 0;
+        for (int i = 1; i < count; i++) {
+            double proposedWeight = newWeights[last] + newWeights[i];
+            double q = (weightSoFar + proposedWeight / 2) / totalWeight;
+            double maxWeight = 4 * totalWeight * q * (1 - q) / compression;
+            if (proposedWeight <= maxWeight) {
+                newMeans[last] += (newMeans[i] - newMeans[last]) * newWeights[i] / proposedWeight;
+                newWeights[last] = proposedWeight;
+            } else {
+                weightSoFar += newWeights[last];
+                last++;
+                newMeans[last] = newMeans[i];
+                newWeights[last] = newWeights[i];
+            }
+        }
+        centroidCount = last + 1;
+        means = newMeans;
+        weights = newWeights;
+    }
+}
@@ -0,0 +1,48 @@
+package org.vertexium.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class HyperLogLogTest {
+    @Test
+    public void countsExactlyBelowPrecisionThreshold() {
+        HyperLogLog hyperLogLog = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hyperLogLog.add("v" + i);
+            hyperLogLog.add("v" + i);
+        }
+        assertEquals(1000, hyperLogLog.cardinality());
+    }
+
+    @Test
+    public void estimatesAbovePrecisionThreshold() {
+        HyperLogLog hyperLogLog = new HyperLogLog();
+        for (int i = 0; i < 100000; i++) {
+            hyperLogLog.add("v" + i);
+            hyperLogLog.add("v" + (i / 2));
+        }
+        assertEquals(100000, hyperLogLog.cardinality(), 100000 * 0.03);
+    }
+
+    @Test
+    public void merge() {
+        HyperLogLog hyperLogLog1 = new HyperLogLog();
+        HyperLogLog hyperLogLog2 = new HyperLogLog();
+        for (int i = 0; i < 50000; i++) {
+            hyperLogLog1.add("v" + i);
+        }
+        for (int i = 25000; i < 26000; i++) {
+            hyperLogLog2.add("v" + i);
+        }
+        hyperLogLog2.add("other");
+        hyperLogLog1.merge(hyperLogLog2);
+        assertEquals(50001, hyperLogLog1.cardinality(), 50001 * 0.03);
+
+        hyperLogLog2.merge(new HyperLogLog());
+        assertEquals(1001, hyperLogLog2.cardinality());
+    }
+}
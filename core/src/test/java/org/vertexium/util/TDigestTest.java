@@ -0,0 +1,67 @@
+package org.vertexium.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TDigestTest {
+    @Test
+    public void quantilesOfSmallInputsAreExact() {
+        TDigest digest = new TDigest();
+        for (int i = 0; i <= 10; i++) {
+            digest.add(i * 10);
+        }
+        assertEquals(0.0, digest.quantile(0), 0.0);
+        assertEquals(50.0, digest.quantile(0.5), 0.0);
+        assertEquals(25.0, digest.quantile(0.25), 0.000001);
+        assertEquals(100.0, digest.quantile(1), 0.0);
+    }
+
+    @Test
+    public void emptyDigest() {
+        TDigest digest = new TDigest();
+        assertEquals(0, digest.size());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+    }
+
+    @Test
+    public void quantilesOfLargeInputsAreClose() {
+        Random random = new Random(1);
+        List<Double> values = new ArrayList<>();
+        TDigest digest = new TDigest();
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextGaussian();
+            values.add(value);
+            digest.add(value);
+        }
+        Collections.sort(values);
+        assertEquals(100000, digest.size());
+        for (double q : new double[]{0.001, 0.01, 0.25, 0.5, 0.75, 0.99, 0.999}) {
+            double expected = values.get((int) (q * (values.size() - 1)));
+            assertEquals("quantile " + q, expected, digest.quantile(q), 0.02);
+        }
+    }
+
+    @Test
+    public void merge() {
+        TDigest digest1 = new TDigest();
+        TDigest digest2 = new TDigest();
+        for (int i = 0; i < 10000; i++) {
+            digest1.add(i);
+            digest2.add(10000 + i);
+        }
+        digest1.merge(digest2);
+        assertEquals(20000, digest1.size());
+        assertEquals(10000.0, digest1.quantile(0.5), 100.0);
+        assertEquals(19800.0, digest1.quantile(0.99), 100.0);
+    }
+}
@@ -12,4 +12,17 @@ public interface Elasticsearch5ExceptionHandler {
     ) throws Exception {
         throw ex;
     }
+
+    /**
+     * Called for a bulk update which failed with an error that is not retried, or which still failed after its
+     * retries. Throwing fails the flush which sent the update.
+     */
+    default void handleBulkItemFailure(
+        Graph graph,
+        Elasticsearch5SearchIndex elasticsearch5SearchIndex,
+        FlushObjectQueue.FlushObject flushObject,
+        Exception ex
+    ) throws Exception {
+        throw ex;
+    }
 }
@@ -6,15 +6,12 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.util.concurrent.SettableFuture;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.cluster.node.info.NodeInfo;
 import org.elasticsearch.action.admin.cluster.node.info.NodesInfoResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.mapping.get.GetMappingsResponse;
-import org.elasticsearch.action.bulk.BulkProcessor;
-import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateRequest;
@@ -46,7 +43,7 @@ import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilde
 import org.elasticsearch.transport.client.PreBuiltTransportClient;
 import org.vertexium.Edge;
 import org.vertexium.*;
-import org.vertexium.elasticsearch5.utils.DefaultBulkProcessorListener;
+import org.vertexium.elasticsearch5.utils.BulkUpdater;
 import org.vertexium.elasticsearch5.utils.FlushObjectQueue;
 import org.vertexium.mutation.ExistingElementMutation;
 import org.vertexium.mutation.ExtendedDataMutation;
@@ -55,7 +52,6 @@ import org.vertexium.query.*;
 import org.vertexium.search.SearchIndex;
 import org.vertexium.search.SearchIndexWithVertexPropertyCountByValue;
 import org.vertexium.type.*;
-import org.vertexium.util.ConvertingIterable;
 import org.vertexium.util.IOUtils;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
@@ -66,10 +62,13 @@ import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
-import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -115,6 +114,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     public static final Pattern AGGREGATION_NAME_PATTERN = Pattern.compile("(.*?)_([0-9a-f]+)");
     private final PropertyNameVisibilitiesStore propertyNameVisibilitiesStore;
     private final FlushObjectQueue flushObjectQueue;
+    private final BulkUpdater bulkUpdater;
     private final String geoShapePrecision;
     private final String geoShapeErrorPct;
     private boolean serverPluginInstalled;
@@ -122,6 +122,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
     private final IndexRefreshTracker indexRefreshTracker = new IndexRefreshTracker();
     private Integer logRequestSizeLimit;
     private final Elasticsearch5ExceptionHandler exceptionHandler;
+    private final ThreadPoolExecutor searchAfterExecutor;
 
     public Elasticsearch5SearchIndex(Graph graph, GraphConfiguration config) {
         this.graph = graph;
@@ -135,7 +136,30 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         this.geoShapeErrorPct = this.config.getGeoShapeErrorPct();
         this.logRequestSizeLimit = this.config.getLogRequestSizeLimit();
         this.exceptionHandler = this.config.getExceptionHandler(graph);
-        this.flushObjectQueue = new FlushObjectQueue(this);
+        this.flushObjectQueue = new FlushObjectQueue(this, this.config.getFlushObjectQueueMaxInFlight());
+        this.bulkUpdater = new BulkUpdater(
+            this,
+            this.client,
+            this.config.getBulkActions(),
+            this.config.getBulkSizeBytes(),
+            this.config.getBulkFlushIntervalMillis(),
+            this.config.getBulkConcurrentRequests(),
+            this.config.getBulkMaxQueuedRequests()
+        );
+        int searchAfterThreads = this.config.getQuerySearchAfterThreads();
+        this.searchAfterExecutor = new ThreadPoolExecutor(
+            searchAfterThreads,
+            searchAfterThreads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "vertexium-es-search-after");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.searchAfterExecutor.allowCoreThreadTimeOut(true);
 
         storePainlessScript("deleteFieldsFromDocumentScript", "remove-fields-from-document.painless");
         storePainlessScript("updateFieldsOnDocumentScript", "update-fields-on-document.painless");
@@ -157,6 +181,13 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         }
     }
 
+    /**
+     * The executor the queries of this search index read search_after slices on.
+     */
+    public ExecutorService getSearchAfterExecutor() {
+        return searchAfterExecutor;
+    }
+
     public PropertyNameVisibilitiesStore getPropertyNameVisibilitiesStore() {
         return propertyNameVisibilitiesStore;
     }
@@ -269,6 +300,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         } finally {
             indexInfosLock.writeLock().unlock();
         }
+        propertyNameVisibilitiesStore.clearCache();
     }
 
     private Map<String, IndexInfo> getIndexInfos() {
@@ -586,16 +618,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         String rowId,
         UpdateRequestBuilder updateRequestBuilder
     ) {
-        Future future;
-        try {
-            logRequestSize(elementId, updateRequestBuilder.request());
-            future = updateRequestBuilder.execute();
-        } catch (Exception ex) {
-            LOGGER.debug("Could not execute update: %s", ex.getMessage());
-            future = SettableFuture.create();
-            ((SettableFuture) future).setException(ex);
-        }
-        flushObjectQueue.add(elementType, elementId, extendedDataTableName, rowId, updateRequestBuilder, future);
+        logRequestSize(elementId, updateRequestBuilder.request());
+        flushObjectQueue.add(elementType, elementId, extendedDataTableName, rowId, updateRequestBuilder);
     }
 
     @Override
@@ -664,9 +688,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         Visibility oldVisibility,
         Visibility newVisibility
     ) {
-        bulkUpdate(graph, new ConvertingIterable<ExtendedDataRow, UpdateRequest>(rows) {
-            @Override
-            protected UpdateRequest convert(ExtendedDataRow row) {
+        bulkUpdate(graph, batch -> {
+            for (ExtendedDataRow row : rows) {
                 String tableName = (String) row.getPropertyValue(ExtendedDataRow.TABLE_NAME);
                 String rowId = (String) row.getPropertyValue(ExtendedDataRow.ROW_ID);
                 String extendedDataDocId = getIdStrategy().createExtendedDataDocId(element, tableName, rowId);
@@ -689,7 +712,7 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                 String newElementTypeVisibilityPropertyName = addVisibilityToPropertyName(graph, ELEMENT_TYPE_FIELD_NAME, newVisibility);
                 Map<String, String> fieldsToRename = Collections.singletonMap(oldElementTypeVisibilityPropertyName, newElementTypeVisibilityPropertyName);
 
-                return getClient()
+                UpdateRequestBuilder updateRequestBuilder = getClient()
                     .prepareUpdate(indexInfo.getIndexName(), getIdStrategy().getType(), extendedDataDocId)
                     .setScript(new Script(
                         ScriptType.STORED,
@@ -697,8 +720,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                         "updateFieldsOnDocumentScript",
                         ImmutableMap.of("fieldsToSet", Collections.emptyMap(), "fieldsToRemove", Collections.emptyList(), "fieldsToRename", fieldsToRename)
                     ))
-                    .setRetryOnConflict(MAX_RETRIES)
-                    .request();
+                    .setRetryOnConflict(MAX_RETRIES);
+                batch.add(ElementType.getTypeFromElement(element), element.getId(), tableName, rowId, updateRequestBuilder);
             }
         });
     }
@@ -735,9 +758,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                     ));
                     return;
                 }
-                bulkUpdate(graph, new ConvertingIterable<ExtendedDataRow, UpdateRequest>(rows) {
-                    @Override
-                    protected UpdateRequest convert(ExtendedDataRow row) {
+                bulkUpdate(graph, batch -> {
+                    for (ExtendedDataRow row : rows) {
                         String tableName = (String) row.getPropertyValue(ExtendedDataRow.TABLE_NAME);
                         String rowId = (String) row.getPropertyValue(ExtendedDataRow.ROW_ID);
                         List<ExtendedDataMutation> columns = stream(row.getProperties())
@@ -750,7 +772,9 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
                                 property.getTimestamp(),
                                 property.getVisibility()
                             )).collect(Collectors.toList());
-                        return prepareUpdate(graph, element, tableName, rowId, columns, authorizations).request();
+                        UpdateRequestBuilder updateRequestBuilder = prepareUpdate(graph, element, tableName, rowId, columns, authorizations);
+                        logRequestSize(element.getId(), updateRequestBuilder.request());
+                        batch.add(elementType, elementId, tableName, rowId, updateRequestBuilder);
                     }
                 });
             });
@@ -1168,6 +1192,13 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         exceptionHandler.handleDocumentMissingException(graph, this, flushObject, ex);
     }
 
+    public void handleBulkItemFailure(FlushObjectQueue.FlushObject flushObject, Exception ex) throws Exception {
+        if (exceptionHandler == null) {
+            throw ex;
+        }
+        exceptionHandler.handleBulkItemFailure(graph, this, flushObject, ex);
+    }
+
     public boolean supportsExactMatchSearch(PropertyDefinition propertyDefinition) {
         return propertyDefinition.getTextIndexHints().contains(TextIndexHint.EXACT_MATCH) || propertyDefinition.isSortable();
     }
@@ -1799,12 +1830,11 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     @Override
     public void addElements(Graph graph, Iterable<? extends Element> elements, Authorizations authorizations) {
-        bulkUpdate(graph, new ConvertingIterable<Element, UpdateRequest>(elements) {
-            @Override
-            protected UpdateRequest convert(Element element) {
-                UpdateRequest request = prepareUpdate(graph, element, authorizations).request();
-                logRequestSize(element.getId(), request);
-                return request;
+        bulkUpdate(graph, batch -> {
+            for (Element element : elements) {
+                UpdateRequestBuilder updateRequestBuilder = prepareUpdate(graph, element, authorizations);
+                logRequestSize(element.getId(), updateRequestBuilder.request());
+                batch.add(ElementType.getTypeFromElement(element), element.getId(), null, null, updateRequestBuilder);
             }
         });
     }
@@ -1828,35 +1858,11 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
         }
     }
 
-    private void bulkUpdate(Graph graph, Iterable<UpdateRequest> updateRequests) {
-        int totalCount = 0;
-        List<Throwable> failures = new ArrayList<>();
-        BulkProcessor.Builder builder = BulkProcessor.builder(
-            getClient(),
-            new DefaultBulkProcessorListener() {
-                @Override
-                public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
-                    LOGGER.error("Failed bulk request: %s", request.toString(), failure);
-                    failures.add(failure);
-                }
-            }
-        );
-        BulkProcessor bulkProcessor = builder.build();
-        for (UpdateRequest updateRequest : updateRequests) {
-            bulkProcessor.add(updateRequest);
-            totalCount++;
-        }
-        bulkProcessor.flush();
-        try {
-            // We should never wait this long, but setting it high just to be sure everything is finished
-            bulkProcessor.awaitClose(10, TimeUnit.MINUTES);
-        } catch (InterruptedException ex) {
-            throw new VertexiumException("Failed bulk update, waiting for close", ex);
-        }
-        LOGGER.debug("added %d elements", totalCount);
-        if (failures.size() > 0) {
-            throw new VertexiumException(String.format("Failed bulk update (failures: %d)", failures.size()));
-        }
+    private void bulkUpdate(Graph graph, Consumer<BulkUpdater.Batch> addUpdates) {
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        addUpdates.accept(batch);
+        batch.await();
+        LOGGER.debug("added %d elements", batch.getCount());
 
         if (getConfig().isAutoFlush()) {
             flush(graph);
@@ -1988,6 +1994,8 @@ public class Elasticsearch5SearchIndex implements SearchIndex, SearchIndexWithVe
 
     @Override
     public void shutdown() {
+        bulkUpdater.close();
+        searchAfterExecutor.shutdownNow();
         client.close();
 
         if (propertyNameVisibilitiesStore instanceof Closeable) {
@@ -3,6 +3,8 @@ package org.vertexium.elasticsearch5;
 import org.vertexium.*;
 import org.vertexium.mutation.ExistingEdgeMutation;
 
+import java.util.List;
+
 public class ElasticsearchEdge extends ElasticsearchElement implements Edge {
     private String label;
     private String inVertexId;
@@ -17,7 +19,20 @@ public class ElasticsearchEdge extends ElasticsearchElement implements Edge {
         FetchHints fetchHints,
         Authorizations authorizations
     ) {
-        super(graph, id, fetchHints, authorizations);
+        this(graph, id, label, inVertexId, outVertexId, null, fetchHints, authorizations);
+    }
+
+    public ElasticsearchEdge(
+        Graph graph,
+        String id,
+        String label,
+        String inVertexId,
+        String outVertexId,
+        List<Property> properties,
+        FetchHints fetchHints,
+        Authorizations authorizations
+    ) {
+        super(graph, id, properties, fetchHints, authorizations);
         this.label = label;
         this.inVertexId = inVertexId;
         this.outVertexId = outVertexId;
@@ -6,7 +6,10 @@ import org.vertexium.historicalEvent.HistoricalEvent;
 import org.vertexium.historicalEvent.HistoricalEventId;
 import org.vertexium.mutation.ExistingElementMutation;
 import org.vertexium.query.QueryableIterable;
+import org.vertexium.util.ConvertingIterable;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 public abstract class ElasticsearchElement extends ElementBase {
@@ -14,15 +17,30 @@ public abstract class ElasticsearchElement extends ElementBase {
     private FetchHints fetchHints;
     private String id;
     private Authorizations authorizations;
+    private final List<Property> properties;
 
     public ElasticsearchElement(
         Graph graph,
         String id,
         FetchHints fetchHints,
         Authorizations authorizations
+    ) {
+        this(graph, id, null, fetchHints, authorizations);
+    }
+
+    /**
+     * @param properties The properties read from the search index or null if properties are not supported.
+     */
+    public ElasticsearchElement(
+        Graph graph,
+        String id,
+        List<Property> properties,
+        FetchHints fetchHints,
+        Authorizations authorizations
     ) {
         this.id = id;
         this.graph = graph;
+        this.properties = properties;
         this.fetchHints = fetchHints;
         this.authorizations = authorizations;
     }
@@ -34,47 +52,70 @@ public abstract class ElasticsearchElement extends ElementBase {
 
     @Override
     public Iterable<Property> getProperties() {
-        throw new VertexiumNotSupportedException("getProperties is not supported");
+        if (properties == null) {
+            throw new VertexiumNotSupportedException("getProperties is not supported");
+        }
+        return properties;
     }
 
     @Override
     public Property getProperty(String name) {
-        throw new VertexiumNotSupportedException("getProperty is not supported");
+        return getProperty(null, name);
     }
 
     @Override
     public Object getPropertyValue(String name) {
-        throw new VertexiumNotSupportedException("getPropertyValue is not supported");
+        return getPropertyValue(null, name, 0);
     }
 
     @Override
     public Property getProperty(String key, String name) {
-        throw new VertexiumNotSupportedException("getProperty is not supported");
+        if (properties == null) {
+            throw new VertexiumNotSupportedException("getProperty is not supported");
+        }
+        Iterator<Property> it = getProperties(key, name).iterator();
+        return it.hasNext() ? it.next() : null;
     }
 
     @Override
     public Iterable<Object> getPropertyValues(String name) {
-        throw new VertexiumNotSupportedException("getPropertyValues is not supported");
+        return getPropertyValues(null, name);
     }
 
     @Override
     public Iterable<Object> getPropertyValues(String key, String name) {
-        throw new VertexiumNotSupportedException("getPropertyValues is not supported");
+        if (properties == null) {
+            throw new VertexiumNotSupportedException("getPropertyValues is not supported");
+        }
+        return new ConvertingIterable<Property, Object>(getProperties(key, name)) {
+            @Override
+            protected Object convert(Property property) {
+                return property.getValue();
+            }
+        };
     }
 
     @Override
     public Object getPropertyValue(String key, String name) {
-        throw new VertexiumNotSupportedException("getPropertyValue is not supported");
+        return getPropertyValue(key, name, 0);
     }
 
     @Override
     public Object getPropertyValue(String name, int index) {
-        throw new VertexiumNotSupportedException("getPropertyValue is not supported");
+        return getPropertyValue(null, name, index);
     }
 
     @Override
     public Object getPropertyValue(String key, String name, int index) {
-        throw new VertexiumNotSupportedException("getPropertyValue is not supported");
+        if (properties == null) {
+            throw new VertexiumNotSupportedException("getPropertyValue is not supported");
+        }
+        Iterator<Object> values = getPropertyValues(key, name).iterator();
+        while (values.hasNext() && index > 0) {
+            values.next();
+            index--;
+        }
+        return values.hasNext() ? values.next() : null;
     }
 
     @Override
@@ -57,6 +57,26 @@ public class ElasticsearchSearchIndexConfiguration {
     public static final Integer LOG_REQUEST_SIZE_LIMIT_DEFAULT = null;
     public static final String MAX_QUERY_STRING_TERMS = "maxQueryStringTerms";
     public static final int MAX_QUERY_STRING_TERMS_DEFAULT = 100;
+    public static final String FLUSH_OBJECT_QUEUE_MAX_IN_FLIGHT = "flushObjectQueue.maxInFlight";
+    public static final int FLUSH_OBJECT_QUEUE_MAX_IN_FLIGHT_DEFAULT = 1000;
+    public static final String QUERY_HYDRATE_FROM_SOURCE = "queryHydrateFromSource";
+    public static final boolean QUERY_HYDRATE_FROM_SOURCE_DEFAULT = false;
+    public static final String QUERY_SEARCH_AFTER = "querySearchAfter";
+    public static final boolean QUERY_SEARCH_AFTER_DEFAULT = false;
+    public static final String QUERY_SEARCH_AFTER_PARALLELISM = "querySearchAfter.parallelism";
+    public static final int QUERY_SEARCH_AFTER_PARALLELISM_DEFAULT = 1;
+    public static final String QUERY_SEARCH_AFTER_THREADS = "querySearchAfter.threads";
+    public static final int QUERY_SEARCH_AFTER_THREADS_DEFAULT = 16;
+    public static final String BULK_ACTIONS = "bulk.actions";
+    public static final int BULK_ACTIONS_DEFAULT = 1000;
+    public static final String BULK_SIZE_BYTES = "bulk.sizeBytes";
+    public static final long BULK_SIZE_BYTES_DEFAULT = 5 * 1024 * 1024;
+    public static final String BULK_FLUSH_INTERVAL_MILLIS = "bulk.flushIntervalMillis";
+    public static final Integer BULK_FLUSH_INTERVAL_MILLIS_DEFAULT = 1000;
+    public static final String BULK_CONCURRENT_REQUESTS = "bulk.concurrentRequests";
+    public static final int BULK_CONCURRENT_REQUESTS_DEFAULT = 4;
+    public static final String BULK_MAX_QUEUED_REQUESTS = "bulk.maxQueuedRequests";
+    public static final int BULK_MAX_QUEUED_REQUESTS_DEFAULT = 10000;
 
     private GraphConfiguration graphConfiguration;
     private IndexSelectionStrategy indexSelectionStrategy;
@@ -230,4 +250,47 @@ public class ElasticsearchSearchIndexConfiguration {
     public int getMaxQueryStringTerms() {
         return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + MAX_QUERY_STRING_TERMS, MAX_QUERY_STRING_TERMS_DEFAULT);
     }
+
+    public int getFlushObjectQueueMaxInFlight() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + FLUSH_OBJECT_QUEUE_MAX_IN_FLIGHT, FLUSH_OBJECT_QUEUE_MAX_IN_FLIGHT_DEFAULT);
+    }
+
+    public int getBulkActions() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_ACTIONS, BULK_ACTIONS_DEFAULT);
+    }
+
+    public long getBulkSizeBytes() {
+        return graphConfiguration.getConfigLong(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_SIZE_BYTES, BULK_SIZE_BYTES_DEFAULT);
+    }
+
+    public Integer getBulkFlushIntervalMillis() {
+        return graphConfiguration.getInteger(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_FLUSH_INTERVAL_MILLIS, BULK_FLUSH_INTERVAL_MILLIS_DEFAULT);
+    }
+
+    public int getBulkConcurrentRequests() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_CONCURRENT_REQUESTS, BULK_CONCURRENT_REQUESTS_DEFAULT);
+    }
+
+    public int getBulkMaxQueuedRequests() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + BULK_MAX_QUEUED_REQUESTS, BULK_MAX_QUEUED_REQUESTS_DEFAULT);
+    }
+
+    public boolean isQueryHydrateFromSource() {
+        return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + QUERY_HYDRATE_FROM_SOURCE, QUERY_HYDRATE_FROM_SOURCE_DEFAULT);
+    }
+
+    public boolean isQuerySearchAfter() {
+        return graphConfiguration.getBoolean(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + QUERY_SEARCH_AFTER, QUERY_SEARCH_AFTER_DEFAULT);
+    }
+
+    public int getQuerySearchAfterParallelism() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + QUERY_SEARCH_AFTER_PARALLELISM, QUERY_SEARCH_AFTER_PARALLELISM_DEFAULT);
+    }
+
+    /**
+     * Threads shared by the queries of the search index to read slices in parallel, see {@link #QUERY_SEARCH_AFTER_PARALLELISM}.
+     */
+    public int getQuerySearchAfterThreads() {
+        return graphConfiguration.getInt(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + QUERY_SEARCH_AFTER_THREADS, QUERY_SEARCH_AFTER_THREADS_DEFAULT);
+    }
 }
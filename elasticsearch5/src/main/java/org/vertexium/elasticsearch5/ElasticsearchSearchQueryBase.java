@@ -8,6 +8,8 @@ import com.vividsolutions.jts.geom.Coordinate;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsGroup;
+import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
@@ -35,6 +37,7 @@ import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilde
 import org.elasticsearch.search.aggregations.metrics.cardinality.CardinalityAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.stats.extended.ExtendedStatsAggregationBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.ScriptSortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortMode;
@@ -45,6 +48,7 @@ import org.vertexium.elasticsearch5.scoring.ElasticsearchScoringStrategy;
 import org.vertexium.elasticsearch5.utils.ElasticsearchTypes;
 import org.vertexium.elasticsearch5.utils.InfiniteScrollIterable;
 import org.vertexium.elasticsearch5.utils.PagingIterable;
+import org.vertexium.elasticsearch5.utils.SearchAfterIterable;
 import org.vertexium.query.*;
 import org.vertexium.scoring.ScoringStrategy;
 import org.vertexium.type.*;
@@ -173,13 +177,17 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
                 Elasticsearch5SearchIndex.EXTENDED_DATA_TABLE_NAME_FIELD_NAME,
                 Elasticsearch5SearchIndex.EXTENDED_DATA_TABLE_ROW_ID_FIELD_NAME
             );
-        if (fetchHints.equals(FetchHints.NONE)) {
+        ElasticsearchSourceProperties sourceProperties = createSourceProperties(fetchHints);
+        if (fetchHints.equals(FetchHints.NONE) || sourceProperties != null) {
             searchRequestBuilder.storedFields(
                 Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME,
                 Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME,
                 Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME
             );
         }
+        if (sourceProperties != null) {
+            searchRequestBuilder.setFetchSource(sourceProperties.getSourceIncludes(), null);
+        }
         if (getParameters().getMinScore() != null) {
             searchRequestBuilder.setMinScore(getParameters().getMinScore().floatValue());
         }
@@ -400,6 +408,9 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
     public QueryResultsIterable<? extends VertexiumObject> search(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
         validateQueryString();
         if (shouldUseScrollApi()) {
+            if (getSearchIndex().getConfig().isQuerySearchAfter()) {
+                return searchSearchAfter(objectTypes, fetchHints);
+            }
             return searchScroll(objectTypes, fetchHints);
         }
         return searchPaged(objectTypes, fetchHints);
@@ -441,6 +452,15 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         };
     }
 
+    private QueryResultsIterable<? extends VertexiumObject> searchSearchAfter(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
+        return new QuerySearchAfterIterable<VertexiumObject>(objectTypes, fetchHints) {
+            @Override
+            protected ElasticsearchGraphQueryIterable<VertexiumObject> searchResponseToIterable(SearchResponse searchResponse) {
+                return ElasticsearchSearchQueryBase.this.searchResponseToVertexiumObjectIterable(searchResponse, fetchHints);
+            }
+        };
+    }
+
     private void closeScroll(String scrollId) {
         try {
             client.prepareClearScroll()
@@ -489,7 +509,18 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         filterParameters.setSkip(0); // ES already did a skip
         List<Iterable<? extends VertexiumObject>> items = new ArrayList<>();
         Authorizations authorizations = filterParameters.getAuthorizations();
-        if (ids.getVertexIds().size() > 0) {
+        ElasticsearchSourceProperties sourceProperties = createSourceProperties(fetchHints);
+        if (sourceProperties != null && ids.getVertexIds().size() + ids.getEdgeIds().size() > 0) {
+            List<String> vertexIdsToRead = new ArrayList<>();
+            List<String> edgeIdsToRead = new ArrayList<>();
+            items.add(getElasticsearchElementsFromSource(hits, fetchHints, authorizations, sourceProperties, vertexIdsToRead, edgeIdsToRead));
+            if (vertexIdsToRead.size() > 0) {
+                items.add(getGraph().getVertices(vertexIdsToRead, fetchHints, authorizations));
+            }
+            if (edgeIdsToRead.size() > 0) {
+                items.add(getGraph().getEdges(edgeIdsToRead, fetchHints, authorizations));
+            }
+        } else if (ids.getVertexIds().size() > 0) {
             if (fetchHints.equals(FetchHints.NONE)) {
                 items.add(getElasticsearchVertices(hits, fetchHints, authorizations));
             } else {
@@ -497,7 +528,7 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
                 items.add(vertices);
             }
         }
-        if (ids.getEdgeIds().size() > 0) {
+        if (sourceProperties == null && ids.getEdgeIds().size() > 0) {
             if (fetchHints.equals(FetchHints.NONE)) {
                 items.add(getElasticsearchEdges(hits, fetchHints, authorizations));
             } else {
@@ -518,6 +549,9 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
 
     private QueryResultsIterable<SearchHit> searchHits(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
         if (shouldUseScrollApi()) {
+            if (getSearchIndex().getConfig().isQuerySearchAfter()) {
+                return searchSearchAfterHits(objectTypes, fetchHints);
+            }
             return searchScrollHits(objectTypes, fetchHints);
         }
         return searchPagedHits(objectTypes, fetchHints);
@@ -537,6 +571,15 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         };
     }
 
+    private QuerySearchAfterIterable<SearchHit> searchSearchAfterHits(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
+        return new QuerySearchAfterIterable<SearchHit>(objectTypes, fetchHints) {
+            @Override
+            protected ElasticsearchGraphQueryIterable<SearchHit> searchResponseToIterable(SearchResponse searchResponse) {
+                return ElasticsearchSearchQueryBase.this.searchResponseToSearchHitsIterable(searchResponse);
+            }
+        };
+    }
+
     private PagingIterable<SearchHit> searchPagedHits(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
         return new PagingIterable<SearchHit>(getParameters().getSkip(), getParameters().getLimit(), pageSize) {
             @Override
@@ -596,6 +639,59 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
             }).collect(Collectors.toList());
     }
 
+    private ElasticsearchSourceProperties createSourceProperties(FetchHints fetchHints) {
+        if (fetchHints.equals(FetchHints.NONE)) {
+            return null;
+        }
+        return ElasticsearchSourceProperties.create(getGraph(), getSearchIndex(), fetchHints, getParameters().getAuthorizations());
+    }
+
+    /**
+     * Creates the vertices and edges of the hits from the properties in _source. The ids of hits which can not be
+     * created from _source are added to vertexIdsToRead and edgeIdsToRead to be read from the graph.
+     */
+    private List<ElasticsearchElement> getElasticsearchElementsFromSource(
+        SearchHits hits,
+        FetchHints fetchHints,
+        Authorizations authorizations,
+        ElasticsearchSourceProperties sourceProperties,
+        List<String> vertexIdsToRead,
+        List<String> edgeIdsToRead
+    ) {
+        List<ElasticsearchElement> elements = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            ElasticsearchDocumentType dt = ElasticsearchDocumentType.fromSearchHit(hit);
+            if (dt != ElasticsearchDocumentType.VERTEX && dt != ElasticsearchDocumentType.EDGE) {
+                continue;
+            }
+            String elementId = hit.getField(Elasticsearch5SearchIndex.ELEMENT_ID_FIELD_NAME).getValue();
+            List<Property> properties = sourceProperties.getProperties(hit);
+            if (dt == ElasticsearchDocumentType.VERTEX) {
+                if (properties == null) {
+                    vertexIdsToRead.add(elementId);
+                } else {
+                    elements.add(new ElasticsearchVertex(getGraph(), elementId, properties, fetchHints, authorizations));
+                }
+            } else {
+                if (properties == null) {
+                    edgeIdsToRead.add(elementId);
+                } else {
+                    elements.add(new ElasticsearchEdge(
+                        getGraph(),
+                        elementId,
+                        hit.getField(Elasticsearch5SearchIndex.EDGE_LABEL_FIELD_NAME).getValue(),
+                        hit.getField(Elasticsearch5SearchIndex.IN_VERTEX_ID_FIELD_NAME).getValue(),
+                        hit.getField(Elasticsearch5SearchIndex.OUT_VERTEX_ID_FIELD_NAME).getValue(),
+                        properties,
+                        fetchHints,
+                        authorizations
+                    ));
+                }
+            }
+        }
+        return elements;
+    }
+
     @Override
     public QueryResultsIterable<String> vertexIds(EnumSet<IdFetchHint> idFetchHints) {
         FetchHints fetchHints = idFetchHintsToElementFetchHints(idFetchHints);
@@ -1771,6 +1867,68 @@ public class ElasticsearchSearchQueryBase extends QueryBase {
         }
     }
 
+    private abstract class QuerySearchAfterIterable<T> extends SearchAfterIterable<T> {
+        private final EnumSet<VertexiumObjectType> objectTypes;
+        private final FetchHints fetchHints;
+
+        public QuerySearchAfterIterable(EnumSet<VertexiumObjectType> objectTypes, FetchHints fetchHints) {
+            super(getSearchIndex().getConfig().getQuerySearchAfterParallelism(), getSearchIndex().getSearchAfterExecutor());
+            this.objectTypes = objectTypes;
+            this.fetchHints = fetchHints;
+        }
+
+        @Override
+        protected SearchResponse search(Slice slice, Object[] searchAfter, boolean includeAggregations) {
+            try {
+                SearchRequestBuilder q = buildQuery(ElasticsearchDocumentType.fromVertexiumObjectTypes(objectTypes), fetchHints, includeAggregations)
+                    .setSize(pageSize);
+                // _uid is unique across vertices, edges and extended data rows, the element id is not
+                if (q.request().source().sorts().stream().noneMatch(sort -> sort instanceof FieldSortBuilder && ((FieldSortBuilder) sort).getFieldName().equals("_uid"))) {
+                    q.addSort("_uid", SortOrder.ASC);
+                }
+                if (slice != null) {
+                    q.setIndices(slice.getIndexName()).setPreference("_shards:" + slice.getShardId());
+                }
+                if (searchAfter != null) {
+                    q.searchAfter(searchAfter);
+                }
+                if (QUERY_LOGGER.isTraceEnabled()) {
+                    QUERY_LOGGER.trace("query: %s", q);
+                }
+                return checkForFailures(q.execute().actionGet());
+            } catch (IndexNotFoundException ex) {
+                LOGGER.debug("Index missing: %s (returning empty iterable)", ex.getMessage());
+                return null;
+            } catch (VertexiumNoMatchingPropertiesException ex) {
+                LOGGER.debug("Could not find property: %s (returning empty iterable)", ex.getPropertyName());
+                return null;
+            }
+        }
+
+        @Override
+        protected List<Slice> getSlices() {
+            // slices are read in parallel and lose the sort order
+            if (getParameters().getSortContainers().size() > 0) {
+                return Collections.emptyList();
+            }
+            String[] indicesToQuery = getIndexSelectionStrategy().getIndicesToQuery(
+                ElasticsearchSearchQueryBase.this,
+                ElasticsearchDocumentType.fromVertexiumObjectTypes(objectTypes)
+            );
+            ClusterSearchShardsResponse searchShards = getClient().admin().cluster().prepareSearchShards(indicesToQuery).get();
+            List<Slice> slices = new ArrayList<>();
+            for (ClusterSearchShardsGroup group : searchShards.getGroups()) {
+                slices.add(new Slice(group.getShardId().getIndexName(), group.getShardId().id()));
+            }
+            return slices;
+        }
+
+        @Override
+        protected IdStrategy getIdStrategy() {
+            return getSearchIndex().getIdStrategy();
+        }
+    }
+
     private static class Ids {
         private final List<String> vertexIds;
         private final List<String> edgeIds;
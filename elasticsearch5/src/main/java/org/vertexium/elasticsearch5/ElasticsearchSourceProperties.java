@@ -0,0 +1,192 @@
+package org.vertexium.elasticsearch5;
+
+import org.elasticsearch.search.SearchHit;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.vertexium.*;
+import org.vertexium.mutation.ElementMutation;
+import org.vertexium.property.MutablePropertyImpl;
+
+import java.util.*;
+import java.util.regex.Matcher;
+
+import static org.vertexium.elasticsearch5.ElasticsearchPropertyNameInfo.PROPERTY_NAME_PATTERN;
+
+/**
+ * Reads the properties requested by fetch hints from the _source of search hits so query results can be returned
+ * without reading the elements from the graph. Only used when the fetch hints ask for a list of properties with no
+ * metadata, hidden data or edge refs and every requested property is stored in _source as a value which converts back
+ * to its data type. Property keys, timestamps and metadata are not indexed, the properties read have the default key.
+ */
+class ElasticsearchSourceProperties {
+    // BigDecimal and BigInteger are indexed as doubles and longs which can lose precision or range
+    private static final Set<Class> SUPPORTED_DATA_TYPES = new HashSet<>(Arrays.asList(
+        String.class,
+        Boolean.class,
+        Byte.class,
+        Short.class,
+        Integer.class,
+        Long.class,
+        Float.class,
+        Double.class,
+        Date.class,
+        DateOnly.class
+    ));
+    private final Graph graph;
+    private final Elasticsearch5SearchIndex searchIndex;
+    private final FetchHints fetchHints;
+    private final Authorizations authorizations;
+    private final Map<String, PropertyDefinition> propertyDefinitions;
+    private final Map<String, Collection<String>> readableHashesByPropertyName = new HashMap<>();
+    private final Map<String, Visibility> visibilitiesByHash = new HashMap<>();
+
+    private ElasticsearchSourceProperties(
+        Graph graph,
+        Elasticsearch5SearchIndex searchIndex,
+        FetchHints fetchHints,
+        Authorizations authorizations,
+        Map<String, PropertyDefinition> propertyDefinitions
+    ) {
+        this.graph = graph;
+        this.searchIndex = searchIndex;
+        this.fetchHints = fetchHints;
+        this.authorizations = authorizations;
+        this.propertyDefinitions = propertyDefinitions;
+    }
+
+    /**
+     * @return null if the fetch hints need data which is not in _source.
+     */
+    public static ElasticsearchSourceProperties create(
+        Graph graph,
+        Elasticsearch5SearchIndex searchIndex,
+        FetchHints fetchHints,
+        Authorizations authorizations
+    ) {
+        if (!searchIndex.getConfig().isQueryHydrateFromSource()
+            || fetchHints.isIncludeAllProperties()
+            || fetchHints.getPropertyNamesToInclude() == null
+            || fetchHints.getPropertyNamesToInclude().isEmpty()
+            || fetchHints.isIncludePropertyMetadata()
+            || fetchHints.isIncludeHidden()
+            || fetchHints.isIncludeEdgeRefs()
+            || fetchHints.isIncludeEdgeLabelsAndCounts()
+            || fetchHints.isIncludeExtendedDataTableNames()) {
+            return null;
+        }
+        Map<String, PropertyDefinition> propertyDefinitions = new HashMap<>();
+        for (String propertyName : fetchHints.getPropertyNamesToInclude()) {
+            PropertyDefinition propertyDefinition = graph.getPropertyDefinition(propertyName);
+            if (propertyDefinition == null || !isStoredInSource(propertyDefinition)) {
+                return null;
+            }
+            propertyDefinitions.put(propertyName, propertyDefinition);
+        }
+        return new ElasticsearchSourceProperties(graph, searchIndex, fetchHints, authorizations, propertyDefinitions);
+    }
+
+    private static boolean isStoredInSource(PropertyDefinition propertyDefinition) {
+        if (!SUPPORTED_DATA_TYPES.contains(propertyDefinition.getDataType())) {
+            return false;
+        }
+        if (propertyDefinition.getDataType() == String.class) {
+            // strings are only indexed when they are searchable or sortable
+            return propertyDefinition.getTextIndexHints().contains(TextIndexHint.FULL_TEXT)
+                || propertyDefinition.getTextIndexHints().contains(TextIndexHint.EXACT_MATCH)
+                || propertyDefinition.isSortable();
+        }
+        return true;
+    }
+
+    public String[] getSourceIncludes() {
+        List<String> includes = new ArrayList<>();
+        for (String propertyName : propertyDefinitions.keySet()) {
+            includes.add(searchIndex.replaceFieldnameDots(propertyName) + "_*");
+        }
+        includes.add(Elasticsearch5SearchIndex.HIDDEN_PROPERTY_FIELD_NAME + "_*");
+        return includes.toArray(new String[includes.size()]);
+    }
+
+    /**
+     * @return The properties of the hit or null if the hit has a hidden property, the graph knows which property is
+     * hidden and the element has to be read from the graph.
+     */
+    public List<Property> getProperties(SearchHit hit) {
+        Map<String, Object> source = hit.getSource();
+        if (source == null) {
+            return null;
+        }
+        List<Property> properties = new ArrayList<>();
+        for (Map.Entry<String, Object> field : source.entrySet()) {
+            Matcher m = PROPERTY_NAME_PATTERN.matcher(field.getKey().replace(Elasticsearch5SearchIndex.FIELDNAME_DOT_REPLACEMENT, "."));
+            if (!m.matches() || m.group(3) == null || m.group(4) != null) {
+                continue;
+            }
+            String propertyName = m.group(1);
+            String visibilityHash = m.group(3);
+            if (!isReadable(propertyName, visibilityHash)) {
+                continue;
+            }
+            if (propertyName.equals(Elasticsearch5SearchIndex.HIDDEN_PROPERTY_FIELD_NAME)) {
+                return null;
+            }
+            PropertyDefinition propertyDefinition = propertyDefinitions.get(propertyName);
+            if (propertyDefinition == null) {
+                continue;
+            }
+            Visibility visibility = getVisibility(visibilityHash);
+            Collection<?> values = field.getValue() instanceof Collection ? (Collection<?>) field.getValue() : Collections.singletonList(field.getValue());
+            for (Object value : values) {
+                if (value == null) {
+                    continue;
+                }
+                properties.add(new MutablePropertyImpl(
+                    ElementMutation.DEFAULT_KEY,
+                    propertyName,
+                    convertValue(propertyDefinition.getDataType(), value),
+                    null,
+                    null,
+                    null,
+                    visibility,
+                    fetchHints
+                ));
+            }
+        }
+        return properties;
+    }
+
+    private boolean isReadable(String propertyName, String visibilityHash) {
+        return readableHashesByPropertyName
+            .computeIfAbsent(propertyName, p -> new HashSet<>(searchIndex.getPropertyNameVisibilitiesStore().getHashes(graph, p, authorizations)))
+            .contains(visibilityHash);
+    }
+
+    private Visibility getVisibility(String visibilityHash) {
+        return visibilitiesByHash.computeIfAbsent(visibilityHash, h -> searchIndex.getPropertyNameVisibilitiesStore().getVisibilityFromHash(graph, h));
+    }
+
+    private static Object convertValue(Class dataType, Object value) {
+        if (dataType == Date.class || dataType == DateOnly.class) {
+            long time = value instanceof Number ? ((Number) value).longValue() : new DateTime(value, DateTimeZone.UTC).getMillis();
+            return dataType == Date.class ? new Date(time) : new DateOnly(new Date(time));
+        }
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (dataType == Byte.class) {
+            return number.byteValue();
+        } else if (dataType == Short.class) {
+            return number.shortValue();
+        } else if (dataType == Integer.class) {
+            return number.intValue();
+        } else if (dataType == Long.class) {
+            return number.longValue();
+        } else if (dataType == Float.class) {
+            return number.floatValue();
+        } else if (dataType == Double.class) {
+            return number.doubleValue();
+        }
+        return value;
+    }
+}
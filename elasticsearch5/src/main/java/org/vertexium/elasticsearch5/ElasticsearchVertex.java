@@ -4,6 +4,8 @@ import org.vertexium.*;
 import org.vertexium.mutation.ExistingElementMutation;
 import org.vertexium.query.VertexQuery;
 
+import java.util.List;
+
 public class ElasticsearchVertex extends ElasticsearchElement implements Vertex {
     private String className = ElasticsearchElement.class.getSimpleName();
 
@@ -16,6 +18,16 @@ public class ElasticsearchVertex extends ElasticsearchElement implements Vertex
         super(graph, id, fetchHints, authorizations);
     }
 
+    public ElasticsearchVertex(
+        Graph graph,
+        String id,
+        List<Property> properties,
+        FetchHints fetchHints,
+        Authorizations authorizations
+    ) {
+        super(graph, id, properties, fetchHints, authorizations);
+    }
+
     @Override
     public Iterable<Edge> getEdges(Direction direction, Authorizations authorizations) {
         throw new VertexiumNotSupportedException("getEdges is not supported on " + className);
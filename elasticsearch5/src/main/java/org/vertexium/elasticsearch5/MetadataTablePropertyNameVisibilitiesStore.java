@@ -10,68 +10,134 @@ import org.vertexium.util.VertexiumLoggerFactory;
 
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisibilitiesStore {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(MetadataTablePropertyNameVisibilitiesStore.class);
     public static final String PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX = "propertyNameVisibility.";
     public static final String HASH_TO_VISIBILITY = "visibilityHash.";
     private static final Charset UTF8 = Charset.forName("utf8");
-    private Map<String, Visibility> visibilityCache = new HashMap<>();
+    private volatile PropertyNameVisibilitiesIndex index;
 
     public Collection<String> getHashesWithAuthorization(Graph graph, String authorization, Authorizations authorizations) {
-        List<String> hashes = new ArrayList<>();
-        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(HASH_TO_VISIBILITY)) {
-            Visibility visibility = getVisibility((String) metadata.getValue());
-            if (authorizations.canRead(visibility) && visibility.hasAuthorization(authorization)) {
-                String hash = metadata.getKey().substring(HASH_TO_VISIBILITY.length());
-                hashes.add(hash);
+        ReadableHashes readableHashes = getReadableHashes(graph, authorizations);
+        return readableHashes.hashesByAuthorization.computeIfAbsent(authorization, a -> {
+            List<String> hashes = new ArrayList<>();
+            for (String hash : readableHashes.hashes) {
+                Visibility visibility = readableHashes.index.visibilitiesByHash.get(hash);
+                if (visibility != null && visibility.hasAuthorization(a)) {
+                    hashes.add(hash);
+                }
             }
-        }
-        return hashes;
+            return Collections.unmodifiableList(hashes);
+        });
     }
 
     public Collection<String> getHashes(Graph graph, Authorizations authorizations) {
-        List<String> hashes = new ArrayList<>();
-        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(HASH_TO_VISIBILITY)) {
-            Visibility visibility = getVisibility((String) metadata.getValue());
-            if (authorizations.canRead(visibility)) {
-                String hash = metadata.getKey().substring(HASH_TO_VISIBILITY.length());
-                hashes.add(hash);
+        return getReadableHashes(graph, authorizations).hashes;
+    }
+
+    public Collection<String> getHashes(Graph graph, String propertyName, Authorizations authorizations) {
+        ReadableHashes readableHashes = getReadableHashes(graph, authorizations);
+        return readableHashes.hashesByPropertyName.computeIfAbsent(propertyName, p -> {
+            Map<String, String> hashesByVisibilityString = readableHashes.index.hashesByPropertyName.get(p);
+            if (hashesByVisibilityString == null) {
+                return Collections.emptyList();
+            }
+            List<String> hashes = new ArrayList<>();
+            for (String hash : hashesByVisibilityString.values()) {
+                if (readableHashes.hashes.contains(hash)) {
+                    hashes.add(hash);
+                }
             }
+            return Collections.unmodifiableList(hashes);
+        });
+    }
+
+    private ReadableHashes getReadableHashes(Graph graph, Authorizations authorizations) {
+        PropertyNameVisibilitiesIndex index = getIndex(graph);
+        Set<String> authorizationsKey = new HashSet<>(Arrays.asList(authorizations.getAuthorizations()));
+        ReadableHashes readableHashes = index.readableHashesByAuthorizations.get(authorizationsKey);
+        if (readableHashes != null && readableHashes.version == index.version.get()) {
+            return readableHashes;
         }
-        return hashes;
+        // read the version first, a hash added while the set is built makes it stale
+        int version = index.version.get();
+        Set<String> hashes = new HashSet<>();
+        for (Map.Entry<String, Visibility> entry : index.visibilitiesByHash.entrySet()) {
+            if (authorizations.canRead(entry.getValue())) {
+                hashes.add(entry.getKey());
+            }
+        }
+        readableHashes = new ReadableHashes(index, version, Collections.unmodifiableSet(hashes));
+        index.readableHashesByAuthorizations.put(authorizationsKey, readableHashes);
+        return readableHashes;
     }
 
-    public Collection<String> getHashes(Graph graph, String propertyName, Authorizations authorizations) {
-        List<String> results = new ArrayList<>();
-        String prefix = getPropertyNameVisibilityToHashPrefix(propertyName);
-        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(prefix)) {
-            String visibilityString = metadata.getKey().substring(prefix.length());
-            Visibility visibility = getVisibility(visibilityString);
-            if (authorizations.canRead(visibility)) {
-                String hash = (String) metadata.getValue();
-                results.add(hash);
+    private PropertyNameVisibilitiesIndex getIndex(Graph graph) {
+        PropertyNameVisibilitiesIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = loadIndex(graph);
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private PropertyNameVisibilitiesIndex loadIndex(Graph graph) {
+        PropertyNameVisibilitiesIndex index = new PropertyNameVisibilitiesIndex();
+        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(HASH_TO_VISIBILITY)) {
+            String hash = metadata.getKey().substring(HASH_TO_VISIBILITY.length());
+            index.visibilitiesByHash.put(hash, new Visibility((String) metadata.getValue()));
+        }
+        for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX)) {
+            String propertyNameAndVisibility = metadata.getKey().substring(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX.length());
+            String hash = (String) metadata.getValue();
+            Visibility visibility = index.visibilitiesByHash.get(hash);
+            if (visibility == null) {
+                LOGGER.warn("Could not find visibility matching the hash \"%s\" of \"%s\" in the metadata table.", hash, metadata.getKey());
+                continue;
+            }
+            // property names can contain dots, the visibility string is the suffix after the property name
+            String visibilityString = visibility.getVisibilityString();
+            if (!propertyNameAndVisibility.endsWith("." + visibilityString)) {
+                continue;
             }
+            String propertyName = propertyNameAndVisibility.substring(0, propertyNameAndVisibility.length() - visibilityString.length() - 1);
+            index.add(propertyName, visibilityString, hash, visibility);
         }
-        return results;
+        return index;
     }
 
-    private Visibility getVisibility(String visibilityString) {
-        return visibilityCache.computeIfAbsent(visibilityString, Visibility::new);
+    /**
+     * Called when the graph metadata changed, possibly on another node. The index is loaded again on next use.
+     */
+    @Override
+    public void clearCache() {
+        this.index = null;
     }
 
     public String getHash(Graph graph, String propertyName, Visibility visibility) {
         String visibilityString = visibility.getVisibilityString();
-        String propertyNameVisibilityToHashKey = getMetadataKey(propertyName, visibilityString);
-        String hash = (String) graph.getMetadata(propertyNameVisibilityToHashKey);
+        PropertyNameVisibilitiesIndex index = getIndex(graph);
+        String hash = index.getHash(propertyName, visibilityString);
         if (hash != null) {
-            saveHashToVisibility(graph, hash, visibilityString);
             return hash;
         }
 
-        hash = Hashing.murmur3_128().hashString(visibilityString, UTF8).toString();
-        graph.setMetadata(propertyNameVisibilityToHashKey, hash);
+        String propertyNameVisibilityToHashKey = getMetadataKey(propertyName, visibilityString);
+        hash = (String) graph.getMetadata(propertyNameVisibilityToHashKey);
+        if (hash == null) {
+            hash = Hashing.murmur3_128().hashString(visibilityString, UTF8).toString();
+            graph.setMetadata(propertyNameVisibilityToHashKey, hash);
+        }
         saveHashToVisibility(graph, hash, visibilityString);
+        index.add(propertyName, visibilityString, hash, new Visibility(visibilityString));
         return hash;
     }
 
@@ -85,6 +151,10 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
 
     @Override
     public Visibility getVisibilityFromHash(Graph graph, String visibilityHash) {
+        Visibility visibility = getIndex(graph).visibilitiesByHash.get(visibilityHash);
+        if (visibility != null) {
+            return visibility;
+        }
         String visibilityString = (String) graph.getMetadata(getHashToVisibilityKey(visibilityHash));
         if (visibilityString == null) {
             LOGGER.warn("Could not find visibility matching the hash \"%s\" in the metadata table.", visibilityHash);
@@ -104,4 +174,37 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
     private String getMetadataKey(String propertyName, String visibilityString) {
         return getPropertyNameVisibilityToHashPrefix(propertyName) + visibilityString;
     }
+
+    private static class PropertyNameVisibilitiesIndex {
+        private final Map<String, Map<String, String>> hashesByPropertyName = new ConcurrentHashMap<>();
+        private final Map<String, Visibility> visibilitiesByHash = new ConcurrentHashMap<>();
+        private final Map<Set<String>, ReadableHashes> readableHashesByAuthorizations = new ConcurrentHashMap<>();
+        private final AtomicInteger version = new AtomicInteger();
+
+        public String getHash(String propertyName, String visibilityString) {
+            Map<String, String> hashesByVisibilityString = hashesByPropertyName.get(propertyName);
+            return hashesByVisibilityString == null ? null : hashesByVisibilityString.get(visibilityString);
+        }
+
+        public void add(String propertyName, String visibilityString, String hash, Visibility visibility) {
+            visibilitiesByHash.putIfAbsent(hash, visibility);
+            hashesByPropertyName.computeIfAbsent(propertyName, p -> new ConcurrentHashMap<>()).put(visibilityString, hash);
+            version.incrementAndGet();
+            readableHashesByAuthorizations.clear();
+        }
+    }
+
+    private static class ReadableHashes {
+        private final PropertyNameVisibilitiesIndex index;
+        private final int version;
+        private final Set<String> hashes;
+        private final Map<String, Collection<String>> hashesByAuthorization = new ConcurrentHashMap<>();
+        private final Map<String, Collection<String>> hashesByPropertyName = new ConcurrentHashMap<>();
+
+        public ReadableHashes(PropertyNameVisibilitiesIndex index, int version, Set<String> hashes) {
+            this.index = index;
+            this.version = version;
+            this.hashes = hashes;
+        }
+    }
 }
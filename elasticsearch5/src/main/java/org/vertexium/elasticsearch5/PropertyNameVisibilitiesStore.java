@@ -16,4 +16,7 @@ public abstract class PropertyNameVisibilitiesStore {
     public abstract Visibility getVisibilityFromHash(Graph graph, String visibilityHash);
 
     public abstract Collection<String> getHashesWithAuthorization(Graph graph, String authorization, Authorizations authorizations);
+
+    public void clearCache() {
+    }
 }
@@ -0,0 +1,373 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.update.UpdateRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.engine.DocumentMissingException;
+import org.elasticsearch.rest.RestStatus;
+import org.vertexium.ElementType;
+import org.vertexium.VertexiumException;
+import org.vertexium.elasticsearch5.Elasticsearch5SearchIndex;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Sends bulk update requests through one long-lived {@link BulkProcessor} shared by all callers. Requests are sent
+ * when bulkActions requests or bulkSizeBytes bytes are buffered, every flushIntervalMillis and when a caller waits for
+ * its requests. At most concurrentRequests bulk requests run at a time and at most maxQueuedRequests requests may be
+ * waiting to complete, adding a request blocks while either limit is reached.
+ * <p>
+ * Requests which are rejected (429) or fail because the cluster is unavailable (503) are retried with exponential
+ * backoff. Document missing failures are passed to {@link Elasticsearch5SearchIndex#handleDocumentMissingException}
+ * and other failures, including requests which are still rejected after their retries, to
+ * {@link Elasticsearch5SearchIndex#handleBulkItemFailure}, both on the thread of the caller which added them.
+ */
+public class BulkUpdater {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(BulkUpdater.class);
+    private static final int MAX_RETRIES = 10;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 10;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60 * 1000;
+    private static final long QUEUE_WAIT_MILLIS = 100;
+    private static final long BATCH_TIMEOUT_MINUTES = 10;
+    private final Elasticsearch5SearchIndex searchIndex;
+    private final BulkProcessor bulkProcessor;
+    private final Semaphore queuedPermits;
+    private final Map<DocWriteRequest, Item> itemsByRequest = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ScheduledExecutorService retryExecutor;
+
+    public BulkUpdater(
+        Elasticsearch5SearchIndex searchIndex,
+        Client client,
+        int bulkActions,
+        long bulkSizeBytes,
+        Integer flushIntervalMillis,
+        int concurrentRequests,
+        int maxQueuedRequests
+    ) {
+        this.searchIndex = searchIndex;
+        this.queuedPermits = new Semaphore(maxQueuedRequests);
+        this.retryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vertexium-es-bulk-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BulkProcessor.Builder builder = BulkProcessor.builder(client, new Listener())
+            .setBulkActions(bulkActions)
+            .setBulkSize(new ByteSizeValue(bulkSizeBytes, ByteSizeUnit.BYTES))
+            .setConcurrentRequests(concurrentRequests)
+            .setBackoffPolicy(BackoffPolicy.exponentialBackoff());
+        if (flushIntervalMillis != null) {
+            builder.setFlushInterval(TimeValue.timeValueMillis(flushIntervalMillis));
+        }
+        this.bulkProcessor = builder.build();
+    }
+
+    public Batch createBatch() {
+        return new Batch();
+    }
+
+    private void add(Item item) {
+        itemsByRequest.put(item.updateRequestBuilder.request(), item);
+        try {
+            bulkProcessor.add(item.updateRequestBuilder.request());
+        } catch (RuntimeException ex) {
+            itemsByRequest.remove(item.updateRequestBuilder.request());
+            throw ex;
+        }
+    }
+
+    private void acquireQueuedPermit() {
+        try {
+            while (!queuedPermits.tryAcquire(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // the requests holding the permits may be buffered waiting for more requests
+                bulkProcessor.flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while waiting to add bulk request", ex);
+        }
+    }
+
+    private void itemFailed(Item item, Throwable ex, RestStatus status) {
+        if (isDocumentMissingException(ex)) {
+            item.done(ex, true);
+            return;
+        }
+        if (!isRetryable(ex, status)) {
+            item.failed(ex);
+            return;
+        }
+        if (item.retryCount >= MAX_RETRIES) {
+            LOGGER.error("Could not write " + item + " after " + MAX_RETRIES + " retries", ex);
+            item.failed(ex);
+            return;
+        }
+        String logMessage = String.format("Could not write %s: %s (retrying: %d/%d)", item, ex.getMessage(), item.retryCount + 1, MAX_RETRIES);
+        if (item.retryCount > 0) { // don't log warn the first time
+            LOGGER.warn("%s", logMessage);
+        } else {
+            LOGGER.debug("%s", logMessage);
+        }
+        long delay = Math.min(INITIAL_RETRY_DELAY_MILLIS << item.retryCount, MAX_RETRY_DELAY_MILLIS);
+        item.retryCount++;
+        try {
+            retryExecutor.schedule(() -> {
+                try {
+                    add(item);
+                    bulkProcessor.flush();
+                } catch (Exception e) {
+                    item.failed(e);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            item.failed(ex);
+        }
+    }
+
+    void handleDocumentMissingException(FlushObjectQueue.FlushObject flushObject, Exception ex) throws Exception {
+        searchIndex.handleDocumentMissingException(flushObject, ex);
+    }
+
+    void handleBulkItemFailure(FlushObjectQueue.FlushObject flushObject, Exception ex) throws Exception {
+        searchIndex.handleBulkItemFailure(flushObject, ex);
+    }
+
+    private static boolean isRetryable(Throwable ex, RestStatus status) {
+        if (status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.SERVICE_UNAVAILABLE) {
+            return true;
+        }
+        return ExceptionsHelper.unwrap(ex, EsRejectedExecutionException.class) != null;
+    }
+
+    private static boolean isDocumentMissingException(Throwable ex) {
+        if (ex instanceof DocumentMissingException) {
+            return true;
+        }
+        if (ex.getCause() != null) {
+            return isDocumentMissingException(ex.getCause());
+        }
+        return false;
+    }
+
+    public void close() {
+        try {
+            bulkProcessor.awaitClose(BATCH_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while closing bulk processor", ex);
+        } finally {
+            retryExecutor.shutdownNow();
+        }
+    }
+
+    private class Listener extends DefaultBulkProcessorListener {
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            BulkItemResponse[] itemResponses = response.getItems();
+            List<DocWriteRequest> requests = request.requests();
+            for (int i = 0; i < requests.size(); i++) {
+                Item item = itemsByRequest.remove(requests.get(i));
+                if (item == null) {
+                    continue;
+                }
+                BulkItemResponse itemResponse = itemResponses[i];
+                if (itemResponse.isFailed()) {
+                    BulkItemResponse.Failure failure = itemResponse.getFailure();
+                    itemFailed(item, failure.getCause(), failure.getStatus());
+                } else {
+                    item.done(null, false);
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            LOGGER.error("Failed bulk request: " + request, failure);
+            for (DocWriteRequest docWriteRequest : request.requests()) {
+                Item item = itemsByRequest.remove(docWriteRequest);
+                if (item != null) {
+                    itemFailed(item, failure, ExceptionsHelper.status(failure));
+                }
+            }
+        }
+    }
+
+    /**
+     * The requests added by one caller. {@link #await()} waits for only these requests, requests added by other
+     * callers to the same bulk requests do not need to complete.
+     */
+    public class Batch {
+        private final List<Throwable> failures = new ArrayList<>();
+        private final List<FlushObjectQueue.FlushObject> documentMissingFlushObjects = new ArrayList<>();
+        private final List<FlushObjectQueue.FlushObject> failedFlushObjects = new ArrayList<>();
+        private int pendingCount;
+        private int count;
+
+        public void add(
+            ElementType elementType,
+            String elementId,
+            String extendedDataTableName,
+            String extendedDataRowId,
+            UpdateRequestBuilder updateRequestBuilder
+        ) {
+            acquireQueuedPermit();
+            synchronized (this) {
+                pendingCount++;
+                count++;
+            }
+            Item item = new Item(this, elementType, elementId, extendedDataTableName, extendedDataRowId, updateRequestBuilder);
+            try {
+                BulkUpdater.this.add(item);
+            } catch (RuntimeException ex) {
+                item.done(ex, false);
+                throw ex;
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Waits for the requests of this batch to complete, passes the failed requests to the exception handler and
+         * throws if the handler did not handle every failure.
+         */
+        public void await() {
+            bulkProcessor.flush();
+            synchronized (this) {
+                long endTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(BATCH_TIMEOUT_MINUTES);
+                while (pendingCount > 0) {
+                    long wait = endTime - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        throw new VertexiumException("Timed out waiting for " + pendingCount + " bulk requests");
+                    }
+                    try {
+                        wait(wait);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new VertexiumException("Interrupted while waiting for bulk requests", ex);
+                    }
+                }
+            }
+
+            for (FlushObjectQueue.FlushObject flushObject : documentMissingFlushObjects) {
+                Exception ex = toException(getException(flushObject.getFuture()));
+                try {
+                    handleDocumentMissingException(flushObject, ex);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to handle document missing exception", e);
+                    failures.add(ex);
+                }
+            }
+            for (FlushObjectQueue.FlushObject flushObject : failedFlushObjects) {
+                Exception ex = toException(getException(flushObject.getFuture()));
+                try {
+                    handleBulkItemFailure(flushObject, ex);
+                } catch (Exception e) {
+                    LOGGER.error("Could not write %s", flushObject, e);
+                    failures.add(ex);
+                }
+            }
+            if (failures.size() > 0) {
+                throw new VertexiumException(String.format("Failed bulk update (failures: %d)", failures.size()), failures.get(0));
+            }
+        }
+
+        private synchronized void itemDone(Item item, Throwable ex, boolean documentMissing) {
+            if (documentMissing) {
+                documentMissingFlushObjects.add(toFlushObject(item, ex));
+            } else if (ex != null) {
+                failures.add(ex);
+            }
+            pendingCount--;
+            notifyAll();
+        }
+
+        private synchronized void itemFailed(Item item, Throwable ex) {
+            failedFlushObjects.add(toFlushObject(item, ex));
+            pendingCount--;
+            notifyAll();
+        }
+    }
+
+    private static FlushObjectQueue.FlushObject toFlushObject(Item item, Throwable ex) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return new FlushObjectQueue.FlushObject(
+            item.elementType,
+            item.elementId,
+            item.extendedDataTableName,
+            item.extendedDataRowId,
+            item.updateRequestBuilder,
+            future,
+            item.retryCount
+        );
+    }
+
+    private static Throwable getException(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException ex) {
+            return ex.getCause() == null ? ex : ex.getCause();
+        }
+    }
+
+    private static Exception toException(Throwable ex) {
+        return ex instanceof Exception ? (Exception) ex : new VertexiumException("Request failed", ex);
+    }
+
+    private class Item {
+        private final Batch batch;
+        private final ElementType elementType;
+        private final String elementId;
+        private final String extendedDataTableName;
+        private final String extendedDataRowId;
+        private final UpdateRequestBuilder updateRequestBuilder;
+        private int retryCount;
+
+        public Item(
+            Batch batch,
+            ElementType elementType,
+            String elementId,
+            String extendedDataTableName,
+            String extendedDataRowId,
+            UpdateRequestBuilder updateRequestBuilder
+        ) {
+            this.batch = batch;
+            this.elementType = elementType;
+            this.elementId = elementId;
+            this.extendedDataTableName = extendedDataTableName;
+            this.extendedDataRowId = extendedDataRowId;
+            this.updateRequestBuilder = updateRequestBuilder;
+        }
+
+        public void done(Throwable ex, boolean documentMissing) {
+            queuedPermits.release();
+            batch.itemDone(this, ex, documentMissing);
+        }
+
+        public void failed(Throwable ex) {
+            queuedPermits.release();
+            batch.itemFailed(this, ex);
+        }
+
+        @Override
+        public String toString() {
+            if (extendedDataRowId == null) {
+                return String.format("Element \"%s\"", elementId);
+            } else {
+                return String.format("Extended data row \"%s\":\"%s\":\"%s\"", elementId, extendedDataTableName, extendedDataRowId);
+            }
+        }
+    }
+}
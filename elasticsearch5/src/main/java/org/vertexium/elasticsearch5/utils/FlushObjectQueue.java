@@ -1,5 +1,6 @@
 package org.vertexium.elasticsearch5.utils;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequestBuilder;
 import org.elasticsearch.action.update.UpdateRequestBuilder;
 import org.elasticsearch.index.engine.DocumentMissingException;
@@ -9,71 +10,248 @@ import org.vertexium.elasticsearch5.Elasticsearch5SearchIndex;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Holds the update requests sent to Elasticsearch which have not been flushed. Requests run concurrently, at most
+ * maxInFlight at a time, adding a request blocks while the limit is reached. {@link #flush()} waits for all of the
+ * queued requests together and then retries the failed ones as a batch with exponential backoff, so it takes about as
+ * long as the slowest request instead of the sum of them.
+ *
+ * A request stays pending from {@link #add} until it succeeded, was handed to the document missing exception handler
+ * or gave up, including while another thread's flush is waiting for it or retrying it. {@link #containsElementId}
+ * sees pending requests so a newer update of an element is not sent while an older one could still be retried after
+ * it, and {@link #flush()} also waits for the requests other threads are flushing. Requests the calling thread is
+ * flushing itself are left out of both, so a document missing exception handler which updates an element does not
+ * wait for its own flush.
+ */
 public class FlushObjectQueue {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(FlushObjectQueue.class);
     private static final int MAX_RETRIES = 10;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 10;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60 * 1000;
+    private static final long FLUSH_TIMEOUT_MINUTES = 30;
+    private static final long UNCLAIMED_POLL_MILLIS = 10;
     private final Elasticsearch5SearchIndex searchIndex;
     private final Queue<FlushObject> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentSkipListMap<Long, PendingRequest> pendingRequestsBySequence = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final Semaphore inFlightPermits;
 
-    public FlushObjectQueue(Elasticsearch5SearchIndex searchIndex) {
+    public FlushObjectQueue(Elasticsearch5SearchIndex searchIndex, int maxInFlight) {
         this.searchIndex = searchIndex;
+        this.inFlightPermits = new Semaphore(maxInFlight);
     }
 
     public void flush() {
-        int sleep = 0;
-        int itemsToFlush = queue.size();
-        while (itemsToFlush > 0) {
-            FlushObject flushObject = removeNext();
-            if (flushObject == null) {
-                break;
+        long lastSequence = nextSequence.get() - 1;
+        do {
+            flushQueued();
+        } while (waitForOtherThreads(lastSequence));
+    }
+
+    private void flushQueued() {
+        List<FlushObject> flushObjects = removeAll();
+        while (flushObjects.size() > 0) {
+            List<FlushObject> failedFlushObjects = waitForAll(flushObjects);
+            flushObjects = retryAll(failedFlushObjects);
+            // requests queued meanwhile, for example by a document missing exception handler
+            flushObjects.addAll(removeAll());
+        }
+    }
+
+    private List<FlushObject> removeAll() {
+        List<FlushObject> flushObjects = new ArrayList<>();
+        FlushObject flushObject;
+        while ((flushObject = queue.poll()) != null) {
+            PendingRequest pendingRequest = pendingRequestsBySequence.get(flushObject.getSequence());
+            if (pendingRequest != null) {
+                pendingRequest.flushingThread = Thread.currentThread();
             }
-            try {
-                flushObject.getFuture().get(30, TimeUnit.MINUTES);
-                itemsToFlush--;
-                sleep = 0;
-            } catch (Exception ex) {
-                if (isDocumentMissingException(ex)) {
-                    try {
-                        searchIndex.handleDocumentMissingException(flushObject, ex);
-                    } catch (Exception e) {
-                        LOGGER.error("Failed to handle document missing exception", e);
-                        throw new VertexiumException(ex);
+            flushObjects.add(flushObject);
+        }
+        return flushObjects;
+    }
+
+    private void requeue(List<FlushObject> flushObjects) {
+        for (FlushObject flushObject : flushObjects) {
+            PendingRequest pendingRequest = pendingRequestsBySequence.get(flushObject.getSequence());
+            if (pendingRequest != null) {
+                pendingRequest.flushingThread = null;
+            }
+            queue.add(flushObject);
+        }
+        synchronized (pendingRequestsBySequence) {
+            pendingRequestsBySequence.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the requests up to lastSequence which are flushed by other threads.
+     *
+     * @return true if some of these requests are queued again, or are being added, and need to be flushed.
+     */
+    private boolean waitForOtherThreads(long lastSequence) {
+        Thread currentThread = Thread.currentThread();
+        long timeoutNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(FLUSH_TIMEOUT_MINUTES);
+        synchronized (pendingRequestsBySequence) {
+            while (true) {
+                boolean unclaimed = false;
+                boolean flushedByOtherThread = false;
+                for (PendingRequest pendingRequest : pendingRequestsBySequence.headMap(lastSequence, true).values()) {
+                    Thread flushingThread = pendingRequest.flushingThread;
+                    if (flushingThread == null) {
+                        unclaimed = true;
+                    } else if (flushingThread != currentThread) {
+                        flushedByOtherThread = true;
                     }
-                    return;
                 }
-
-                sleep += 10;
-                String message = String.format("Could not write %s", flushObject);
-                if (flushObject.retryCount >= MAX_RETRIES) {
-                    throw new VertexiumException(message, ex);
+                if (unclaimed && !queue.isEmpty()) {
+                    return true;
+                }
+                if (!unclaimed && !flushedByOtherThread) {
+                    return false;
                 }
-                String logMessage = String.format("%s: %s (retrying: %d/%d)", message, ex.getMessage(), flushObject.retryCount + 1, MAX_RETRIES);
-                if (flushObject.retryCount > 0) { // don't log warn the first time
-                    LOGGER.warn("%s", logMessage);
-                } else {
-                    LOGGER.debug("%s", logMessage);
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(timeoutNanos - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw new VertexiumException("Timed out waiting for requests flushed by other threads");
                 }
+                try {
+                    // a request which is still being added or claimed is not signaled, poll for it
+                    pendingRequestsBySequence.wait(unclaimed ? Math.min(remainingMillis, UNCLAIMED_POLL_MILLIS) : remainingMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new VertexiumException("Interrupted while flushing", ex);
+                }
+            }
+        }
+    }
 
-                requeueFlushObject(flushObject, sleep);
-                itemsToFlush = queue.size();
+    private void done(FlushObject flushObject) {
+        pendingRequestsBySequence.remove(flushObject.getSequence());
+        synchronized (pendingRequestsBySequence) {
+            pendingRequestsBySequence.notifyAll();
+        }
+    }
+
+    private void doneAll(List<FlushObject> flushObjects) {
+        for (FlushObject flushObject : flushObjects) {
+            done(flushObject);
+        }
+    }
+
+    /**
+     * Sleeps for the backoff of the most retried request and sends the requests again.
+     */
+    private List<FlushObject> retryAll(List<FlushObject> failedFlushObjects) {
+        List<FlushObject> retries = new ArrayList<>(failedFlushObjects.size());
+        if (failedFlushObjects.size() == 0) {
+            return retries;
+        }
+        int retryCount = failedFlushObjects.stream().mapToInt(FlushObject::getRetryCount).max().orElse(0);
+        try {
+            sleep(Math.min(INITIAL_RETRY_DELAY_MILLIS << retryCount, MAX_RETRY_DELAY_MILLIS));
+        } catch (VertexiumException ex) {
+            doneAll(failedFlushObjects);
+            throw ex;
+        }
+        try {
+            for (FlushObject failedFlushObject : failedFlushObjects) {
+                retries.add(retry(failedFlushObject));
             }
+        } catch (RuntimeException ex) {
+            requeue(retries);
+            doneAll(failedFlushObjects.subList(retries.size(), failedFlushObjects.size()));
+            throw ex;
         }
+        return retries;
     }
 
-    private FlushObject removeNext() {
-        synchronized (queue) {
-            if (queue.isEmpty()) {
-                return null;
+    /**
+     * @return The flush objects which failed and should be retried.
+     */
+    private List<FlushObject> waitForAll(List<FlushObject> flushObjects) {
+        CompletableFuture<?>[] futures = new CompletableFuture[flushObjects.size()];
+        for (int i = 0; i < flushObjects.size(); i++) {
+            futures[i] = flushObjects.get(i).getFuture();
+        }
+        try {
+            // failures are collected below, allOf only waits for every future to complete
+            CompletableFuture.allOf(futures).exceptionally(ex -> null).get(FLUSH_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            doneAll(flushObjects);
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while flushing", ex);
+        } catch (Exception ex) {
+            doneAll(flushObjects);
+            throw new VertexiumException("Timed out flushing " + flushObjects.size() + " requests", ex);
+        }
+
+        List<FlushObject> failedFlushObjects = new ArrayList<>();
+        VertexiumException flushException = null;
+        for (FlushObject flushObject : flushObjects) {
+            Throwable ex = getException(flushObject.getFuture());
+            if (ex == null) {
+                done(flushObject);
+                continue;
+            }
+            if (isDocumentMissingException(ex)) {
+                done(flushObject);
+                try {
+                    searchIndex.handleDocumentMissingException(flushObject, toException(ex));
+                } catch (Exception e) {
+                    LOGGER.error("Failed to handle document missing exception", e);
+                    if (flushException == null) {
+                        flushException = new VertexiumException(toException(ex));
+                    }
+                }
+                continue;
             }
-            return queue.remove();
+
+            String message = String.format("Could not write %s", flushObject);
+            if (flushObject.getRetryCount() >= MAX_RETRIES) {
+                done(flushObject);
+                if (flushException == null) {
+                    flushException = new VertexiumException(message, ex);
+                }
+                continue;
+            }
+            String logMessage = String.format("%s: %s (retrying: %d/%d)", message, ex.getMessage(), flushObject.getRetryCount() + 1, MAX_RETRIES);
+            if (flushObject.getRetryCount() > 0) { // don't log warn the first time
+                LOGGER.warn("%s", logMessage);
+            } else {
+                LOGGER.debug("%s", logMessage);
+            }
+            failedFlushObjects.add(flushObject);
+        }
+        if (flushException != null) {
+            // the other failed requests still have retries left, the next flush waits for them
+            requeue(retryAll(failedFlushObjects));
+            throw flushException;
+        }
+        return failedFlushObjects;
+    }
+
+    private static Throwable getException(CompletableFuture<?> future) {
+        if (!future.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException | CancellationException ex) {
+            return ex.getCause() == null ? ex : ex.getCause();
         }
     }
 
+    private static Exception toException(Throwable ex) {
+        return ex instanceof Exception ? (Exception) ex : new VertexiumException("Request failed", ex);
+    }
+
     private boolean isDocumentMissingException(Throwable ex) {
         if (ex instanceof DocumentMissingException) {
             return true;
@@ -84,27 +262,60 @@ public class FlushObjectQueue {
         return false;
     }
 
-    private void requeueFlushObject(FlushObject flushObject, int additionalTimeToSleep) {
+    void sleep(long millis) {
         try {
-            Thread.sleep(Math.max(0, flushObject.getNextRetryTime() - System.currentTimeMillis()));
+            Thread.sleep(millis);
         } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
             throw new VertexiumException("failed to sleep", ex);
         }
-        long timeToWait = Math.min(
-            ((flushObject.getRetryCount() + 1) * 10) + additionalTimeToSleep,
-            1 * 60 * 1000
-        );
-        long nextRetryTime = System.currentTimeMillis() + timeToWait;
-        queue.add(new FlushObject(
+    }
+
+    private FlushObject retry(FlushObject flushObject) {
+        return new FlushObject(
             flushObject.getElementType(),
             flushObject.getElementId(),
             flushObject.getExtendedDataTableName(),
             flushObject.getExtendedDataRowId(),
             flushObject.getActionRequestBuilder(),
-            flushObject.getActionRequestBuilder().execute(),
+            execute(flushObject.getActionRequestBuilder()),
             flushObject.getRetryCount() + 1,
-            nextRetryTime
-        ));
+            flushObject.getSequence()
+        );
+    }
+
+    /**
+     * Sends the request to Elasticsearch, blocks while maxInFlight requests have not completed.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> execute(ActionRequestBuilder actionRequestBuilder) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while waiting to send request", ex);
+        }
+        try {
+            actionRequestBuilder.execute(new ActionListener<Object>() {
+                @Override
+                public void onResponse(Object response) {
+                    inFlightPermits.release();
+                    future.complete(response);
+                }
+
+                @Override
+                public void onFailure(Exception ex) {
+                    inFlightPermits.release();
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (Exception ex) {
+            inFlightPermits.release();
+            LOGGER.debug("Could not execute update: %s", ex.getMessage());
+            future.completeExceptionally(ex);
+        }
+        return future;
     }
 
     public void add(
@@ -112,40 +323,65 @@ public class FlushObjectQueue {
         String elementId,
         String extendedDataTableName,
         String rowId,
-        UpdateRequestBuilder updateRequestBuilder,
-        Future future
+        UpdateRequestBuilder updateRequestBuilder
     ) {
-        queue.add(new FlushObject(elementType, elementId, extendedDataTableName, rowId, updateRequestBuilder, future));
+        long sequence = nextSequence.getAndIncrement();
+        pendingRequestsBySequence.put(sequence, new PendingRequest(elementId));
+        CompletableFuture<Object> future;
+        try {
+            future = execute(updateRequestBuilder);
+        } catch (RuntimeException ex) {
+            pendingRequestsBySequence.remove(sequence);
+            throw ex;
+        }
+        queue.add(new FlushObject(elementType, elementId, extendedDataTableName, rowId, updateRequestBuilder, future, 0, sequence));
     }
 
+    /**
+     * @return true if a request for the element has not succeeded yet, whether it is queued, being flushed or retried.
+     */
     public boolean containsElementId(String elementId) {
-        for (FlushObject flushObject : queue) {
-            if (flushObject.getElementId().equals(elementId)) {
+        Thread currentThread = Thread.currentThread();
+        for (PendingRequest pendingRequest : pendingRequestsBySequence.values()) {
+            if (pendingRequest.elementId.equals(elementId) && pendingRequest.flushingThread != currentThread) {
                 return true;
             }
         }
         return false;
     }
 
+    private static class PendingRequest {
+        private final String elementId;
+        private volatile Thread flushingThread;
+
+        public PendingRequest(String elementId) {
+            this.elementId = elementId;
+        }
+    }
+
     public static class FlushObject {
         private final ElementType elementType;
         private final String elementId;
         private final String extendedDataTableName;
         private final String extendedDataRowId;
         private final ActionRequestBuilder actionRequestBuilder;
-        private final Future future;
+        private final CompletableFuture<Object> future;
         private final int retryCount;
-        private final long nextRetryTime;
+        private final long sequence;
 
+        /**
+         * A request which is not pending in a queue, for example one handed to the document missing exception handler.
+         */
         FlushObject(
             ElementType elementType,
             String elementId,
             String extendedDataTableName,
             String extendedDataRowId,
-            UpdateRequestBuilder updateRequestBuilder,
-            Future future
+            ActionRequestBuilder actionRequestBuilder,
+            CompletableFuture<Object> future,
+            int retryCount
         ) {
-            this(elementType, elementId, extendedDataTableName, extendedDataRowId, updateRequestBuilder, future, 0, 0);
+            this(elementType, elementId, extendedDataTableName, extendedDataRowId, actionRequestBuilder, future, retryCount, -1);
         }
 
         FlushObject(
@@ -154,9 +390,9 @@ public class FlushObjectQueue {
             String extendedDataTableName,
             String extendedDataRowId,
             ActionRequestBuilder actionRequestBuilder,
-            Future future,
+            CompletableFuture<Object> future,
             int retryCount,
-            long nextRetryTime
+            long sequence
         ) {
             this.elementType = elementType;
             this.elementId = elementId;
@@ -165,7 +401,7 @@ public class FlushObjectQueue {
             this.actionRequestBuilder = actionRequestBuilder;
             this.future = future;
             this.retryCount = retryCount;
-            this.nextRetryTime = nextRetryTime;
+            this.sequence = sequence;
         }
 
         @Override
@@ -197,7 +433,7 @@ public class FlushObjectQueue {
             return actionRequestBuilder;
         }
 
-        public Future getFuture() {
+        public CompletableFuture<Object> getFuture() {
             return future;
         }
 
@@ -205,8 +441,8 @@ public class FlushObjectQueue {
             return retryCount;
         }
 
-        public long getNextRetryTime() {
-            return nextRetryTime;
+        long getSequence() {
+            return sequence;
         }
     }
 }
\ No newline at end of file
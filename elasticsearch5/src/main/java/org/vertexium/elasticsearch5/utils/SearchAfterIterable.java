@@ -0,0 +1,363 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.vertexium.VertexiumException;
+import org.vertexium.elasticsearch5.ElasticsearchGraphQueryIdIterable;
+import org.vertexium.elasticsearch5.IdStrategy;
+import org.vertexium.query.AggregationResult;
+import org.vertexium.query.IterableWithScores;
+import org.vertexium.query.QueryResultsIterable;
+import org.vertexium.util.CloseableIterator;
+import org.vertexium.util.CloseableUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Iterates over all the results of a query a page at a time using search_after instead of a scroll, so no search
+ * context is kept open on the cluster between pages. The sort of each request has to end with a unique field so the
+ * sort values of the last hit of a page identify where the next page starts.
+ * <p>
+ * When {@link #getSlices()} returns more than one slice the slices are read in parallel, at most parallelism at a
+ * time on the executor, and their results are returned in the order the pages arrive instead of the sort order.
+ */
+public abstract class SearchAfterIterable<T> implements QueryResultsIterable<T>, IterableWithScores<T> {
+    private final int parallelism;
+    private final ExecutorService executor;
+    private QueryResultsIterable<T> firstIterable;
+    private SearchResponse response;
+    private boolean initCalled;
+
+    /**
+     * @param executor The executor the slices are read on, shared by the iterables of a search index.
+     */
+    protected SearchAfterIterable(int parallelism, ExecutorService executor) {
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    /**
+     * @param slice        The slice to search or null to search all of the indices.
+     * @param searchAfter  The sort values of the last hit of the previous page or null for the first page.
+     * @return The search response or null if there is nothing to search.
+     */
+    protected abstract SearchResponse search(Slice slice, Object[] searchAfter, boolean includeAggregations);
+
+    /**
+     * @return The slices to read in parallel, an empty list to read the results in sort order.
+     */
+    protected abstract List<Slice> getSlices();
+
+    protected abstract QueryResultsIterable<T> searchResponseToIterable(SearchResponse searchResponse);
+
+    protected abstract IdStrategy getIdStrategy();
+
+    @Override
+    public void close() {
+    }
+
+    private void init() {
+        if (initCalled) {
+            return;
+        }
+        response = search(null, null, true);
+        firstIterable = response == null ? null : searchResponseToIterable(response);
+        initCalled = true;
+    }
+
+    @Override
+    public <TResult extends AggregationResult> TResult getAggregationResult(String name, Class<? extends TResult> resultType) {
+        init();
+        if (firstIterable == null) {
+            return AggregationResult.createEmptyResult(resultType);
+        }
+        return firstIterable.getAggregationResult(name, resultType);
+    }
+
+    @Override
+    public long getTotalHits() {
+        init();
+        if (firstIterable == null) {
+            return 0;
+        }
+        return firstIterable.getTotalHits();
+    }
+
+    @Override
+    public Double getScore(Object id) {
+        if (response == null) {
+            return null;
+        }
+        for (SearchHit hit : response.getHits()) {
+            Object hitId = ElasticsearchGraphQueryIdIterable.idFromSearchHit(hit, getIdStrategy());
+            if (hitId == null) {
+                continue;
+            }
+            if (id.equals(hitId)) {
+                return (double) hit.getScore();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        init();
+        if (response == null) {
+            return Collections.emptyIterator();
+        }
+        if (parallelism > 1) {
+            List<Slice> slices = getSlices();
+            if (slices.size() > 1) {
+                return new SlicedIterator(slices);
+            }
+        }
+        return new SearchAfterIterator();
+    }
+
+    private static Object[] getLastSortValues(SearchHits hits) {
+        SearchHit[] hitsArray = hits.getHits();
+        return hitsArray.length == 0 ? null : hitsArray[hitsArray.length - 1].getSortValues();
+    }
+
+    private class SearchAfterIterator implements CloseableIterator<T> {
+        private Iterator<T> it;
+        private Object[] searchAfter;
+        private T next;
+
+        public SearchAfterIterator() {
+            it = firstIterable.iterator();
+            searchAfter = getLastSortValues(response.getHits());
+        }
+
+        @Override
+        public boolean hasNext() {
+            loadNext();
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            loadNext();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T result = next;
+            next = null;
+            return result;
+        }
+
+        private void loadNext() {
+            while (next == null && it != null) {
+                if (it.hasNext()) {
+                    next = it.next();
+                    return;
+                }
+                CloseableUtils.closeQuietly(it);
+                it = null;
+                if (searchAfter == null) {
+                    return;
+                }
+                // pages can have fewer items than hits, for example when elements were deleted after being indexed
+                SearchResponse pageResponse = search(null, searchAfter, false);
+                if (pageResponse == null) {
+                    return;
+                }
+                searchAfter = getLastSortValues(pageResponse.getHits());
+                it = searchResponseToIterable(pageResponse).iterator();
+            }
+        }
+
+        @Override
+        public void close() {
+            CloseableUtils.closeQuietly(it);
+            it = null;
+            SearchAfterIterable.this.close();
+        }
+    }
+
+    /**
+     * Reads the pages of the slices on the search index's executor. A slice's next page is only requested when fewer
+     * than parallelism reads are running and the pages read but not yet returned fit in the buffer, so reads start
+     * when the consumer takes a page or a read ends and no thread ever waits for the consumer. An iterator which is
+     * dropped without being closed stops after the reads which are already running.
+     */
+    private class SlicedIterator implements CloseableIterator<T> {
+        private final Deque<SliceReader> idleSliceReaders = new ArrayDeque<>();
+        private final BlockingQueue<Page> pages = new LinkedBlockingQueue<>();
+        private final int maxBufferedPages = parallelism * 2;
+        private int runningReads;
+        private int remainingSlices;
+        private Iterator<T> it = Collections.emptyIterator();
+        private volatile boolean closed;
+
+        public SlicedIterator(List<Slice> slices) {
+            for (Slice slice : slices) {
+                idleSliceReaders.add(new SliceReader(slice));
+            }
+            remainingSlices = slices.size();
+            startReads();
+        }
+
+        private void startReads() {
+            synchronized (idleSliceReaders) {
+                while (!closed
+                    && !idleSliceReaders.isEmpty()
+                    && runningReads < parallelism
+                    && runningReads + pages.size() < maxBufferedPages) {
+                    SliceReader sliceReader = idleSliceReaders.poll();
+                    runningReads++;
+                    try {
+                        executor.execute(() -> readPage(sliceReader));
+                    } catch (RejectedExecutionException ex) {
+                        runningReads--;
+                        pages.add(new Page(null, ex, true));
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void readPage(SliceReader sliceReader) {
+            Page page;
+            try {
+                page = sliceReader.readPage();
+            } catch (Exception ex) {
+                page = new Page(null, ex, true);
+            }
+            synchronized (idleSliceReaders) {
+                runningReads--;
+                if (closed) {
+                    return;
+                }
+                pages.add(page);
+                if (!page.last) {
+                    idleSliceReaders.add(sliceReader);
+                }
+            }
+            startReads();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!it.hasNext()) {
+                if (closed || remainingSlices == 0) {
+                    return false;
+                }
+                Page page = takePage();
+                startReads();
+                if (page.exception != null) {
+                    close();
+                    throw new VertexiumException("Could not read search results", page.exception);
+                }
+                if (page.last) {
+                    remainingSlices--;
+                } else {
+                    it = page.items.iterator();
+                }
+            }
+            return true;
+        }
+
+        private Page takePage() {
+            try {
+                while (true) {
+                    Page page = pages.poll(1, TimeUnit.SECONDS);
+                    if (page != null) {
+                        return page;
+                    }
+                    // reads queued on an executor which was shut down never run
+                    if (executor.isShutdown()) {
+                        close();
+                        throw new VertexiumException("Search index was shut down while reading search results");
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new VertexiumException("Interrupted while waiting for search results", ex);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return it.next();
+        }
+
+        @Override
+        public void close() {
+            synchronized (idleSliceReaders) {
+                closed = true;
+                idleSliceReaders.clear();
+                pages.clear();
+            }
+            it = Collections.emptyIterator();
+            SearchAfterIterable.this.close();
+        }
+    }
+
+    private class SliceReader {
+        private final Slice slice;
+        private Object[] searchAfter;
+
+        public SliceReader(Slice slice) {
+            this.slice = slice;
+        }
+
+        public Page readPage() {
+            SearchResponse pageResponse = search(slice, searchAfter, false);
+            if (pageResponse == null || pageResponse.getHits().getHits().length == 0) {
+                return new Page(null, null, true);
+            }
+            searchAfter = getLastSortValues(pageResponse.getHits());
+            List<T> items = new ArrayList<>();
+            for (T item : searchResponseToIterable(pageResponse)) {
+                items.add(item);
+            }
+            return new Page(items, null, false);
+        }
+    }
+
+    private class Page {
+        private final List<T> items;
+        private final Exception exception;
+        private final boolean last;
+
+        public Page(List<T> items, Exception exception, boolean last) {
+            this.items = items;
+            this.exception = exception;
+            this.last = last;
+        }
+    }
+
+    /**
+     * One shard of one index.
+     */
+    public static class Slice {
+        private final String indexName;
+        private final int shardId;
+
+        public Slice(String indexName, int shardId) {
+            this.indexName = indexName;
+            this.shardId = shardId;
+        }
+
+        public String getIndexName() {
+            return indexName;
+        }
+
+        public int getShardId() {
+            return shardId;
+        }
+
+        @Override
+        public String toString() {
+            return indexName + "[" + shardId + "]";
+        }
+    }
+}
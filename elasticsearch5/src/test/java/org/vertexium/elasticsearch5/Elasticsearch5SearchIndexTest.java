@@ -146,6 +146,28 @@ public class Elasticsearch5SearchIndexTest extends GraphTestBase {
         assertEquals(startingNumQueries + 8, getNumQueries());
     }
 
+    @Test
+    public void testQueryUsingSearchAfter() {
+        GraphConfiguration configuration = getSearchIndex().getConfig().getGraphConfiguration();
+        configuration.set(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + ElasticsearchSearchIndexConfiguration.QUERY_PAGE_SIZE, 2);
+        configuration.set(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + ElasticsearchSearchIndexConfiguration.QUERY_SEARCH_AFTER, "true");
+
+        for (int i = 0; i < 5; i++) {
+            graph.addVertex("v" + i, VISIBILITY_A, AUTHORIZATIONS_A);
+        }
+        graph.flush();
+
+        List<Vertex> vertices = toList(graph.query(AUTHORIZATIONS_A).sort(Element.ID_PROPERTY_NAME, SortDirection.ASCENDING).vertices());
+        assertEquals(5, vertices.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v" + i, vertices.get(i).getId());
+        }
+
+        configuration.set(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + ElasticsearchSearchIndexConfiguration.QUERY_SEARCH_AFTER_PARALLELISM, 4);
+        QueryResultsIterable<Vertex> slicedVertices = graph.query(AUTHORIZATIONS_A).vertices();
+        assertResultsCount(5, 5, slicedVertices);
+    }
+
     @Test
     public void testDisallowLeadingWildcardsInQueryString() {
         graph.prepareVertex("v1", VISIBILITY_A).setProperty("prop1", "value1", VISIBILITY_A).save(AUTHORIZATIONS_A);
@@ -230,6 +252,31 @@ public class Elasticsearch5SearchIndexTest extends GraphTestBase {
         toList(edges).get(0).getVertices(AUTHORIZATIONS_A);
     }
 
+    @Test
+    public void testQueryReturningElasticsearchVertexWithPropertiesFromSource() {
+        getSearchIndex().getConfig().getGraphConfiguration().set(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX + "." + ElasticsearchSearchIndexConfiguration.QUERY_HYDRATE_FROM_SOURCE, "true");
+        graph.defineProperty("name").dataType(String.class).textIndexHint(TextIndexHint.EXACT_MATCH).define();
+        graph.defineProperty("age").dataType(Integer.class).define();
+        graph.prepareVertex("v1", VISIBILITY_A)
+            .addPropertyValue("k1", "name", "joe", VISIBILITY_A)
+            .addPropertyValue("k1", "age", 25, VISIBILITY_B)
+            .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        FetchHints fetchHints = FetchHints.builder().setPropertyNamesToInclude("name", "age").build();
+        QueryResultsIterable<Vertex> vertices = graph.query(AUTHORIZATIONS_A).vertices(fetchHints);
+
+        assertResultsCount(1, 1, vertices);
+        Vertex vertex = toList(vertices).get(0);
+        assertEquals(ElasticsearchVertex.class, vertex.getClass());
+        assertEquals("joe", vertex.getPropertyValue("name"));
+        assertEquals(VISIBILITY_A, vertex.getProperty("name").getVisibility());
+        assertEquals(null, vertex.getPropertyValue("age"));
+
+        vertices = graph.query(AUTHORIZATIONS_A_AND_B).vertices(fetchHints);
+        assertEquals(25, toList(vertices).get(0).getPropertyValue("age"));
+    }
+
     @Test
     public void testUpdateVertexWithDeletedElasticsearchDocument() {
         TestElasticsearch5ExceptionHandler.authorizations = AUTHORIZATIONS_A;
@@ -258,6 +305,32 @@ public class Elasticsearch5SearchIndexTest extends GraphTestBase {
         assertEquals("v1", results.get(0));
     }
 
+    @Test
+    public void testAlterVertexVisibilityWithDeletedExtendedDataDocument() {
+        TestElasticsearch5ExceptionHandler.authorizations = AUTHORIZATIONS_A_AND_B;
+
+        graph.prepareVertex("v1", VISIBILITY_A)
+            .addExtendedData("table1", "row1", "name", "joe", VISIBILITY_A)
+            .save(AUTHORIZATIONS_A);
+        graph.flush();
+
+        ExtendedDataRowId rowId = new ExtendedDataRowId(ElementType.VERTEX, "v1", "table1", "row1");
+        getSearchIndex().deleteExtendedData(graph, rowId, AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(0, count(graph.query("joe", AUTHORIZATIONS_A).extendedDataRows()));
+
+        // the bulk update of the missing row document goes to the exception handler, which adds the row again
+        Vertex v1 = graph.getVertex("v1", FetchHints.ALL, AUTHORIZATIONS_A);
+        v1.prepareMutation()
+            .alterElementVisibility(VISIBILITY_B)
+            .save(AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        List<ExtendedDataRow> rows = toList(graph.query("joe", AUTHORIZATIONS_A_AND_B).extendedDataRows());
+        assertEquals(1, rows.size());
+        assertEquals(rowId, rows.get(0).getId());
+    }
+
     private long getNumQueries() {
         Client client = elasticsearchResource.getRunner().client();
         NodesStatsResponse nodeStats = NodesStatsAction.INSTANCE.newRequestBuilder(client).get();
@@ -0,0 +1,108 @@
+package org.vertexium.elasticsearch5;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Authorizations;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.InMemoryGraph;
+
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+import static org.vertexium.elasticsearch5.MetadataTablePropertyNameVisibilitiesStore.HASH_TO_VISIBILITY;
+import static org.vertexium.elasticsearch5.MetadataTablePropertyNameVisibilitiesStore.PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX;
+
+@RunWith(JUnit4.class)
+public class MetadataTablePropertyNameVisibilitiesStoreTest {
+    private InMemoryGraph graph;
+    private MetadataTablePropertyNameVisibilitiesStore store;
+    private Authorizations authorizationsA;
+    private Authorizations authorizationsAAndB;
+
+    @Before
+    public void before() {
+        graph = InMemoryGraph.create();
+        store = new MetadataTablePropertyNameVisibilitiesStore();
+        authorizationsA = graph.createAuthorizations("a");
+        authorizationsAAndB = graph.createAuthorizations("a", "b");
+    }
+
+    @After
+    public void after() {
+        graph.shutdown();
+    }
+
+    @Test
+    public void testPropertyNamesWithDots() {
+        String hashA = store.getHash(graph, "prop.with.dots", new Visibility("a"));
+        String hashAAndB = store.getHash(graph, "prop.with.dots", new Visibility("a&b"));
+        String hashShorterName = store.getHash(graph, "prop.with", new Visibility("b"));
+        assertEquals(hashA, graph.getMetadata(PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX + "prop.with.dots.a"));
+
+        // read the index back from the metadata table
+        store.clearCache();
+        assertEquals(hashA, store.getHash(graph, "prop.with.dots", new Visibility("a")));
+        assertHashes(store.getHashes(graph, "prop.with.dots", authorizationsAAndB), hashA, hashAAndB);
+        assertHashes(store.getHashes(graph, "prop.with.dots", authorizationsA), hashA);
+        assertHashes(store.getHashes(graph, "prop.with", authorizationsAAndB), hashShorterName);
+        assertHashes(store.getHashes(graph, "prop", authorizationsAAndB));
+        assertEquals(new Visibility("b"), store.getVisibilityFromHash(graph, hashShorterName));
+    }
+
+    @Test
+    public void testReadableHashesCachedUntilHashAdded() {
+        String hashA = store.getHash(graph, "prop1", new Visibility("a"));
+        Collection<String> hashes = store.getHashes(graph, authorizationsAAndB);
+        assertHashes(hashes, hashA);
+        assertSame(hashes, store.getHashes(graph, authorizationsAAndB));
+        assertSame(hashes, store.getHashes(graph, graph.createAuthorizations("b", "a")));
+        Collection<String> prop1Hashes = store.getHashes(graph, "prop1", authorizationsAAndB);
+        assertSame(prop1Hashes, store.getHashes(graph, "prop1", authorizationsAAndB));
+
+        String hashB = store.getHash(graph, "prop2", new Visibility("b"));
+        hashes = store.getHashes(graph, authorizationsAAndB);
+        assertHashes(hashes, hashA, hashB);
+        assertSame(hashes, store.getHashes(graph, authorizationsAAndB));
+        assertHashes(store.getHashes(graph, authorizationsA), hashA);
+        assertHashes(store.getHashesWithAuthorization(graph, "b", authorizationsAAndB), hashB);
+        assertHashes(store.getHashes(graph, "prop2", authorizationsAAndB), hashB);
+        assertHashes(store.getHashes(graph, "prop2", authorizationsA));
+
+        // a hash already in the index is not read from the metadata table again
+        graph.setMetadata(HASH_TO_VISIBILITY + hashB, "c");
+        assertEquals(hashB, store.getHash(graph, "prop2", new Visibility("b")));
+        assertEquals(new Visibility("b"), store.getVisibilityFromHash(graph, hashB));
+    }
+
+    @Test
+    public void testClearCacheReloadsFromMetadata() {
+        String hashA = store.getHash(graph, "prop1", new Visibility("a"));
+        assertHashes(store.getHashes(graph, "prop1", authorizationsAAndB), hashA);
+
+        // written by another node
+        MetadataTablePropertyNameVisibilitiesStore otherStore = new MetadataTablePropertyNameVisibilitiesStore();
+        String hashB = otherStore.getHash(graph, "prop1", new Visibility("b"));
+        assertHashes(store.getHashes(graph, "prop1", authorizationsAAndB), hashA);
+
+        store.clearCache();
+        assertHashes(store.getHashes(graph, "prop1", authorizationsAAndB), hashA, hashB);
+        assertHashes(store.getHashesWithAuthorization(graph, "b", authorizationsAAndB), hashB);
+        assertEquals(new Visibility("b"), store.getVisibilityFromHash(graph, hashB));
+    }
+
+    @Test
+    public void testGetVisibilityFromUnknownHash() {
+        assertNull(store.getVisibilityFromHash(graph, "unknown"));
+        assertHashes(store.getHashes(graph, authorizationsAAndB));
+    }
+
+    private void assertHashes(Collection<String> hashes, String... expectedHashes) {
+        assertEquals(expectedHashes.length, hashes.size());
+        for (String expectedHash : expectedHashes) {
+            assertTrue("missing " + expectedHash + " in " + hashes, hashes.contains(expectedHash));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.update.UpdateAction;
+import org.elasticsearch.action.update.UpdateRequestBuilder;
+import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.client.transport.NoNodeAvailableException;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.engine.DocumentMissingException;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.ElementType;
+import org.vertexium.VertexiumException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BulkUpdaterTest {
+    private static final ShardId SHARD_ID = new ShardId("index", "_na_", 0);
+    private TestClient client;
+    private BulkUpdater bulkUpdater;
+    private final Map<String, Integer> executionsById = new ConcurrentHashMap<>();
+    private final List<FlushObjectQueue.FlushObject> documentMissingFlushObjects = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> documentMissingThreads = Collections.synchronizedList(new ArrayList<>());
+    private final List<FlushObjectQueue.FlushObject> failedFlushObjects = Collections.synchronizedList(new ArrayList<>());
+    private volatile Function<String, Exception> itemFailures = id -> null;
+    private volatile Exception bulkFailure;
+    private volatile String holdBulkWithId;
+    private volatile ActionListener<ActionResponse> heldListener;
+    private volatile BulkRequest heldRequest;
+    private volatile boolean failDocumentMissingHandler;
+    private volatile boolean failBulkItemFailureHandler;
+
+    @Before
+    public void before() {
+        client = new TestClient(this::execute);
+        bulkUpdater = new BulkUpdater(null, client, 1000, 10 * 1024 * 1024, null, 1, 100) {
+            @Override
+            void handleDocumentMissingException(FlushObjectQueue.FlushObject flushObject, Exception ex) {
+                documentMissingFlushObjects.add(flushObject);
+                documentMissingThreads.add(Thread.currentThread());
+                if (failDocumentMissingHandler) {
+                    throw new VertexiumException("handler failed");
+                }
+            }
+
+            @Override
+            void handleBulkItemFailure(FlushObjectQueue.FlushObject flushObject, Exception ex) throws Exception {
+                failedFlushObjects.add(flushObject);
+                if (failBulkItemFailureHandler) {
+                    throw ex;
+                }
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        bulkUpdater.close();
+        client.close();
+    }
+
+    private void execute(ActionRequest request, ActionListener<ActionResponse> listener) {
+        BulkRequest bulkRequest = (BulkRequest) request;
+        for (DocWriteRequest docWriteRequest : bulkRequest.requests()) {
+            executionsById.merge(docWriteRequest.id(), 1, Integer::sum);
+        }
+        if (holdBulkWithId != null && bulkRequest.requests().stream().anyMatch(r -> r.id().equals(holdBulkWithId))) {
+            holdBulkWithId = null;
+            heldRequest = bulkRequest;
+            heldListener = listener;
+            return;
+        }
+        Exception failure = bulkFailure;
+        if (failure != null) {
+            bulkFailure = null;
+            listener.onFailure(failure);
+            return;
+        }
+        listener.onResponse(createResponse(bulkRequest, itemFailures));
+    }
+
+    private static BulkResponse createResponse(BulkRequest bulkRequest, Function<String, Exception> itemFailures) {
+        List<DocWriteRequest> requests = bulkRequest.requests();
+        BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            DocWriteRequest request = requests.get(i);
+            Exception failure = itemFailures.apply(request.id());
+            if (failure == null) {
+                DocWriteResponse response = new UpdateResponse(SHARD_ID, request.type(), request.id(), 1, DocWriteResponse.Result.UPDATED);
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.UPDATE, response);
+            } else {
+                BulkItemResponse.Failure itemFailure = new BulkItemResponse.Failure(request.index(), request.type(), request.id(), failure);
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.UPDATE, itemFailure);
+            }
+        }
+        return new BulkResponse(items, 1);
+    }
+
+    @Test
+    public void testAwaitOnlyWaitsForItsBatch() throws Exception {
+        // b1 fails once and its retry is held, a1 is in the same bulk request
+        itemFailures = id -> id.equals("b1") && executionsById.get("b1") == 1 ? new ElasticsearchStatusException("unavailable", RestStatus.SERVICE_UNAVAILABLE) : null;
+        BulkUpdater.Batch batchA = bulkUpdater.createBatch();
+        BulkUpdater.Batch batchB = bulkUpdater.createBatch();
+        holdBulkWithIdOnRetry("b1");
+        batchA.add(ElementType.VERTEX, "a1", null, null, update("a1"));
+        batchB.add(ElementType.VERTEX, "b1", null, null, update("b1"));
+
+        batchA.await();
+        assertEquals(1, batchA.getCount());
+
+        Thread batchBThread = new Thread(batchB::await);
+        batchBThread.start();
+        while (heldListener == null) {
+            Thread.sleep(1);
+        }
+        batchBThread.join(100);
+        assertTrue("batch b waits for its retried request", batchBThread.isAlive());
+
+        heldListener.onResponse(createResponse(heldRequest, id -> null));
+        batchBThread.join(10000);
+        assertFalse(batchBThread.isAlive());
+        assertEquals(2, (int) executionsById.get("b1"));
+        assertEquals(1, (int) executionsById.get("a1"));
+    }
+
+    @Test
+    public void testRetriesRejectedItems() {
+        itemFailures = id -> id.equals("v1") && executionsById.get("v1") <= 2 ? new EsRejectedExecutionException("rejected v1") : null;
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", null, null, update("v1"));
+        batch.add(ElementType.VERTEX, "v2", null, null, update("v2"));
+        batch.await();
+        assertEquals(3, (int) executionsById.get("v1"));
+        assertEquals("only the failed item is sent again", 1, (int) executionsById.get("v2"));
+        assertTrue(documentMissingFlushObjects.isEmpty());
+        assertTrue(failedFlushObjects.isEmpty());
+    }
+
+    @Test
+    public void testRetriesUnavailableItems() {
+        itemFailures = id -> executionsById.get(id) == 1 ? new ElasticsearchStatusException("unavailable", RestStatus.SERVICE_UNAVAILABLE) : null;
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", null, null, update("v1"));
+        batch.await();
+        assertEquals(2, (int) executionsById.get("v1"));
+        assertTrue(failedFlushObjects.isEmpty());
+    }
+
+    @Test
+    public void testOtherFailuresGoToExceptionHandlerWithoutRetry() {
+        itemFailures = id -> id.equals("v1") ? new ElasticsearchStatusException("bad request", RestStatus.BAD_REQUEST) : null;
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", null, null, update("v1"));
+        batch.add(ElementType.VERTEX, "v2", null, null, update("v2"));
+        batch.await();
+
+        assertEquals(1, (int) executionsById.get("v1"));
+        assertEquals(1, failedFlushObjects.size());
+        FlushObjectQueue.FlushObject flushObject = failedFlushObjects.get(0);
+        assertEquals("v1", flushObject.getElementId());
+        assertTrue(flushObject.getFuture().isCompletedExceptionally());
+        assertTrue(documentMissingFlushObjects.isEmpty());
+    }
+
+    @Test
+    public void testUnhandledFailureFailsAwait() {
+        failBulkItemFailureHandler = true;
+        itemFailures = id -> new VertexiumException("failed " + id);
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", null, null, update("v1"));
+        try {
+            batch.await();
+            fail("expected the failure to fail the batch");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("failures: 1"));
+            assertEquals("failed v1", ex.getCause().getMessage());
+        }
+        assertEquals(1, (int) executionsById.get("v1"));
+    }
+
+    @Test
+    public void testRetriesUnavailableBulkRequest() {
+        bulkFailure = new NoNodeAvailableException("no nodes");
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", null, null, update("v1"));
+        batch.add(ElementType.VERTEX, "v2", null, null, update("v2"));
+        batch.await();
+        assertEquals(2, (int) executionsById.get("v1"));
+        assertEquals(2, (int) executionsById.get("v2"));
+    }
+
+    @Test
+    public void testDocumentMissingGoesToExceptionHandler() {
+        itemFailures = id -> id.equals("v1") ? new DocumentMissingException(SHARD_ID, "type", id) : null;
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.VERTEX, "v1", "table1", "row1", update("v1"));
+        batch.add(ElementType.VERTEX, "v2", null, null, update("v2"));
+        batch.await();
+
+        assertEquals("document missing failures are not retried", 1, (int) executionsById.get("v1"));
+        assertEquals(1, documentMissingFlushObjects.size());
+        FlushObjectQueue.FlushObject flushObject = documentMissingFlushObjects.get(0);
+        assertEquals(ElementType.VERTEX, flushObject.getElementType());
+        assertEquals("v1", flushObject.getElementId());
+        assertEquals("table1", flushObject.getExtendedDataTableName());
+        assertEquals("row1", flushObject.getExtendedDataRowId());
+        assertTrue(flushObject.getFuture().isCompletedExceptionally());
+        assertEquals("handled on the thread awaiting the batch", Collections.singletonList(Thread.currentThread()), documentMissingThreads);
+    }
+
+    @Test
+    public void testDocumentMissingHandlerFailureFailsAwait() {
+        failDocumentMissingHandler = true;
+        itemFailures = id -> new DocumentMissingException(SHARD_ID, "type", id);
+        BulkUpdater.Batch batch = bulkUpdater.createBatch();
+        batch.add(ElementType.EDGE, "e1", null, null, update("e1"));
+        try {
+            batch.await();
+            fail("expected the handler failure to fail the batch");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("failures: 1"));
+        }
+        assertEquals(1, documentMissingFlushObjects.size());
+    }
+
+    private void holdBulkWithIdOnRetry(String id) {
+        Function<String, Exception> failures = itemFailures;
+        itemFailures = requestId -> {
+            Exception failure = failures.apply(requestId);
+            if (failure != null && requestId.equals(id)) {
+                holdBulkWithId = id;
+            }
+            return failure;
+        };
+    }
+
+    private UpdateRequestBuilder update(String id) {
+        return new UpdateRequestBuilder(client, UpdateAction.INSTANCE, "index", "type", id);
+    }
+}
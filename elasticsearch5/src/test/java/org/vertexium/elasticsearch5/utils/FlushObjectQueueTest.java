@@ -0,0 +1,211 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.update.UpdateAction;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateRequestBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.ElementType;
+import org.vertexium.VertexiumException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class FlushObjectQueueTest {
+    private TestClient client;
+    private FlushObjectQueue flushObjectQueue;
+    private final Map<String, Integer> failuresLeftById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> executionsById = new ConcurrentHashMap<>();
+    private final Map<String, ActionListener<ActionResponse>> heldListenersById = new ConcurrentHashMap<>();
+    private final Set<String> heldIds = Collections.synchronizedSet(new HashSet<>());
+    private final List<Long> retryDelays = Collections.synchronizedList(new ArrayList<>());
+    private Runnable onExecute = () -> {
+    };
+
+    @Before
+    public void before() {
+        client = new TestClient(this::execute);
+        flushObjectQueue = new FlushObjectQueue(null, 10) {
+            @Override
+            void sleep(long millis) {
+                retryDelays.add(millis);
+            }
+        };
+    }
+
+    @After
+    public void after() {
+        client.close();
+    }
+
+    private void execute(ActionRequest request, ActionListener<ActionResponse> listener) {
+        String id = ((UpdateRequest) request).id();
+        executionsById.merge(id, 1, Integer::sum);
+        onExecute.run();
+        if (heldIds.contains(id)) {
+            heldListenersById.put(id, listener);
+            return;
+        }
+        Integer failuresLeft = failuresLeftById.get(id);
+        if (failuresLeft != null && failuresLeft > 0) {
+            failuresLeftById.put(id, failuresLeft - 1);
+            listener.onFailure(new VertexiumException("failed " + id));
+            return;
+        }
+        listener.onResponse(null);
+    }
+
+    @Test
+    public void testRetriesWithBackoff() {
+        failuresLeftById.put("v1", 3);
+        add("v1");
+        add("v2");
+        assertTrue(flushObjectQueue.containsElementId("v1"));
+        assertTrue(flushObjectQueue.containsElementId("v2"));
+
+        flushObjectQueue.flush();
+        assertEquals(4, (int) executionsById.get("v1"));
+        assertEquals(1, (int) executionsById.get("v2"));
+        assertEquals(Arrays.asList(10L, 20L, 40L), retryDelays);
+        assertFalse(flushObjectQueue.containsElementId("v1"));
+        assertFalse(flushObjectQueue.containsElementId("v2"));
+    }
+
+    @Test
+    public void testMaxRetriesRequeuesOtherFailures() {
+        failuresLeftById.put("v1", Integer.MAX_VALUE);
+        failuresLeftById.put("v2", Integer.MAX_VALUE);
+        add("v1");
+        // v2 joins the retries of v1 with fewer retries used
+        onExecute = () -> {
+            if (executionsById.get("v1") == 6 && !executionsById.containsKey("v2")) {
+                add("v2");
+            }
+        };
+
+        try {
+            flushObjectQueue.flush();
+            fail("expected v1 to run out of retries");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("v1"));
+        }
+        assertEquals(11, (int) executionsById.get("v1"));
+        assertFalse(flushObjectQueue.containsElementId("v1"));
+        assertTrue("v2 has retries left and is queued again", flushObjectQueue.containsElementId("v2"));
+
+        failuresLeftById.put("v2", 0);
+        flushObjectQueue.flush();
+        assertFalse(flushObjectQueue.containsElementId("v2"));
+        assertEquals(11, (int) executionsById.get("v1"));
+        assertTrue(retryDelays.stream().allMatch(delay -> delay >= 10 && delay <= 60 * 1000));
+    }
+
+    @Test
+    public void testContainsElementIdWhileFlushedByOtherThread() throws Exception {
+        heldIds.add("v1");
+        add("v1");
+        Thread flushThread = startFlush();
+        waitUntilWaiting(flushThread);
+        assertTrue("in flight requests are still pending", flushObjectQueue.containsElementId("v1"));
+
+        // a second flush waits for the request the first flush is waiting for
+        Thread otherFlushThread = startFlush();
+        waitUntilWaiting(otherFlushThread);
+        assertTrue(otherFlushThread.isAlive());
+        assertTrue(flushObjectQueue.containsElementId("v1"));
+
+        heldListenersById.get("v1").onResponse(null);
+        flushThread.join(10000);
+        otherFlushThread.join(10000);
+        assertFalse(flushThread.isAlive());
+        assertFalse(otherFlushThread.isAlive());
+        assertFalse(flushObjectQueue.containsElementId("v1"));
+    }
+
+    @Test
+    public void testContainsElementIdWhileRetrying() throws Exception {
+        failuresLeftById.put("v1", 1);
+        add("v1");
+        // hold the retry of v1
+        onExecute = () -> {
+            if (executionsById.get("v1") == 2) {
+                heldIds.add("v1");
+            }
+        };
+        Thread flushThread = startFlush();
+        while (!heldListenersById.containsKey("v1")) {
+            Thread.sleep(1);
+        }
+        assertTrue("retried requests are still pending", flushObjectQueue.containsElementId("v1"));
+
+        heldListenersById.get("v1").onResponse(null);
+        flushThread.join(10000);
+        assertFalse(flushThread.isAlive());
+        assertFalse(flushObjectQueue.containsElementId("v1"));
+    }
+
+    @Test
+    public void testConcurrentAddAndFlush() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int threadIndex = 0; threadIndex < 4; threadIndex++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        String id = "v" + (i % 20);
+                        if (i % 7 == 0) {
+                            failuresLeftById.merge(id, 1, Integer::sum);
+                        }
+                        while (flushObjectQueue.containsElementId(id)) {
+                            flushObjectQueue.flush();
+                        }
+                        add(id);
+                        if (i % 10 == 0) {
+                            flushObjectQueue.flush();
+                        }
+                    }
+                    flushObjectQueue.flush();
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60000);
+            assertFalse("flush did not finish", thread.isAlive());
+        }
+        assertEquals(Collections.emptyList(), failures);
+        for (int i = 0; i < 20; i++) {
+            assertFalse(flushObjectQueue.containsElementId("v" + i));
+        }
+    }
+
+    private void add(String id) {
+        flushObjectQueue.add(ElementType.VERTEX, id, null, null, new UpdateRequestBuilder(client, UpdateAction.INSTANCE, "index", "type", id));
+    }
+
+    private Thread startFlush() {
+        Thread thread = new Thread(() -> flushObjectQueue.flush());
+        thread.start();
+        return thread;
+    }
+
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(thread.isAlive());
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.VertexiumException;
+import org.vertexium.elasticsearch5.IdStrategy;
+import org.vertexium.query.AggregationResult;
+import org.vertexium.query.QueryResultsIterable;
+import org.vertexium.util.CloseableIterator;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SearchAfterIterableTest {
+    private static final int ITEMS_PER_PAGE = 2;
+    private ThreadPoolExecutor executor;
+
+    @Before
+    public void before() {
+        executor = new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSlicesReadInParallel() {
+        TestSearchAfterIterable iterable = new TestSearchAfterIterable(2, 3, 3);
+        List<String> ids = new ArrayList<>();
+        for (String id : iterable) {
+            ids.add(id);
+        }
+
+        assertEquals(3 * 3 * ITEMS_PER_PAGE, ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertTrue("running searches " + iterable.maxRunningSearches.get(), iterable.maxRunningSearches.get() <= 2);
+    }
+
+    @Test
+    public void testDroppedIteratorStopsReading() throws Exception {
+        TestSearchAfterIterable iterable = new TestSearchAfterIterable(2, 3, Integer.MAX_VALUE);
+        Iterator<String> it = iterable.iterator();
+        assertTrue(it.hasNext());
+        it.next();
+        // the iterator is dropped without being closed
+
+        assertNoRunningReads();
+        int searchCount = iterable.searchCount.get();
+        Thread.sleep(100);
+        assertEquals(searchCount, iterable.searchCount.get());
+        // the first search, the pages buffered for the consumer and the pages read after it took one
+        assertTrue("search count " + searchCount, searchCount <= 1 + 2 * 2 + 2);
+    }
+
+    @Test
+    public void testCloseStopsReading() throws Exception {
+        TestSearchAfterIterable iterable = new TestSearchAfterIterable(2, 3, Integer.MAX_VALUE);
+        CloseableIterator<String> it = (CloseableIterator<String>) iterable.iterator();
+        assertTrue(it.hasNext());
+        it.close();
+        assertFalse(it.hasNext());
+
+        assertNoRunningReads();
+        int searchCount = iterable.searchCount.get();
+        Thread.sleep(100);
+        assertEquals(searchCount, iterable.searchCount.get());
+    }
+
+    @Test
+    public void testShutdownExecutorFailsRead() {
+        executor.shutdown();
+        TestSearchAfterIterable iterable = new TestSearchAfterIterable(2, 3, 3);
+        try {
+            iterable.iterator().hasNext();
+            fail("expected the read to fail");
+        } catch (VertexiumException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    private void assertNoRunningReads() throws InterruptedException {
+        long endTime = System.currentTimeMillis() + 10000;
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            assertTrue("reads are still running", System.currentTimeMillis() < endTime);
+            Thread.sleep(10);
+        }
+    }
+
+    private static SearchResponse createSearchResponse(List<String> ids) {
+        SearchHit[] hits = new SearchHit[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            hits[i] = new SearchHit(i, ids.get(i), new Text("type"), Collections.emptyMap());
+            hits[i].sortValues(new Object[]{ids.get(i)}, new DocValueFormat[]{DocValueFormat.RAW});
+        }
+        InternalSearchResponse internalSearchResponse = new InternalSearchResponse(
+            new SearchHits(hits, hits.length, 0.0f),
+            null,
+            null,
+            null,
+            false,
+            null,
+            1
+        );
+        return new SearchResponse(internalSearchResponse, null, 1, 1, 0, 1, new ShardSearchFailure[0]);
+    }
+
+    private class TestSearchAfterIterable extends SearchAfterIterable<String> {
+        private final int sliceCount;
+        private final int pagesPerSlice;
+        private final AtomicInteger searchCount = new AtomicInteger();
+        private final AtomicInteger runningSearches = new AtomicInteger();
+        private final AtomicInteger maxRunningSearches = new AtomicInteger();
+
+        public TestSearchAfterIterable(int parallelism, int sliceCount, int pagesPerSlice) {
+            super(parallelism, executor);
+            this.sliceCount = sliceCount;
+            this.pagesPerSlice = pagesPerSlice;
+        }
+
+        @Override
+        protected SearchResponse search(Slice slice, Object[] searchAfter, boolean includeAggregations) {
+            searchCount.incrementAndGet();
+            maxRunningSearches.accumulateAndGet(runningSearches.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (slice == null) {
+                    return createSearchResponse(Collections.singletonList("first"));
+                }
+                // ids are shard:page:item
+                int page = searchAfter == null ? 0 : Integer.parseInt(searchAfter[0].toString().split(":")[1]) + 1;
+                List<String> ids = new ArrayList<>();
+                if (page < pagesPerSlice) {
+                    for (int i = 0; i < ITEMS_PER_PAGE; i++) {
+                        ids.add(slice.getShardId() + ":" + page + ":" + i);
+                    }
+                }
+                return createSearchResponse(ids);
+            } catch (InterruptedException ex) {
+                throw new VertexiumException("interrupted", ex);
+            } finally {
+                runningSearches.decrementAndGet();
+            }
+        }
+
+        @Override
+        protected List<Slice> getSlices() {
+            List<Slice> slices = new ArrayList<>();
+            for (int i = 0; i < sliceCount; i++) {
+                slices.add(new Slice("index", i));
+            }
+            return slices;
+        }
+
+        @Override
+        protected QueryResultsIterable<String> searchResponseToIterable(SearchResponse searchResponse) {
+            List<String> ids = new ArrayList<>();
+            for (SearchHit hit : searchResponse.getHits()) {
+                ids.add(hit.getId());
+            }
+            return new QueryResultsIterable<String>() {
+                @Override
+                public <TResult extends AggregationResult> TResult getAggregationResult(String name, Class<? extends TResult> resultType) {
+                    return AggregationResult.createEmptyResult(resultType);
+                }
+
+                @Override
+                public long getTotalHits() {
+                    return searchResponse.getHits().getTotalHits();
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public Iterator<String> iterator() {
+                    return ids.iterator();
+                }
+            };
+        }
+
+        @Override
+        protected IdStrategy getIdStrategy() {
+            return new IdStrategy();
+        }
+    }
+}
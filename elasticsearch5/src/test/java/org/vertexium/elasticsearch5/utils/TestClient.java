@@ -0,0 +1,44 @@
+package org.vertexium.elasticsearch5.utils;
+
+import org.elasticsearch.action.Action;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.client.support.AbstractClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client which answers requests with a {@link RequestHandler} instead of sending them to a cluster.
+ */
+public class TestClient extends AbstractClient {
+    private static final Settings SETTINGS = Settings.builder().put("node.name", "test").build();
+    private final RequestHandler requestHandler;
+
+    public TestClient(RequestHandler requestHandler) {
+        super(SETTINGS, new ThreadPool(SETTINGS));
+        this.requestHandler = requestHandler;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> void doExecute(
+        Action<Request, Response, RequestBuilder> action,
+        Request request,
+        ActionListener<Response> listener
+    ) {
+        requestHandler.execute(request, (ActionListener<ActionResponse>) listener);
+    }
+
+    @Override
+    public void close() {
+        ThreadPool.terminate(threadPool(), 10, TimeUnit.SECONDS);
+    }
+
+    public interface RequestHandler {
+        void execute(ActionRequest request, ActionListener<ActionResponse> listener);
+    }
+}
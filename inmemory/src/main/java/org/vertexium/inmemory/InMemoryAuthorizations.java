@@ -1,5 +1,7 @@
 package org.vertexium.inmemory;
 
+import org.cache2k.Cache;
+import org.cache2k.CacheBuilder;
 import org.vertexium.VertexiumException;
 import org.vertexium.Visibility;
 import org.vertexium.security.Authorizations;
@@ -11,10 +13,21 @@ import org.vertexium.util.Preconditions;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryAuthorizations implements org.vertexium.Authorizations, Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int MAX_CAN_READ_CACHE_SIZE = 10000;
+    private static final int MAX_COLUMN_VISIBILITY_CACHE_SIZE = 10000;
+    private static final Cache<String, ColumnVisibility> columnVisibilityCache = CacheBuilder
+        .newCache(String.class, ColumnVisibility.class)
+        .name(InMemoryAuthorizations.class, "columnVisibilityCache")
+        .maxSize(MAX_COLUMN_VISIBILITY_CACHE_SIZE)
+        .build();
     private final String[] authorizations;
+    private transient volatile VisibilityEvaluator visibilityEvaluator;
+    private transient volatile Map<String, Boolean> canReadCache;
 
     public InMemoryAuthorizations(String... authorizations) {
         this.authorizations = authorizations;
@@ -44,13 +57,49 @@ public class InMemoryAuthorizations implements org.vertexium.Authorizations, Ser
             return true;
         }
 
-        VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new Authorizations(this.getAuthorizations()));
-        ColumnVisibility columnVisibility = new ColumnVisibility(visibility.getVisibilityString());
+        Map<String, Boolean> canReadCache = getCanReadCache();
+        Boolean result = canReadCache.get(visibility.getVisibilityString());
+        if (result != null) {
+            return result;
+        }
+
+        ColumnVisibility columnVisibility = getColumnVisibility(visibility.getVisibilityString());
         try {
-            return visibilityEvaluator.evaluate(columnVisibility);
+            result = getVisibilityEvaluator().evaluate(columnVisibility);
         } catch (VisibilityParseException e) {
             throw new VertexiumException("could not evaluate visibility " + visibility.getVisibilityString(), e);
         }
+        if (canReadCache.size() < MAX_CAN_READ_CACHE_SIZE) {
+            canReadCache.put(visibility.getVisibilityString(), result);
+        }
+        return result;
+    }
+
+    private VisibilityEvaluator getVisibilityEvaluator() {
+        VisibilityEvaluator result = visibilityEvaluator;
+        if (result == null) {
+            result = new VisibilityEvaluator(new Authorizations(this.getAuthorizations()));
+            visibilityEvaluator = result;
+        }
+        return result;
+    }
+
+    private Map<String, Boolean> getCanReadCache() {
+        Map<String, Boolean> result = canReadCache;
+        if (result == null) {
+            result = new ConcurrentHashMap<>();
+            canReadCache = result;
+        }
+        return result;
+    }
+
+    private static ColumnVisibility getColumnVisibility(String visibilityString) {
+        ColumnVisibility columnVisibility = columnVisibilityCache.peek(visibilityString);
+        if (columnVisibility == null) {
+            columnVisibility = new ColumnVisibility(visibilityString);
+            columnVisibilityCache.put(visibilityString, columnVisibility);
+        }
+        return columnVisibility;
     }
 
     @Override
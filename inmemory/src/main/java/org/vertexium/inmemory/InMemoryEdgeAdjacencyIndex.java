@@ -0,0 +1,186 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Direction;
+import org.vertexium.inmemory.mutations.AlterEdgeLabelMutation;
+import org.vertexium.inmemory.mutations.EdgeSetupMutation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Maps each vertex id to the ids of the edges touching it, partitioned by direction and edge label.
+ * Soft deleted edges remain indexed because historical reads still need to find them, only a hard
+ * delete removes an edge from the index. Callers must not update or remove the same edge concurrently,
+ * {@link InMemoryEdgeTable} guarantees this by calling it while holding the edge's row lock.
+ */
+public class InMemoryEdgeAdjacencyIndex {
+    private final Map<String, IndexedEdge> edges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VertexAdjacency> vertices = new ConcurrentHashMap<>();
+
+    public void update(InMemoryTableEdge inMemoryTableEdge) {
+        EdgeSetupMutation edgeSetupMutation = inMemoryTableEdge.findLastMutation(EdgeSetupMutation.class);
+        AlterEdgeLabelMutation alterEdgeLabelMutation = inMemoryTableEdge.findLastMutation(AlterEdgeLabelMutation.class);
+        if (edgeSetupMutation == null || alterEdgeLabelMutation == null) {
+            return;
+        }
+        IndexedEdge newIndexedEdge = new IndexedEdge(
+            inMemoryTableEdge.getId(),
+            edgeSetupMutation.getOutVertexId(),
+            edgeSetupMutation.getInVertexId(),
+            alterEdgeLabelMutation.getNewEdgeLabel()
+        );
+        IndexedEdge existingIndexedEdge = edges.put(newIndexedEdge.edgeId, newIndexedEdge);
+        if (newIndexedEdge.equals(existingIndexedEdge)) {
+            return;
+        }
+        if (existingIndexedEdge != null) {
+            removeFromVertices(existingIndexedEdge);
+        }
+        addToVertex(newIndexedEdge.outVertexId, Direction.OUT, newIndexedEdge);
+        addToVertex(newIndexedEdge.inVertexId, Direction.IN, newIndexedEdge);
+    }
+
+    public void remove(String edgeId) {
+        IndexedEdge indexedEdge = edges.remove(edgeId);
+        if (indexedEdge != null) {
+            removeFromVertices(indexedEdge);
+        }
+    }
+
+    public void clear() {
+        edges.clear();
+        vertices.clear();
+    }
+
+    private void removeFromVertices(IndexedEdge indexedEdge) {
+        removeFromVertex(indexedEdge.outVertexId, Direction.OUT, indexedEdge);
+        removeFromVertex(indexedEdge.inVertexId, Direction.IN, indexedEdge);
+    }
+
+    // compute/computeIfPresent run atomically per vertex id, so adds never land in an adjacency that is being dropped
+    private void addToVertex(String vertexId, Direction direction, IndexedEdge indexedEdge) {
+        vertices.compute(vertexId, (k, vertexAdjacency) -> {
+            if (vertexAdjacency == null) {
+                vertexAdjacency = new VertexAdjacency();
+            }
+            vertexAdjacency.add(direction, indexedEdge.label, indexedEdge.edgeId);
+            return vertexAdjacency;
+        });
+    }
+
+    private void removeFromVertex(String vertexId, Direction direction, IndexedEdge indexedEdge) {
+        vertices.computeIfPresent(vertexId, (k, vertexAdjacency) -> {
+            vertexAdjacency.remove(direction, indexedEdge.label, indexedEdge.edgeId);
+            return vertexAdjacency.isEmpty() ? null : vertexAdjacency;
+        });
+    }
+
+    /**
+     * Returns the ids of the edges attached to the given vertex. Self-referencing edges are only returned once
+     * when direction is {@link Direction#BOTH}.
+     *
+     * @param labels The labels to restrict the results to, or null for all labels.
+     */
+    public Stream<String> getEdgeIds(String vertexId, Direction direction, String[] labels) {
+        VertexAdjacency vertexAdjacency = vertices.get(vertexId);
+        if (vertexAdjacency == null) {
+            return Stream.empty();
+        }
+        switch (direction) {
+            case OUT:
+                return vertexAdjacency.getEdgeIds(Direction.OUT, labels);
+            case IN:
+                return vertexAdjacency.getEdgeIds(Direction.IN, labels);
+            case BOTH:
+                return Stream.concat(
+                    vertexAdjacency.getEdgeIds(Direction.OUT, labels),
+                    vertexAdjacency.getEdgeIds(Direction.IN, labels).filter(edgeId -> !isSelfReferencing(edgeId))
+                );
+            default:
+                throw new IllegalArgumentException("Unexpected direction: " + direction);
+        }
+    }
+
+    private boolean isSelfReferencing(String edgeId) {
+        IndexedEdge indexedEdge = edges.get(edgeId);
+        return indexedEdge != null && indexedEdge.outVertexId.equals(indexedEdge.inVertexId);
+    }
+
+    private static class VertexAdjacency {
+        private final Map<String, Set<String>> outEdgeIdsByLabel = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> inEdgeIdsByLabel = new ConcurrentHashMap<>();
+
+        private Map<String, Set<String>> getEdgeIdsByLabel(Direction direction) {
+            return direction == Direction.OUT ? outEdgeIdsByLabel : inEdgeIdsByLabel;
+        }
+
+        public void add(Direction direction, String label, String edgeId) {
+            getEdgeIdsByLabel(direction).computeIfAbsent(label, k -> new ConcurrentSkipListSet<>()).add(edgeId);
+        }
+
+        public void remove(Direction direction, String label, String edgeId) {
+            Map<String, Set<String>> edgeIdsByLabel = getEdgeIdsByLabel(direction);
+            Set<String> edgeIds = edgeIdsByLabel.get(label);
+            if (edgeIds == null) {
+                return;
+            }
+            edgeIds.remove(edgeId);
+            if (edgeIds.isEmpty()) {
+                edgeIdsByLabel.remove(label);
+            }
+        }
+
+        public boolean isEmpty() {
+            return outEdgeIdsByLabel.isEmpty() && inEdgeIdsByLabel.isEmpty();
+        }
+
+        public Stream<String> getEdgeIds(Direction direction, String[] labels) {
+            Map<String, Set<String>> edgeIdsByLabel = getEdgeIdsByLabel(direction);
+            if (labels == null) {
+                return edgeIdsByLabel.values().stream().flatMap(Set::stream);
+            }
+            return Stream.of(labels)
+                .distinct()
+                .map(edgeIdsByLabel::get)
+                .filter(edgeIds -> edgeIds != null)
+                .flatMap(Set::stream);
+        }
+    }
+
+    private static class IndexedEdge {
+        private final String edgeId;
+        private final String outVertexId;
+        private final String inVertexId;
+        private final String label;
+
+        private IndexedEdge(String edgeId, String outVertexId, String inVertexId, String label) {
+            this.edgeId = edgeId;
+            this.outVertexId = outVertexId;
+            this.inVertexId = inVertexId;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IndexedEdge that = (IndexedEdge) o;
+            return edgeId.equals(that.edgeId)
+                && outVertexId.equals(that.outVertexId)
+                && inVertexId.equals(that.inVertexId)
+                && label.equals(that.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return edgeId.hashCode();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Direction;
+import org.vertexium.EdgeInfo;
+
+class InMemoryEdgeInfo implements EdgeInfo {
+    private final InMemoryTableEdge inMemoryTableEdge;
+    private final String vertexId;
+
+    InMemoryEdgeInfo(InMemoryTableEdge inMemoryTableEdge, String myVertexId) {
+        this.inMemoryTableEdge = inMemoryTableEdge;
+        this.vertexId = inMemoryTableEdge.getOtherVertexId(myVertexId);
+    }
+
+    @Override
+    public String getEdgeId() {
+        return inMemoryTableEdge.getId();
+    }
+
+    @Override
+    public String getLabel() {
+        return inMemoryTableEdge.getLabel();
+    }
+
+    @Override
+    public String getVertexId() {
+        return vertexId;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return inMemoryTableEdge.getVertexId(Direction.OUT).equals(vertexId)
+            ? Direction.IN
+            : Direction.OUT;
+    }
+}
@@ -1,12 +1,23 @@
 package org.vertexium.inmemory;
 
+import org.vertexium.Direction;
+import org.vertexium.inmemory.mutations.AlterEdgeLabelMutation;
+import org.vertexium.inmemory.mutations.EdgeSetupMutation;
+import org.vertexium.inmemory.mutations.Mutation;
 import org.vertexium.util.ConvertingIterable;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
+    private final InMemoryEdgeAdjacencyIndex adjacencyIndex = new InMemoryEdgeAdjacencyIndex();
+
     public InMemoryEdgeTable(Map<String, InMemoryTableElement<InMemoryEdge>> rows) {
         super(rows);
+        for (InMemoryTableElement<InMemoryEdge> row : getRowValues()) {
+            adjacencyIndex.update((InMemoryTableEdge) row);
+        }
     }
 
     public InMemoryEdgeTable() {
@@ -17,6 +28,26 @@ public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
         return new InMemoryTableEdge(id);
     }
 
+    @Override
+    protected void afterAppend(InMemoryTableElement<InMemoryEdge> inMemoryTableElement, Mutation... newMutations) {
+        for (Mutation mutation : newMutations) {
+            if (mutation instanceof EdgeSetupMutation || mutation instanceof AlterEdgeLabelMutation) {
+                adjacencyIndex.update((InMemoryTableEdge) inMemoryTableElement);
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected void afterRemove(String id) {
+        adjacencyIndex.remove(id);
+    }
+
+    @Override
+    protected void afterClear() {
+        adjacencyIndex.clear();
+    }
+
     public Iterable<InMemoryTableEdge> getAllTableElements() {
         return new ConvertingIterable<InMemoryTableElement<InMemoryEdge>, InMemoryTableEdge>(super.getRowValues()) {
             @Override
@@ -25,4 +56,10 @@ public class InMemoryEdgeTable extends InMemoryTable<InMemoryEdge> {
             }
         };
     }
+
+    public Stream<InMemoryTableEdge> getTableElementsForVertex(String vertexId, Direction direction, String[] labels) {
+        return adjacencyIndex.getEdgeIds(vertexId, direction, labels)
+            .map(edgeId -> (InMemoryTableEdge) getTableElement(edgeId))
+            .filter(Objects::nonNull); // edge removed since the ids were read
+    }
 }
@@ -18,22 +18,20 @@ import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.property.StreamingPropertyValueRef;
 import org.vertexium.search.IndexHint;
 import org.vertexium.search.SearchIndex;
-import org.vertexium.util.ArrayUtils;
 import org.vertexium.util.ConvertingIterable;
 import org.vertexium.util.IncreasingTime;
 import org.vertexium.util.IterableUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static org.vertexium.util.Preconditions.checkNotNull;
-import static org.vertexium.util.StreamUtils.stream;
 
 public class InMemoryGraph extends GraphBaseWithSearchIndex {
     protected static final InMemoryGraphConfiguration DEFAULT_CONFIGURATION =
         new InMemoryGraphConfiguration(new HashMap<>());
-    private final Set<String> validAuthorizations = new HashSet<>();
+    private final Set<String> validAuthorizations = ConcurrentHashMap.newKeySet();
     private final InMemoryVertexTable vertices;
     private final InMemoryEdgeTable edges;
     private final InMemoryExtendedDataTable extendedDataTable;
@@ -547,116 +545,78 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         ProgressCallback progressCallback,
         Authorizations authorizations
     ) {
-        findPathsRecursive(
-            options,
-            foundPaths,
-            sourceVertex.getId(),
-            destVertex.getId(),
-            hops,
-            seenVertices,
-            currentPath,
-            progressCallback,
-            authorizations
-        );
+        new InMemoryPathFinder(this, options, progressCallback, authorizations)
+            .findPaths(sourceVertex.getId(), destVertex.getId(), foundPaths);
     }
 
-    protected void findPathsRecursive(
-        FindPathOptions options,
-        List<Path> foundPaths,
-        String sourceVertexId,
-        String destVertexId,
-        int hops,
-        Set<String> seenVertices,
-        Path currentPath,
-        ProgressCallback progressCallback,
+    private Stream<InMemoryTableEdge> getInMemoryTableEdgesForVertex(
+        String vertexId,
+        Direction direction,
+        String[] labels,
+        FetchHints fetchHints,
         Authorizations authorizations
     ) {
-        // if this is our first source vertex report progress back to the progress callback
-        boolean firstLevelRecursion = hops == options.getMaxHops();
-
-        if (options.isGetAnyPath() && foundPaths.size() == 1) {
-            return;
-        }
-
-        seenVertices.add(sourceVertexId);
-        if (sourceVertexId.equals(destVertexId)) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Stream<Edge> edges = stream(getEdgesFromVertex(sourceVertexId, getDefaultFetchHints(), null, authorizations))
-                .filter(edge -> {
-                    if (options.getExcludedLabels() != null) {
-                        if (ArrayUtils.contains(options.getExcludedLabels(), edge.getLabel())) {
-                            return false;
-                        }
-                    }
-                    return options.getLabels() == null || ArrayUtils.contains(options.getLabels(), edge.getLabel());
-                });
-            List<String> vertexIds = new ArrayList<>();
-            edges.forEach(edge -> {
-                if (edge.getOtherVertex(sourceVertexId, FetchHints.NONE, authorizations) != null) {
-                    vertexIds.add(edge.getOtherVertexId(sourceVertexId));
-                }
-            });
-
-            int vertexCount = 0;
-            if (firstLevelRecursion) {
-                vertexCount = vertexIds.size();
-            }
-            int i = 0;
-            for (String childId : vertexIds) {
-                if (firstLevelRecursion) {
-                    // this will never get to 100% since i starts at 0. which is good. 100% signifies done and we still
-                    // have work to do.
-                    double progress = (double) i / (double) vertexCount;
-                    progressCallback.progress(progress, ProgressCallback.Step.SEARCHING_EDGES, i + 1, vertexCount);
-                }
-                if (!seenVertices.contains(childId)) {
-                    findPathsRecursive(
-                        options,
-                        foundPaths,
-                        childId,
-                        destVertexId,
-                        hops - 1,
-                        seenVertices,
-                        new Path(currentPath, childId),
-                        progressCallback,
-                        authorizations
-                    );
-                }
-                i++;
-            }
-        }
-        seenVertices.remove(sourceVertexId);
+        return edges.getTableElementsForVertex(vertexId, direction, labels)
+            .filter(inMemoryTableElement -> InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations));
     }
 
-    private Stream<InMemoryTableEdge> getInMemoryTableEdges() {
-        return stream(edges.getAllTableElements());
+    protected Iterable<Edge> getEdgesFromVertex(
+        String vertexId,
+        FetchHints fetchHints,
+        Long endTime,
+        Authorizations authorizations
+    ) {
+        return getEdgesFromVertex(vertexId, Direction.BOTH, null, fetchHints, endTime, authorizations);
     }
 
-    private Stream<InMemoryTableEdge> getInMemoryTableEdgesForVertex(String vertexId, FetchHints fetchHints, Authorizations authorizations) {
-        return getInMemoryTableEdges()
-            .filter(inMemoryTableElement -> {
-                EdgeSetupMutation edgeSetupMutation = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class);
-                String inVertexId = edgeSetupMutation.getInVertexId();
-                checkNotNull(inVertexId, "inVertexId was null");
-                String outVertexId = edgeSetupMutation.getOutVertexId();
-                checkNotNull(outVertexId, "outVertexId was null");
-
-                return (inVertexId.equals(vertexId) || outVertexId.equals(vertexId)) &&
-                    InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
-            });
+    protected Iterable<Edge> getEdgesFromVertex(
+        String vertexId,
+        Direction direction,
+        String[] labels,
+        FetchHints fetchHints,
+        Long endTime,
+        Authorizations authorizations
+    ) {
+        return getEdgesFromVertex(vertexId, direction, labels, null, fetchHints, endTime, authorizations);
     }
 
+    /**
+     * Edges are only created for the edge ids matching the direction, labels and other vertex, the filters run
+     * against the table elements. The returned iterable is lazy and evaluated again on each iteration.
+     *
+     * @param otherVertexId The id of the vertex on the other side of the edges or null for any vertex.
+     */
     protected Iterable<Edge> getEdgesFromVertex(
         String vertexId,
+        Direction direction,
+        String[] labels,
+        String otherVertexId,
         FetchHints fetchHints,
         Long endTime,
         Authorizations authorizations
     ) {
-        return getInMemoryTableEdgesForVertex(vertexId, fetchHints, authorizations)
-            .map(inMemoryTableElement -> inMemoryTableElement.createElement(InMemoryGraph.this, fetchHints, endTime, authorizations))
+        return () -> getInMemoryTableEdgesForVertex(vertexId, direction, labels, fetchHints, authorizations)
+            .filter(inMemoryTableEdge -> otherVertexId == null || otherVertexId.equals(inMemoryTableEdge.getOtherVertexId(vertexId)))
+            .map(inMemoryTableElement -> (Edge) inMemoryTableElement.createElement(InMemoryGraph.this, fetchHints, endTime, authorizations))
             .filter(Objects::nonNull) // edge deleted or outside of time range
-            .collect(Collectors.toList());
+            .iterator();
+    }
+
+    /**
+     * Like {@link #getEdgesFromVertex(String, Direction, String[], FetchHints, Long, Authorizations)} but reads the
+     * edge infos straight from the table elements without creating edges.
+     */
+    protected Iterable<EdgeInfo> getEdgeInfosFromVertex(
+        String vertexId,
+        Direction direction,
+        String[] labels,
+        FetchHints fetchHints,
+        Authorizations authorizations
+    ) {
+        return () -> getInMemoryTableEdgesForVertex(vertexId, direction, labels, fetchHints, authorizations)
+            .filter(inMemoryTableEdge -> !inMemoryTableEdge.isDeleted(null, authorizations))
+            .map(inMemoryTableEdge -> (EdgeInfo) new InMemoryEdgeInfo(inMemoryTableEdge, vertexId))
+            .iterator();
     }
 
     protected boolean isIncluded(
@@ -874,7 +834,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     }
 
     protected void alterEdgeLabel(InMemoryTableEdge inMemoryTableEdge, long timestamp, String newEdgeLabel) {
-        inMemoryTableEdge.appendAlterEdgeLabelMutation(timestamp, newEdgeLabel);
+        edges.append(inMemoryTableEdge.getId(), new AlterEdgeLabelMutation(timestamp, newEdgeLabel));
     }
 
     protected void deleteProperty(
@@ -991,7 +951,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
             .setIncludeHidden(true)
             .setIncludeAllEdgeRefs(true)
             .build();
-        return getInMemoryTableEdgesForVertex(vertexId, elementFetchHints, authorizations)
+        return getInMemoryTableEdgesForVertex(vertexId, Direction.BOTH, null, elementFetchHints, authorizations)
             .flatMap(inMemoryTableElement -> inMemoryTableElement.getHistoricalEventsForVertex(vertexId, historicalEventsFetchHints, authorizations));
     }
 }
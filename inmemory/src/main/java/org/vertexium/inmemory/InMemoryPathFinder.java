@@ -0,0 +1,201 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.*;
+import org.vertexium.util.ArrayUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the paths between two vertices with a bidirectional breadth first search.
+ *
+ * The neighbourhoods of the source and the destination are expanded a level at a time, always growing the smaller
+ * frontier, until the hop budget is used up. A vertex is only ever added to a frontier once per side. If the two
+ * searches never meet there is no path and nothing else is walked. When only one path is wanted the search stops
+ * as soon as they meet. Otherwise the distances found by the destination side bound a depth first enumeration of
+ * the paths, so branches which can not reach the destination within the remaining hops are never walked. The
+ * neighbours of a vertex are read once per search, large frontiers read them in parallel.
+ */
+class InMemoryPathFinder {
+    private static final int PARALLEL_FRONTIER_SIZE = 100;
+    private final InMemoryGraph graph;
+    private final FindPathOptions options;
+    private final ProgressCallback progressCallback;
+    private final Authorizations authorizations;
+    private final Map<String, List<String>> neighborsByVertexId = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> vertexVisible = new ConcurrentHashMap<>();
+
+    public InMemoryPathFinder(
+        InMemoryGraph graph,
+        FindPathOptions options,
+        ProgressCallback progressCallback,
+        Authorizations authorizations
+    ) {
+        this.graph = graph;
+        this.options = options;
+        this.progressCallback = progressCallback;
+        this.authorizations = authorizations;
+    }
+
+    public void findPaths(String sourceVertexId, String destVertexId, List<Path> foundPaths) {
+        if (sourceVertexId.equals(destVertexId)) {
+            foundPaths.add(new Path(sourceVertexId));
+            return;
+        }
+
+        Search sourceSearch = new Search(sourceVertexId);
+        Search destSearch = new Search(destVertexId);
+        String meetingVertexId = null;
+        while (sourceSearch.depth + destSearch.depth < options.getMaxHops()
+            && !sourceSearch.isExhausted()
+            && !destSearch.isExhausted()) {
+            boolean expandSource = sourceSearch.frontier.size() <= destSearch.frontier.size();
+            Search search = expandSource ? sourceSearch : destSearch;
+            Search otherSearch = expandSource ? destSearch : sourceSearch;
+            progressCallback.progress(
+                0.5 * (sourceSearch.depth + destSearch.depth) / options.getMaxHops(),
+                expandSource ? ProgressCallback.Step.SEARCHING_SOURCE_VERTEX_EDGES : ProgressCallback.Step.SEARCHING_DESTINATION_VERTEX_EDGES
+            );
+            String met = search.expand(otherSearch);
+            if (met != null && meetingVertexId == null) {
+                meetingVertexId = met;
+                if (options.isGetAnyPath()) {
+                    foundPaths.add(createPath(sourceSearch, destSearch, meetingVertexId));
+                    return;
+                }
+            }
+        }
+        if (meetingVertexId == null) {
+            return;
+        }
+
+        progressCallback.progress(0.5, ProgressCallback.Step.ADDING_PATHS);
+        List<String> sourceNeighbors = getNeighbors(sourceVertexId);
+        Set<String> seenVertexIds = new HashSet<>();
+        seenVertexIds.add(sourceVertexId);
+        for (int i = 0; i < sourceNeighbors.size(); i++) {
+            // this will never get to 100% since i starts at 0. which is good. 100% signifies done and we still have work to do.
+            double progress = 0.5 + 0.5 * i / sourceNeighbors.size();
+            progressCallback.progress(progress, ProgressCallback.Step.SEARCHING_EDGES, i + 1, sourceNeighbors.size());
+            String neighborId = sourceNeighbors.get(i);
+            if (getMinHopsToDestination(destSearch, neighborId) <= options.getMaxHops() - 1) {
+                enumeratePaths(destSearch, new Path(sourceVertexId, neighborId), neighborId, 1, seenVertexIds, foundPaths);
+            }
+        }
+    }
+
+    private void enumeratePaths(
+        Search destSearch,
+        Path currentPath,
+        String vertexId,
+        int hops,
+        Set<String> seenVertexIds,
+        List<Path> foundPaths
+    ) {
+        if (vertexId.equals(destSearch.startVertexId)) {
+            foundPaths.add(currentPath);
+            return;
+        }
+        seenVertexIds.add(vertexId);
+        for (String neighborId : getNeighbors(vertexId)) {
+            if (!seenVertexIds.contains(neighborId)
+                && hops + 1 + getMinHopsToDestination(destSearch, neighborId) <= options.getMaxHops()) {
+                enumeratePaths(destSearch, new Path(currentPath, neighborId), neighborId, hops + 1, seenVertexIds, foundPaths);
+            }
+        }
+        seenVertexIds.remove(vertexId);
+    }
+
+    /**
+     * A lower bound of the hops between the vertex and the destination. Vertices the destination side has not
+     * reached are at least one hop further away than the levels it completed.
+     */
+    private int getMinHopsToDestination(Search destSearch, String vertexId) {
+        Integer hops = destSearch.depthByVertexId.get(vertexId);
+        if (hops != null) {
+            return hops;
+        }
+        return destSearch.isExhausted() ? Integer.MAX_VALUE / 2 : destSearch.depth + 1;
+    }
+
+    private Path createPath(Search sourceSearch, Search destSearch, String meetingVertexId) {
+        LinkedList<String> vertexIds = new LinkedList<>();
+        for (String vertexId = meetingVertexId; vertexId != null; vertexId = sourceSearch.parentByVertexId.get(vertexId)) {
+            vertexIds.addFirst(vertexId);
+        }
+        for (String vertexId = destSearch.parentByVertexId.get(meetingVertexId); vertexId != null; vertexId = destSearch.parentByVertexId.get(vertexId)) {
+            vertexIds.addLast(vertexId);
+        }
+        return new Path(vertexIds.toArray(new String[vertexIds.size()]));
+    }
+
+    /**
+     * The ids of the visible vertices connected to the vertex by a visible edge matching the label filters.
+     */
+    private List<String> getNeighbors(String vertexId) {
+        return neighborsByVertexId.computeIfAbsent(vertexId, id -> {
+            Set<String> neighborIds = new LinkedHashSet<>();
+            for (EdgeInfo edgeInfo : graph.getEdgeInfosFromVertex(id, Direction.BOTH, options.getLabels(), FetchHints.NONE, authorizations)) {
+                if (options.getExcludedLabels() != null && ArrayUtils.contains(options.getExcludedLabels(), edgeInfo.getLabel())) {
+                    continue;
+                }
+                String otherVertexId = edgeInfo.getVertexId();
+                if (isVertexVisible(otherVertexId)) {
+                    neighborIds.add(otherVertexId);
+                }
+            }
+            return new ArrayList<>(neighborIds);
+        });
+    }
+
+    private boolean isVertexVisible(String vertexId) {
+        return vertexVisible.computeIfAbsent(vertexId, id -> graph.getVertex(id, FetchHints.NONE, authorizations) != null);
+    }
+
+    private class Search {
+        private final String startVertexId;
+        private final Map<String, Integer> depthByVertexId = new HashMap<>();
+        private final Map<String, String> parentByVertexId = new HashMap<>();
+        private List<String> frontier = new ArrayList<>();
+        private int depth;
+
+        private Search(String startVertexId) {
+            this.startVertexId = startVertexId;
+            depthByVertexId.put(startVertexId, 0);
+            frontier.add(startVertexId);
+        }
+
+        private boolean isExhausted() {
+            return frontier.isEmpty();
+        }
+
+        /**
+         * Expands the frontier by one level.
+         *
+         * @return The first newly reached vertex already reached by the other search or null if they did not meet.
+         */
+        private String expand(Search otherSearch) {
+            if (frontier.size() >= PARALLEL_FRONTIER_SIZE) {
+                frontier.parallelStream().forEach(InMemoryPathFinder.this::getNeighbors);
+            }
+            String met = null;
+            List<String> newFrontier = new ArrayList<>();
+            for (String vertexId : frontier) {
+                for (String neighborId : getNeighbors(vertexId)) {
+                    if (depthByVertexId.containsKey(neighborId)) {
+                        continue;
+                    }
+                    depthByVertexId.put(neighborId, depth + 1);
+                    parentByVertexId.put(neighborId, vertexId);
+                    newFrontier.add(neighborId);
+                    if (met == null && otherSearch.depthByVertexId.containsKey(neighborId)) {
+                        met = neighborId;
+                    }
+                }
+            }
+            frontier = newFrontier;
+            depth++;
+            return met;
+        }
+    }
+}
@@ -7,17 +7,35 @@ import org.vertexium.util.StreamUtils;
 
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
+/**
+ * If the rows map is a {@link ConcurrentMap} reads rely on the map's own concurrency and writes only lock the
+ * stripe the row id hashes to, so writers touching different rows do not block each other. Any other map is
+ * guarded by a single table wide read/write lock.
+ */
 public abstract class InMemoryTable<TElement extends InMemoryElement> {
+    private static final int ROW_LOCK_STRIPES = 64;
     private ReadWriteLock rowsLock = new ReentrantReadWriteLock();
+    private final Lock[] rowLocks;
     private Map<String, InMemoryTableElement<TElement>> rows;
 
     protected InMemoryTable(Map<String, InMemoryTableElement<TElement>> rows) {
         this.rows = rows;
+        if (rows instanceof ConcurrentMap) {
+            rowLocks = new Lock[ROW_LOCK_STRIPES];
+            for (int i = 0; i < rowLocks.length; i++) {
+                rowLocks[i] = new ReentrantLock();
+            }
+        } else {
+            rowLocks = null;
+        }
     }
 
     protected InMemoryTable() {
@@ -33,6 +51,9 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
     }
 
     public InMemoryTableElement<TElement> getTableElement(String id) {
+        if (isConcurrent()) {
+            return rows.get(id);
+        }
         rowsLock.readLock().lock();
         try {
             return rows.get(id);
@@ -42,6 +63,25 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
     }
 
     public void append(String id, Mutation... newMutations) {
+        if (isConcurrent()) {
+            Lock rowLock = getRowLock(id);
+            rowLock.lock();
+            try {
+                InMemoryTableElement<TElement> inMemoryTableElement = rows.get(id);
+                if (inMemoryTableElement == null) {
+                    // readers do not lock, so only publish the new row once it has its mutations
+                    inMemoryTableElement = createInMemoryTableElement(id);
+                    inMemoryTableElement.addAll(newMutations);
+                    rows.put(id, inMemoryTableElement);
+                } else {
+                    inMemoryTableElement.addAll(newMutations);
+                }
+                afterAppend(inMemoryTableElement, newMutations);
+            } finally {
+                rowLock.unlock();
+            }
+            return;
+        }
         rowsLock.writeLock().lock();
         try {
             InMemoryTableElement<TElement> inMemoryTableElement = rows.get(id);
@@ -50,6 +90,7 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
                 rows.put(id, inMemoryTableElement);
             }
             inMemoryTableElement.addAll(newMutations);
+            afterAppend(inMemoryTableElement, newMutations);
         } finally {
             rowsLock.writeLock().unlock();
         }
@@ -57,19 +98,58 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
 
     protected abstract InMemoryTableElement<TElement> createInMemoryTableElement(String id);
 
+    /**
+     * Called while the row is still locked, so calls for the same row never overlap.
+     */
+    protected void afterAppend(InMemoryTableElement<TElement> inMemoryTableElement, Mutation... newMutations) {
+    }
+
+    protected void afterRemove(String id) {
+    }
+
+    protected void afterClear() {
+    }
+
     public void remove(String id) {
+        if (isConcurrent()) {
+            Lock rowLock = getRowLock(id);
+            rowLock.lock();
+            try {
+                rows.remove(id);
+                afterRemove(id);
+            } finally {
+                rowLock.unlock();
+            }
+            return;
+        }
         rowsLock.writeLock().lock();
         try {
             rows.remove(id);
+            afterRemove(id);
         } finally {
             rowsLock.writeLock().unlock();
         }
     }
 
     public void clear() {
+        if (isConcurrent()) {
+            for (Lock rowLock : rowLocks) {
+                rowLock.lock();
+            }
+            try {
+                rows.clear();
+                afterClear();
+            } finally {
+                for (Lock rowLock : rowLocks) {
+                    rowLock.unlock();
+                }
+            }
+            return;
+        }
         rowsLock.writeLock().lock();
         try {
             rows.clear();
+            afterClear();
         } finally {
             rowsLock.writeLock().unlock();
         }
@@ -88,6 +168,9 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
     }
 
     public Iterable<InMemoryTableElement<TElement>> getRowValues() {
+        if (isConcurrent()) {
+            return new ArrayList<>(this.rows.values());
+        }
         rowsLock.readLock().lock();
         try {
             return new ArrayList<>(this.rows.values());
@@ -95,4 +178,12 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
             rowsLock.readLock().unlock();
         }
     }
+
+    private boolean isConcurrent() {
+        return rowLocks != null;
+    }
+
+    private Lock getRowLock(String id) {
+        return rowLocks[(id.hashCode() & Integer.MAX_VALUE) % rowLocks.length];
+    }
 }
@@ -20,6 +20,29 @@ public class InMemoryTableEdge extends InMemoryTableElement<InMemoryEdge> {
         return ElementType.EDGE;
     }
 
+    public String getLabel() {
+        return findLastMutation(AlterEdgeLabelMutation.class).getNewEdgeLabel();
+    }
+
+    public String getVertexId(Direction direction) {
+        EdgeSetupMutation edgeSetupMutation = findLastMutation(EdgeSetupMutation.class);
+        switch (direction) {
+            case OUT:
+                return edgeSetupMutation.getOutVertexId();
+            case IN:
+                return edgeSetupMutation.getInVertexId();
+            default:
+                throw new IllegalArgumentException("Unexpected direction: " + direction);
+        }
+    }
+
+    public String getOtherVertexId(String myVertexId) {
+        EdgeSetupMutation edgeSetupMutation = findLastMutation(EdgeSetupMutation.class);
+        return edgeSetupMutation.getInVertexId().equals(myVertexId)
+            ? edgeSetupMutation.getOutVertexId()
+            : edgeSetupMutation.getInVertexId();
+    }
+
     @Override
     public InMemoryEdge createElementInternal(InMemoryGraph graph, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
         return new InMemoryEdge(graph, getId(), this, fetchHints, endTime, authorizations);
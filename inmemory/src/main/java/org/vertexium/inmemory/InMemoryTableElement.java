@@ -16,6 +16,7 @@ import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -24,6 +25,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     private final String id;
     private ReadWriteLock mutationLock = new ReentrantReadWriteLock();
     protected final TreeSet<Mutation> mutations = new TreeSet<>();
+    private transient volatile LatestState latestState;
 
     protected InMemoryTableElement(String id) {
         this.id = id;
@@ -36,7 +38,9 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     public void addAll(Mutation... newMutations) {
         mutationLock.writeLock().lock();
         try {
-            Collections.addAll(mutations, newMutations);
+            for (Mutation newMutation : newMutations) {
+                addMutationInternal(newMutation);
+            }
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -47,15 +51,13 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     protected <T extends Mutation> T findLastMutation(Class<T> clazz) {
-        List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
         //noinspection unchecked
-        return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(filteredMutations.size() - 1);
+        return (T) readLatestState(state -> state.lastMutationsByClass.get(clazz));
     }
 
     protected <T extends Mutation> T findFirstMutation(Class<T> clazz) {
-        List<Mutation> filteredMutations = getFilteredMutations(m -> clazz.isAssignableFrom(m.getClass()));
         //noinspection unchecked
-        return filteredMutations.isEmpty() ? null : (T) filteredMutations.get(0);
+        return (T) readLatestState(state -> state.firstMutationsByClass.get(clazz));
     }
 
     protected <T extends Mutation> Iterable<T> findMutations(Class<T> clazz) {
@@ -80,7 +82,12 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Property getProperty(String key, String name, Visibility visibility, FetchHints fetchHints, Authorizations authorizations) {
-        List<PropertyMutation> propertyMutations = findPropertyMutations(key, name, visibility);
+        List<PropertyMutation> propertyMutations;
+        if (key != null && name != null && visibility != null) {
+            propertyMutations = readLatestState(state -> state.getPropertyMutations(key, name, visibility));
+        } else {
+            propertyMutations = findPropertyMutations(key, name, visibility);
+        }
         if (propertyMutations == null || propertyMutations.size() == 0) {
             return null;
         }
@@ -100,6 +107,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         mutationLock.writeLock().lock();
         try {
             this.mutations.removeAll(propertyMutations);
+            latestState = null;
         } finally {
             mutationLock.writeLock().unlock();
         }
@@ -508,15 +516,21 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Iterable<Property> getProperties(final FetchHints fetchHints, Long endTime, final Authorizations authorizations) {
-        final TreeMap<String, List<PropertyMutation>> propertiesMutations = new TreeMap<>();
-        for (PropertyMutation m : findMutations(PropertyMutation.class)) {
-            if (endTime != null && m.getTimestamp() > endTime) {
-                continue;
-            }
+        final Collection<List<PropertyMutation>> propertiesMutations;
+        if (endTime == null) {
+            propertiesMutations = readLatestState(state -> new ArrayList<>(state.propertyMutationsByKey.values()));
+        } else {
+            TreeMap<String, List<PropertyMutation>> propertiesMutationsByKey = new TreeMap<>();
+            for (PropertyMutation m : findMutations(PropertyMutation.class)) {
+                if (m.getTimestamp() > endTime) {
+                    continue;
+                }
 
-            String mapKey = toMapKey(m);
-            List<PropertyMutation> propertyMutations = propertiesMutations.computeIfAbsent(mapKey, k -> new ArrayList<>());
-            propertyMutations.add(m);
+                String mapKey = toMapKey(m);
+                List<PropertyMutation> propertyMutations = propertiesMutationsByKey.computeIfAbsent(mapKey, k -> new ArrayList<>());
+                propertyMutations.add(m);
+            }
+            propertiesMutations = propertiesMutationsByKey.values();
         }
         return new LookAheadIterable<List<PropertyMutation>, Property>() {
             @Override
@@ -531,7 +545,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
 
             @Override
             protected Iterator<List<PropertyMutation>> createIterator() {
-                return propertiesMutations.values().iterator();
+                return propertiesMutations.iterator();
             }
         };
     }
@@ -602,8 +616,12 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
         return streamingPropertyValueRef.toStreamingPropertyValue(null, timestamp);
     }
 
-    private String toMapKey(PropertyMutation m) {
-        return m.getPropertyName() + m.getPropertyKey() + m.getPropertyVisibility().getVisibilityString();
+    private static String toMapKey(PropertyMutation m) {
+        return toMapKey(m.getPropertyKey(), m.getPropertyName(), m.getPropertyVisibility());
+    }
+
+    private static String toMapKey(String key, String name, Visibility visibility) {
+        return name + key + visibility.getVisibilityString();
     }
 
     public void appendSoftDeleteMutation(Long timestamp, Object data) {
@@ -723,21 +741,7 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Set<Visibility> getHiddenVisibilities() {
-        Set<Visibility> results = new HashSet<>();
-
-        mutationLock.readLock().lock();
-        try {
-            for (Mutation m : this.mutations) {
-                if (m instanceof MarkHiddenMutation) {
-                    results.add(m.getVisibility());
-                } else if (m instanceof MarkVisibleMutation) {
-                    results.remove(m.getVisibility());
-                }
-            }
-        } finally {
-            mutationLock.readLock().unlock();
-        }
-        return results;
+        return readLatestState(state -> new HashSet<>(state.hiddenVisibilities));
     }
 
     public boolean isHidden(Authorizations authorizations) {
@@ -764,6 +768,15 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public boolean isDeleted(Long endTime, Authorizations authorizations) {
+        if (endTime == null) {
+            Mutation lastSoftDeleteOrTimestampMutation = readLatestState(state -> state.lastSoftDeleteOrTimestampMutation);
+            if (lastSoftDeleteOrTimestampMutation == null) {
+                return true;
+            }
+            if (canRead(lastSoftDeleteOrTimestampMutation.getVisibility(), authorizations)) {
+                return lastSoftDeleteOrTimestampMutation instanceof SoftDeleteMutation;
+            }
+        }
         List<Mutation> filteredMutations = getFilteredMutations(m ->
             canRead(m.getVisibility(), authorizations) &&
                 (endTime == null || m.getTimestamp() <= endTime) &&
@@ -788,9 +801,99 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     private void addMutation(Mutation mutation) {
         mutationLock.writeLock().lock();
         try {
-            this.mutations.add(mutation);
+            addMutationInternal(mutation);
         } finally {
             mutationLock.writeLock().unlock();
         }
     }
+
+    private void addMutationInternal(Mutation mutation) {
+        boolean isLastMutation = this.mutations.isEmpty() || mutation.compareTo(this.mutations.last()) > 0;
+        this.mutations.add(mutation);
+        LatestState state = latestState;
+        if (state != null) {
+            if (isLastMutation) {
+                state.apply(mutation, true);
+            } else {
+                // a mutation in the past can change everything after it, rebuild on the next read
+                latestState = null;
+            }
+        }
+    }
+
+    private <T> T readLatestState(Function<LatestState, T> fn) {
+        mutationLock.readLock().lock();
+        try {
+            LatestState state = latestState;
+            if (state == null) {
+                state = new LatestState(this.mutations);
+                latestState = state;
+            }
+            return fn.apply(state);
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The state of the element after applying all mutations, used to answer reads that are not limited by an
+     * end time without replaying the full mutation history. Mutations are applied in order, a mutation that
+     * sorts before the last mutation causes the state to be rebuilt.
+     */
+    private static class LatestState {
+        private final Map<Class<?>, Mutation> firstMutationsByClass = new HashMap<>();
+        private final Map<Class<?>, Mutation> lastMutationsByClass = new HashMap<>();
+        private final Set<Visibility> hiddenVisibilities = new HashSet<>();
+        private final TreeMap<String, List<PropertyMutation>> propertyMutationsByKey = new TreeMap<>();
+        private Mutation lastSoftDeleteOrTimestampMutation;
+
+        public LatestState(Iterable<Mutation> mutations) {
+            for (Mutation mutation : mutations) {
+                apply(mutation, false);
+            }
+        }
+
+        /**
+         * @param copyOnWrite true if the property mutation lists may have been handed out to readers and must
+         *                    be replaced rather than modified
+         */
+        public void apply(Mutation mutation, boolean copyOnWrite) {
+            for (Class<?> clazz = mutation.getClass(); Mutation.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+                firstMutationsByClass.putIfAbsent(clazz, mutation);
+                lastMutationsByClass.put(clazz, mutation);
+            }
+
+            if (mutation instanceof MarkHiddenMutation) {
+                hiddenVisibilities.add(mutation.getVisibility());
+            } else if (mutation instanceof MarkVisibleMutation) {
+                hiddenVisibilities.remove(mutation.getVisibility());
+            } else if (mutation instanceof SoftDeleteMutation || mutation instanceof ElementTimestampMutation) {
+                lastSoftDeleteOrTimestampMutation = mutation;
+            } else if (mutation instanceof PropertyMutation) {
+                PropertyMutation propertyMutation = (PropertyMutation) mutation;
+                String mapKey = toMapKey(propertyMutation);
+                List<PropertyMutation> propertyMutations = propertyMutationsByKey.get(mapKey);
+                if (propertyMutations == null) {
+                    propertyMutations = new ArrayList<>();
+                } else if (copyOnWrite) {
+                    propertyMutations = new ArrayList<>(propertyMutations);
+                }
+                propertyMutations.add(propertyMutation);
+                propertyMutationsByKey.put(mapKey, propertyMutations);
+            }
+        }
+
+        public List<PropertyMutation> getPropertyMutations(String key, String name, Visibility visibility) {
+            List<PropertyMutation> propertyMutations = propertyMutationsByKey.get(toMapKey(key, name, visibility));
+            if (propertyMutations == null) {
+                return null;
+            }
+            // different key/name/visibility combinations can share a map key, only return exact matches
+            return propertyMutations.stream()
+                .filter(m -> m.getPropertyKey().equals(key)
+                    && m.getPropertyName().equals(name)
+                    && m.getPropertyVisibility().equals(visibility))
+                .collect(Collectors.toList());
+        }
+    }
 }
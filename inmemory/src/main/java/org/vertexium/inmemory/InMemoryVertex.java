@@ -1,7 +1,6 @@
 package org.vertexium.inmemory;
 
 import org.vertexium.*;
-import org.vertexium.inmemory.util.EdgeToEdgeIdIterable;
 import org.vertexium.mutation.ExistingElementMutation;
 import org.vertexium.mutation.ExistingElementMutationImpl;
 import org.vertexium.query.VertexQuery;
@@ -50,55 +49,41 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     @Override
     public Iterable<EdgeInfo> getEdgeInfos(Direction direction, final String[] labels, Authorizations authorizations) {
         getFetchHints().validateHasEdgeFetchHints(direction, labels);
-        Iterable<EdgeInfo> results = internalGetEdgeInfo(direction, authorizations);
-        results = new FilterIterable<EdgeInfo>(results) {
+        return new FilterIterable<EdgeInfo>(internalGetEdgeInfo(direction, labels, authorizations)) {
             @Override
             protected boolean isIncluded(EdgeInfo o) {
-                if (!getFetchHints().isIncludeEdgeRefLabel(o.getLabel())) {
-                    return false;
-                }
-                if (labels == null) {
-                    return true;
-                } else {
-                    for (String label : labels) {
-                        if (o.getLabel().equals(label)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                }
+                return getFetchHints().isIncludeEdgeRefLabel(o.getLabel());
             }
         };
-        return results;
     }
 
     private Iterable<EdgeInfo> internalGetEdgeInfo(Direction direction, Authorizations authorizations) {
-        return new ConvertingIterable<Edge, EdgeInfo>(internalGetEdges(direction, getFetchHints(), null, authorizations)) {
+        return internalGetEdgeInfo(direction, null, authorizations);
+    }
+
+    private Iterable<EdgeInfo> internalGetEdgeInfo(Direction direction, String[] labels, Authorizations authorizations) {
+        return getGraph().getEdgeInfosFromVertex(getId(), direction, labels, getFetchHints(), authorizations);
+    }
+
+    private Iterable<String> internalGetEdgeIds(Direction direction, String[] labels, Authorizations authorizations) {
+        return internalGetEdgeIds(null, direction, labels, authorizations);
+    }
+
+    private Iterable<String> internalGetEdgeIds(Vertex otherVertex, Direction direction, String[] labels, Authorizations authorizations) {
+        getFetchHints().validateHasEdgeFetchHints(direction);
+        Iterable<EdgeInfo> edgeInfos = internalGetEdgeInfo(direction, labels, authorizations);
+        if (otherVertex != null) {
+            edgeInfos = new FilterIterable<EdgeInfo>(edgeInfos) {
+                @Override
+                protected boolean isIncluded(EdgeInfo edgeInfo) {
+                    return edgeInfo.getVertexId().equals(otherVertex.getId());
+                }
+            };
+        }
+        return new ConvertingIterable<EdgeInfo, String>(edgeInfos) {
             @Override
-            protected EdgeInfo convert(Edge edge) {
-                return new EdgeInfo() {
-                    @Override
-                    public String getEdgeId() {
-                        return edge.getId();
-                    }
-
-                    @Override
-                    public String getLabel() {
-                        return edge.getLabel();
-                    }
-
-                    @Override
-                    public String getVertexId() {
-                        return edge.getOtherVertexId(InMemoryVertex.this.getId());
-                    }
-
-                    @Override
-                    public Direction getDirection() {
-                        return edge.getVertexId(Direction.OUT).equals(this.getVertexId())
-                            ? Direction.IN
-                            : Direction.OUT;
-                    }
-                };
+            protected String convert(EdgeInfo edgeInfo) {
+                return edgeInfo.getEdgeId();
             }
         };
     }
@@ -115,24 +100,16 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     private Iterable<Edge> internalGetEdges(Direction direction, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getGraph().getEdgesFromVertex(getId(), fetchHints, endTime, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                switch (direction) {
-                    case IN:
-                        return edge.getVertexId(Direction.IN).equals(getId());
-                    case OUT:
-                        return edge.getVertexId(Direction.OUT).equals(getId());
-                    default:
-                        return true;
-                }
-            }
-        };
+        return internalGetEdges(direction, null, fetchHints, endTime, authorizations);
+    }
+
+    private Iterable<Edge> internalGetEdges(Direction direction, String[] labels, FetchHints fetchHints, Long endTime, Authorizations authorizations) {
+        return getGraph().getEdgesFromVertex(getId(), direction, labels, fetchHints, endTime, authorizations);
     }
 
     @Override
     public Iterable<String> getEdgeIds(Direction direction, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(direction, getFetchHints(), authorizations));
+        return internalGetEdgeIds(direction, null, authorizations);
     }
 
     @Override
@@ -147,7 +124,7 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
 
     @Override
     public Iterable<String> getEdgeIds(Direction direction, String label, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(direction, label, authorizations));
+        return internalGetEdgeIds(direction, labelToArrayOrNull(label), authorizations);
     }
 
     @Override
@@ -157,25 +134,13 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
 
     @Override
     public Iterable<Edge> getEdges(Direction direction, final String[] labels, FetchHints fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                if (labels == null) {
-                    return true;
-                }
-                for (String label : labels) {
-                    if (label.equals(edge.getLabel())) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        };
+        getFetchHints().validateHasEdgeFetchHints(direction);
+        return internalGetEdges(direction, labels, getGraph().getDefaultFetchHints(), null, authorizations);
     }
 
     @Override
     public Iterable<String> getEdgeIds(Direction direction, String[] labels, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(direction, labels, authorizations));
+        return internalGetEdgeIds(direction, labels, authorizations);
     }
 
     @Override
@@ -184,18 +149,14 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<Edge> getEdges(final Vertex otherVertex, Direction direction, FetchHints fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                return edge.getOtherVertexId(getId()).equals(otherVertex.getId());
-            }
-        };
+    public Iterable<Edge> getEdges(Vertex otherVertex, Direction direction, FetchHints fetchHints, Authorizations authorizations) {
+        getFetchHints().validateHasEdgeFetchHints(direction);
+        return getGraph().getEdgesFromVertex(getId(), direction, null, otherVertex.getId(), getGraph().getDefaultFetchHints(), null, authorizations);
     }
 
     @Override
     public Iterable<String> getEdgeIds(Vertex otherVertex, Direction direction, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(otherVertex, direction, authorizations));
+        return internalGetEdgeIds(otherVertex, direction, null, authorizations);
     }
 
     @Override
@@ -204,18 +165,14 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<Edge> getEdges(final Vertex otherVertex, Direction direction, String label, FetchHints fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, label, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                return edge.getOtherVertexId(getId()).equals(otherVertex.getId());
-            }
-        };
+    public Iterable<Edge> getEdges(Vertex otherVertex, Direction direction, String label, FetchHints fetchHints, Authorizations authorizations) {
+        getFetchHints().validateHasEdgeFetchHints(direction);
+        return getGraph().getEdgesFromVertex(getId(), direction, labelToArrayOrNull(label), otherVertex.getId(), getGraph().getDefaultFetchHints(), null, authorizations);
     }
 
     @Override
     public Iterable<String> getEdgeIds(Vertex otherVertex, Direction direction, String label, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(otherVertex, direction, label, authorizations));
+        return internalGetEdgeIds(otherVertex, direction, labelToArrayOrNull(label), authorizations);
     }
 
     @Override
@@ -224,18 +181,14 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<Edge> getEdges(final Vertex otherVertex, Direction direction, String[] labels, FetchHints fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, labels, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                return edge.getOtherVertexId(getId()).equals(otherVertex.getId());
-            }
-        };
+    public Iterable<Edge> getEdges(Vertex otherVertex, Direction direction, String[] labels, FetchHints fetchHints, Authorizations authorizations) {
+        getFetchHints().validateHasEdgeFetchHints(direction);
+        return getGraph().getEdgesFromVertex(getId(), direction, labels, otherVertex.getId(), getGraph().getDefaultFetchHints(), null, authorizations);
     }
 
     @Override
     public Iterable<String> getEdgeIds(Vertex otherVertex, Direction direction, String[] labels, Authorizations authorizations) {
-        return new EdgeToEdgeIdIterable(getEdges(otherVertex, direction, labels, authorizations));
+        return internalGetEdgeIds(otherVertex, direction, labels, authorizations);
     }
 
     @Override
@@ -23,7 +23,7 @@ public class InMemoryGraphTest extends GraphTestBase {
         return new GraphFactory().createGraph(config);
     }
 
-    private Map<String, String> createConfig() {
+    protected Map<String, String> createConfig() {
         Map<String, String> config = new HashMap<>();
         config.put("", InMemoryGraph.class.getName());
         config.put(GraphConfiguration.IDGENERATOR_PROP_PREFIX, UUIDIdGenerator.class.getName());
@@ -0,0 +1,18 @@
+package org.vertexium.inmemory;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.search.PropertyIndexSearchIndex;
+
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public class InMemoryGraphWithPropertyIndexSearchIndexTest extends InMemoryGraphTest {
+    @Override
+    protected Map<String, String> createConfig() {
+        Map<String, String> config = super.createConfig();
+        config.put(GraphConfiguration.SEARCH_INDEX_PROP_PREFIX, PropertyIndexSearchIndex.class.getName());
+        return config;
+    }
+}
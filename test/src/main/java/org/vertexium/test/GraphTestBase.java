@@ -3517,6 +3517,40 @@ public abstract class GraphTestBase {
         Assert.assertEquals(2, count(vertices));
     }
 
+    @Test
+    public void testGraphQuerySortWithSkipAndLimit() {
+        graph.defineProperty("age").dataType(Integer.class).sortable(true).define();
+        for (int i = 0; i < 20; i++) {
+            VertexBuilder vertexBuilder = graph.prepareVertex(String.format("v%02d", i), VISIBILITY_A);
+            if (i % 5 != 0) {
+                vertexBuilder.setProperty("age", (i * 7) % 10, VISIBILITY_A);
+            }
+            vertexBuilder.save(AUTHORIZATIONS_A);
+        }
+        graph.flush();
+
+        List<String> allVertexIds = toList(graph.query(AUTHORIZATIONS_A)
+            .sort("age", SortDirection.DESCENDING)
+            .sort(Element.ID_PROPERTY_NAME, SortDirection.ASCENDING)
+            .vertexIds());
+        assertEquals(20, allVertexIds.size());
+
+        for (int skip = 0; skip < 22; skip += 3) {
+            QueryResultsIterable<String> vertexIds = graph.query(AUTHORIZATIONS_A)
+                .sort("age", SortDirection.DESCENDING)
+                .sort(Element.ID_PROPERTY_NAME, SortDirection.ASCENDING)
+                .skip(skip)
+                .limit(4)
+                .vertexIds();
+            assertEquals(
+                "skip " + skip,
+                allVertexIds.subList(Math.min(skip, 20), Math.min(skip + 4, 20)),
+                toList(vertexIds)
+            );
+            assertEquals(20, vertexIds.getTotalHits());
+        }
+    }
+
     @Test
     public void testGraphQuerySortOnPropertyWhichIsFullTextAndExactMatchIndexed() {
         graph.defineProperty("name")
@@ -4757,6 +4791,47 @@ public abstract class GraphTestBase {
         assertEquals(0, paths.size());
     }
 
+    @Test
+    public void testFindPathsInGrid() {
+        // 3x3 grid, g00 is the top left corner and g22 the bottom right corner
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                graph.addVertex("g" + row + col, VISIBILITY_A, AUTHORIZATIONS_A);
+            }
+        }
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (col < 2) {
+                    graph.addEdge("g" + row + col, "g" + row + (col + 1), LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+                }
+                if (row < 2) {
+                    graph.addEdge("g" + row + col, "g" + (row + 1) + col, LABEL_LABEL1, VISIBILITY_A, AUTHORIZATIONS_A);
+                }
+            }
+        }
+        graph.flush();
+
+        assertEquals(0, count(graph.findPaths(new FindPathOptions("g00", "g22", 3), AUTHORIZATIONS_A)));
+        assertEquals(6, count(graph.findPaths(new FindPathOptions("g00", "g22", 4), AUTHORIZATIONS_A)));
+        assertEquals(6, count(graph.findPaths(new FindPathOptions("g00", "g22", 5), AUTHORIZATIONS_A)));
+        assertEquals(10, count(graph.findPaths(new FindPathOptions("g00", "g22", 6), AUTHORIZATIONS_A)));
+        List<Path> paths = toList(graph.findPaths(new FindPathOptions("g00", "g22", 8), AUTHORIZATIONS_A));
+        assertEquals(12, paths.size());
+        assertEquals(12, paths.stream().map(Path::toString).collect(Collectors.toSet()).size());
+        for (Path path : paths) {
+            assertEquals("g00", path.get(0));
+            assertEquals("g22", path.get(path.length() - 1));
+            assertEquals(path.length(), new HashSet<>(toList(path)).size());
+        }
+
+        paths = toList(graph.findPaths(new FindPathOptions("g00", "g22", 6, true), AUTHORIZATIONS_A));
+        assertEquals(1, paths.size());
+        assertEquals(5, paths.get(0).length());
+
+        paths = toList(graph.findPaths(new FindPathOptions("g00", "g22", 3, true), AUTHORIZATIONS_A));
+        assertEquals(0, paths.size());
+    }
+
     @Test
     public void testGetVerticesFromVertex() {
         Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
@@ -8949,6 +9024,119 @@ public abstract class GraphTestBase {
         benchmarkMultipleSimultaneousWrites((threadId) -> "v1");
     }
 
+    @Test
+    public void benchmarkMultipleThreadsIngest() throws Exception {
+        assumeTrue(benchmarkEnabled());
+        int vertexCount = 20000;
+        int maxThreadCount = Runtime.getRuntime().availableProcessors();
+
+        for (int threadCount = 1; threadCount <= maxThreadCount; threadCount *= 2) {
+            graph.truncate();
+            benchmarkMultipleThreadsIngest(threadCount, vertexCount);
+            assertEquals(vertexCount, count(graph.getVertices(AUTHORIZATIONS_ALL)));
+            assertEquals(vertexCount, count(graph.getEdges(AUTHORIZATIONS_ALL)));
+        }
+    }
+
+    @Test
+    public void testReadWhileMultipleThreadsIngest() throws Exception {
+        int writerCount = 2;
+        int verticesPerWriter = 1000;
+        addAuthorizations(AUTHORIZATIONS_ALL.getAuthorizations());
+        AtomicInteger writersRunning = new AtomicInteger(writerCount);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CyclicBarrier barrier = new CyclicBarrier(writerCount + 1);
+        Thread[] threads = new Thread[writerCount + 1];
+        for (int t = 0; t < writerCount; t++) {
+            int writer = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < verticesPerWriter; i++) {
+                        graph.prepareVertex("v" + writer + "-" + i, VISIBILITY_A)
+                            .addPropertyValue("k1", "prop1", "value1 " + i, VISIBILITY_A)
+                            .save(AUTHORIZATIONS_ALL);
+                    }
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                } finally {
+                    writersRunning.decrementAndGet();
+                }
+            });
+        }
+        threads[writerCount] = new Thread(() -> {
+            try {
+                barrier.await();
+                Random random = new Random(1);
+                for (int read = 0; writersRunning.get() > 0; read++) {
+                    String vertexId = "v" + random.nextInt(writerCount) + "-" + random.nextInt(verticesPerWriter);
+                    Vertex v = graph.getVertex(vertexId, AUTHORIZATIONS_ALL);
+                    if (v != null) {
+                        assertEquals(VISIBILITY_A, v.getVisibility());
+                        v.getTimestamp();
+                    }
+                    if (read % 100 == 0) {
+                        for (Vertex vertex : graph.getVertices(AUTHORIZATIONS_ALL)) {
+                            vertex.getVisibility();
+                        }
+                    }
+                }
+            } catch (Throwable ex) {
+                failures.add(ex);
+            }
+        });
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        graph.flush();
+
+        if (failures.size() > 0) {
+            throw new VertexiumException("Concurrent read failed", failures.get(0));
+        }
+        assertEquals(writerCount * verticesPerWriter, count(graph.getVertices(AUTHORIZATIONS_ALL)));
+    }
+
+    private void benchmarkMultipleThreadsIngest(int threadCount, int vertexCount) throws Exception {
+        int verticesPerThread = vertexCount / threadCount;
+        Thread[] threads = new Thread[threadCount];
+        CyclicBarrier barrier = new CyclicBarrier(threadCount + 1);
+        for (int t = 0; t < threadCount; t++) {
+            int start = t * verticesPerThread;
+            int end = t == threadCount - 1 ? vertexCount : start + verticesPerThread;
+            threads[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception ex) {
+                    throw new VertexiumException("Could not wait", ex);
+                }
+                List<ElementMutation> mutations = new ArrayList<>();
+                for (int i = start; i < end; i++) {
+                    mutations.add(graph.prepareVertex("v" + i, VISIBILITY_A)
+                        .addPropertyValue("k1", "prop1", "value1 " + i, VISIBILITY_A)
+                        .addPropertyValue("k1", "prop2", "value2 " + i, VISIBILITY_A));
+                }
+                graph.saveElementMutations(mutations, AUTHORIZATIONS_ALL);
+                for (int i = start; i < end; i++) {
+                    graph.prepareEdge("e" + i, "v" + i, "v" + ((i + 1) % vertexCount), LABEL_LABEL1, VISIBILITY_A)
+                        .save(AUTHORIZATIONS_ALL);
+                }
+            });
+            threads[t].start();
+        }
+
+        barrier.await();
+        double startTime = System.currentTimeMillis();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        graph.flush();
+        double endTime = System.currentTimeMillis();
+        LOGGER.info("ingest %d vertices and edges using %d threads in %.3fs", vertexCount, threadCount, (endTime - startTime) / 1000);
+    }
+
     private void benchmarkMultipleSimultaneousWrites(Function<Long, String> threadIdToVertexId) throws Exception {
         int threadCount = 4;
         int propertyCount = 100;